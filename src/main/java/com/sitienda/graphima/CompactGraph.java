@@ -0,0 +1,471 @@
+/**
+ * Copyright (C) 2019, by Vasileios Nikakis
+ *
+ * graphima: yet another Java graph-theory library
+ */
+package com.sitienda.graphima;
+
+import com.sitienda.graphima.exceptions.VertexNullPointerException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.HashMap;
+
+/**
+ * An immutable, compact snapshot of a graph.
+ * <p>
+ * The graph is stored in CSR (compressed sparse row) form: each vertex is
+ * given a dense integer id in the range [0, size()) and the outgoing edges
+ * of vertex <i>u</i> are the positions [offsets[u], offsets[u+1]) of the
+ * <i>targets</i> (and, for weighted graphs, <i>weights</i>) arrays. This way
+ * an edge costs one or two ints instead of a full {@link Edge} object inside
+ * a hash bucket, and the edges of a vertex lie next to each other in memory.
+ * </p>
+ * <p>
+ * The snapshot doesn't follow any later changes of the source graph. It
+ * keeps the {@link Graph#getVersion()} of the source graph, so it is out of
+ * date as soon as the version of the graph is different.
+ * {@link Graph#snapshot()} shares one snapshot between all the readers of
+ * the same version.
+ * </p>
+ *
+ * @param <V> the type of the objects that are encapsulated in each vertex
+ *
+ * @author Vasileios Nikakis
+ */
+public final class CompactGraph<V> implements VertexIdMapping<V> {
+    
+    /**
+     * The number of times that a concurrent graph is copied without locks,
+     * before its connections are locked.
+     */
+    private static final int OPTIMISTIC_COPIES = 4;
+    
+    /**
+     * The label of the graph.
+     */
+    private final String name;
+    /**
+     * True if the source graph was a weighted graph.
+     */
+    private final boolean weighted;
+    /**
+     * True if the source graph was a directed graph.
+     */
+    private final boolean directed;
+    /**
+     * The version of the source graph when the snapshot was taken.
+     */
+    private final long version;
+    /**
+     * The data of each vertex, indexed by the vertex id.
+     */
+    private final Object[] data;
+    /**
+     * Index from the contained data objects to the vertex ids.
+     */
+    private final HashMap<V,Integer> ids;
+    /**
+     * The start of the edges of each vertex in the targets array.
+     * It contains one extra element, so that the edges of vertex u always
+     * end at offsets[u+1].
+     */
+    private final int[] offsets;
+    /**
+     * The linked vertex of each edge.
+     */
+    private final int[] targets;
+    /**
+     * The weight of each edge, or null for unweighted graphs.
+     */
+    private final int[] weights;
+    /**
+     * The {@link Vertex} object of each vertex id, created on demand by
+     * {@link #vertexById(int)}. It is shared with the reverse graph.
+     */
+    private final Vertex<V>[] vertices;
+    /**
+     * The graph with all the edges reversed (built on demand).
+     */
+    private volatile CompactGraph<V> reverse;
+    
+    /**
+     * Constructor
+     * 
+     * @param name the graph's name
+     * @param weighted true for weighted graphs
+     * @param directed true for directed graphs
+     * @param version the version of the source graph (-1 if there is no source graph)
+     * @param data the data of each vertex
+     * @param ids the index from the data objects to the vertex ids
+     * @param offsets the start of the edges of each vertex
+     * @param targets the linked vertex of each edge
+     * @param weights the weight of each edge (null for unweighted graphs)
+     */
+    CompactGraph(String name, boolean weighted, boolean directed, long version, Object[] data,
+                         HashMap<V,Integer> ids, int[] offsets, int[] targets, int[] weights) { 
+        this(name,weighted,directed,version,data,ids,offsets,targets,weights,Graph.<V>newVertexArray(data.length));
+    }
+    
+    /**
+     * Constructor
+     * 
+     * @param name the graph's name
+     * @param weighted true for weighted graphs
+     * @param directed true for directed graphs
+     * @param version the version of the source graph (-1 if there is no source graph)
+     * @param data the data of each vertex
+     * @param ids the index from the data objects to the vertex ids
+     * @param offsets the start of the edges of each vertex
+     * @param targets the linked vertex of each edge
+     * @param weights the weight of each edge (null for unweighted graphs)
+     * @param vertices the vertex object of each vertex id, or null where it hasn't been created
+     */
+    private CompactGraph(String name, boolean weighted, boolean directed, long version, Object[] data,
+                         HashMap<V,Integer> ids, int[] offsets, int[] targets, int[] weights, 
+                         Vertex<V>[] vertices) { 
+        this.name = name;
+        this.weighted = weighted;
+        this.directed = directed;
+        this.version = version;
+        this.data = data;
+        this.ids = ids;
+        this.offsets = offsets;
+        this.targets = targets;
+        this.weights = weights;
+        this.vertices = vertices;
+    }
+    
+    /**
+     * Creates a compact snapshot of a graph.
+     * <p>
+     * A concurrent graph is copied without any lock: the copy is validated
+     * with the stamps of all the edge locks, and it is repeated if any 
+     * connection changed in the meantime, so the writers are never blocked
+     * by a snapshot. Only if the graph keeps changing during a few copies in
+     * a row, or if the current thread is changing the graph, it is copied
+     * once more while all the connections are locked.
+     * </p>
+     * 
+     * @param <V> the type of the objects that are encapsulated in each vertex
+     * @param graph the source graph
+     * 
+     * @return the compact snapshot
+     * 
+     * @throws ConcurrentModificationException if the graph changed while the snapshot was taken;
+     *         a concurrent graph is copied again instead, so it never throws it
+     */
+    public static <V> CompactGraph<V> of(Graph<V> graph) { 
+        if (!graph.isConcurrent()) { 
+            CompactGraph<V> snapshot = copy(graph);
+            // Fail fast if the graph changed in the meantime
+            if (snapshot == null)
+                throw new ConcurrentModificationException("The graph changed while the snapshot was taken");
+            return snapshot;
+        }
+        for (int attempt = 0; attempt < OPTIMISTIC_COPIES; attempt++) { 
+            long stamp = graph.startAllEdgesRead();
+            if (stamp < 0)
+                break;
+            CompactGraph<V> snapshot = copy(graph);
+            if (snapshot != null && graph.validateAllEdgesRead(stamp))
+                return snapshot;
+        }
+        // The graph doesn't change while it is copied
+        graph.lockAllEdges(false);
+        try { 
+            CompactGraph<V> snapshot = copy(graph);
+            if (snapshot == null)
+                throw new ConcurrentModificationException("The graph changed while the snapshot was taken");
+            return snapshot;
+        } finally { 
+            graph.unlockAllEdges(false);
+        }
+    }
+    
+    /**
+     * Copies a graph into a compact snapshot.
+     * The graph may change while it is read, so the sizes that it reports
+     * are checked against the vertices and the edges that were copied.
+     * 
+     * @param <V> the type of the objects that are encapsulated in each vertex
+     * @param graph the source graph
+     * 
+     * @return the compact snapshot, or null if the graph changed in the meantime
+     */
+    private static <V> CompactGraph<V> copy(Graph<V> graph) { 
+        long version = graph.getVersion();
+        boolean weighted = (graph instanceof WeightedGraph);
+        // First assign an id to each vertex
+        ArrayList<Vertex<V>> sources = new ArrayList<>(graph.size());
+        HashMap<V,Integer> ids = new HashMap<>(graph.size() * 4 / 3 + 1);
+        for (Vertex<V> vertex : graph.getVertices()) { 
+            ids.put(vertex.getData(),sources.size());
+            sources.add(vertex);
+        }
+        int vertexNum = sources.size();
+        Object[] data = new Object[vertexNum];
+        for (int u = 0; u < vertexNum; u++)
+            data[u] = sources.get(u).getData();
+        // Then lay out the edges of each vertex one after the other
+        int[] offsets = new int[vertexNum+1];
+        for (int u = 0; u < vertexNum; u++)
+            offsets[u+1] = offsets[u] + sources.get(u).getNeighborsSize();
+        int edgeNum = offsets[vertexNum];
+        int[] targets = new int[edgeNum];
+        int[] weights = weighted ? new int[edgeNum] : null;
+        for (int u = 0; u < vertexNum; u++) { 
+            int e = offsets[u];
+            for (Edge<Vertex<V>> edge : sources.get(u).getEdges()) { 
+                Integer target = ids.get(edge.getVertex().getData());
+                if (e == offsets[u+1] || target == null)
+                    return null;
+                targets[e] = target;
+                if (weighted)
+                    weights[e] = edge.getWeight();
+                e++;
+            }
+            if (e != offsets[u+1])
+                return null;
+        }
+        if (graph.getVersion() != version)
+            return null;
+        return new CompactGraph<>(graph.getName(),weighted,graph.isDirected(),version,data,ids,offsets,targets,weights);
+    }
+    
+    /**
+     * 
+     * @return the graph's name
+     */
+    public String getName() { 
+        return name;
+    }
+    
+    /**
+     * 
+     * @return true if the source graph was a weighted graph
+     */
+    public boolean isWeighted() { 
+        return weighted;
+    }
+    
+    /**
+     * 
+     * @return true if the source graph was a directed graph
+     */
+    public boolean isDirected() { 
+        return directed;
+    }
+    
+    /**
+     * Returns the graph with the same vertices (and vertex ids) and all the
+     * edges reversed, i.e. the incoming edges of each vertex.
+     * It is built on the first call and kept for the next ones. An undirected
+     * graph is its own reverse.
+     * 
+     * @return the reverse graph
+     */
+    public CompactGraph<V> reverse() { 
+        if (!directed)
+            return this;
+        CompactGraph<V> rev = reverse;
+        if (rev == null) { 
+            int vertexNum = data.length;
+            // Count the incoming edges of each vertex
+            int[] revOffsets = new int[vertexNum+1];
+            for (int e = 0; e < targets.length; e++)
+                revOffsets[targets[e]+1]++;
+            for (int u = 0; u < vertexNum; u++)
+                revOffsets[u+1] += revOffsets[u];
+            // Then place each edge at the next free position of its target
+            int[] next = Arrays.copyOf(revOffsets,vertexNum);
+            int[] revTargets = new int[targets.length];
+            int[] revWeights = (weights != null) ? new int[targets.length] : null;
+            for (int u = 0; u < vertexNum; u++) { 
+                for (int e = offsets[u]; e < offsets[u+1]; e++) { 
+                    int pos = next[targets[e]]++;
+                    revTargets[pos] = u;
+                    if (weights != null)
+                        revWeights[pos] = weights[e];
+                }
+            }
+            rev = new CompactGraph<>(name,weighted,directed,version,data,ids,revOffsets,revTargets,revWeights,vertices);
+            rev.reverse = this;
+            reverse = rev;
+        }
+        return rev;
+    }
+    
+    /**
+     * 
+     * @return the version of the source graph when the snapshot was taken
+     */
+    public long getVersion() { 
+        return version;
+    }
+    
+    /**
+     * Checks if the snapshot is up to date with a graph, i.e. if the graph
+     * hasn't changed since the snapshot was taken from it.
+     * 
+     * @param graph the source graph of the snapshot
+     * 
+     * @return true or false
+     */
+    public boolean isUpToDate(Graph<V> graph) { 
+        return (graph.getVersion() == version);
+    }
+    
+    /**
+     * Returns the number of vertices of the graph.
+     * 
+     * @return the number of vertices of the graph
+     */
+    public int size() { 
+        return data.length;
+    }
+    
+    /**
+     * Returns the number of edges of the graph.
+     * 
+     * @return the number of edges of the graph
+     */
+    public int getEdgesSize() { 
+        return targets.length;
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int idOf(V vertexData) { 
+        Integer id = ids.get(vertexData);
+        return (id != null) ? id : -1;
+    }
+    
+    /**
+     * Returns the id of a vertex.
+     * 
+     * @param vertex the vertex
+     * 
+     * @return the vertex id or -1 if the graph doesn't contain the vertex
+     */
+    public int idOf(Vertex<V> vertex) { 
+        return idOf(vertex.getData());
+    }
+    
+    /**
+     * Checks if the graph contains a vertex with specific data.
+     * 
+     * @param vertexData the data to be checked
+     * 
+     * @return true or false
+     */
+    public boolean contains(V vertexData) { 
+        return ids.containsKey(vertexData);
+    }
+    
+    /**
+     * Returns the data of a vertex.
+     * 
+     * @param id the vertex id
+     * 
+     * @return the contained data object
+     */
+    @SuppressWarnings("unchecked")
+    public V getData(int id) { 
+        // Only the data objects of the source graph are stored
+        return (V) data[id];
+    }
+    
+    /**
+     * Returns a {@link Vertex} object for a vertex id.
+     * The vertex is equal to the corresponding vertex of the source graph,
+     * but it doesn't contain any edges. It is created on the first call for
+     * each id and kept for the next ones.
+     * 
+     * @param id the vertex id
+     * 
+     * @return the vertex
+     * 
+     * @throws VertexNullPointerException if the id is out of range
+     */
+    @Override
+    public Vertex<V> vertexById(int id) throws VertexNullPointerException { 
+        if (id < 0 || id >= data.length)
+            throw new VertexNullPointerException("There is no vertex with id " + id);
+        // Two threads may create the same vertex at the same time; the
+        // vertices are equal, so it doesn't matter which one is kept
+        Vertex<V> vertex = vertices[id];
+        if (vertex == null) { 
+            vertex = new Vertex<>(getData(id));
+            vertices[id] = vertex;
+        }
+        return vertex;
+    }
+    
+    /**
+     * Returns the number of outgoing edges of a vertex.
+     * 
+     * @param id the vertex id
+     * 
+     * @return the number of outgoing edges
+     */
+    public int getNeighborsSize(int id) { 
+        return offsets[id+1] - offsets[id];
+    }
+    
+    /**
+     * Returns the position of the first outgoing edge of a vertex.
+     * 
+     * @param id the vertex id
+     * 
+     * @return the position of the first edge
+     */
+    public int edgesStart(int id) { 
+        return offsets[id];
+    }
+    
+    /**
+     * Returns the position after the last outgoing edge of a vertex.
+     * 
+     * @param id the vertex id
+     * 
+     * @return the position after the last edge
+     */
+    public int edgesEnd(int id) { 
+        return offsets[id+1];
+    }
+    
+    /**
+     * Returns the linked vertex of an edge.
+     * 
+     * @param edge the edge position
+     * 
+     * @return the id of the linked vertex
+     */
+    public int target(int edge) { 
+        return targets[edge];
+    }
+    
+    /**
+     * Returns the weight of an edge.
+     * For unweighted graphs, every edge has a weight of 1.
+     * 
+     * @param edge the edge position
+     * 
+     * @return the weight of the edge
+     */
+    public int weight(int edge) { 
+        return (weights != null) ? weights[edge] : 1;
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() { 
+        return "CompactGraph " + name + " (" + size() + " vertices, " + getEdgesSize() + " edges)";
+    }
+
+}
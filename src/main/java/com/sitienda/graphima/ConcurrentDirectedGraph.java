@@ -0,0 +1,35 @@
+/**
+ * Copyright (C) 2019, by Vasileios Nikakis
+ *
+ * graphima: yet another Java graph-theory library
+ */
+package com.sitienda.graphima;
+
+/**
+ * A concurrent directed graph class.
+ * Many threads can read it while other threads change it, without a global
+ * lock; see {@link Graph#isConcurrent()} for the details.
+ *
+ * @param <V> the type of the objects that are encapsulated in each vertex
+ *
+ * @author Vasileios Nikakis
+ */
+public class ConcurrentDirectedGraph<V> extends DirectedGraph<V> {
+    
+    /**
+     * Creates a concurrent directed graph with a default name.
+     */
+    public ConcurrentDirectedGraph() { 
+        super(DEFAULT_NAME,true);
+    }
+    
+    /**
+     * Creates a named concurrent directed graph.
+     * 
+     * @param name the graph's name
+     */
+    public ConcurrentDirectedGraph(String name) { 
+        super(name,true);
+    }
+    
+}
@@ -0,0 +1,35 @@
+/**
+ * Copyright (C) 2019, by Vasileios Nikakis
+ *
+ * graphima: yet another Java graph-theory library
+ */
+package com.sitienda.graphima;
+
+/**
+ * A concurrent directed weighted graph class.
+ * Many threads can read it while other threads change it, without a global
+ * lock; see {@link Graph#isConcurrent()} for the details.
+ *
+ * @param <V> the type of the objects that are encapsulated in each vertex
+ *
+ * @author Vasileios Nikakis
+ */
+public class ConcurrentDirectedWeightedGraph<V> extends DirectedWeightedGraph<V> {
+    
+    /**
+     * Creates a concurrent directed weighted graph with a default name.
+     */
+    public ConcurrentDirectedWeightedGraph() { 
+        super(DEFAULT_NAME,true);
+    }
+    
+    /**
+     * Creates a named concurrent directed weighted graph.
+     * 
+     * @param name the graph's name
+     */
+    public ConcurrentDirectedWeightedGraph(String name) { 
+        super(name,true);
+    }
+    
+}
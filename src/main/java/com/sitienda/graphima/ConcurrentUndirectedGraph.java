@@ -0,0 +1,36 @@
+/**
+ * Copyright (C) 2019, by Vasileios Nikakis
+ *
+ * graphima: yet another Java graph-theory library
+ */
+package com.sitienda.graphima;
+
+/**
+ * A concurrent undirected graph class.
+ * Many threads can read it while other threads change it, without a global
+ * lock; see {@link Graph#isConcurrent()} for the details. The two edges of
+ * each connection are added and removed together.
+ *
+ * @param <V> the type of the objects that are encapsulated in each vertex
+ *
+ * @author Vasileios Nikakis
+ */
+public class ConcurrentUndirectedGraph<V> extends UndirectedGraph<V> {
+    
+    /**
+     * Creates a concurrent undirected graph with a default name.
+     */
+    public ConcurrentUndirectedGraph() { 
+        super(DEFAULT_NAME,true);
+    }
+    
+    /**
+     * Creates a named concurrent undirected graph.
+     * 
+     * @param name the graph's name
+     */
+    public ConcurrentUndirectedGraph(String name) { 
+        super(name,true);
+    }
+    
+}
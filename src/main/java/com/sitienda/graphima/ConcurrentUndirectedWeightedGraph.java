@@ -0,0 +1,37 @@
+/**
+ * Copyright (C) 2019, by Vasileios Nikakis
+ *
+ * graphima: yet another Java graph-theory library
+ */
+package com.sitienda.graphima;
+
+/**
+ * A concurrent undirected weighted graph class.
+ * Many threads can read it while other threads change it, without a global
+ * lock; see {@link Graph#isConcurrent()} for the details. The two edges of
+ * each connection are added and removed together and their weights are
+ * changed together by {@link #setWeight(Object,Object,int)}.
+ *
+ * @param <V> the type of the objects that are encapsulated in each vertex
+ *
+ * @author Vasileios Nikakis
+ */
+public class ConcurrentUndirectedWeightedGraph<V> extends UndirectedWeightedGraph<V> {
+    
+    /**
+     * Creates a concurrent undirected weighted graph with a default name.
+     */
+    public ConcurrentUndirectedWeightedGraph() { 
+        super(DEFAULT_NAME,true);
+    }
+    
+    /**
+     * Creates a named concurrent undirected weighted graph.
+     * 
+     * @param name the graph's name
+     */
+    public ConcurrentUndirectedWeightedGraph(String name) { 
+        super(name,true);
+    }
+    
+}
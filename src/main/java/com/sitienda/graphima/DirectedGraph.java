@@ -29,6 +29,24 @@ public class DirectedGraph<V> extends Graph<V> {
         super(name);
     }
     
+    /**
+     * Creates a named directed graph, that can be concurrent.
+     * 
+     * @param name the graph's name
+     * @param concurrent true for a concurrent graph
+     */
+    protected DirectedGraph(String name, boolean concurrent) { 
+        super(name,concurrent);
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isDirected() { 
+        return true;
+    }
+    
     /**
      * {@inheritDoc}
      */
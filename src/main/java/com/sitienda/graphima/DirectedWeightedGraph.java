@@ -30,6 +30,16 @@ public class DirectedWeightedGraph<V> extends WeightedGraph<V> {
         super(name);
     }
     
+    /**
+     * Creates a named directed weighted graph, that can be concurrent.
+     * 
+     * @param name the graph's name
+     * @param concurrent true for a concurrent graph
+     */
+    protected DirectedWeightedGraph(String name, boolean concurrent) { 
+        super(name,concurrent);
+    }
+    
     /**
      * Creates a directed weighted graph, based on another graph, 
      * with a default name.
@@ -49,6 +59,14 @@ public class DirectedWeightedGraph<V> extends WeightedGraph<V> {
         super(name, graph);
     } 
     
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isDirected() { 
+        return true;
+    }
+    
     /**
      * {@inheritDoc}
      */
@@ -22,6 +22,11 @@ public class Edge<V extends Vertex<?>> {
      * The link to the vertex.
      */
     protected V vertex;
+    /**
+     * The vertex that holds the edge (vertex A), or null if the edge
+     * doesn't belong to a vertex.
+     */
+    protected volatile Vertex<?> source;
     
     /**
      * 
@@ -38,6 +43,26 @@ public class Edge<V extends Vertex<?>> {
     public V getVertex() {
         return vertex;
     }
+    
+    /**
+     * Returns the weight of the edge.
+     * An unweighted edge has always the default weight, so the edges of
+     * any graph can be weighed without checking their type.
+     * 
+     * @return {@link WeightedGraph#DEFAULT_WEIGHT}
+     */
+    public int getWeight() { 
+        return WeightedGraph.DEFAULT_WEIGHT;
+    }
+    
+    /**
+     * Sets the vertex that holds the edge.
+     * 
+     * @param source the vertex, or null if the edge was removed from it
+     */
+    void setSource(Vertex<?> source) { 
+        this.source = source;
+    }
 
     /**
      * Checks if the current edge corresponds to a specific vertex.
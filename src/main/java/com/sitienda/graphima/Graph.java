@@ -7,26 +7,49 @@ package com.sitienda.graphima;
 
 import com.sitienda.graphima.exceptions.VertexNotInGraphException;
 import com.sitienda.graphima.path.Path;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * Base class for each graph class.
  * Each graph has a name and a set of vertices.
+ * <p>
+ * Each vertex gets a dense integer id when it is added to the graph, which
+ * it keeps until it is removed. The ids of the removed vertices are given
+ * to the next vertices that are added, so all the ids are less than 
+ * {@link #getIdBound()}, which doesn't grow beyond the largest number of 
+ * vertices that the graph has had, and the algorithms can keep per-vertex 
+ * data in arrays instead of maps that hash the data of each vertex.
+ * </p>
  *
  * @param <V> the type of the objects that are encapsulated in each vertex
  *
  * @author Vasileios Nikakis
  */
-public abstract class Graph<V> {
+public abstract class Graph<V> implements VertexIdMapping<V> {
     
     /**
      * Default graph name.
      */
     public static final String DEFAULT_NAME = "Unnamed graph";
+    /**
+     * The number of edge locks of a concurrent graph.
+     * It has to be a power of 2.
+     */
+    private static final int LOCK_STRIPES = 64;
     
     /**
      * The label of the graph.
@@ -35,14 +58,109 @@ public abstract class Graph<V> {
     /**
      * The set of vertices.
      */
-    protected final HashSet<Vertex<V>> vertices;
+    protected final Set<Vertex<V>> vertices;
+    /**
+     * Index from the contained data objects to the corresponding vertices.
+     * It has to be kept in sync with the set of vertices.
+     */
+    protected final Map<V,Vertex<V>> vertexIndex;
+    /**
+     * The listeners that are notified when the graph changes.
+     */
+    private final List<GraphListener<V>> listeners;
+    /**
+     * The structural version of the graph.
+     * It is increased by every change of the vertices, the edges or the
+     * weights, so that the structures that are derived from the graph can
+     * check cheaply whether they are still up to date.
+     */
+    private final AtomicLong version;
+    /**
+     * The number of (directed) edges of the vertices.
+     */
+    private final AtomicInteger edgesSize;
+    /**
+     * The number of edges that lead back to their own vertex.
+     */
+    private final AtomicInteger loopsSize;
+    /**
+     * The edge locks of a concurrent graph, or null.
+     * Each connection is guarded by one of them, chosen by its two vertices.
+     */
+    private final EdgeLock[] edgeLocks;
+    /**
+     * The snapshot of the latest version of the graph that was requested,
+     * or null.
+     */
+    private volatile CompactGraph<V> snapshot;
+    /**
+     * The lock that allows only one thread to take a new snapshot.
+     */
+    private final Object snapshotLock = new Object();
+    /**
+     * The vertex with each id; the entries of the free ids are null.
+     */
+    private volatile Vertex<V>[] verticesById;
+    /**
+     * The number of ids that have been given out, including the free ones.
+     */
+    private volatile int idBound;
+    /**
+     * The ids of the removed vertices, that are given to the next vertices.
+     */
+    private int[] freeIds;
+    /**
+     * The number of free ids.
+     */
+    private int freeIdsSize;
+    /**
+     * The lock that guards the ids of a concurrent graph.
+     */
+    private final Object idLock = new Object();
+    
+    /**
+     * Inner helper class.
+     * The lock of a stripe of connections of a concurrent graph. Its stamp
+     * is odd while its holder changes any of the connections, so that the
+     * readers can check that they didn't see a change half-done.
+     */
+    private static class EdgeLock extends ReentrantLock { 
+        
+        private static final long serialVersionUID = 1L;
+        
+        /**
+         * It is increased when the first change of the holder starts and
+         * when the last one ends.
+         */
+        volatile long stamp;
+        /**
+         * The number of changes of the holder that are in progress.
+         */
+        int writes;
+        
+        /**
+         * Starts a change of the holder.
+         */
+        void beginWrite() { 
+            if (writes++ == 0)
+                stamp++;
+        }
+        
+        /**
+         * Ends a change of the holder.
+         */
+        void endWrite() { 
+            if (--writes == 0)
+                stamp++;
+        }
+    
+    }
     
     /**
      * Creates a graph with a default name.
      */
     public Graph() { 
-        name = DEFAULT_NAME;
-        vertices = new HashSet<>();
+        this(DEFAULT_NAME,false);
     }
     
     /**
@@ -51,8 +169,40 @@ public abstract class Graph<V> {
      * @param name the graph's name
      */
     public Graph(String name) { 
+        this(name,false);
+    }
+    
+    /**
+     * Creates a named graph, that can be concurrent.
+     * The vertices of a concurrent graph and their edges are kept in 
+     * concurrent maps, so that many threads can read it while other threads
+     * change it.
+     * 
+     * @param name the graph's name
+     * @param concurrent true for a concurrent graph
+     */
+    protected Graph(String name, boolean concurrent) { 
         this.name = name;
-        vertices = new HashSet<>();
+        if (concurrent) { 
+            vertices = ConcurrentHashMap.newKeySet();
+            vertexIndex = new ConcurrentHashMap<>();
+            edgeLocks = new EdgeLock[LOCK_STRIPES];
+            for (int i = 0; i < LOCK_STRIPES; i++)
+                edgeLocks[i] = new EdgeLock();
+        }
+        else { 
+            vertices = new HashSet<>();
+            vertexIndex = new HashMap<>();
+            edgeLocks = null;
+        }
+        listeners = new CopyOnWriteArrayList<>();
+        version = new AtomicLong();
+        edgesSize = new AtomicInteger();
+        loopsSize = new AtomicInteger();
+        verticesById = newVertexArray(16);
+        idBound = 0;
+        freeIds = new int[16];
+        freeIdsSize = 0;
     }
     
     /**
@@ -81,10 +231,17 @@ public abstract class Graph<V> {
     }
     
     /**
+     * Returns the set of vertices of the graph.
+     * <p>
+     * The return type was HashSet before the concurrent graphs were added;
+     * it is a Set now, since a concurrent graph keeps its vertices in a
+     * concurrent set. Code that stored the result in a HashSet variable has
+     * to declare it as a Set.
+     * </p>
      * 
      * @return the graph's set of vertices.
      */
-    public HashSet<Vertex<V>> getVertices() { 
+    public Set<Vertex<V>> getVertices() { 
         return vertices;
     }
     
@@ -99,14 +256,30 @@ public abstract class Graph<V> {
     
     /**
      * Returns the number of edges of the current graph.
+     * Each connection of an undirected graph is stored as two directed
+     * edges, one for each vertex, and both of them are counted.
+     * The counter is kept up to date by the changes of the edges, so it
+     * doesn't have to visit the vertices.
      * 
      * @return The number of edges of the current graph
      */
     public int getEdgesSize() { 
-        int edgeCount = 0;
-        for (Vertex vertex : vertices)
-            edgeCount += vertex.getNeighborsSize();
-        return edgeCount;
+        return edgesSize.get();
+    }
+    
+    /**
+     * Returns the number of logical edges of the current graph.
+     * For a directed graph it is the same with {@link #getEdgesSize()}.
+     * For an undirected graph, the two directed edges of a connection are
+     * counted once; a loop is stored as a single edge and it is counted
+     * once as well.
+     * 
+     * @return The number of logical edges of the current graph
+     */
+    public int getLogicalEdgesSize() { 
+        if (isDirected())
+            return edgesSize.get();
+        return (edgesSize.get() + loopsSize.get()) / 2;
     }
     
     /**
@@ -129,11 +302,7 @@ public abstract class Graph<V> {
      * @return the corresponding vertex or null
      */
     public Vertex<V> getVertexWithData(V vertexData) { 
-        for (Vertex<V> vertex : vertices) { 
-            if (vertex.contains(vertexData))
-                return vertex;
-        }
-        return null;
+        return vertexIndex.get(vertexData);
     }
     
     /**
@@ -144,7 +313,7 @@ public abstract class Graph<V> {
      * @return true or false
      */
     public boolean contains(V vertexData) { 
-        return (getVertexWithData(vertexData) != null);
+        return vertexIndex.containsKey(vertexData);
     }
     
     /**
@@ -155,10 +324,109 @@ public abstract class Graph<V> {
      * @return the graph
      */
     public Graph<V> addVertex(V vertexData) { 
-        vertices.add(new Vertex<>(vertexData));
+        // The vertex is added only if it doesn't already exist
+        if (!vertexIndex.containsKey(vertexData)) { 
+            Vertex<V> vertex = new Vertex<>(vertexData,isConcurrent(),isDirected());
+            vertex.setGraph(this);
+            Lock lock = lockEdge(vertex,vertex);
+            try { 
+                // Another thread may have added it in the meantime
+                if (vertexIndex.putIfAbsent(vertexData,vertex) == null) { 
+                    assignId(vertex);
+                    vertices.add(vertex);
+                    fireGraphChanged();
+                }
+            } finally { 
+                unlockEdge(lock);
+            }
+        }
+        return this;
+    }
+    
+    /**
+     * Removes a vertex and all the edges from and to it from the graph.
+     * The edges that lead to the vertex are found through the index of its
+     * incoming edges, or through its neighbors in an undirected graph, so it
+     * takes time proportional to the degree of the vertex.
+     * 
+     * @param vertexData the vertex's data
+     * 
+     * @return the graph
+     */
+    public Graph<V> removeVertex(V vertexData) { 
+        // No edge of a concurrent graph can be added to the vertex in the meantime
+        lockAllEdges(true);
+        try { 
+            Vertex<V> vertex = vertexIndex.get(vertexData);
+            if (vertex == null)
+                return this;
+            // The predecessors of a vertex of an undirected graph are its neighbors
+            for (Vertex<V> predecessor : vertex.getPredecessors())
+                predecessor.removeEdgeWith(vertex);
+            for (Vertex<V> neighbor : vertex.getNeighbors())
+                vertex.removeEdgeWith(neighbor);
+            vertex.setGraph(null);
+            releaseId(vertex);
+            vertices.remove(vertex);
+            vertexIndex.remove(vertexData);
+            fireGraphChanged();
+        } finally { 
+            unlockAllEdges(true);
+        }
         return this;
     }
     
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int idOf(V vertexData) { 
+        Vertex<V> vertex = vertexIndex.get(vertexData);
+        return (vertex != null) ? vertex.getId() : -1;
+    }
+    
+    /**
+     * Returns the id of a vertex.
+     * It takes O(1) for the vertices of the graph; for an equal vertex 
+     * object that doesn't belong to the graph, the vertex with the same
+     * data is looked up.
+     * 
+     * @param vertex the vertex
+     * 
+     * @return the vertex id or -1 if the graph doesn't contain the vertex
+     */
+    public int idOf(Vertex<V> vertex) { 
+        if (vertex.getGraph() == this)
+            return vertex.getId();
+        return idOf(vertex.getData());
+    }
+    
+    /**
+     * Returns the vertex with a specific id.
+     * 
+     * @param id the vertex id
+     * 
+     * @return the vertex or null if there is no vertex with this id
+     */
+    @Override
+    public Vertex<V> vertexById(int id) { 
+        Vertex<V>[] current = verticesById;
+        return (id >= 0 && id < current.length) ? current[id] : null;
+    }
+    
+    /**
+     * Returns the bound of the vertex ids.
+     * Every id is less than it, so it is the size of an array that is 
+     * indexed by the vertex ids. The ids of the removed vertices are reused,
+     * so it is at most the largest number of vertices that the graph has
+     * had since it was created or cleared.
+     * 
+     * @return the bound of the vertex ids
+     */
+    public int getIdBound() { 
+        return idBound;
+    }
+    
     /**
      * Adds a set of vertices to the graph.
      * 
@@ -188,7 +456,7 @@ public abstract class Graph<V> {
             Vertex<V> vertex = getVertexWithData(data);
             if (vertex == null)
                 throw new VertexNotInGraphException("Vertex with data " + data + " does not exist in the graph");
-            myVertices.add(getVertexWithData(data));
+            myVertices.add(vertex);
         }
         return myVertices;
     }
@@ -215,10 +483,13 @@ public abstract class Graph<V> {
      */
     public boolean pathExists(List<Vertex<V>> pathNodes) { 
         // For each node in the path
+        // The nodes are resolved through the vertex index, since the path
+        // may contain equal vertex objects that don't belong to the graph
+        // (e.g. a path found on a compact snapshot of the graph)
         for (int i = 0; i < pathNodes.size(); i++) { 
-            Vertex<V> currentNode = (Vertex<V>) pathNodes.get(i);
+            Vertex<V> currentNode = vertexIndex.get(pathNodes.get(i).getData());
             // Check if the node actually exist in the current graph
-            if (!vertices.contains(currentNode))
+            if (currentNode == null)
                 return false;
             // If it is not the last node in the path
             if (i < pathNodes.size()-1) { 
@@ -259,7 +530,108 @@ public abstract class Graph<V> {
         Vertex<V> vertex2 = getVertexWithData(vertexData2);
         if (vertex2 == null)
             return false;
-        return vertex1.hasEdgeWith(vertex2);
+        long stamp;
+        boolean connected;
+        do { 
+            stamp = startEdgeRead(vertex1,vertex2);
+            connected = vertex1.hasEdgeWith(vertex2);
+        } while (!validateEdgeRead(vertex1,vertex2,stamp));
+        return connected;
+    }
+    
+    /**
+     * Starts an optimistic read of the connection between two vertices.
+     * <p>
+     * The readers of a concurrent graph don't lock, so a reader that looks
+     * at both edges of an undirected connection, or at an edge and its 
+     * weight, could see a change of another thread half-done. The reader
+     * takes a stamp before it reads the connection and checks it with
+     * {@link #validateEdgeRead(Vertex,Vertex,long)} afterwards; if it is 
+     * not valid, the connection changed in the meantime and the reads have
+     * to be repeated. The method waits while the connection is being 
+     * changed. The stamps of a graph that is not concurrent are always 
+     * valid.
+     * </p>
+     * 
+     * @param vertex1 the first vertex
+     * @param vertex2 the second vertex
+     * 
+     * @return the stamp
+     */
+    public long startEdgeRead(Vertex<?> vertex1, Vertex<?> vertex2) { 
+        if (edgeLocks == null)
+            return 0;
+        EdgeLock lock = edgeLocks[stripeOf(vertex1,vertex2)];
+        // A listener reads the connection that its own thread is changing
+        if (lock.isHeldByCurrentThread())
+            return lock.stamp;
+        long stamp;
+        while (((stamp = lock.stamp) & 1) != 0)
+            Thread.yield();
+        return stamp;
+    }
+    
+    /**
+     * Checks that the connection between two vertices hasn't changed since
+     * a stamp was taken by {@link #startEdgeRead(Vertex,Vertex)}.
+     * 
+     * @param vertex1 the first vertex
+     * @param vertex2 the second vertex
+     * @param stamp the stamp
+     * 
+     * @return true if the reads since the stamp was taken saw a single 
+     *         state of the connection
+     */
+    public boolean validateEdgeRead(Vertex<?> vertex1, Vertex<?> vertex2, long stamp) { 
+        if (edgeLocks == null)
+            return true;
+        EdgeLock lock = edgeLocks[stripeOf(vertex1,vertex2)];
+        return (lock.isHeldByCurrentThread() || lock.stamp == stamp);
+    }
+    
+    /**
+     * Starts an optimistic read of all the connections of a concurrent 
+     * graph, such as a copy of the whole graph. It waits while any 
+     * connection is being changed.
+     * 
+     * @return the stamp, that has to be checked by 
+     *         {@link #validateAllEdgesRead(long)}, or -1 if the current 
+     *         thread is changing the graph, so that it can't be read 
+     *         optimistically
+     */
+    long startAllEdgesRead() { 
+        long stamp = 0;
+        if (edgeLocks != null) { 
+            for (EdgeLock lock : edgeLocks) { 
+                if (lock.isHeldByCurrentThread())
+                    return -1;
+                long lockStamp;
+                while (((lockStamp = lock.stamp) & 1) != 0)
+                    Thread.yield();
+                stamp += lockStamp;
+            }
+        }
+        return stamp;
+    }
+    
+    /**
+     * Checks that no connection of the graph has changed since a stamp was
+     * taken by {@link #startAllEdgesRead()}.
+     * The stamps of the locks only grow, so their sum is the same only if
+     * none of them has changed.
+     * 
+     * @param stamp the stamp
+     * 
+     * @return true if the reads since the stamp was taken saw a single 
+     *         version of the graph
+     */
+    boolean validateAllEdgesRead(long stamp) { 
+        long current = 0;
+        if (edgeLocks != null) { 
+            for (EdgeLock lock : edgeLocks)
+                current += lock.stamp;
+        }
+        return (current == stamp);
     }
     
     /**
@@ -302,12 +674,406 @@ public abstract class Graph<V> {
      */
     public abstract Graph<V> removeEdge(V vertexData1, V vertexData2);
     
+    /**
+     * Checks if the edges of the graph have a direction.
+     * 
+     * @return true for directed graphs, false for undirected ones
+     */
+    public abstract boolean isDirected();
+    
+    /**
+     * Creates an immutable, compact snapshot of the current graph.
+     * 
+     * @return the compact snapshot
+     * 
+     * @see CompactGraph
+     */
+    public CompactGraph<V> freeze() { 
+        return CompactGraph.of(this);
+    }
+    
+    /**
+     * Returns an immutable, compact snapshot of the current version of the
+     * graph.
+     * <p>
+     * The snapshot is taken once for each version of the graph and it is
+     * shared by all the callers, so as long as the graph doesn't change it is
+     * returned in O(1). The first call after a change copies the whole 
+     * graph, in O(V+E) time and memory, and the other callers of this method
+     * wait for the same copy. A concurrent graph is copied without locking
+     * its connections, so the writers go on while it is copied, and the copy
+     * is repeated if they changed it in the meantime (see 
+     * {@link CompactGraph#of(Graph)}). The snapshots pay off for graphs that
+     * are read much more often than they change.
+     * </p>
+     * <p>
+     * A reader pins a version by keeping the returned snapshot: it never
+     * changes, whatever happens to the graph. The graph keeps only the
+     * snapshot of its latest version, so an older one is reclaimed as soon
+     * as the last reader drops it.
+     * </p>
+     * 
+     * @return the snapshot of the current version
+     * 
+     * @see CompactGraph
+     */
+    public CompactGraph<V> snapshot() { 
+        CompactGraph<V> current = snapshot;
+        if (current == null || current.getVersion() != getVersion()) { 
+            // Many threads may ask for the new version at the same time, so it is copied once
+            synchronized (snapshotLock) { 
+                current = snapshot;
+                if (current == null || current.getVersion() != getVersion()) { 
+                    current = CompactGraph.of(this);
+                    snapshot = current;
+                }
+            }
+        }
+        return current;
+    }
+    
     /**
      * Removes all vertices (and the corresponding edges) from the graph.
      * The graph will remain empty after this action.
      */
     public void clear() { 
-        vertices.clear();
+        lockAllEdges(true);
+        try { 
+            // The removed vertices don't belong to the graph any more
+            for (Vertex<V> vertex : vertices) { 
+                vertex.setGraph(null);
+                vertex.setId(-1);
+            }
+            vertices.clear();
+            vertexIndex.clear();
+            synchronized (idLock) { 
+                verticesById = newVertexArray(16);
+                idBound = 0;
+                freeIdsSize = 0;
+            }
+            edgesSize.set(0);
+            loopsSize.set(0);
+            fireGraphChanged();
+        } finally { 
+            unlockAllEdges(true);
+        }
+    }
+    
+    /**
+     * Checks if the graph is concurrent.
+     * A concurrent graph can be read by many threads while other threads
+     * change it. Each change of an edge holds the lock of the connection 
+     * between its two vertices, so the writers of different connections 
+     * don't block each other, and notifies the listeners once, after both
+     * edges of an undirected connection or both of their weights have 
+     * changed. The readers don't lock at all and their iterators never 
+     * throw a ConcurrentModificationException; a traversal that runs while
+     * the graph changes sees each vertex as it is when it visits it. The
+     * reads of a single connection, such as {@link #hasEdge(Object,Object)},
+     * are validated with a stamp of its lock, so they never see an 
+     * undirected connection with one edge or with two different weights
+     * (see {@link #startEdgeRead(Vertex,Vertex)}).
+     * 
+     * @return true or false
+     */
+    public boolean isConcurrent() { 
+        return (edgeLocks != null);
+    }
+    
+    /**
+     * Returns the structural version of the graph.
+     * It starts at 0 and is increased by every change of the vertices,
+     * the edges or the weights, so two equal versions of the same graph
+     * mean that it hasn't changed in between.
+     * 
+     * @return the version of the graph
+     */
+    public long getVersion() { 
+        return version.get();
+    }
+    
+    /**
+     * Adds a listener that is notified each time the graph changes.
+     * The listener is called by the thread that changed the graph; for a
+     * concurrent graph it is called while the changed connection is locked,
+     * so it must not change the graph itself.
+     * 
+     * @param listener the listener
+     */
+    public void addGraphListener(GraphListener<V> listener) { 
+        listeners.add(listener);
+    }
+    
+    /**
+     * Removes a listener of the graph.
+     * 
+     * @param listener the listener
+     */
+    public void removeGraphListener(GraphListener<V> listener) { 
+        listeners.remove(listener);
+    }
+    
+    /**
+     * Updates the edge counters when an edge of a vertex of the graph is
+     * added or removed and notifies the listeners.
+     * 
+     * @param vertex the vertex that the edge starts from
+     * @param edge the edge
+     * @param added true if the edge was added, false if it was removed
+     */
+    void edgeChanged(Vertex<V> vertex, Edge<Vertex<V>> edge, boolean added) { 
+        int delta = added ? 1 : -1;
+        edgesSize.addAndGet(delta);
+        if (edge.getVertex() == vertex)
+            loopsSize.addAndGet(delta);
+        fireGraphChanged();
+    }
+    
+    /**
+     * Adds a vertex that was created by a {@link GraphBuilder}, without
+     * notifying the listeners.
+     * 
+     * @param vertex the vertex
+     */
+    void loadVertex(Vertex<V> vertex) { 
+        vertex.setGraph(this);
+        assignId(vertex);
+        vertices.add(vertex);
+        vertexIndex.put(vertex.getData(),vertex);
+    }
+    
+    /**
+     * Updates the edge counters once a {@link GraphBuilder} has linked its 
+     * edges and notifies the listeners.
+     * 
+     * @param edgeNum the number of edges that were linked
+     * @param loopNum the number of them that lead back to their own vertex
+     */
+    void loaded(int edgeNum, int loopNum) { 
+        edgesSize.addAndGet(edgeNum);
+        loopsSize.addAndGet(loopNum);
+        fireGraphChanged();
+    }
+    
+    /**
+     * Links both edges of an undirected connection and notifies the 
+     * listeners once.
+     * 
+     * @param vertex1 the first vertex
+     * @param edge1 the edge from the first vertex to the second one
+     * @param vertex2 the second vertex
+     * @param edge2 the edge from the second vertex to the first one
+     */
+    protected void addConnection(Vertex<V> vertex1, Edge<Vertex<V>> edge1, Vertex<V> vertex2, Edge<Vertex<V>> edge2) { 
+        Lock lock = lockEdge(vertex1,vertex2);
+        try { 
+            // The vertices that were removed from a concurrent graph can't be linked
+            if (lock != null && (vertex1.getGraph() != this || vertex2.getGraph() != this))
+                return;
+            int linked = 0;
+            if (vertex1.loadEdge(edge1))
+                linked++;
+            // A loop is a single edge
+            if (vertex1 != vertex2 && vertex2.loadEdge(edge2))
+                linked++;
+            connectionChanged(vertex1,vertex2,linked);
+        } finally { 
+            unlockEdge(lock);
+        }
+    }
+    
+    /**
+     * Unlinks both edges of an undirected connection and notifies the 
+     * listeners once.
+     * 
+     * @param vertex1 the first vertex
+     * @param vertex2 the second vertex
+     */
+    protected void removeConnection(Vertex<V> vertex1, Vertex<V> vertex2) { 
+        Lock lock = lockEdge(vertex1,vertex2);
+        try { 
+            int unlinked = 0;
+            if (vertex1.unloadEdgeWith(vertex2) != null)
+                unlinked++;
+            if (vertex1 != vertex2 && vertex2.unloadEdgeWith(vertex1) != null)
+                unlinked++;
+            connectionChanged(vertex1,vertex2,-unlinked);
+        } finally { 
+            unlockEdge(lock);
+        }
+    }
+    
+    /**
+     * Updates the edge counters of the graph of a connection whose edges
+     * changed together and notifies its listeners.
+     * 
+     * @param vertex1 the first vertex
+     * @param vertex2 the second vertex
+     * @param delta the number of edges that were added (negative if they were removed)
+     */
+    private void connectionChanged(Vertex<V> vertex1, Vertex<V> vertex2, int delta) { 
+        Graph<V> graph = vertex1.getGraph();
+        if (delta == 0 || graph == null)
+            return;
+        graph.edgesSize.addAndGet(delta);
+        if (vertex1 == vertex2)
+            graph.loopsSize.addAndGet(delta);
+        graph.fireGraphChanged();
+    }
+    
+    /**
+     * Creates an array of vertices.
+     * 
+     * @param <V> the type of the objects that are encapsulated in each vertex
+     * @param length the length of the array
+     * 
+     * @return the array, without any vertices in it
+     */
+    @SuppressWarnings("unchecked")
+    static <V> Vertex<V>[] newVertexArray(int length) { 
+        // The array holds only the vertices of one type, so the cast is safe
+        return new Vertex[length];
+    }
+    
+    /**
+     * Gives an id to a vertex that is added to the graph, reusing the id of
+     * a removed vertex if there is one.
+     * 
+     * @param vertex the vertex
+     */
+    private void assignId(Vertex<V> vertex) { 
+        synchronized (idLock) { 
+            int id;
+            if (freeIdsSize > 0)
+                id = freeIds[--freeIdsSize];
+            else { 
+                id = idBound;
+                if (id == verticesById.length)
+                    verticesById = Arrays.copyOf(verticesById,id * 2);
+            }
+            // The vertex is in place before the bound covers its id
+            verticesById[id] = vertex;
+            vertex.setId(id);
+            if (id == idBound)
+                idBound = id + 1;
+        }
+    }
+    
+    /**
+     * Frees the id of a vertex that is removed from the graph.
+     * 
+     * @param vertex the vertex
+     */
+    private void releaseId(Vertex<V> vertex) { 
+        synchronized (idLock) { 
+            int id = vertex.getId();
+            verticesById[id] = null;
+            vertex.setId(-1);
+            if (freeIdsSize == freeIds.length)
+                freeIds = Arrays.copyOf(freeIds,freeIdsSize * 2);
+            freeIds[freeIdsSize++] = id;
+        }
+    }
+    
+    /**
+     * Locks the connection between two vertices of a concurrent graph.
+     * Both directions of a connection have the same lock.
+     * 
+     * @param vertex1 the first vertex
+     * @param vertex2 the second vertex
+     * 
+     * @return the lock, that has to be passed to {@link #unlockEdge(Lock)},
+     *         or null if the graph is not concurrent
+     */
+    protected Lock lockEdge(Vertex<?> vertex1, Vertex<?> vertex2) { 
+        if (edgeLocks == null)
+            return null;
+        EdgeLock lock = edgeLocks[stripeOf(vertex1,vertex2)];
+        lock.lock();
+        lock.beginWrite();
+        return lock;
+    }
+    
+    /**
+     * Unlocks a connection that was locked by {@link #lockEdge(Vertex,Vertex)}.
+     * 
+     * @param lock the lock, or null
+     */
+    protected void unlockEdge(Lock lock) { 
+        releaseEdge(lock);
+    }
+    
+    /**
+     * Unlocks a connection that was locked by {@link #lockEdge(Vertex,Vertex)}.
+     * 
+     * @param lock the lock, or null
+     */
+    static void releaseEdge(Lock lock) { 
+        if (lock != null) { 
+            ((EdgeLock) lock).endWrite();
+            lock.unlock();
+        }
+    }
+    
+    /**
+     * Returns the stripe of the lock of the connection between two vertices.
+     * 
+     * @param vertex1 the first vertex
+     * @param vertex2 the second vertex
+     * 
+     * @return the stripe
+     */
+    private static int stripeOf(Vertex<?> vertex1, Vertex<?> vertex2) { 
+        // A symmetric hash of the two vertices, spread over the stripes
+        int hash = System.identityHashCode(vertex1) + System.identityHashCode(vertex2);
+        hash = (hash ^ (hash >>> 16)) * 0x45d9f3b;
+        hash ^= (hash >>> 16);
+        return hash & (LOCK_STRIPES-1);
+    }
+    
+    /**
+     * Locks all the connections of a concurrent graph, so that it doesn't
+     * change until {@link #unlockAllEdges(boolean)} is called.
+     * The readers are not blocked, unless the connections are locked to be
+     * changed; then the validated reads wait until they are unlocked.
+     * 
+     * @param write true if the connections are locked to be changed
+     */
+    void lockAllEdges(boolean write) { 
+        if (edgeLocks != null) { 
+            // Always in the same order
+            for (EdgeLock lock : edgeLocks) { 
+                lock.lock();
+                if (write)
+                    lock.beginWrite();
+            }
+        }
+    }
+    
+    /**
+     * Unlocks all the connections that were locked by {@link #lockAllEdges(boolean)}.
+     * 
+     * @param write true if the connections were locked to be changed
+     */
+    void unlockAllEdges(boolean write) { 
+        if (edgeLocks != null) { 
+            for (int i = edgeLocks.length-1; i >= 0; i--) { 
+                if (write)
+                    edgeLocks[i].endWrite();
+                edgeLocks[i].unlock();
+            }
+        }
+    }
+    
+    /**
+     * Increases the version of the graph and notifies the listeners that 
+     * the graph has changed.
+     * The vertices of the graph call it when their edges change.
+     */
+    protected void fireGraphChanged() { 
+        version.incrementAndGet();
+        for (GraphListener<V> listener : listeners)
+            listener.graphChanged(this);
     }
     
     /**
@@ -323,7 +1089,6 @@ public abstract class Graph<V> {
         for (Vertex<V> vertex : vertices) { 
             str += vertex + "\n";
             // The data of each edge
-            HashSet<Edge<Vertex<V>>> edges = vertex.getEdges();
             for (Edge<Vertex<V>> edge : vertex.getEdges())
                 str += "   " + edge + "\n";
             if (++vertexCount < vertexNum)
@@ -369,6 +1134,8 @@ public abstract class Graph<V> {
                 return false;
             for (Edge<Vertex<V>> edge : vertex.getEdges()) { 
                 Edge<Vertex<V>> otherEdge = otherVertex.getEdgeWith(edge.getVertex());
+                if (otherEdge == null)
+                    return false;
                 if (this instanceof WeightedGraph && 
                     ((WeightedEdge) edge).getWeight() != ((WeightedEdge) otherEdge).getWeight())
                     return false;
@@ -0,0 +1,367 @@
+/**
+ * Copyright (C) 2019, by Vasileios Nikakis
+ *
+ * graphima: yet another Java graph-theory library
+ */
+package com.sitienda.graphima;
+
+import com.sitienda.graphima.exceptions.VertexNotInGraphException;
+import com.sitienda.graphima.exceptions.VertexNullPointerException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+
+/**
+ * A builder that loads a large graph in bulk.
+ * <p>
+ * Each vertex is given a dense integer id in the order that it is first
+ * met, and the edges are kept as (source id, target id, weight) triples in
+ * int arrays that are sized for the expected number of edges. The edges can
+ * be given either by the data of their vertices, that are looked up once
+ * for each edge, or directly by the ids of their vertices. An edge may be
+ * given before its vertices are added; whether all of them exist is checked
+ * once, when the graph is built.
+ * </p>
+ * <p>
+ * {@link #build(Graph)} fills an empty graph of any type, giving each vertex
+ * maps that are sized for its edges and notifying the listeners of the graph
+ * only once, and {@link #buildCompact(boolean,boolean)} lays the edges out
+ * directly in a {@link CompactGraph}. As in the graphs, only the first edge
+ * between two vertices is kept.
+ * </p>
+ *
+ * @param <V> the type of the objects that are encapsulated in each vertex
+ *
+ * @author Vasileios Nikakis
+ */
+public class GraphBuilder<V> {
+    
+    /**
+     * The data of each vertex, indexed by the vertex id.
+     */
+    private final ArrayList<V> data;
+    /**
+     * Index from the data objects to the vertex ids.
+     */
+    private final HashMap<V,Integer> ids;
+    /**
+     * True for the vertices that were added, false for those that were only
+     * given as the end of an edge.
+     */
+    private boolean[] added;
+    /**
+     * The source id of each edge.
+     */
+    private int[] sources;
+    /**
+     * The target id of each edge.
+     */
+    private int[] targets;
+    /**
+     * The weight of each edge.
+     */
+    private int[] weights;
+    /**
+     * The number of edges.
+     */
+    private int edgeNum;
+    
+    /**
+     * Creates a builder with the default capacity.
+     */
+    public GraphBuilder() { 
+        this(16,16);
+    }
+    
+    /**
+     * Creates a builder for the expected size of the graph.
+     * 
+     * @param expectedVertices the expected number of vertices
+     * @param expectedEdges the expected number of edges
+     */
+    public GraphBuilder(int expectedVertices, int expectedEdges) { 
+        if (expectedVertices < 0 || expectedEdges < 0)
+            throw new IllegalArgumentException("The expected number of vertices and edges can't be negative");
+        data = new ArrayList<>(expectedVertices);
+        ids = new HashMap<>(expectedVertices * 4 / 3 + 1);
+        added = new boolean[expectedVertices];
+        sources = new int[expectedEdges];
+        targets = new int[expectedEdges];
+        weights = new int[expectedEdges];
+        edgeNum = 0;
+    }
+    
+    /**
+     * Adds a vertex, if it doesn't already exist.
+     * 
+     * @param vertexData the vertex's data
+     * 
+     * @return the id of the vertex
+     */
+    public int addVertex(V vertexData) { 
+        int id = idFor(vertexData);
+        added[id] = true;
+        return id;
+    }
+    
+    /**
+     * Returns the id of the vertex with the specific data.
+     * 
+     * @param vertexData the specific data
+     * 
+     * @return the vertex id or -1 if the vertex hasn't been added or given as the end of an edge
+     */
+    public int idOf(V vertexData) { 
+        Integer id = ids.get(vertexData);
+        return (id != null) ? id : -1;
+    }
+    
+    /**
+     * Adds an edge with the default weight by supplying the data of its vertices.
+     * 
+     * @param vertexData1 the data object of the first vertex
+     * @param vertexData2 the data object of the second vertex
+     * 
+     * @return the builder
+     */
+    public GraphBuilder<V> addEdge(V vertexData1, V vertexData2) { 
+        return addEdge(vertexData1,vertexData2,WeightedGraph.DEFAULT_WEIGHT);
+    }
+    
+    /**
+     * Adds an edge by supplying the data of its vertices.
+     * 
+     * @param vertexData1 the data object of the first vertex
+     * @param vertexData2 the data object of the second vertex
+     * @param weight the weight of the connection (ignored for unweighted graphs)
+     * 
+     * @return the builder
+     */
+    public GraphBuilder<V> addEdge(V vertexData1, V vertexData2, int weight) { 
+        return addEdge(idFor(vertexData1),idFor(vertexData2),weight);
+    }
+    
+    /**
+     * Adds an edge with the default weight by supplying the ids of its vertices.
+     * 
+     * @param id1 the id of the first vertex
+     * @param id2 the id of the second vertex
+     * 
+     * @return the builder
+     */
+    public GraphBuilder<V> addEdge(int id1, int id2) { 
+        return addEdge(id1,id2,WeightedGraph.DEFAULT_WEIGHT);
+    }
+    
+    /**
+     * Adds an edge by supplying the ids of its vertices.
+     * The ids are checked when the graph is built.
+     * 
+     * @param id1 the id of the first vertex
+     * @param id2 the id of the second vertex
+     * @param weight the weight of the connection (ignored for unweighted graphs)
+     * 
+     * @return the builder
+     */
+    public GraphBuilder<V> addEdge(int id1, int id2, int weight) { 
+        if (edgeNum == sources.length) { 
+            int capacity = Math.max(16,edgeNum * 2);
+            sources = Arrays.copyOf(sources,capacity);
+            targets = Arrays.copyOf(targets,capacity);
+            weights = Arrays.copyOf(weights,capacity);
+        }
+        sources[edgeNum] = id1;
+        targets[edgeNum] = id2;
+        weights[edgeNum] = weight;
+        edgeNum++;
+        return this;
+    }
+    
+    /**
+     * 
+     * @return the number of vertices, including those that were only given as the end of an edge
+     */
+    public int size() { 
+        return data.size();
+    }
+    
+    /**
+     * 
+     * @return the number of edges that were given
+     */
+    public int getEdgesSize() { 
+        return edgeNum;
+    }
+    
+    /**
+     * Adds the vertices and the edges to an empty graph.
+     * A weighted graph gets the weights of the edges and an undirected graph
+     * gets both edges of each connection.
+     * 
+     * @param <G> the type of the graph
+     * @param graph the empty graph
+     * 
+     * @return the graph
+     * 
+     * @throws VertexNotInGraphException if an edge leads to a vertex that wasn't added
+     */
+    public <G extends Graph<V>> G build(G graph) throws VertexNotInGraphException { 
+        if (graph.size() > 0)
+            throw new IllegalArgumentException("The graph has to be empty");
+        validate();
+        int vertexNum = data.size();
+        boolean directed = graph.isDirected();
+        boolean weighted = (graph instanceof WeightedGraph);
+        // The maps of each vertex are sized for its edges; only the vertices
+        // of a directed graph keep their incoming edges
+        int[] outDegrees = new int[vertexNum];
+        int[] inDegrees = directed ? new int[vertexNum] : null;
+        for (int e = 0; e < edgeNum; e++) { 
+            outDegrees[sources[e]]++;
+            if (directed)
+                inDegrees[targets[e]]++;
+            else if (sources[e] != targets[e])
+                outDegrees[targets[e]]++;
+        }
+        Vertex<V>[] vertices = Graph.newVertexArray(vertexNum);
+        for (int id = 0; id < vertexNum; id++)
+            vertices[id] = new Vertex<>(data.get(id),graph.isConcurrent(),directed,
+                                        outDegrees[id],directed ? inDegrees[id] : -1);
+        // The edges are linked directly and the listeners are notified once
+        int loadedEdges = 0;
+        int loadedLoops = 0;
+        graph.lockAllEdges(true);
+        try { 
+            for (Vertex<V> vertex : vertices)
+                graph.loadVertex(vertex);
+            for (int e = 0; e < edgeNum; e++) { 
+                Vertex<V> source = vertices[sources[e]];
+                Vertex<V> target = vertices[targets[e]];
+                if (source.loadEdge(weighted ? new WeightedEdge<>(target,weights[e]) : new Edge<>(target))) { 
+                    loadedEdges++;
+                    if (source == target)
+                        loadedLoops++;
+                }
+                if (!directed && source != target &&
+                    target.loadEdge(weighted ? new WeightedEdge<>(source,weights[e]) : new Edge<>(source)))
+                    loadedEdges++;
+            }
+            graph.loaded(loadedEdges,loadedLoops);
+        } finally { 
+            graph.unlockAllEdges(true);
+        }
+        return graph;
+    }
+    
+    /**
+     * Lays the vertices and the edges out in a compact graph.
+     * The compact graph doesn't have a source graph, so its version is -1.
+     * 
+     * @param directed true for a directed graph, false for an undirected one
+     * @param weighted true for a weighted graph
+     * 
+     * @return the compact graph
+     * 
+     * @throws VertexNotInGraphException if an edge leads to a vertex that wasn't added
+     */
+    public CompactGraph<V> buildCompact(boolean directed, boolean weighted) throws VertexNotInGraphException { 
+        validate();
+        int vertexNum = data.size();
+        // Count the edges of each vertex
+        int[] offsets = new int[vertexNum+1];
+        for (int e = 0; e < edgeNum; e++) { 
+            offsets[sources[e]+1]++;
+            if (!directed && sources[e] != targets[e])
+                offsets[targets[e]+1]++;
+        }
+        for (int u = 0; u < vertexNum; u++)
+            offsets[u+1] += offsets[u];
+        // Then place them, in the order that they were given
+        int[] next = Arrays.copyOf(offsets,vertexNum);
+        int[] edgeTargets = new int[offsets[vertexNum]];
+        int[] edgeWeights = new int[offsets[vertexNum]];
+        for (int e = 0; e < edgeNum; e++) { 
+            int pos = next[sources[e]]++;
+            edgeTargets[pos] = targets[e];
+            edgeWeights[pos] = weights[e];
+            if (!directed && sources[e] != targets[e]) { 
+                pos = next[targets[e]]++;
+                edgeTargets[pos] = sources[e];
+                edgeWeights[pos] = weights[e];
+            }
+        }
+        // Keep only the first edge between two vertices
+        int[] seen = new int[vertexNum];
+        Arrays.fill(seen,-1);
+        int edgeCount = 0;
+        int start = 0;
+        for (int u = 0; u < vertexNum; u++) { 
+            int end = offsets[u+1];
+            offsets[u] = edgeCount;
+            for (int e = start; e < end; e++) { 
+                if (seen[edgeTargets[e]] != u) { 
+                    seen[edgeTargets[e]] = u;
+                    edgeTargets[edgeCount] = edgeTargets[e];
+                    edgeWeights[edgeCount] = edgeWeights[e];
+                    edgeCount++;
+                }
+            }
+            start = end;
+        }
+        offsets[vertexNum] = edgeCount;
+        return new CompactGraph<>(Graph.DEFAULT_NAME,weighted,directed,-1,data.toArray(),new HashMap<>(ids),offsets,
+                                  Arrays.copyOf(edgeTargets,edgeCount),
+                                  weighted ? Arrays.copyOf(edgeWeights,edgeCount) : null);
+    }
+    
+    /**
+     * Returns the id of the vertex with the specific data, giving a new id
+     * to a new vertex.
+     * 
+     * @param vertexData the specific data
+     * 
+     * @return the vertex id
+     */
+    private int idFor(V vertexData) { 
+        if (vertexData == null)
+            throw new VertexNullPointerException("The vertex cannot contain null as data");
+        Integer id = ids.get(vertexData);
+        if (id != null)
+            return id;
+        int newId = data.size();
+        data.add(vertexData);
+        ids.put(vertexData,newId);
+        if (newId == added.length)
+            added = Arrays.copyOf(added,Math.max(16,newId * 2));
+        return newId;
+    }
+    
+    /**
+     * Checks that the vertices of all the edges were added.
+     * 
+     * @throws VertexNotInGraphException if an edge leads to a vertex that wasn't added
+     */
+    private void validate() throws VertexNotInGraphException { 
+        int vertexNum = data.size();
+        for (int e = 0; e < edgeNum; e++) { 
+            checkVertex(sources[e],vertexNum);
+            checkVertex(targets[e],vertexNum);
+        }
+    }
+    
+    /**
+     * Checks that a vertex of an edge was added.
+     * 
+     * @param id the vertex id
+     * @param vertexNum the number of vertices
+     * 
+     * @throws VertexNotInGraphException if the vertex wasn't added
+     */
+    private void checkVertex(int id, int vertexNum) throws VertexNotInGraphException { 
+        if (id < 0 || id >= vertexNum)
+            throw new VertexNotInGraphException("There is no vertex with id " + id);
+        if (!added[id])
+            throw new VertexNotInGraphException("The vertex (" + data.get(id) + ") doesn't exist in the graph");
+    }
+
+}
@@ -0,0 +1,26 @@
+/**
+ * Copyright (C) 2019, by Vasileios Nikakis
+ *
+ * graphima: yet another Java graph-theory library
+ */
+package com.sitienda.graphima;
+
+/**
+ * A listener that is notified each time a graph changes.
+ * A graph changes when a vertex or an edge is added or removed, when it is
+ * cleared and when the weight of one of its edges is set to a new value.
+ *
+ * @param <V> the type of the objects that are encapsulated in each vertex
+ *
+ * @author Vasileios Nikakis
+ */
+public interface GraphListener<V> {
+    
+    /**
+     * Called after a change of the graph.
+     * 
+     * @param graph the graph that changed
+     */
+    public void graphChanged(Graph<V> graph);
+
+}
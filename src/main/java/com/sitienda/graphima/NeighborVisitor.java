@@ -0,0 +1,29 @@
+/**
+ * Copyright (C) 2019, by Vasileios Nikakis
+ *
+ * graphima: yet another Java graph-theory library
+ */
+package com.sitienda.graphima;
+
+/**
+ * A visitor of the neighbors of a vertex.
+ * It gets each neighbor together with the weight of the edge, so that the
+ * edges don't have to be checked for their type or copied to a new set;
+ * see {@link Vertex#forEachNeighbor(NeighborVisitor)} and
+ * {@link Vertex#forEachPredecessor(NeighborVisitor)}.
+ *
+ * @param <V> the type of the objects that are encapsulated in each vertex
+ *
+ * @author Vasileios Nikakis
+ */
+public interface NeighborVisitor<V> {
+    
+    /**
+     * Called for each neighbor of a vertex.
+     * 
+     * @param neighbor the vertex at the other end of the edge
+     * @param weight the weight of the edge ({@link WeightedGraph#DEFAULT_WEIGHT} for unweighted edges)
+     */
+    public void visit(Vertex<V> neighbor, int weight);
+
+}
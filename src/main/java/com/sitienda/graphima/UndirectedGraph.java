@@ -29,14 +29,31 @@ public class UndirectedGraph<V> extends Graph<V> {
         super(name);
     }
     
+    /**
+     * Creates a named undirected graph, that can be concurrent.
+     * 
+     * @param name the graph's name
+     * @param concurrent true for a concurrent graph
+     */
+    protected UndirectedGraph(String name, boolean concurrent) { 
+        super(name,concurrent);
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isDirected() { 
+        return false;
+    }
+    
     /**
      * {@inheritDoc}
      */
     @Override
     public Graph<V> addEdge(Vertex<V> vertex1, Vertex<V> vertex2) { 
-        // Two edges have to be added
-        vertex1.addEdge(new Edge<>(vertex2));
-        vertex2.addEdge(new Edge<>(vertex1));
+        // Two edges have to be added, together
+        addConnection(vertex1,new Edge<>(vertex2),vertex2,new Edge<>(vertex1));
         return this;
     }
     
@@ -59,9 +76,8 @@ public class UndirectedGraph<V> extends Graph<V> {
      */
     @Override
     public Graph<V> removeEdge(Vertex<V> vertex1, Vertex<V> vertex2) { 
-        // Both edges have to be removed
-        vertex1.removeEdgeWith(vertex2);
-        vertex2.removeEdgeWith(vertex1);
+        // Both edges have to be removed, together
+        removeConnection(vertex1,vertex2);
         return this;
     }
     
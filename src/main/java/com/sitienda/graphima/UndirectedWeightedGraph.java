@@ -28,6 +28,16 @@ public class UndirectedWeightedGraph<V> extends WeightedGraph<V> {
     public UndirectedWeightedGraph(String name) { 
         super(name);
     }
+    
+    /**
+     * Creates a named undirected weighted graph, that can be concurrent.
+     * 
+     * @param name the graph's name
+     * @param concurrent true for a concurrent graph
+     */
+    protected UndirectedWeightedGraph(String name, boolean concurrent) { 
+        super(name,concurrent);
+    }
 
     /**
      * Creates a undirected weighted graph, based on another graph, 
@@ -47,6 +57,14 @@ public class UndirectedWeightedGraph<V> extends WeightedGraph<V> {
         super(name, graph);
     } 
     
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isDirected() { 
+        return false;
+    }
+    
     /**
      * {@inheritDoc}
      */
@@ -60,9 +78,8 @@ public class UndirectedWeightedGraph<V> extends WeightedGraph<V> {
      */
     @Override
     public WeightedGraph<V> addEdge(Vertex<V> vertex1, Vertex<V> vertex2, int weight) { 
-        // Two edges have to be added
-        vertex1.addEdge(new WeightedEdge<>(vertex2,weight));
-        vertex2.addEdge(new WeightedEdge<>(vertex1,weight));
+        // Two edges have to be added, together
+        addConnection(vertex1,new WeightedEdge<>(vertex2,weight),vertex2,new WeightedEdge<>(vertex1,weight));
         return this;
     }
     
@@ -93,9 +110,8 @@ public class UndirectedWeightedGraph<V> extends WeightedGraph<V> {
      */
     @Override
     public Graph<V> removeEdge(Vertex<V> vertex1, Vertex<V> vertex2) { 
-        // Both edges have to be removed
-        vertex1.removeEdgeWith(vertex2);
-        vertex2.removeEdgeWith(vertex1);
+        // Both edges have to be removed, together
+        removeConnection(vertex1,vertex2);
         return this;
     }
     
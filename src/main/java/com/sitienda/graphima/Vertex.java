@@ -6,12 +6,20 @@
 package com.sitienda.graphima;
 
 import com.sitienda.graphima.exceptions.VertexNullPointerException;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Lock;
 
 /**
  * The vertex of a graph.
- * Each vertex contains a set with all the outgoing edges.
+ * Each vertex contains all the outgoing edges, keyed by the vertex that 
+ * each edge leads to, and an index of the incoming edges, keyed by the 
+ * vertex that each edge starts from. The vertices of undirected graphs 
+ * don't keep the index, since their predecessors are their neighbors.
  *
  * @param <V> the type of the objects that are encapsulated in each vertex
  *
@@ -23,9 +31,27 @@ public class Vertex<V> {
      */
     private final V data;
     /**
-     * The edges of the vertex
+     * The edges of the vertex, keyed by the linked vertex.
+     * A HashSet is backed by a HashMap as well, so keying the edges by their
+     * linked vertex doesn't cost any extra memory.
      */
-    private final HashSet<Edge<Vertex<V>>> edges;
+    private final Map<Vertex<V>,Edge<Vertex<V>>> edges;
+    /**
+     * The edges that lead to the vertex, keyed by the vertex that holds them.
+     * It is kept in sync with the edges of the other vertices, so that the
+     * predecessors of the vertex are found without visiting the graph.
+     * It is null for the vertices of undirected graphs.
+     */
+    private final Map<Vertex<V>,Edge<Vertex<V>>> incomingEdges;
+    /**
+     * The graph that the vertex belongs to, or null.
+     * It is notified when the edges of the vertex change.
+     */
+    private volatile Graph<V> graph;
+    /**
+     * The id of the vertex in its graph, or -1.
+     */
+    private volatile int id;
     
     /**
      * Constructor
@@ -35,10 +61,60 @@ public class Vertex<V> {
      * @throws VertexNullPointerException if the data is null
      */
     public Vertex(V data) throws VertexNullPointerException { 
+        this(data,false,true);
+    }
+    
+    /**
+     * Creates a vertex, whose edges are kept in concurrent maps if it
+     * belongs to a concurrent graph.
+     * 
+     * @param data the contained object
+     * @param concurrent true for the vertices of a concurrent graph
+     * @param directed false for the vertices of an undirected graph, that 
+     *        don't keep an index of their incoming edges
+     * 
+     * @throws VertexNullPointerException if the data is null
+     */
+    Vertex(V data, boolean concurrent, boolean directed) throws VertexNullPointerException { 
+        this(data,concurrent,directed,-1,-1);
+    }
+    
+    /**
+     * Creates a vertex, whose maps are sized for the expected number of 
+     * edges.
+     * 
+     * @param data the contained object
+     * @param concurrent true for the vertices of a concurrent graph
+     * @param directed false for the vertices of an undirected graph, that 
+     *        don't keep an index of their incoming edges
+     * @param expectedEdges the expected number of outgoing edges (-1 for the default size)
+     * @param expectedIncomingEdges the expected number of incoming edges (-1 for the default size)
+     * 
+     * @throws VertexNullPointerException if the data is null
+     */
+    Vertex(V data, boolean concurrent, boolean directed, int expectedEdges, int expectedIncomingEdges) throws VertexNullPointerException { 
         if (data == null)
             throw new VertexNullPointerException("The vertex cannot contain null as data");
         this.data = data;
-        edges = new HashSet<>();
+        edges = newEdgeMap(concurrent,expectedEdges);
+        incomingEdges = directed ? newEdgeMap(concurrent,expectedIncomingEdges) : null;
+        id = -1;
+    }
+    
+    /**
+     * Creates a map of edges.
+     * 
+     * @param concurrent true for a concurrent map
+     * @param expectedSize the expected number of edges (-1 for the default size)
+     * 
+     * @return the map
+     */
+    private static <K,E> Map<K,E> newEdgeMap(boolean concurrent, int expectedSize) { 
+        if (expectedSize < 0)
+            return concurrent ? new ConcurrentHashMap<K,E>() : new HashMap<K,E>();
+        // The maps don't have to grow until they reach the expected size
+        int capacity = expectedSize * 4 / 3 + 1;
+        return concurrent ? new ConcurrentHashMap<K,E>(capacity) : new HashMap<K,E>(capacity);
     }
     
     /**
@@ -50,11 +126,19 @@ public class Vertex<V> {
     }
     
     /**
+     * Returns the edges of the vertex.
+     * <p>
+     * The return type was HashSet before the edges were keyed by the vertex
+     * they lead to; it is a Collection now, the live view of the values of
+     * that map, so that it isn't copied on each call. Code that stored the
+     * result in a HashSet variable has to declare it as a Collection, or
+     * copy it into a new set.
+     * </p>
      * 
      * @return the edges of the vertex
      */
-    public HashSet<Edge<Vertex<V>>> getEdges() { 
-        return edges;
+    public Collection<Edge<Vertex<V>>> getEdges() { 
+        return edges.values();
     }
     
     /**
@@ -76,11 +160,7 @@ public class Vertex<V> {
      * @return true or false
      */
     public boolean hasEdgeWith(Vertex<V> vertex) { 
-        for (Edge<Vertex<V>> edge : edges) { 
-            if (edge.containsVertex(vertex))
-                return true;
-        }
-        return false;
+        return edges.containsKey(vertex);
     }
     
     /**
@@ -98,16 +178,12 @@ public class Vertex<V> {
      * Returns the corresponding edge with a specific vertex or null if this
      * edge doesn't exist.
      * 
-     * @param vertex the edge to be found
+     * @param vertex the linked vertex of the edge to be found
      * 
-     * @return true or false
+     * @return the corresponding edge or null
      */
     public Edge<Vertex<V>> getEdgeWith(Vertex<V> vertex) { 
-        for (Edge<Vertex<V>> edge: edges) { 
-            if (edge.containsVertex(vertex))
-                return edge;
-        }
-        return null;
+        return edges.get(vertex);
     }
     
     /**
@@ -116,9 +192,40 @@ public class Vertex<V> {
      * @param edge the edge to be added
      * 
      * @return true if the edge was added or false if the connection already exists
+     *         (or, for a concurrent graph, if any of the two vertices was removed from it)
      */
     public boolean addEdge(Edge<Vertex<V>> edge) { 
-        return edges.add(edge);
+        Graph<V> graph = this.graph;
+        Lock lock = lockEdgeWith(edge.getVertex());
+        try { 
+            // The vertices that were removed from a concurrent graph can't be linked
+            if (lock != null && (this.graph != graph || edge.getVertex().graph != graph))
+                return false;
+            if (!loadEdge(edge))
+                return false;
+            edgesChanged(edge,true);
+            return true;
+        } finally { 
+            unlockEdge(lock);
+        }
+    }
+    
+    /**
+     * Links an edge to the current vertex, without locking or notifying the
+     * graph.
+     * 
+     * @param edge the edge to be added
+     * 
+     * @return true if the edge was added or false if the connection already exists
+     */
+    boolean loadEdge(Edge<Vertex<V>> edge) { 
+        if (edges.putIfAbsent(edge.getVertex(),edge) != null)
+            return false;
+        edge.setSource(this);
+        Map<Vertex<V>,Edge<Vertex<V>>> incoming = edge.getVertex().incomingEdges;
+        if (incoming != null)
+            incoming.put(this,edge);
+        return true;
     }
     
     /**
@@ -129,7 +236,17 @@ public class Vertex<V> {
      * @return true if the edge was in the edge, false otherwise.
      */
     public boolean removeEdge(Edge<Vertex<V>> edge) { 
-        return edges.remove(edge);
+        Lock lock = lockEdgeWith(edge.getVertex());
+        try { 
+            if (!edges.remove(edge.getVertex(),edge))
+                return false;
+            edge.setSource(null);
+            unlinkIncomingEdge(edge);
+            edgesChanged(edge,false);
+            return true;
+        } finally { 
+            unlockEdge(lock);
+        }
     }
     
     /**
@@ -140,24 +257,44 @@ public class Vertex<V> {
      * @return true if the connection was present, false otherwise
      */
     public boolean removeEdgeWith(Vertex<V> vertex) { 
-        Edge<Vertex<V>> edge = getEdgeWith(vertex);
-        if (edge != null) { 
-            removeEdge(edge);
+        Lock lock = lockEdgeWith(vertex);
+        try { 
+            Edge<Vertex<V>> edge = unloadEdgeWith(vertex);
+            if (edge == null)
+                return false;
+            edgesChanged(edge,false);
             return true;
-        } else
-            return false;
+        } finally { 
+            unlockEdge(lock);
+        }
+    }
+    
+    /**
+     * Unlinks the edge with a specific vertex, without locking or notifying
+     * the graph.
+     * 
+     * @param vertex the vertex that the edge leads to
+     * 
+     * @return the edge or null if the connection was not present
+     */
+    Edge<Vertex<V>> unloadEdgeWith(Vertex<V> vertex) { 
+        Edge<Vertex<V>> edge = edges.remove(vertex);
+        if (edge != null) { 
+            edge.setSource(null);
+            unlinkIncomingEdge(edge);
+        }
+        return edge;
     }
     
     /**
      * Returns a HashSet that contains the neighbor vertices.
+     * The set is a new copy; {@link #forEachNeighbor(NeighborVisitor)} 
+     * visits the neighbors without copying them.
      * 
      * @return the neighbor vertices
      */
     public HashSet<Vertex<V>> getNeighbors() { 
-        HashSet<Vertex<V>> neighbors = new HashSet<>();
-        for (Edge<Vertex<V>> edge : edges)
-            neighbors.add(edge.getVertex());
-        return neighbors;
+        return new HashSet<>(edges.keySet());
     }
     
     /**
@@ -169,6 +306,165 @@ public class Vertex<V> {
         return edges.size();
     }
     
+    /**
+     * Checks if another vertex has an edge with the current vertex.
+     * 
+     * @param vertex the vertex that needs to be checked
+     * 
+     * @return true or false
+     */
+    public boolean hasEdgeFrom(Vertex<V> vertex) { 
+        return (incomingEdges != null) ? incomingEdges.containsKey(vertex) : edges.containsKey(vertex);
+    }
+    
+    /**
+     * Returns a HashSet that contains the vertices with an edge to the
+     * current vertex.
+     * In an undirected graph they are the neighbor vertices.
+     * 
+     * @return the predecessor vertices
+     */
+    public HashSet<Vertex<V>> getPredecessors() { 
+        return new HashSet<>((incomingEdges != null) ? incomingEdges.keySet() : edges.keySet());
+    }
+    
+    /**
+     * Returns the number of vertices with an edge to the current vertex.
+     * 
+     * @return the number of predecessor vertices
+     */
+    public int getPredecessorsSize() { 
+        return (incomingEdges != null) ? incomingEdges.size() : edges.size();
+    }
+    
+    /**
+     * Visits each neighbor vertex with the weight of the edge that leads to it.
+     * 
+     * @param visitor the visitor
+     */
+    public void forEachNeighbor(NeighborVisitor<V> visitor) { 
+        for (Edge<Vertex<V>> edge : edges.values())
+            visitor.visit(edge.getVertex(),edge.getWeight());
+    }
+    
+    /**
+     * Visits each vertex with an edge to the current vertex, with the weight
+     * of that edge.
+     * In an undirected graph the neighbor vertices are visited.
+     * 
+     * @param visitor the visitor
+     */
+    public void forEachPredecessor(NeighborVisitor<V> visitor) { 
+        if (incomingEdges == null) { 
+            forEachNeighbor(visitor);
+            return;
+        }
+        for (Map.Entry<Vertex<V>,Edge<Vertex<V>>> entry : incomingEdges.entrySet())
+            visitor.visit(entry.getKey(),entry.getValue().getWeight());
+    }
+    
+    /**
+     * Removes an edge of the current vertex from the index of the incoming
+     * edges of the vertex that it leads to.
+     * 
+     * @param edge the edge
+     */
+    private void unlinkIncomingEdge(Edge<Vertex<V>> edge) { 
+        Map<Vertex<V>,Edge<Vertex<V>>> incoming = edge.getVertex().incomingEdges;
+        if (incoming != null)
+            incoming.remove(this,edge);
+    }
+    
+    /**
+     * Sets the graph that the vertex belongs to.
+     * 
+     * @param graph the graph, or null if the vertex was removed from it
+     */
+    void setGraph(Graph<V> graph) { 
+        this.graph = graph;
+    }
+    
+    /**
+     * 
+     * @return the graph that the vertex belongs to, or null
+     */
+    Graph<V> getGraph() { 
+        return graph;
+    }
+    
+    /**
+     * 
+     * @return the id of the vertex in its graph, or -1
+     */
+    int getId() { 
+        return id;
+    }
+    
+    /**
+     * Sets the id of the vertex in its graph.
+     * 
+     * @param id the id, or -1 if the vertex was removed from the graph
+     */
+    void setId(int id) { 
+        this.id = id;
+    }
+    
+    /**
+     * Locks the connection with another vertex, if the vertex belongs to a
+     * concurrent graph.
+     * 
+     * @param vertex the other vertex
+     * 
+     * @return the lock or null
+     */
+    Lock lockEdgeWith(Vertex<?> vertex) { 
+        Graph<V> graph = this.graph;
+        return (graph != null) ? graph.lockEdge(this,vertex) : null;
+    }
+    
+    /**
+     * Returns the other half of an undirected connection: the edge of the
+     * linked vertex that leads back to the current one.
+     * 
+     * @param vertex the linked vertex
+     * 
+     * @return the edge, or null if the vertex doesn't belong to an undirected graph
+     */
+    Edge<?> getReverseEdge(Vertex<?> vertex) { 
+        Graph<V> graph = this.graph;
+        if (graph == null || graph.isDirected())
+            return null;
+        return vertex.edges.get(this);
+    }
+    
+    /**
+     * Unlocks a connection that was locked by {@link #lockEdgeWith(Vertex)}.
+     * 
+     * @param lock the lock or null
+     */
+    static void unlockEdge(Lock lock) { 
+        Graph.releaseEdge(lock);
+    }
+    
+    /**
+     * Notifies the graph of the vertex that an edge was added or removed.
+     * 
+     * @param edge the edge
+     * @param added true if the edge was added, false if it was removed
+     */
+    private void edgesChanged(Edge<Vertex<V>> edge, boolean added) { 
+        if (graph != null)
+            graph.edgeChanged(this,edge,added);
+    }
+    
+    /**
+     * Notifies the graph of the vertex that its edges have changed.
+     */
+    void edgesChanged() { 
+        if (graph != null)
+            graph.fireGraphChanged();
+    }
+    
     /**
      * {@inheritDoc}
      */
@@ -0,0 +1,37 @@
+/**
+ * Copyright (C) 2019, by Vasileios Nikakis
+ *
+ * graphima: yet another Java graph-theory library
+ */
+package com.sitienda.graphima;
+
+/**
+ * A mapping between the vertices of a graph and dense integer ids.
+ * It allows the algorithms and their results to keep per-vertex data in
+ * arrays indexed by the vertex id.
+ *
+ * @param <V> the type of the objects that are encapsulated in each vertex
+ *
+ * @author Vasileios Nikakis
+ */
+public interface VertexIdMapping<V> {
+    
+    /**
+     * Returns the id of the vertex with the specific data.
+     * 
+     * @param vertexData the specific data
+     * 
+     * @return the vertex id or -1 if there is no such vertex
+     */
+    public int idOf(V vertexData);
+    
+    /**
+     * Returns the vertex with a specific id.
+     * 
+     * @param id the vertex id
+     * 
+     * @return the vertex
+     */
+    public Vertex<V> vertexById(int id);
+    
+}
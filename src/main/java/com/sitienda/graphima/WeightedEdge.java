@@ -5,6 +5,8 @@
  */
 package com.sitienda.graphima;
 
+import java.util.concurrent.locks.Lock;
+
 /**
  * An edge between two vertices, that holds as well a weight.
  * The weight is represented as an integer.
@@ -18,7 +20,7 @@ public class WeightedEdge<V extends Vertex<?>> extends Edge<V> {
     /**
      * The weight of the edge.
      */
-    private int weight;
+    private volatile int weight;
     
     /**
      * Constructor.
@@ -35,6 +37,7 @@ public class WeightedEdge<V extends Vertex<?>> extends Edge<V> {
      * 
      * @return the edge's weight.
      */
+    @Override
     public int getWeight() {
         return weight;
     }
@@ -48,11 +51,42 @@ public class WeightedEdge<V extends Vertex<?>> extends Edge<V> {
     }
     
     /**
+     * Sets the weight of the edge. In an undirected graph the edge that 
+     * leads back from the linked vertex gets the same weight, under the 
+     * same lock.
      * 
      * @param weight the edge's weight.
      */
     public void setWeight(int weight) {
+        Vertex<?> source = this.source;
+        Lock lock = (source != null) ? source.lockEdgeWith(vertex) : null;
+        try { 
+            boolean changed = loadWeight(weight);
+            if (source != null) { 
+                Edge<?> reverse = source.getReverseEdge(vertex);
+                if (reverse instanceof WeightedEdge)
+                    changed |= ((WeightedEdge<?>) reverse).loadWeight(weight);
+            }
+            // The graph of the edge has changed
+            if (changed && source != null)
+                source.edgesChanged();
+        } finally { 
+            Vertex.unlockEdge(lock);
+        }
+    }
+    
+    /**
+     * Changes the weight, without locking or notifying the graph.
+     * 
+     * @param weight the edge's weight.
+     * 
+     * @return true if the weight changed
+     */
+    boolean loadWeight(int weight) { 
+        if (this.weight == weight)
+            return false;
         this.weight = weight;
+        return true;
     }
     
     /**
@@ -60,7 +94,7 @@ public class WeightedEdge<V extends Vertex<?>> extends Edge<V> {
      * @param cost the edge's cost.
      */
     public void setCost(int cost) { 
-        weight = cost;
+        setWeight(cost);
     }
     
     /**
@@ -7,10 +7,9 @@ package com.sitienda.graphima;
 
 import com.sitienda.graphima.exceptions.PathNotValidException;
 import com.sitienda.graphima.path.Path;
-import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
-import java.util.Map;
+import java.util.concurrent.locks.Lock;
 
 /**
  * A base class weighted graphs.
@@ -43,6 +42,16 @@ public abstract class WeightedGraph<V> extends Graph<V> {
         super(name);
     }
     
+    /**
+     * Creates a named weighted graph, that can be concurrent.
+     * 
+     * @param name the graph's name
+     * @param concurrent true for a concurrent graph
+     */
+    protected WeightedGraph(String name, boolean concurrent) { 
+        super(name,concurrent);
+    }
+    
     /**
      * Copy constructor.
      * Creates a weighted graph, based on another graph, with a default name.
@@ -72,26 +81,18 @@ public abstract class WeightedGraph<V> extends Graph<V> {
      */
     private void copyWeightedGraph(Graph<V> graph) { 
         // Clear any existing data
-        vertices.clear();
+        clear();
         // First copy all vertices
-        // We need also a Map to be able to quickly find the equivalent
-        // vertices when we will copy the edges
-        Map<Vertex<V>,Vertex<V>> copyMap = new HashMap<>();
-        for (Vertex<V> copyVertex : graph.getVertices()) { 
-            Vertex<V> vertex = new Vertex<>(copyVertex.getData());
-            vertices.add(vertex);
-            copyMap.put(copyVertex,vertex);
-        }
+        for (Vertex<V> copyVertex : graph.getVertices())
+            addVertex(copyVertex.getData());
         // Then copy all edges
+        // The equivalent vertices are found through the graph's vertex index
         for (Vertex<V> copyVertex : graph.getVertices()) { 
+            Vertex<V> vertexFrom = getVertexWithData(copyVertex.getData());
             for (Edge<Vertex<V>> copyEdge : copyVertex.getEdges()) { 
-                Vertex<V> vertexFrom = copyMap.get(copyVertex);
-                Vertex<V> vertexTo = copyMap.get(copyEdge.getVertex());
-                // The default 
-                int weight = (copyEdge instanceof WeightedEdge) ? 
-                                ((WeightedEdge) copyEdge).getWeight() : 
-                                DEFAULT_WEIGHT;
-                vertexFrom.addEdge(new WeightedEdge(vertexTo,weight));
+                Vertex<V> vertexTo = getVertexWithData(copyEdge.getVertex().getData());
+                // The unweighted edges have the default weight
+                vertexFrom.addEdge(new WeightedEdge(vertexTo,copyEdge.getWeight()));
             }
         }
     }
@@ -118,6 +119,44 @@ public abstract class WeightedGraph<V> extends Graph<V> {
      */
     public abstract WeightedGraph<V> addEdge(V vertexData1, V vertexData2, int weight);
     
+    /**
+     * Changes the weight of the connection between two vertices by 
+     * supplying the corresponding data objects.
+     * Both edges of an undirected connection get the new weight, together,
+     * and the listeners are notified once.
+     * 
+     * @param vertexData1 the data object of the first vertex
+     * @param vertexData2 the data object of the second vertex
+     * @param weight the new weight of the connection
+     * 
+     * @return the graph
+     */
+    public WeightedGraph<V> setWeight(V vertexData1, V vertexData2, int weight) { 
+        Vertex<V> vertex1 = getVertexWithData(vertexData1);
+        if (vertex1 == null)
+            return this;
+        Vertex<V> vertex2 = getVertexWithData(vertexData2);
+        if (vertex2 == null)
+            return this;
+        Lock lock = lockEdge(vertex1,vertex2);
+        try { 
+            boolean changed = false;
+            Edge<Vertex<V>> edge = vertex1.getEdgeWith(vertex2);
+            if (edge != null)
+                changed |= ((WeightedEdge) edge).loadWeight(weight);
+            if (!isDirected()) { 
+                edge = vertex2.getEdgeWith(vertex1);
+                if (edge != null)
+                    changed |= ((WeightedEdge) edge).loadWeight(weight);
+            }
+            if (changed)
+                vertex1.edgesChanged();
+        } finally { 
+            unlockEdge(lock);
+        }
+        return this;
+    }
+    
     /**
      * Returns the sum of the weights of a path.
      * 
@@ -130,11 +169,13 @@ public abstract class WeightedGraph<V> extends Graph<V> {
     public int totalWeight(List<Vertex<V>> pathNodes) throws PathNotValidException { 
         int total = 0;
         // For each node in the path
+        // The nodes are resolved through the vertex index, since the path
+        // may contain equal vertex objects that don't belong to the graph
         for (int i = 0; i < pathNodes.size(); i++) { 
-            Vertex<V> currentNode = (Vertex<V>) pathNodes.get(i);
+            Vertex<V> currentNode = vertexIndex.get(pathNodes.get(i).getData());
             // Check if the node actually exist in the current graph
-            if (!vertices.contains(currentNode))
-                throw new PathNotValidException("Graph does not contain " + currentNode);
+            if (currentNode == null)
+                throw new PathNotValidException("Graph does not contain " + pathNodes.get(i));
             // If it is not the last node in the path
             if (i < pathNodes.size()-1) { 
                 // There has to be a connection with the next node in the path
@@ -142,7 +183,7 @@ public abstract class WeightedGraph<V> extends Graph<V> {
                 Edge<Vertex<V>> edge = currentNode.getEdgeWith(nextNode);
                 if (edge == null)
                     throw new PathNotValidException(currentNode + " and " + nextNode + " are not connected");
-                total += ((WeightedEdge) edge).getWeight();
+                total += edge.getWeight();
             }
         }
         return total;
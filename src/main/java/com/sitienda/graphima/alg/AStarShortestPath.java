@@ -7,27 +7,46 @@ package com.sitienda.graphima.alg;
 
 import com.sitienda.graphima.alg.heuristics.ZeroHeuristicFunction;
 import com.sitienda.graphima.alg.heuristics.HeuristicFunction;
-import com.sitienda.graphima.Edge;
+import com.sitienda.graphima.alg.heuristics.LandmarkHeuristicFunction;
+import com.sitienda.graphima.alg.heuristics.Landmarks;
+import com.sitienda.graphima.CompactGraph;
 import com.sitienda.graphima.Graph;
+import com.sitienda.graphima.NeighborVisitor;
 import com.sitienda.graphima.Vertex;
-import com.sitienda.graphima.WeightedEdge;
+import com.sitienda.graphima.VertexIdMapping;
 import com.sitienda.graphima.exceptions.VertexNotInGraphException;
 import com.sitienda.graphima.path.Path;
-import java.util.Comparator;
-import java.util.HashMap;
-import java.util.Map;
-import java.util.PriorityQueue;
+import java.util.Objects;
 
 /**
  * A* algorithm. 
  * It discovers the shortest path in a graph between two vertices using the
  * A* heuristic algorithm.
+ * <p>
+ * The heuristic function has to be admissible (it must never overestimate
+ * the cost to the destination) for the path to be the shortest one. If it is
+ * also consistent, each node is expanded at most once.
+ * </p>
+ * <p>
+ * When it is given {@link Landmarks}, the algorithm becomes ALT: the 
+ * heuristic value of a vertex is the landmark lower bound of its distance
+ * to the destination of each query, so one algorithm object answers the
+ * queries to any destination. A 
+ * {@link com.sitienda.graphima.alg.heuristics.LandmarkHeuristicFunction} is
+ * bound to one destination instead, so it can only be used for the queries
+ * to that destination. On the compact graph of the landmarks both are 
+ * evaluated by the vertex ids.
+ * </p>
+ * <p>
+ * The algorithm can run either on a {@link com.sitienda.graphima.Graph} or on 
+ * a {@link com.sitienda.graphima.CompactGraph} snapshot.
+ * </p>
  *
  * @param <V> the type of the objects that the graph contains
  * 
  * @author Vasileios Nikakis
  */
-public class AStarShortestPath<V> extends GraphAlgorithm<V> {
+public class AStarShortestPath<V> extends GraphAlgorithm<V> implements ShortestPathAlgorithm<V> {
     
     /**
      * Collision resolution comparator object.
@@ -37,32 +56,103 @@ public class AStarShortestPath<V> extends GraphAlgorithm<V> {
      * The heuristic function.
      */
     protected HeuristicFunction<V> heuristicFunc;
+    /**
+     * The landmark distance tables of the ALT heuristic, or null.
+     */
+    protected Landmarks<V> landmarks;
+    
+    /**
+     * Max integer as infinity.
+     */
+    private final int INF = Integer.MAX_VALUE;
     
     /**
      * Inner helper class.
-     * For each node, the parent node is stored.
-     * 
-     * @param <T> each QueueItem encapsulates a Vertex
+     * It is the search workspace of a thread and it holds the state of its
+     * searches: for each node the cost from the root (g), the heuristic 
+     * value (h, as the estimate), the parent node and whether the node is 
+     * closed, so a query only allocates the path. The searches on a compact
+     * graph use the ids of the graph itself, the searches on a graph the ids
+     * of a {@link GraphAlgorithm.Numbering} that is kept with the workspace.
+     * It also relaxes the edges of the node that was just closed, as they 
+     * are visited by {@link Vertex#forEachNeighbor(NeighborVisitor)}.
      */
-    private class QueueItem<T extends Vertex<V>> { 
+    private class SearchState extends SearchWorkspace implements NeighborVisitor<V> { 
+        
+        final Numbering numbering;
+        HeuristicFunction<V> heuristic;
+        LandmarkHeuristicFunction<V> heuristicById;
+        Landmarks<V> landmarks;
+        boolean landmarksById;
+        int landmarkTarget;
+        int node;
+        
+        public SearchState(int capacity) { 
+            super(capacity);
+            if (compactGraph == null) { 
+                numbering = new Numbering(this);
+                setTieBreaker(newTieBreaker(this,numbering));
+            } else { 
+                numbering = null;
+                setTieBreaker(newTieBreaker(this,compactGraph));
+            }
+        }
         
-        T node;
-        T parent;
-        int totalCost;
-        int eval;
+        public void start(HeuristicFunction<V> heuristic, Landmarks<V> landmarks) { 
+            if (numbering != null)
+                numbering.reset();
+            this.heuristic = heuristic;
+            this.landmarks = landmarks;
+            // The landmarks are evaluated by the ids of their own compact graph
+            if (compactGraph != null && heuristic instanceof LandmarkHeuristicFunction &&
+                    ((LandmarkHeuristicFunction<V>) heuristic).getGraph() == compactGraph)
+                heuristicById = (LandmarkHeuristicFunction<V>) heuristic;
+            else
+                heuristicById = null;
+            landmarksById = (landmarks != null && landmarks.getGraph() == compactGraph);
+            landmarkTarget = -1;
+        }
+        
+        public void setDestination(V vertexData) { 
+            if (landmarks != null)
+                landmarkTarget = landmarks.getGraph().idOf(vertexData);
+        }
+        
+        public int find(V vertexData) { 
+            if (compactGraph != null)
+                return compactGraph.idOf(vertexData);
+            // The graph's own vertex objects are used, since they hold the edges
+            Vertex<V> vertex = (vertexData != null) ? graph.getVertexWithData(vertexData) : null;
+            return (vertex != null) ? numbering.idOf(vertex) : -1;
+        }
         
-        public QueueItem(T node, T parent, int totalCost) { 
-            this.node = node;
-            this.parent = parent;
-            this.totalCost = totalCost;
-            updateEval();
+        public Vertex<V> vertexOf(int id) { 
+            if (compactGraph != null)
+                return compactGraph.vertexById(id);
+            return numbering.vertexById(id);
         }
         
-        public final int updateEval() { 
-            eval = totalCost + heuristicFunc.h(node.getData());
-            return eval;
+        public int h(int id, V vertexData) { 
+            if (landmarks != null) { 
+                if (landmarkTarget < 0)
+                    return 0;
+                int from = landmarksById ? id : landmarks.getGraph().idOf(dataOf(id,vertexData));
+                return (from >= 0) ? landmarks.lowerBoundById(from,landmarkTarget) : 0;
+            }
+            if (heuristicById != null)
+                return heuristicById.hById(id);
+            return heuristic.h(dataOf(id,vertexData));
+        }
+        
+        private V dataOf(int id, V vertexData) { 
+            return (vertexData != null || compactGraph == null) ? vertexData : compactGraph.getData(id);
         }
         
+        @Override
+        public void visit(Vertex<V> neighbor, int weight) { 
+            relax(this,node,numbering.idOf(neighbor),neighbor.getData(),weight);
+        }
+    
     }
     
     /**
@@ -119,6 +209,99 @@ public class AStarShortestPath<V> extends GraphAlgorithm<V> {
         execStats = new FindPathAlgorithmExecutionStats("A* shortest path");
     }
     
+    /**
+     * Constructor for the ALT algorithm, that answers the queries to any 
+     * destination.
+     * 
+     * @param graph the graph
+     * @param landmarks the landmark distance tables of the graph
+     * 
+     * @throws IllegalArgumentException if the landmarks are null
+     */
+    public AStarShortestPath(Graph<V> graph, Landmarks<V> landmarks) { 
+        super(graph);
+        if (landmarks == null)
+            throw new IllegalArgumentException("The landmarks can't be null");
+        collisionComp = null;
+        heuristicFunc = new ZeroHeuristicFunction<>();
+        this.landmarks = landmarks;
+        execStats = new FindPathAlgorithmExecutionStats("A* shortest path");
+    }
+    
+    /**
+     * Constructor
+     * 
+     * @param graph the compact graph
+     */
+    public AStarShortestPath(CompactGraph<V> graph) {
+        super(graph);
+        collisionComp = null;
+        heuristicFunc = new ZeroHeuristicFunction<>();
+        execStats = new FindPathAlgorithmExecutionStats("A* shortest path");
+    }
+    
+    /**
+     * Constructor
+     * 
+     * @param graph the compact graph
+     * @param collisionComp the vertex comparator to resolve any collisions
+     */
+    public AStarShortestPath(CompactGraph<V> graph, NodeComparator<Vertex<V>> collisionComp) {
+        super(graph);
+        this.collisionComp = collisionComp;
+        heuristicFunc = new ZeroHeuristicFunction<>();
+        execStats = new FindPathAlgorithmExecutionStats("A* shortest path");
+    }
+    
+    /**
+     * Constructor
+     * 
+     * @param graph the compact graph
+     * @param heuristicFunc the heuristic function
+     */
+    public AStarShortestPath(CompactGraph<V> graph, HeuristicFunction<V> heuristicFunc) { 
+        super(graph);
+        collisionComp = null;
+        this.heuristicFunc = heuristicFunc;
+        execStats = new FindPathAlgorithmExecutionStats("A* shortest path");
+    }
+    
+    /**
+     * Constructor
+     * 
+     * @param graph the compact graph
+     * @param collisionComp the vertex comparator to resolve any collisions
+     * @param heuristicFunc the heuristic function
+     */
+    public AStarShortestPath(CompactGraph<V> graph, 
+                             NodeComparator<Vertex<V>> collisionComp, 
+                             HeuristicFunction<V> heuristicFunc) { 
+        super(graph);
+        this.collisionComp = collisionComp;
+        this.heuristicFunc = heuristicFunc;
+        execStats = new FindPathAlgorithmExecutionStats("A* shortest path");
+    }
+    
+    /**
+     * Constructor for the ALT algorithm, that answers the queries to any 
+     * destination. On the compact graph of the landmarks the lower bounds
+     * are taken by the vertex ids.
+     * 
+     * @param graph the compact graph
+     * @param landmarks the landmark distance tables of the graph
+     * 
+     * @throws IllegalArgumentException if the landmarks are null
+     */
+    public AStarShortestPath(CompactGraph<V> graph, Landmarks<V> landmarks) { 
+        super(graph);
+        if (landmarks == null)
+            throw new IllegalArgumentException("The landmarks can't be null");
+        collisionComp = null;
+        heuristicFunc = new ZeroHeuristicFunction<>();
+        this.landmarks = landmarks;
+        execStats = new FindPathAlgorithmExecutionStats("A* shortest path");
+    }
+    
     /**
      * Finds the shortest path between start and end vertices using the A* algorithm.
      * 
@@ -130,107 +313,200 @@ public class AStarShortestPath<V> extends GraphAlgorithm<V> {
      * @throws VertexNotInGraphException in case that any of the two vertices doesn't belong to the graph
      */
     public Path findShortestPath(Vertex<V> start, Vertex<V> end) throws VertexNotInGraphException { 
-        // Both vertices have to exist inside the graph
-        if (!graph.contains(start))
-            throw new VertexNotInGraphException("The starting point vertex (" + start + ") doesn't exist in the graph");
-        if (!graph.contains(end))
-            throw new VertexNotInGraphException("The ending point vertex (" + end + ") doesn't exist in the graph");
-        
+        return findShortestPathResult(start,end).getPath();
+    }
+    
+    /**
+     * Finds the shortest path between two nodes in a graph using the A* algorithm.
+     * For each vertex, the corresponding data has to be provided.
+     * 
+     * @param start the corresponding data of the starting vertex
+     * @param end the corresponding data of the destination vertex
+     * 
+     * @return the shortest path from start to end
+     * 
+     * @throws VertexNotInGraphException in case that any of the two vertices doesn't belong to the graph
+     */
+    public Path findShortestPath(V start, V end) throws VertexNotInGraphException { 
+        return findShortestPathResult(start,end).getPath();
+    }
+    
+    /**
+     * Finds the shortest path between start and end vertices using the A* algorithm.
+     * The result holds the statistics of this query, so the algorithm 
+     * object can be shared between threads.
+     * 
+     * @param start the starting vertex
+     * @param end the destination vertex
+     * 
+     * @return the shortest path from start to end and the query's stats
+     * 
+     * @throws VertexNotInGraphException in case that any of the two vertices doesn't belong to the graph
+     */
+    public FindPathResult<V> findShortestPathResult(Vertex<V> start, Vertex<V> end) throws VertexNotInGraphException { 
+        return findShortestPathResult(start.getData(),end.getData());
+    }
+
+    /**
+     * Finds the shortest path between two nodes in a graph using the A* algorithm.
+     * For each vertex, the corresponding data has to be provided.
+     * The result holds the statistics of this query, so the algorithm 
+     * object can be shared between threads.
+     * 
+     * @param start the corresponding data of the starting vertex
+     * @param end the corresponding data of the destination vertex
+     * 
+     * @return the shortest path from start to end and the query's stats
+     * 
+     * @throws VertexNotInGraphException in case that any of the two vertices doesn't belong to the graph
+     * @throws IllegalArgumentException in case that the heuristic function is a 
+     *         {@link com.sitienda.graphima.alg.heuristics.LandmarkHeuristicFunction} of another destination
+     */
+    public FindPathResult<V> findShortestPathResult(V start, V end) throws VertexNotInGraphException { 
+        // The workspace of the thread holds the state of the search
+        @SuppressWarnings("unchecked")
+        SearchState state = (SearchState) workspace();
+        state.start(heuristicFunc,landmarks);
+        // Find the corresponding vertex ids
+        int startId = state.find(start);
+        if (startId < 0)
+            throw new VertexNotInGraphException("The graph does not contain any vertex with data: " + start);
+        int endId = state.find(end);
+        if (endId < 0)
+            throw new VertexNotInGraphException("The graph does not contain any vertex with data: " + end);
+        // A landmark heuristic function is bound to one destination
+        if (state.heuristic instanceof LandmarkHeuristicFunction) { 
+            V target = ((LandmarkHeuristicFunction<V>) state.heuristic).getTarget();
+            if (!Objects.equals(target,end))
+                throw new IllegalArgumentException("The heuristic function is bound to another destination: " + target);
+        }
+        // The landmark bounds are taken to the destination of each query
+        state.setDestination(end);
+        return search(state,startId,endId,start);
+    }
+    
+    /**
+     * Executes the A* algorithm.
+     * <p>
+     * The open set is an {@link IndexedMinHeap} keyed by the estimated total
+     * cost f = g + h, so the cost of a queued node is decreased in place.
+     * Among nodes with equal f, the one with the lower h (the one closer to 
+     * the destination) is expanded first. A closed node that is reached with
+     * a lower cost is reopened, so the path stays optimal even if the 
+     * heuristic is admissible but not consistent.
+     * </p>
+     * 
+     * @param state the state of the search
+     * @param start the id of the starting vertex
+     * @param end the id of the destination vertex
+     * @param startData the data of the starting vertex
+     * 
+     * @return the shortest path from start to end and the query's stats
+     */
+    private FindPathResult<V> search(SearchState state, int start, int end, V startData) { 
         // Exec stats
-        execStats.reset();
+        FindPathAlgorithmExecutionStats stats = newFindPathStats();
         
-        // We need a priority queue to store the nodes that wait to be examined
-        PriorityQueue<QueueItem<Vertex<V>>> queue = new PriorityQueue<>(new Comparator<QueueItem<Vertex<V>>>() { 
-            @Override
-            public int compare(QueueItem<Vertex<V>> a, QueueItem<Vertex<V>> b) {
-                if (a.eval != b.eval || collisionComp == null)
-                    return (a.eval - b.eval);
-                else
-                    return collisionComp.compare(a.node,b.node);
-            }
-        });
-        // We need a map to be able to extract the path after the execution of the algorithm
-        Map<Vertex<V>,QueueItem<Vertex<V>>> visited = new HashMap<>();
+        IndexedMinHeap queue = state.getHeap();
         
         // Add the starting node in the queue
-        QueueItem<Vertex<V>> first = new QueueItem<>(start,null,0);
-        queue.add(first);
-        visited.put(start,first);
-        // Exec stats
-        execStats.incNodesVisitedNum();
-        // We will assign the destination queue item to this variable
-        QueueItem<Vertex<V>> target = null;
+        state.update(start,0,-1);
+        state.setEstimate(start,state.h(start,startData));
+        queue.insert(start,state.getEstimate(start));
+        boolean found = false;
         // While the queue is not empty
         while (!queue.isEmpty()) { 
-            // Get the queue's first node
-            QueueItem<Vertex<V>> current = queue.poll();
+            // Get the node with the lowest estimated total cost and close it
+            int current = queue.poll();
+            state.close(current);
+            // Exec stats
+            stats.incNodesVisitedNum();
             // If it is the destination, stop the iteration
-            if (current.node.equals(end)) { 
-                target = current;
+            if (current == end) { 
+                found = true;
                 break;
             }
-            // Add the neighbors in the queue
-            for (Edge<Vertex<V>> edge : current.node.getEdges()) { 
-                // Calculate the total cost
-                int totalCost = current.totalCost + 
-                                ((edge instanceof WeightedEdge) ? 
-                                    ((WeightedEdge) edge).getCost() : 1);
-                // If we haven't visited yet the child node
-                QueueItem<Vertex<V>> child = visited.get(edge.getVertex());
-                if (child == null) { 
-                    // Add the node in the queue
-                    child = new QueueItem<>(edge.getVertex(),current.node,totalCost);
-                    queue.add(child);
-                    // Mark the node as visited
-                    visited.put(edge.getVertex(),child);
-                    // Exec stats
-                    execStats.incNodesVisitedNum();
-                // If we have already visited the child node, we have to
-                // check if its path from the root node has to be updated
-                } else { 
-                    // If the new total cost is less than the existing one
-                    if (totalCost < child.totalCost)
-                        // Update child's path from the root
-                        child.parent = current.node;
-                }
+            // Iterate over its direct neighbors
+            if (compactGraph != null) { 
+                for (int e = compactGraph.edgesStart(current); e < compactGraph.edgesEnd(current); e++)
+                    relax(state,current,compactGraph.target(e),null,compactGraph.weight(e));
+            } else { 
+                state.node = current;
+                state.vertexOf(current).forEachNeighbor(state);
             }
         }
         
         // Build the path from start to end
         Path<Vertex<V>> path = new Path<>();
-        QueueItem<Vertex<V>> run = target;
-        while (run != null) { 
-            path.prepend(run.node);
-            run = visited.get(run.parent);
+        if (found) { 
+            for (int run = end; run != -1; run = state.getParent(run))
+                path.prepend(state.vertexOf(run));
         }
         // Exec stats
-        execStats.stopExecution();
-        ((FindPathAlgorithmExecutionStats) execStats).setSolutionFound(target != null);
-        ((FindPathAlgorithmExecutionStats) execStats).setPathLength(path.size());
+        stats.stopExecution();
+        stats.setSolutionFound(found);
+        stats.setPathLength(path.size());
+        execStats = stats;
         // Return the path
-        return path;
+        return new FindPathResult<>(path,stats);
     }
-
+    
     /**
-     * Finds the shortest path between two nodes in a graph using the A* algorithm.
-     * For each vertex, the corresponding data has to be provided.
+     * Relaxes an edge of the search.
      * 
-     * @param start the corresponding data of the starting vertex
-     * @param end the corresponding data of the destination vertex
+     * @param state the state of the search
+     * @param node the node that is expanded
+     * @param child the node at the other end of the edge
+     * @param childData the data of the child node (null on a compact graph, where it is found by the id)
+     * @param weight the weight of the edge
+     */
+    private void relax(SearchState state, int node, int child, V childData, int weight) { 
+        int totalCost = state.getCost(node) + weight;
+        // Nothing to do if the child node is not reached with a lower cost
+        if (totalCost >= state.getCost(child))
+            return;
+        // The heuristic value of each node is calculated only once
+        if (!state.isDiscovered(child))
+            state.setEstimate(child,state.h(child,childData));
+        // Update child's path from the root
+        state.update(child,totalCost,node);
+        // Reopen the node if it was closed, otherwise insert it or decrease its key
+        if (state.isClosed(child)) { 
+            state.reopen(child);
+            state.getHeap().insert(child,totalCost + state.getEstimate(child));
+        } else
+            state.getHeap().insertOrDecreaseKey(child,totalCost + state.getEstimate(child));
+    }
+    
+    /**
+     * Creates the tie breaker of the open set of a search: among nodes with
+     * equal f, the one with the lower h is expanded first and then the 
+     * collision resolution comparator decides.
      * 
-     * @return the shortest path from start to end
+     * @param workspace the workspace of the search
+     * @param ids the mapping of the node ids to the vertices
      * 
-     * @throws VertexNotInGraphException in case that any of the two vertices doesn't belong to the graph
+     * @return the tie breaker
      */
-    public Path findShortestPath(V start, V end) throws VertexNotInGraphException { 
-        // Find the corresponding vertices
-        Vertex<V> startVertex = graph.getVertexWithData(start);
-        if (startVertex == null)
-            throw new VertexNotInGraphException("The graph does not contain any vertex with data: " + start);
-        Vertex<V> endVertex = graph.getVertexWithData(end);
-        if (endVertex == null)
-            throw new VertexNotInGraphException("The graph does not contain any vertex with data: " + end);
-        return findShortestPath(startVertex,endVertex);
+    private IndexedMinHeap.TieBreaker newTieBreaker(final SearchWorkspace workspace, final VertexIdMapping<V> ids) { 
+        return new IndexedMinHeap.TieBreaker() { 
+            @Override
+            public int compare(int a, int b) { 
+                if (workspace.getEstimate(a) != workspace.getEstimate(b) || collisionComp == null)
+                    return Integer.compare(workspace.getEstimate(a),workspace.getEstimate(b));
+                return collisionComp.compare(ids.vertexById(a),ids.vertexById(b));
+            }
+        };
     }
     
+    /**
+     * {@inheritDoc}
+     * The workspace holds the state of the searches of the thread and among
+     * nodes with equal f, the one with the lower h is expanded first.
+     */
+    @Override
+    protected SearchWorkspace newWorkspace() { 
+        return new SearchState(workspaceCapacity());
+    }
+
 }
@@ -5,18 +5,13 @@
  */
 package com.sitienda.graphima.alg;
 
-import com.sitienda.graphima.Edge;
+import com.sitienda.graphima.CompactGraph;
 import com.sitienda.graphima.Graph;
+import com.sitienda.graphima.NeighborVisitor;
 import com.sitienda.graphima.Vertex;
+import com.sitienda.graphima.VertexIdMapping;
 import com.sitienda.graphima.exceptions.VertexNotInGraphException;
 import com.sitienda.graphima.path.Path;
-import java.util.ArrayDeque;
-import java.util.Comparator;
-import java.util.Deque;
-import java.util.HashMap;
-import java.util.LinkedList;
-import java.util.List;
-import java.util.Map;
 
 /**
  * BFS (Breadth First Search) algorithm. 
@@ -26,12 +21,16 @@ import java.util.Map;
  * The class provides the option to supply a {@link com.sitienda.graphima.alg.NodeComparator}
  * object in case that a manual collision resolution is necessary.
  * </p>
+ * <p>
+ * The algorithm can run either on a {@link com.sitienda.graphima.Graph} or on 
+ * a {@link com.sitienda.graphima.CompactGraph} snapshot.
+ * </p>
  *
  * @param <V> the type of the objects that the graph contains
  * 
  * @author Vasileios Nikakis
  */
-public class BFSShortestPath<V> extends GraphAlgorithm<V> {
+public class BFSShortestPath<V> extends GraphAlgorithm<V> implements ShortestPathAlgorithm<V> {
     
     /**
      * Collision resolution comparator object.
@@ -40,20 +39,48 @@ public class BFSShortestPath<V> extends GraphAlgorithm<V> {
     
     /**
      * Inner helper class.
-     * For each node, the parent node is stored.
-     * 
-     * @param <T> each QueueItem encapsulates a Vertex
+     * It is the search workspace of a thread, that keeps the parent of each
+     * visited node and the queue. On a graph it numbers the vertices with 
+     * a {@link GraphAlgorithm.Numbering} that is kept with the workspace and
+     * it visits the children of the node that the search expands, as they
+     * are visited by {@link Vertex#forEachNeighbor(NeighborVisitor)}, adding
+     * the ones that haven't been visited yet in the queue. It also holds the
+     * order of the collision resolution comparator over the node ids.
      */
-    private class QueueItem<T extends Vertex<V>> { 
+    private class Search extends SearchWorkspace implements NeighborVisitor<V> { 
         
-        T node;
-        T parent;
+        final Numbering numbering;
+        final IndexedMinHeap.TieBreaker order;
+        int node;
+        int tail;
         
-        public QueueItem(T node, T parent) { 
-            this.node = node;
-            this.parent = parent;
+        public Search(int capacity) { 
+            super(capacity);
+            numbering = (compactGraph == null) ? new Numbering(this) : null;
+            if (collisionComp != null)
+                order = newOrder((numbering != null) ? numbering : compactGraph);
+            else
+                order = null;
         }
         
+        public void start() { 
+            if (numbering != null)
+                numbering.reset();
+            tail = 0;
+        }
+        
+        @Override
+        public void visit(Vertex<V> neighbor, int weight) { 
+            int child = numbering.idOf(neighbor);
+            // If we haven't visited yet the child node
+            if (!isDiscovered(child)) { 
+                // Add the node in the queue and mark it as visited; the
+                // queue may have grown with the ids
+                getItems()[tail++] = child;
+                update(child,0,node);
+            }
+        }
+    
     }
     
     /**
@@ -79,6 +106,29 @@ public class BFSShortestPath<V> extends GraphAlgorithm<V> {
         execStats = new FindPathAlgorithmExecutionStats("BFS shortest path");
     }
     
+    /**
+     * Constructor.
+     * 
+     * @param graph the compact graph
+     */
+    public BFSShortestPath(CompactGraph<V> graph) {
+        super(graph);
+        collisionComp = null;
+        execStats = new FindPathAlgorithmExecutionStats("BFS shortest path");
+    }
+    
+    /**
+     * Constructor.
+     * 
+     * @param graph the compact graph
+     * @param collisionComp the node comparator to resolve any collisions
+     */
+    public BFSShortestPath(CompactGraph<V> graph, NodeComparator<V> collisionComp) {
+        super(graph);
+        this.collisionComp = collisionComp;
+        execStats = new FindPathAlgorithmExecutionStats("BFS shortest path");
+    }
+    
     /**
      * Finds the shortest path between start and end vertices using the BFS algorithm.
      * 
@@ -90,6 +140,40 @@ public class BFSShortestPath<V> extends GraphAlgorithm<V> {
      * @throws VertexNotInGraphException in case that any of the two vertices doesn't belong to the graph
      */
     public Path findShortestPath(Vertex<V> start, Vertex<V> end) throws VertexNotInGraphException { 
+        return findShortestPathResult(start,end).getPath();
+    }
+    
+    /**
+     * Finds the shortest path between two nodes in a graph using the BFS algorithm.
+     * For each vertex, the corresponding data has to be provided.
+     * 
+     * @param start the corresponding data of the starting vertex
+     * @param end the corresponding data of the destination vertex
+     * 
+     * @return the shortest path from start to end
+     * 
+     * @throws VertexNotInGraphException in case that any of the two vertices doesn't belong to the graph
+     */
+    public Path findShortestPath(V start, V end) throws VertexNotInGraphException { 
+        return findShortestPathResult(start,end).getPath();
+    }
+    
+    /**
+     * Finds the shortest path between start and end vertices using the BFS algorithm.
+     * The result holds the statistics of this query, so the algorithm 
+     * object can be shared between threads.
+     * 
+     * @param start the starting vertex
+     * @param end the destination vertex
+     * 
+     * @return the shortest path from start to end and the query's stats
+     * 
+     * @throws VertexNotInGraphException in case that any of the two vertices doesn't belong to the graph
+     */
+    public FindPathResult<V> findShortestPathResult(Vertex<V> start, Vertex<V> end) throws VertexNotInGraphException { 
+        // A compact graph is searched through the vertex ids
+        if (compactGraph != null)
+            return findShortestPathResult(start.getData(),end.getData());
         // Both vertices have to exist inside the graph
         if (!graph.contains(start))
             throw new VertexNotInGraphException("The starting point vertex (" + start + ") doesn't exist in the graph");
@@ -97,98 +181,87 @@ public class BFSShortestPath<V> extends GraphAlgorithm<V> {
             throw new VertexNotInGraphException("The ending point vertex (" + end + ") doesn't exist in the graph");
         
         // Exec stats
-        execStats.reset();
+        FindPathAlgorithmExecutionStats stats = newFindPathStats();
         
-        // We need a queue to store the nodes that wait to be examined
-        Deque<QueueItem<Vertex<V>>> queue = new ArrayDeque<>();
-        // We need a map to be able to extract the path after the execution of the algorithm
-        Map<Vertex<V>,QueueItem<Vertex<V>>> visited = new HashMap<>();
+        // The workspace of the thread keeps the parent of each visited node
+        // and it adds the children of each node to the queue
+        @SuppressWarnings("unchecked")
+        Search search = (Search) workspace();
+        search.start();
+        Numbering numbering = search.numbering;
+        search.setTarget(numbering.idOf(end));
+        int head = 0;
         
         // Add the starting node in the queue
-        QueueItem<Vertex<V>> first = new QueueItem<>(start,null);
-        queue.add(first);
-        visited.put(start,first);
+        int first = numbering.idOf(start);
+        search.getItems()[search.tail++] = first;
+        search.update(first,0,-1);
         // Exec stats
-        execStats.incNodesVisitedNum();
-        // We will assign the destination queue item to this variable
-        QueueItem<Vertex<V>> target = null;
+        stats.incNodesVisitedNum();
+        boolean found = false;
         // While the queue is not empty
-        while (!queue.isEmpty()) { 
+        while (head < search.tail) { 
             // Get the queue's first node
-            QueueItem<Vertex<V>> current = queue.pop();
+            int current = search.getItems()[head++];
             // If it is the destination, stop the iteration
-            if (current.node.equals(end)) { 
-                target = current;
+            if (current == search.getTarget()) { 
+                found = true;
                 break;
             }
+            // Add the children that haven't been visited yet in the queue
+            int from = search.tail;
+            search.node = current;
+            numbering.vertexById(current).forEachNeighbor(search);
             // If no comparator was defined for collision resolution
             if (collisionComp == null) { 
-                for (Edge<Vertex<V>> edge : current.node.getEdges()) { 
-                    // If we haven't visited yet the child node
-                    if (visited.get(edge.getVertex()) == null) { 
-                        // Add the node in the queue
-                        QueueItem<Vertex<V>> child = new QueueItem<>(edge.getVertex(),current.node);
-                        queue.add(child);
-                        // Mark the node as visited
-                        visited.put(edge.getVertex(),child);
-                        // Exec stats
-                        execStats.incNodesVisitedNum();
-                    }
-                }
-            // If a comparator for collision resolution was defined
-            } else { 
-                // Create a temporary list to resolve collisions
-                List<QueueItem<Vertex<V>>> children = new LinkedList<>();
-                for (Edge<Vertex<V>> edge : current.node.getEdges()) { 
-                    // If we haven't visited yet the child node
-                    if (visited.get(edge.getVertex()) == null) { 
-                        // Add the node in the temporary list
-                        QueueItem<Vertex<V>> child = new QueueItem<>(edge.getVertex(),current.node);
-                        children.add(child);
-                        // Mark the node as visited
-                        visited.put(edge.getVertex(),child);
-                    }
-                }
-                // Sort the list using the collision resolution comparator
-                children.sort(new Comparator<QueueItem<Vertex<V>>>() {
-                    @Override
-                    public int compare(QueueItem<Vertex<V>> a, QueueItem<Vertex<V>> b) {
-                        return collisionComp.compare(a.node.getData(),b.node.getData());
-                    }
-                });
-                // Add the list items in the queue
-                for (QueueItem<Vertex<V>> child : children)
-                    queue.add(child);
-            }
+                // Exec stats
+                for (int i = from; i < search.tail; i++)
+                    stats.incNodesVisitedNum();
+            // If a comparator for collision resolution was defined, sort 
+            // the newly added nodes
+            } else if (search.tail - from > 1) 
+                sortIds(search.getItems(),from,search.tail,search.order);
         }
         
         // Build the path from start to end
         Path<Vertex<V>> path = new Path<>();
-        QueueItem<Vertex<V>> run = target;
-        while (run != null) { 
-            path.prepend(run.node);
-            run = visited.get(run.parent);
+        if (found) { 
+            for (int run = search.getTarget(); run != -1; run = search.getParent(run))
+                path.prepend(numbering.vertexById(run));
         }
         // Exec stats
-        execStats.stopExecution();
-        ((FindPathAlgorithmExecutionStats) execStats).setSolutionFound(target != null);
-        ((FindPathAlgorithmExecutionStats) execStats).setPathLength(path.size());
+        stats.stopExecution();
+        stats.setSolutionFound(found);
+        stats.setPathLength(path.size());
+        execStats = stats;
         // Return the path
-        return path;
+        return new FindPathResult<>(path,stats);
     }
 
     /**
      * Finds the shortest path between two nodes in a graph using the BFS algorithm.
      * For each vertex, the corresponding data has to be provided.
+     * The result holds the statistics of this query, so the algorithm 
+     * object can be shared between threads.
      * 
      * @param start the corresponding data of the starting vertex
      * @param end the corresponding data of the destination vertex
      * 
-     * @return the shortest path from start to end
+     * @return the shortest path from start to end and the query's stats
      * 
      * @throws VertexNotInGraphException in case that any of the two vertices doesn't belong to the graph
      */
-    public Path findShortestPath(V start, V end) throws VertexNotInGraphException { 
+    public FindPathResult<V> findShortestPathResult(V start, V end) throws VertexNotInGraphException { 
+        // Find the corresponding vertex ids in the compact graph
+        if (compactGraph != null) { 
+            int startId = compactGraph.idOf(start);
+            if (startId < 0)
+                throw new VertexNotInGraphException("The graph does not contain any vertex with data: " + start);
+            int endId = compactGraph.idOf(end);
+            if (endId < 0)
+                throw new VertexNotInGraphException("The graph does not contain any vertex with data: " + end);
+            return findShortestPathResult(startId,endId);
+        }
         // Find the corresponding vertices
         Vertex<V> startVertex = graph.getVertexWithData(start);
         if (startVertex == null)
@@ -196,7 +269,102 @@ public class BFSShortestPath<V> extends GraphAlgorithm<V> {
         Vertex<V> endVertex = graph.getVertexWithData(end);
         if (endVertex == null)
             throw new VertexNotInGraphException("The graph does not contain any vertex with data: " + end);
-        return findShortestPath(startVertex,endVertex);
+        return findShortestPathResult(startVertex,endVertex);
+    }
+    
+    /**
+     * Finds the shortest path between start and end vertices of the compact 
+     * graph using the BFS algorithm.
+     * 
+     * @param start the id of the starting vertex
+     * @param end the id of the destination vertex
+     * 
+     * @return the shortest path from start to end and the query's stats
+     */
+    private FindPathResult<V> findShortestPathResult(int start, int end) { 
+        // Exec stats
+        FindPathAlgorithmExecutionStats stats = newFindPathStats();
+        
+        // The workspace of the thread keeps the parent of each visited node
+        @SuppressWarnings("unchecked")
+        Search workspace = (Search) workspace();
+        // Each node enters the queue at most once, so an array is enough
+        int[] queue = workspace.getItems();
+        int head = 0, tail = 0;
+        
+        // Add the starting node in the queue
+        queue[tail++] = start;
+        workspace.update(start,0,-1);
+        // Exec stats
+        stats.incNodesVisitedNum();
+        boolean found = false;
+        // While the queue is not empty
+        while (head < tail) { 
+            // Get the queue's first node
+            int current = queue[head++];
+            // If it is the destination, stop the iteration
+            if (current == end) { 
+                found = true;
+                break;
+            }
+            int first = tail;
+            for (int e = compactGraph.edgesStart(current); e < compactGraph.edgesEnd(current); e++) { 
+                int child = compactGraph.target(e);
+                // If we haven't visited yet the child node
+                if (!workspace.isDiscovered(child)) { 
+                    // Add the node in the queue and mark it as visited
+                    queue[tail++] = child;
+                    workspace.update(child,0,current);
+                    // Exec stats
+                    if (collisionComp == null)
+                        stats.incNodesVisitedNum();
+                }
+            }
+            // If a comparator for collision resolution was defined, sort 
+            // the newly added nodes
+            if (collisionComp != null && tail - first > 1)
+                sortIds(queue,first,tail,workspace.order);
+        }
+        
+        // Build the path from start to end
+        Path<Vertex<V>> path = new Path<>();
+        if (found) { 
+            for (int run = end; run != -1; run = workspace.getParent(run))
+                path.prepend(compactGraph.vertexById(run));
+        }
+        // Exec stats
+        stats.stopExecution();
+        stats.setSolutionFound(found);
+        stats.setPathLength(path.size());
+        execStats = stats;
+        // Return the path
+        return new FindPathResult<>(path,stats);
+    }
+    
+    /**
+     * Creates the order of the node ids of a search, that compares their
+     * vertices with the collision resolution comparator.
+     * 
+     * @param ids the ids of the search
+     * 
+     * @return the order
+     */
+    private IndexedMinHeap.TieBreaker newOrder(final VertexIdMapping<V> ids) { 
+        return new IndexedMinHeap.TieBreaker() { 
+            @Override
+            public int compare(int a, int b) { 
+                return collisionComp.compare(ids.vertexById(a).getData(),ids.vertexById(b).getData());
+            }
+        };
+    }
+    
+    /**
+     * {@inheritDoc}
+     * The workspace holds the state of the searches of the thread.
+     */
+    @Override
+    protected SearchWorkspace newWorkspace() { 
+        return new Search(workspaceCapacity());
     }
     
 }
@@ -0,0 +1,321 @@
+/**
+ * Copyright (C) 2019, by Vasileios Nikakis
+ *
+ * graphima: yet another Java graph-theory library
+ */
+package com.sitienda.graphima.alg;
+
+import com.sitienda.graphima.CompactGraph;
+import com.sitienda.graphima.Graph;
+import com.sitienda.graphima.Vertex;
+import com.sitienda.graphima.exceptions.VertexNotInGraphException;
+import com.sitienda.graphima.path.DistanceMatrix;
+import com.sitienda.graphima.path.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Many-to-many shortest path queries.
+ * It computes the distances from a collection of source vertices to a
+ * collection of target vertices, using many threads.
+ * <p>
+ * A single Dijkstra search runs for each source and stops as soon as all
+ * the targets are settled, so the work is one search per source and not
+ * one per pair. The searches are distributed to the threads of a
+ * {@link java.util.concurrent.ForkJoinPool} (see
+ * {@link GraphAlgorithm#newPool(int)}). Each thread keeps its own 
+ * {@link SearchWorkspace} for all the batches of the executor, so a search
+ * only touches the nodes it visits.
+ * </p>
+ * <p>
+ * The result is a {@link DistanceMatrix}, optionally with the paths. The
+ * duplicate sources and targets are dropped. The execution stats describe
+ * the last batch; the nodes visited are the nodes settled by all the
+ * searches, up to Integer.MAX_VALUE. The algorithm runs on a
+ * {@link com.sitienda.graphima.CompactGraph}; a
+ * {@link com.sitienda.graphima.Graph} is frozen on construction.
+ * </p>
+ *
+ * @param <V> the type of the objects that the graph contains
+ *
+ * @author Vasileios Nikakis
+ */
+public class BatchShortestPathExecutor<V> extends GraphAlgorithm<V> {
+    
+    /**
+     * Max integer as infinity.
+     */
+    private static final int INF = Integer.MAX_VALUE;
+    
+    /**
+     * The thread pool that runs the searches.
+     */
+    private final ForkJoinPool pool;
+    /**
+     * Inner helper class.
+     * It runs the searches of a range of sources, fills their rows and 
+     * returns the number of the nodes that they settled.
+     */
+    private class SearchTask extends RecursiveTask<Long> { 
+        
+        private static final long serialVersionUID = 1L;
+        
+        final int[] sources;
+        final int[] targets;
+        final int[] distances;
+        final Path<Vertex<V>>[] paths;
+        final int from;
+        final int to;
+        
+        public SearchTask(int[] sources, int[] targets, int[] distances, Path<Vertex<V>>[] paths, int from, int to) { 
+            this.sources = sources;
+            this.targets = targets;
+            this.distances = distances;
+            this.paths = paths;
+            this.from = from;
+            this.to = to;
+        }
+        
+        @Override
+        protected Long compute() { 
+            // Each search is heavy enough to be a task of its own
+            if (to - from > 1) { 
+                int middle = (from + to) >>> 1;
+                SearchTask left = new SearchTask(sources,targets,distances,paths,from,middle);
+                left.fork();
+                long nodesVisited = new SearchTask(sources,targets,distances,paths,middle,to).compute();
+                return nodesVisited + left.join();
+            }
+            SearchWorkspace workspace = workspace();
+            long nodesVisited = search(workspace,sources[from],targets);
+            int row = from * targets.length;
+            for (int column = 0; column < targets.length; column++) { 
+                distances[row + column] = distanceTo(workspace,targets[column]);
+                if (paths != null)
+                    paths[row + column] = pathTo(workspace,targets[column]);
+            }
+            return nodesVisited;
+        }
+    
+    }
+    
+    /**
+     * Constructor.
+     * All the available processors are used.
+     * 
+     * @param graph the graph
+     */
+    public BatchShortestPathExecutor(Graph<V> graph) { 
+        this(graph.freeze());
+    }
+    
+    /**
+     * Constructor.
+     * All the available processors are used.
+     * 
+     * @param graph the compact graph
+     */
+    public BatchShortestPathExecutor(CompactGraph<V> graph) { 
+        this(graph,Runtime.getRuntime().availableProcessors());
+    }
+    
+    /**
+     * Constructor
+     * 
+     * @param graph the compact graph
+     * @param parallelism the number of threads
+     */
+    public BatchShortestPathExecutor(CompactGraph<V> graph, int parallelism) { 
+        this(graph,newPool(parallelism));
+    }
+    
+    /**
+     * Constructor
+     * 
+     * @param graph the compact graph
+     * @param pool the thread pool that runs the searches, that the executor doesn't shut down
+     */
+    public BatchShortestPathExecutor(CompactGraph<V> graph, ForkJoinPool pool) { 
+        super(graph);
+        if (pool == null)
+            throw new IllegalArgumentException("The thread pool can't be null");
+        this.pool = pool;
+        execStats = new AlgorithmExecutionStats("Batch shortest paths");
+    }
+    
+    /**
+     * 
+     * @return the number of threads
+     */
+    public int getParallelism() { 
+        return pool.getParallelism();
+    }
+    
+    /**
+     * Computes the distances from each source to each target.
+     * The data of the vertices has to be provided.
+     * 
+     * @param sources the data of the source vertices
+     * @param targets the data of the target vertices
+     * 
+     * @return the {@link DistanceMatrix} without the paths
+     * 
+     * @throws VertexNotInGraphException in case a vertex was not found
+     */
+    public DistanceMatrix<V> computeDistances(Collection<V> sources, Collection<V> targets) throws VertexNotInGraphException { 
+        return execute(sources,targets,false);
+    }
+    
+    /**
+     * Computes the distances and the shortest paths from each source to each target.
+     * The data of the vertices has to be provided.
+     * 
+     * @param sources the data of the source vertices
+     * @param targets the data of the target vertices
+     * 
+     * @return the {@link DistanceMatrix} with the paths
+     * 
+     * @throws VertexNotInGraphException in case a vertex was not found
+     */
+    public DistanceMatrix<V> computePaths(Collection<V> sources, Collection<V> targets) throws VertexNotInGraphException { 
+        return execute(sources,targets,true);
+    }
+    
+    /**
+     * Runs one search for each source.
+     * 
+     * @param sources the data of the source vertices
+     * @param targets the data of the target vertices
+     * @param withPaths true if the paths have to be kept
+     * 
+     * @return the {@link DistanceMatrix}
+     * 
+     * @throws VertexNotInGraphException in case a vertex was not found
+     */
+    private DistanceMatrix<V> execute(Collection<V> sources, Collection<V> targets, boolean withPaths) throws VertexNotInGraphException { 
+        List<V> sourceList = new ArrayList<>(new LinkedHashSet<>(sources));
+        List<V> targetList = new ArrayList<>(new LinkedHashSet<>(targets));
+        int[] sourceIds = idsOf(sourceList);
+        int[] targetIds = idsOf(targetList);
+        
+        // Exec stats
+        AlgorithmExecutionStats stats = newExecStats();
+        
+        int[] distances = new int[sourceIds.length * targetIds.length];
+        // The array holds only the paths of the vertices of the graph
+        @SuppressWarnings("unchecked")
+        Path<Vertex<V>>[] paths = withPaths ? new Path[distances.length] : null;
+        long nodesVisited = 0;
+        if (sourceIds.length > 0)
+            nodesVisited = pool.invoke(new SearchTask(sourceIds,targetIds,distances,paths,0,sourceIds.length));
+        
+        // Exec stats
+        // The searches of a large batch may settle more nodes than an int holds
+        stats.setNodesVisitedNum((int) Math.min(nodesVisited,Integer.MAX_VALUE));
+        stats.stopExecution();
+        execStats = stats;
+        return new DistanceMatrix<>(sourceList,targetList,distances,paths);
+    }
+    
+    /**
+     * Runs a search from a source until all the targets are settled.
+     * The targets are discovered with an infinite cost before the search and
+     * marked by their estimate.
+     * 
+     * @param workspace the reset workspace of the current thread
+     * @param source the id of the source vertex
+     * @param targets the ids of the target vertices
+     * 
+     * @return the number of the nodes that were settled
+     */
+    private int search(SearchWorkspace workspace, int source, int[] targets) { 
+        IndexedMinHeap queue = workspace.getHeap();
+        int nodesVisited = 0;
+        int remaining = 0;
+        for (int t : targets) { 
+            if (!workspace.isDiscovered(t)) { 
+                workspace.update(t,INF,-1);
+                workspace.setEstimate(t,1);
+                remaining++;
+            }
+        }
+        if (!workspace.isDiscovered(source))
+            workspace.setEstimate(source,0);
+        workspace.update(source,0,-1);
+        queue.insert(source,0);
+        
+        while (!queue.isEmpty() && remaining > 0) { 
+            int node = queue.poll();
+            workspace.close(node);
+            nodesVisited++;
+            if (workspace.getEstimate(node) == 1)
+                remaining--;
+            int nodeCost = workspace.getCost(node);
+            for (int e = compactGraph.edgesStart(node); e < compactGraph.edgesEnd(node); e++) { 
+                int child = compactGraph.target(e);
+                if (workspace.isClosed(child))
+                    continue;
+                int newCost = nodeCost + compactGraph.weight(e);
+                if (!workspace.isDiscovered(child))
+                    workspace.setEstimate(child,0);
+                else if (newCost >= workspace.getCost(child))
+                    continue;
+                workspace.update(child,newCost,node);
+                queue.insertOrDecreaseKey(child,newCost);
+            }
+        }
+        return nodesVisited;
+    }
+    
+    /**
+     * 
+     * @param workspace the workspace of a search
+     * @param node the node id
+     * 
+     * @return the distance of a target after the search
+     */
+    private int distanceTo(SearchWorkspace workspace, int node) { 
+        return workspace.isClosed(node) ? workspace.getCost(node) : INF;
+    }
+    
+    /**
+     * Builds the path to a target after a search.
+     * 
+     * @param workspace the workspace of the search
+     * @param node the node id
+     * 
+     * @return the path or an empty path if the target can't be reached
+     */
+    private Path<Vertex<V>> pathTo(SearchWorkspace workspace, int node) { 
+        Path<Vertex<V>> path = new Path<>();
+        if (workspace.isClosed(node)) { 
+            for (int run = node; run != -1; run = workspace.getParent(run))
+                path.prepend(compactGraph.vertexById(run));
+        }
+        return path;
+    }
+    
+    /**
+     * Returns the ids of the vertices with specific data.
+     * 
+     * @param data the data of the vertices
+     * 
+     * @return the vertex ids
+     * 
+     * @throws VertexNotInGraphException in case a vertex was not found
+     */
+    private int[] idsOf(List<V> data) throws VertexNotInGraphException { 
+        int[] ids = new int[data.size()];
+        for (int i = 0; i < ids.length; i++) { 
+            ids[i] = compactGraph.idOf(data.get(i));
+            if (ids[i] < 0)
+                throw new VertexNotInGraphException("Vertex (" + data.get(i) + ") doesn't exist in the graph");
+        }
+        return ids;
+    }
+
+}
@@ -0,0 +1,371 @@
+/**
+ * Copyright (C) 2019, by Vasileios Nikakis
+ *
+ * graphima: yet another Java graph-theory library
+ */
+package com.sitienda.graphima.alg;
+
+import com.sitienda.graphima.CompactGraph;
+import com.sitienda.graphima.Graph;
+import com.sitienda.graphima.NeighborVisitor;
+import com.sitienda.graphima.Vertex;
+import com.sitienda.graphima.exceptions.VertexNotInGraphException;
+import com.sitienda.graphima.path.Path;
+
+/**
+ * Bidirectional BFS (Breadth First Search) algorithm.
+ * It discovers the shortest path in a graph between two vertices, by running
+ * a BFS from the start vertex and a BFS from the destination vertex that
+ * meet in the middle.
+ * <p>
+ * At each step a whole level of the search with the smaller frontier is
+ * expanded. The algorithm stops at the first level where the two searches
+ * meet, so for a path of length d only the nodes up to a depth of about d/2
+ * from each end are visited, instead of the nodes up to a depth of d.
+ * </p>
+ * <p>
+ * On directed graphs the backward search follows the incoming edges. For a
+ * {@link com.sitienda.graphima.Graph} they are visited through the index of
+ * the incoming edges of each vertex. For a
+ * {@link com.sitienda.graphima.CompactGraph} the
+ * {@link com.sitienda.graphima.CompactGraph#reverse()} graph is used.
+ * </p>
+ *
+ * @param <V> the type of the objects that the graph contains
+ *
+ * @author Vasileios Nikakis
+ */
+public class BidirectionalBFSShortestPath<V> extends GraphAlgorithm<V> implements ShortestPathAlgorithm<V> {
+    
+    /**
+     * The workspace of the backward search of each thread; the forward 
+     * search uses the workspace of {@link GraphAlgorithm}.
+     */
+    private final ThreadLocal<SearchWorkspace> backwardWorkspaces = new ThreadLocal<SearchWorkspace>() { 
+        @Override
+        protected SearchWorkspace initialValue() { 
+            return newWorkspace();
+        }
+    };
+    
+    /**
+     * Inner helper class.
+     * It holds the state of the search in one direction. The depth and the
+     * parent of each node are kept in a {@link SearchWorkspace} of the 
+     * thread, and the nodes are stored in its buffer in the order they were
+     * discovered, so the current frontier is always the range 
+     * [levelStart, tail).
+     */
+    private class Search { 
+        
+        final boolean forward;
+        final CompactGraph<V> adjacency;
+        final SearchWorkspace workspace;
+        int levelStart;
+        int tail;
+        
+        public Search(boolean forward, SearchWorkspace workspace) { 
+            this.forward = forward;
+            if (compactGraph != null)
+                adjacency = forward ? compactGraph : compactGraph.reverse();
+            else
+                adjacency = null;
+            this.workspace = workspace;
+            levelStart = 0;
+            tail = 0;
+        }
+        
+        public void add(int node, int parentNode, int nodeDepth) { 
+            workspace.update(node,nodeDepth,parentNode);
+            // The buffer is replaced when the workspace grows
+            workspace.getItems()[tail++] = node;
+        }
+        
+        public int depth(int node) { 
+            return workspace.getCost(node);
+        }
+        
+        public int frontierSize() { 
+            return tail - levelStart;
+        }
+    
+    }
+    
+    /**
+     * Inner helper class.
+     * It holds the state of both searches. Each node has an id that is
+     * common to both: on a compact graph the ids of the graph itself, 
+     * otherwise the ids of a {@link GraphAlgorithm.Numbering}. The 
+     * workspaces of the thread are reused, so a query only allocates the
+     * path.
+     */
+    private class SearchState { 
+        
+        Numbering numbering;
+        Search forward;
+        Search backward;
+        int meetingNode;
+        FindPathAlgorithmExecutionStats stats;
+        
+        public SearchState(FindPathAlgorithmExecutionStats stats) { 
+            SearchWorkspace forwardWorkspace = workspace();
+            SearchWorkspace backwardWorkspace = resetWorkspace(backwardWorkspaces.get());
+            if (compactGraph == null)
+                numbering = new Numbering(forwardWorkspace,backwardWorkspace);
+            forward = new Search(true,forwardWorkspace);
+            backward = new Search(false,backwardWorkspace);
+            meetingNode = -1;
+            this.stats = stats;
+        }
+        
+        public int find(V vertexData) { 
+            if (compactGraph != null)
+                return compactGraph.idOf(vertexData);
+            // The graph's own vertex objects are used, since they hold the edges
+            Vertex<V> vertex = (vertexData != null) ? graph.getVertexWithData(vertexData) : null;
+            return (vertex != null) ? numbering.idOf(vertex) : -1;
+        }
+        
+        public int idOf(Vertex<V> vertex) { 
+            return numbering.idOf(vertex);
+        }
+        
+        public Vertex<V> vertexOf(int id) { 
+            if (compactGraph != null)
+                return compactGraph.vertexById(id);
+            return numbering.vertexById(id);
+        }
+    
+    }
+    
+    /**
+     * Inner helper class.
+     * It visits the children of the node that a search expands, as they are
+     * visited by {@link Vertex#forEachNeighbor(NeighborVisitor)} or
+     * {@link Vertex#forEachPredecessor(NeighborVisitor)}, and keeps the
+     * shortest path through a child that the other search has reached.
+     */
+    private class Expansion implements NeighborVisitor<V> { 
+        
+        final SearchState state;
+        Search current;
+        Search other;
+        int node;
+        int bestLength;
+        
+        public Expansion(SearchState state) { 
+            this.state = state;
+        }
+        
+        @Override
+        public void visit(Vertex<V> neighbor, int weight) { 
+            int child = state.idOf(neighbor);
+            int length = BidirectionalBFSShortestPath.this.visit(state,current,other,node,child);
+            if (length < bestLength) { 
+                bestLength = length;
+                state.meetingNode = child;
+            }
+        }
+    
+    }
+    
+    /**
+     * Constructor.
+     * 
+     * @param graph the graph
+     */
+    public BidirectionalBFSShortestPath(Graph<V> graph) { 
+        super(graph);
+        execStats = new FindPathAlgorithmExecutionStats("Bidirectional BFS shortest path");
+    }
+    
+    /**
+     * Constructor.
+     * 
+     * @param graph the compact graph
+     */
+    public BidirectionalBFSShortestPath(CompactGraph<V> graph) { 
+        super(graph);
+        execStats = new FindPathAlgorithmExecutionStats("Bidirectional BFS shortest path");
+    }
+    
+    /**
+     * Finds the shortest path between start and end vertices.
+     * 
+     * @param start the starting vertex
+     * @param end the destination vertex
+     * 
+     * @return the shortest path from start to end (an empty path if end can't be reached)
+     * 
+     * @throws VertexNotInGraphException in case that any of the two vertices doesn't belong to the graph
+     */
+    public Path findShortestPath(Vertex<V> start, Vertex<V> end) throws VertexNotInGraphException { 
+        return findShortestPathResult(start,end).getPath();
+    }
+    
+    /**
+     * Finds the shortest path between two nodes in a graph.
+     * For each vertex, the corresponding data has to be provided.
+     * 
+     * @param start the corresponding data of the starting vertex
+     * @param end the corresponding data of the destination vertex
+     * 
+     * @return the shortest path from start to end (an empty path if end can't be reached)
+     * 
+     * @throws VertexNotInGraphException in case that any of the two vertices doesn't belong to the graph
+     */
+    public Path findShortestPath(V start, V end) throws VertexNotInGraphException { 
+        return findShortestPathResult(start,end).getPath();
+    }
+    
+    /**
+     * Finds the shortest path between start and end vertices.
+     * The result holds the statistics of this query, so the algorithm 
+     * object can be shared between threads.
+     * 
+     * @param start the starting vertex
+     * @param end the destination vertex
+     * 
+     * @return the shortest path from start to end and the query's stats (an empty path if end can't be reached)
+     * 
+     * @throws VertexNotInGraphException in case that any of the two vertices doesn't belong to the graph
+     */
+    public FindPathResult<V> findShortestPathResult(Vertex<V> start, Vertex<V> end) throws VertexNotInGraphException { 
+        return findShortestPathResult(start.getData(),end.getData());
+    }
+    
+    /**
+     * Finds the shortest path between two nodes in a graph.
+     * For each vertex, the corresponding data has to be provided.
+     * The result holds the statistics of this query, so the algorithm 
+     * object can be shared between threads.
+     * 
+     * @param start the corresponding data of the starting vertex
+     * @param end the corresponding data of the destination vertex
+     * 
+     * @return the shortest path from start to end and the query's stats (an empty path if end can't be reached)
+     * 
+     * @throws VertexNotInGraphException in case that any of the two vertices doesn't belong to the graph
+     */
+    public FindPathResult<V> findShortestPathResult(V start, V end) throws VertexNotInGraphException { 
+        // Exec stats
+        FindPathAlgorithmExecutionStats stats = newFindPathStats();
+        
+        // Both vertices have to exist inside the graph
+        SearchState state = new SearchState(stats);
+        int startId = state.find(start);
+        if (startId < 0)
+            throw new VertexNotInGraphException("The starting point vertex (" + start + ") doesn't exist in the graph");
+        int endId = state.find(end);
+        if (endId < 0)
+            throw new VertexNotInGraphException("The ending point vertex (" + end + ") doesn't exist in the graph");
+        
+        search(state,startId,endId);
+        
+        // Build the path through the meeting node
+        Path<Vertex<V>> path = new Path<>();
+        if (state.meetingNode >= 0) { 
+            for (int run = state.meetingNode; run != -1; run = state.forward.workspace.getParent(run))
+                path.prepend(state.vertexOf(run));
+            for (int run = state.backward.workspace.getParent(state.meetingNode); run != -1; 
+                 run = state.backward.workspace.getParent(run))
+                path.add(state.vertexOf(run));
+        }
+        // Exec stats
+        stats.stopExecution();
+        stats.setSolutionFound(!path.isEmpty());
+        stats.setPathLength(path.size());
+        execStats = stats;
+        // Return the path
+        return new FindPathResult<>(path,stats);
+    }
+    
+    /**
+     * Expands the two searches level by level, until they meet or one of
+     * them runs out of nodes.
+     * 
+     * @param state the state of the searches
+     * @param start the id of the starting vertex
+     * @param end the id of the destination vertex
+     */
+    private void search(SearchState state, int start, int end) { 
+        Search forward = state.forward;
+        Search backward = state.backward;
+        forward.add(start,-1,0);
+        // Exec stats
+        state.stats.incNodesVisitedNum();
+        if (start == end) { 
+            state.meetingNode = start;
+            return;
+        }
+        backward.add(end,-1,0);
+        // Exec stats
+        state.stats.incNodesVisitedNum();
+        
+        Expansion expansion = (compactGraph == null) ? new Expansion(state) : null;
+        // While both searches have nodes to expand
+        while (forward.frontierSize() > 0 && backward.frontierSize() > 0) { 
+            // Expand the smaller frontier
+            Search current = (forward.frontierSize() <= backward.frontierSize()) ? forward : backward;
+            Search other = (current == forward) ? backward : forward;
+            int levelEnd = current.tail;
+            // The nodes of a whole level are expanded, since a node found
+            // later in the same level may lead to a shorter path
+            int bestLength = Integer.MAX_VALUE;
+            for (int i = current.levelStart; i < levelEnd; i++) { 
+                int node = current.workspace.getItems()[i];
+                if (compactGraph != null) { 
+                    CompactGraph<V> adjacency = current.adjacency;
+                    for (int e = adjacency.edgesStart(node); e < adjacency.edgesEnd(node); e++) { 
+                        int length = visit(state,current,other,node,adjacency.target(e));
+                        if (length < bestLength) { 
+                            bestLength = length;
+                            state.meetingNode = adjacency.target(e);
+                        }
+                    }
+                } else { 
+                    expansion.current = current;
+                    expansion.other = other;
+                    expansion.node = node;
+                    expansion.bestLength = bestLength;
+                    Vertex<V> vertex = state.vertexOf(node);
+                    if (current.forward || !graph.isDirected())
+                        vertex.forEachNeighbor(expansion);
+                    else
+                        vertex.forEachPredecessor(expansion);
+                    bestLength = expansion.bestLength;
+                }
+            }
+            current.levelStart = levelEnd;
+            // Stop at the first level where the two searches met
+            if (state.meetingNode >= 0)
+                return;
+        }
+    }
+    
+    /**
+     * Visits a child node of a search.
+     * 
+     * @param state the state of the searches
+     * @param current the search that is expanded
+     * @param other the search in the opposite direction
+     * @param node the parent node
+     * @param child the child node
+     * 
+     * @return the length of the path through the child node if the other
+     *         search has already reached it, otherwise Integer.MAX_VALUE
+     */
+    private int visit(SearchState state, Search current, Search other, int node, int child) { 
+        // If we haven't visited yet the child node
+        if (!current.workspace.isDiscovered(child)) { 
+            current.add(child,node,current.depth(node)+1);
+            // Exec stats
+            if (!other.workspace.isDiscovered(child))
+                state.stats.incNodesVisitedNum();
+        }
+        if (!other.workspace.isDiscovered(child))
+            return Integer.MAX_VALUE;
+        return current.depth(node) + 1 + other.depth(child);
+    }
+
+}
@@ -0,0 +1,412 @@
+/**
+ * Copyright (C) 2019, by Vasileios Nikakis
+ *
+ * graphima: yet another Java graph-theory library
+ */
+package com.sitienda.graphima.alg;
+
+import com.sitienda.graphima.CompactGraph;
+import com.sitienda.graphima.Graph;
+import com.sitienda.graphima.NeighborVisitor;
+import com.sitienda.graphima.Vertex;
+import com.sitienda.graphima.exceptions.VertexNotInGraphException;
+import com.sitienda.graphima.path.Path;
+
+/**
+ * Bidirectional Dijkstra algorithm.
+ * It discovers the shortest path in a graph between two vertices, by running
+ * a forward search from the start vertex and a backward search from the
+ * destination vertex at the same time.
+ * <p>
+ * At each step the search with the smallest key settles a node. Each time an
+ * edge leads to a node that has been reached by the other search, a path is
+ * found and the best one is kept. The algorithm stops as soon as the sum of
+ * the smallest keys of the two searches is not less than the cost of the
+ * best path, so it usually settles far less nodes than a single search.
+ * </p>
+ * <p>
+ * On directed graphs the backward search follows the incoming edges. For a
+ * {@link com.sitienda.graphima.Graph} they are visited through the index of
+ * the incoming edges of each vertex. For a
+ * {@link com.sitienda.graphima.CompactGraph} the
+ * {@link com.sitienda.graphima.CompactGraph#reverse()} graph is used.
+ * </p>
+ *
+ * @param <V> the type of the objects that the graph contains
+ *
+ * @author Vasileios Nikakis
+ */
+public class BidirectionalDijkstraShortestPath<V> extends GraphAlgorithm<V> implements ShortestPathAlgorithm<V> {
+    
+    /**
+     * Collision resolution comparator object.
+     */
+    private final NodeComparator<Vertex<V>> collisionComp;
+    /**
+     * Max integer as infinity.
+     */
+    private final int INF = Integer.MAX_VALUE;
+    
+    /**
+     * The workspace of the backward search of each thread; the forward 
+     * search uses the workspace of {@link GraphAlgorithm}.
+     */
+    private final ThreadLocal<SearchWorkspace> backwardWorkspaces = new ThreadLocal<SearchWorkspace>() { 
+        @Override
+        protected SearchWorkspace initialValue() { 
+            return newWorkspace();
+        }
+    };
+    
+    /**
+     * Inner helper class.
+     * It holds the state of the search in one direction. The cost, the
+     * parent and the settled flag of each node are kept in a 
+     * {@link SearchWorkspace} of the thread.
+     */
+    private class Search { 
+        
+        final boolean forward;
+        final CompactGraph<V> adjacency;
+        final SearchWorkspace workspace;
+        final IndexedMinHeap queue;
+        
+        public Search(boolean forward, SearchWorkspace workspace) { 
+            this.forward = forward;
+            if (compactGraph != null)
+                adjacency = forward ? compactGraph : compactGraph.reverse();
+            else
+                adjacency = null;
+            this.workspace = workspace;
+            queue = workspace.getHeap();
+        }
+        
+        public int topKey() { 
+            return queue.isEmpty() ? INF : queue.getKey(queue.peek());
+        }
+    
+    }
+    
+    /**
+     * Inner helper class.
+     * It holds the state of both searches. Each node has an id that is
+     * common to both: on a compact graph the ids of the graph itself, 
+     * otherwise the ids of a {@link GraphAlgorithm.Numbering}. The 
+     * workspaces of the thread are reused, so a query only allocates the
+     * path.
+     */
+    private class SearchState { 
+        
+        Numbering numbering;
+        Search forward;
+        Search backward;
+        int bestCost;
+        int meetingNode;
+        FindPathAlgorithmExecutionStats stats;
+        
+        public SearchState(FindPathAlgorithmExecutionStats stats) { 
+            SearchWorkspace forwardWorkspace = workspace();
+            SearchWorkspace backwardWorkspace = resetWorkspace(backwardWorkspaces.get());
+            if (compactGraph == null) { 
+                numbering = new Numbering(forwardWorkspace,backwardWorkspace);
+                // The ids of the graph depend on the numbering of each search
+                IndexedMinHeap.TieBreaker tieBreaker = (collisionComp == null) ? null :
+                        new IndexedMinHeap.TieBreaker() { 
+                    @Override
+                    public int compare(int a, int b) { 
+                        return collisionComp.compare(vertexOf(a),vertexOf(b));
+                    }
+                };
+                forwardWorkspace.setTieBreaker(tieBreaker);
+                backwardWorkspace.setTieBreaker(tieBreaker);
+            }
+            forward = new Search(true,forwardWorkspace);
+            backward = new Search(false,backwardWorkspace);
+            bestCost = INF;
+            meetingNode = -1;
+            this.stats = stats;
+        }
+        
+        public int find(V vertexData) { 
+            if (compactGraph != null)
+                return compactGraph.idOf(vertexData);
+            // The graph's own vertex objects are used, since they hold the edges
+            Vertex<V> vertex = (vertexData != null) ? graph.getVertexWithData(vertexData) : null;
+            return (vertex != null) ? numbering.idOf(vertex) : -1;
+        }
+        
+        public int idOf(Vertex<V> vertex) { 
+            return numbering.idOf(vertex);
+        }
+        
+        public Vertex<V> vertexOf(int id) { 
+            if (compactGraph != null)
+                return compactGraph.vertexById(id);
+            return numbering.vertexById(id);
+        }
+    
+    }
+    
+    /**
+     * Inner helper class.
+     * It relaxes the edges of the node that a search just settled, as they
+     * are visited by {@link Vertex#forEachNeighbor(NeighborVisitor)} or
+     * {@link Vertex#forEachPredecessor(NeighborVisitor)}.
+     */
+    private class Relaxation implements NeighborVisitor<V> { 
+        
+        final SearchState state;
+        Search current;
+        Search other;
+        int node;
+        
+        public Relaxation(SearchState state) { 
+            this.state = state;
+        }
+        
+        @Override
+        public void visit(Vertex<V> neighbor, int weight) { 
+            relax(state,current,other,node,state.idOf(neighbor),weight);
+        }
+    
+    }
+    
+    /**
+     * Constructor
+     * 
+     * @param graph the graph
+     */
+    public BidirectionalDijkstraShortestPath(Graph<V> graph) { 
+        super(graph);
+        collisionComp = null;
+        execStats = new FindPathAlgorithmExecutionStats("Bidirectional Dijkstra shortest path");
+    }
+    
+    /**
+     * Constructor
+     * 
+     * @param graph the graph
+     * @param collisionComp the vertex comparator to resolve any collisions
+     */
+    public BidirectionalDijkstraShortestPath(Graph<V> graph, NodeComparator<Vertex<V>> collisionComp) { 
+        super(graph);
+        this.collisionComp = collisionComp;
+        execStats = new FindPathAlgorithmExecutionStats("Bidirectional Dijkstra shortest path");
+    }
+    
+    /**
+     * Constructor
+     * 
+     * @param graph the compact graph
+     */
+    public BidirectionalDijkstraShortestPath(CompactGraph<V> graph) { 
+        super(graph);
+        collisionComp = null;
+        execStats = new FindPathAlgorithmExecutionStats("Bidirectional Dijkstra shortest path");
+    }
+    
+    /**
+     * Constructor
+     * 
+     * @param graph the compact graph
+     * @param collisionComp the vertex comparator to resolve any collisions
+     */
+    public BidirectionalDijkstraShortestPath(CompactGraph<V> graph, NodeComparator<Vertex<V>> collisionComp) { 
+        super(graph);
+        this.collisionComp = collisionComp;
+        execStats = new FindPathAlgorithmExecutionStats("Bidirectional Dijkstra shortest path");
+    }
+    
+    /**
+     * Finds the shortest path between start and end vertices.
+     * 
+     * @param start the starting vertex
+     * @param end the destination vertex
+     * 
+     * @return the shortest path from start to end (an empty path if end can't be reached)
+     * 
+     * @throws VertexNotInGraphException in case that any of the two vertices doesn't belong to the graph
+     */
+    public Path findShortestPath(Vertex<V> start, Vertex<V> end) throws VertexNotInGraphException { 
+        return findShortestPathResult(start,end).getPath();
+    }
+    
+    /**
+     * Finds the shortest path between two nodes in a graph.
+     * For each vertex, the corresponding data has to be provided.
+     * 
+     * @param start the corresponding data of the starting vertex
+     * @param end the corresponding data of the destination vertex
+     * 
+     * @return the shortest path from start to end (an empty path if end can't be reached)
+     * 
+     * @throws VertexNotInGraphException in case that any of the two vertices doesn't belong to the graph
+     */
+    public Path findShortestPath(V start, V end) throws VertexNotInGraphException { 
+        return findShortestPathResult(start,end).getPath();
+    }
+    
+    /**
+     * Finds the shortest path between start and end vertices.
+     * The result holds the statistics of this query, so the algorithm 
+     * object can be shared between threads.
+     * 
+     * @param start the starting vertex
+     * @param end the destination vertex
+     * 
+     * @return the shortest path from start to end and the query's stats (an empty path if end can't be reached)
+     * 
+     * @throws VertexNotInGraphException in case that any of the two vertices doesn't belong to the graph
+     */
+    public FindPathResult<V> findShortestPathResult(Vertex<V> start, Vertex<V> end) throws VertexNotInGraphException { 
+        return findShortestPathResult(start.getData(),end.getData());
+    }
+    
+    /**
+     * Finds the shortest path between two nodes in a graph.
+     * For each vertex, the corresponding data has to be provided.
+     * The result holds the statistics of this query, so the algorithm 
+     * object can be shared between threads.
+     * 
+     * @param start the corresponding data of the starting vertex
+     * @param end the corresponding data of the destination vertex
+     * 
+     * @return the shortest path from start to end and the query's stats (an empty path if end can't be reached)
+     * 
+     * @throws VertexNotInGraphException in case that any of the two vertices doesn't belong to the graph
+     */
+    public FindPathResult<V> findShortestPathResult(V start, V end) throws VertexNotInGraphException { 
+        // Exec stats
+        FindPathAlgorithmExecutionStats stats = newFindPathStats();
+        
+        // The vertices have to exist inside the graph
+        SearchState state = new SearchState(stats);
+        int startId = state.find(start);
+        if (startId < 0)
+            throw new VertexNotInGraphException("Vertex (" + start + ") doesn't exist in the graph");
+        int endId = state.find(end);
+        if (endId < 0)
+            throw new VertexNotInGraphException("Vertex (" + end + ") doesn't exist in the graph");
+        
+        search(state,startId,endId);
+        
+        // Reconstruct the path through the meeting node
+        Path<Vertex<V>> path = new Path<>();
+        if (state.meetingNode >= 0) { 
+            for (int run = state.meetingNode; run != -1; run = state.forward.workspace.getParent(run))
+                path.prepend(state.vertexOf(run));
+            for (int run = state.backward.workspace.getParent(state.meetingNode); run != -1; 
+                 run = state.backward.workspace.getParent(run))
+                path.add(state.vertexOf(run));
+        }
+        
+        // Exec stats
+        stats.stopExecution();
+        stats.setSolutionFound(!path.isEmpty());
+        stats.setPathLength(path.size());
+        execStats = stats;
+        return new FindPathResult<>(path,stats);
+    }
+    
+    /**
+     * Runs the two searches until the shortest path is known.
+     * 
+     * @param state the state of the searches
+     * @param start the id of the start vertex
+     * @param end the id of the destination vertex
+     */
+    private void search(SearchState state, int start, int end) { 
+        Search forward = state.forward;
+        Search backward = state.backward;
+        forward.workspace.update(start,0,-1);
+        forward.queue.insert(start,0);
+        backward.workspace.update(end,0,-1);
+        backward.queue.insert(end,0);
+        if (start == end) { 
+            state.bestCost = 0;
+            state.meetingNode = start;
+        }
+        // The edges of the graph are relaxed by the same visitor for the whole search
+        Relaxation relaxation = (compactGraph == null) ? new Relaxation(state) : null;
+        
+        while (true) { 
+            int forwardKey = forward.topKey();
+            int backwardKey = backward.topKey();
+            // No node that is left in the open sets can lead to a better path
+            if ((long) forwardKey + backwardKey >= state.bestCost)
+                break;
+            // Settle the node with the smallest key
+            Search current = (forwardKey <= backwardKey) ? forward : backward;
+            Search other = (current == forward) ? backward : forward;
+            int node = current.queue.poll();
+            current.workspace.close(node);
+            // Exec stats
+            state.stats.incNodesVisitedNum();
+            // Iterate over its direct neighbors (or its predecessors for the backward search)
+            if (compactGraph != null) { 
+                CompactGraph<V> adjacency = current.adjacency;
+                for (int e = adjacency.edgesStart(node); e < adjacency.edgesEnd(node); e++)
+                    relax(state,current,other,node,adjacency.target(e),adjacency.weight(e));
+            } else { 
+                relaxation.current = current;
+                relaxation.other = other;
+                relaxation.node = node;
+                Vertex<V> vertex = state.vertexOf(node);
+                if (current.forward || !graph.isDirected())
+                    vertex.forEachNeighbor(relaxation);
+                else
+                    vertex.forEachPredecessor(relaxation);
+            }
+        }
+    }
+    
+    /**
+     * Relaxes an edge of a search and checks if it connects the two searches.
+     * 
+     * @param state the state of the searches
+     * @param current the search that the edge belongs to
+     * @param other the search in the opposite direction
+     * @param node the node that was just settled
+     * @param child the node at the other end of the edge
+     * @param weight the weight of the edge
+     */
+    private void relax(SearchState state, Search current, Search other, int node, int child, int weight) { 
+        int newCost = current.workspace.getCost(node) + weight;
+        // Check if a better path through this edge exists
+        // The path is rebuilt from the parents of the meeting node, so its
+        // cost can only be less than or equal to the one recorded here
+        int otherCost = other.workspace.getCost(child);
+        if (otherCost != INF && (long) newCost + otherCost < state.bestCost) { 
+            state.bestCost = newCost + otherCost;
+            state.meetingNode = child;
+        }
+        // We need only the nodes that they are still in the open set
+        if (current.workspace.isClosed(child))
+            return;
+        // If the new cost is less than the actual one, we have to update it
+        if (newCost < current.workspace.getCost(child)) { 
+            current.workspace.update(child,newCost,node);
+            current.queue.insertOrDecreaseKey(child,newCost);
+        }
+    }
+    
+    /**
+     * {@inheritDoc}
+     * The collision resolution comparator breaks the ties of the open sets
+     * of the compact graph.
+     */
+    @Override
+    protected SearchWorkspace newWorkspace() { 
+        SearchWorkspace workspace = super.newWorkspace();
+        if (compactGraph != null && collisionComp != null) { 
+            workspace.setTieBreaker(new IndexedMinHeap.TieBreaker() { 
+                @Override
+                public int compare(int a, int b) { 
+                    return collisionComp.compare(compactGraph.vertexById(a),compactGraph.vertexById(b));
+                }
+            });
+        }
+        return workspace;
+    }
+
+}
@@ -5,19 +5,13 @@
  */
 package com.sitienda.graphima.alg;
 
-import com.sitienda.graphima.Edge;
+import com.sitienda.graphima.CompactGraph;
 import com.sitienda.graphima.Graph;
+import com.sitienda.graphima.NeighborVisitor;
 import com.sitienda.graphima.Vertex;
+import com.sitienda.graphima.VertexIdMapping;
 import com.sitienda.graphima.exceptions.VertexNotInGraphException;
 import com.sitienda.graphima.path.Path;
-import java.util.ArrayDeque;
-import java.util.Comparator;
-import java.util.Deque;
-import java.util.HashMap;
-import java.util.LinkedList;
-import java.util.List;
-import java.util.ListIterator;
-import java.util.Map;
 
 /**
  * DFS (Depth First Search) algorithm. 
@@ -26,6 +20,10 @@ import java.util.Map;
  * The class provides the option to supply a {@link com.sitienda.graphima.alg.NodeComparator}
  * object in case that a manual collision resolution is necessary.
  * </p>
+ * <p>
+ * The algorithm can run either on a {@link com.sitienda.graphima.Graph} or on 
+ * a {@link com.sitienda.graphima.CompactGraph} snapshot.
+ * </p>
  *
  * @param <V> the type of the objects that the graph contains
  * 
@@ -40,20 +38,48 @@ public class DFSFindPath<V> extends GraphAlgorithm<V> {
     
     /**
      * Inner helper class.
-     * For each node, the parent node is stored.
-     * 
-     * @param <T> each StackItem encapsulates a Vertex.
+     * It is the search workspace of a thread, that keeps the parent of each
+     * visited node and the stack. On a graph it numbers the vertices with 
+     * a {@link GraphAlgorithm.Numbering} that is kept with the workspace and
+     * it visits the children of the node that the search expands, as they
+     * are visited by {@link Vertex#forEachNeighbor(NeighborVisitor)}, pushing
+     * the ones that haven't been visited yet in the stack. It also holds the
+     * order of the collision resolution comparator over the node ids.
      */
-    private class StackItem<T extends Vertex<V>> { 
+    private class Search extends SearchWorkspace implements NeighborVisitor<V> { 
+        
+        final Numbering numbering;
+        final IndexedMinHeap.TieBreaker order;
+        int node;
+        int top;
         
-        T node;
-        T parent;
+        public Search(int capacity) { 
+            super(capacity);
+            numbering = (compactGraph == null) ? new Numbering(this) : null;
+            if (collisionComp != null)
+                order = newOrder((numbering != null) ? numbering : compactGraph);
+            else
+                order = null;
+        }
         
-        public StackItem(T node, T parent) { 
-            this.node = node;
-            this.parent = parent;
+        public void start() { 
+            if (numbering != null)
+                numbering.reset();
+            top = 0;
         }
         
+        @Override
+        public void visit(Vertex<V> neighbor, int weight) { 
+            int child = numbering.idOf(neighbor);
+            // If we haven't visited yet the child node
+            if (!isDiscovered(child)) { 
+                // Push the node in the stack and mark it as visited; the
+                // stack may have grown with the ids
+                getItems()[top++] = child;
+                update(child,0,node);
+            }
+        }
+    
     }
     
     /**
@@ -79,6 +105,29 @@ public class DFSFindPath<V> extends GraphAlgorithm<V> {
         execStats = new FindPathAlgorithmExecutionStats("DFS find path");
     }
     
+    /**
+     * Constructor.
+     * 
+     * @param graph the compact graph
+     */
+    public DFSFindPath(CompactGraph<V> graph) {
+        super(graph);
+        collisionComp = null;
+        execStats = new FindPathAlgorithmExecutionStats("DFS find path");
+    }
+    
+    /**
+     * Constructor.
+     * 
+     * @param graph the compact graph
+     * @param collisionComp the vertex comparator to resolve any collisions
+     */
+    public DFSFindPath(CompactGraph<V> graph, NodeComparator<V> collisionComp) {
+        super(graph);
+        this.collisionComp = collisionComp;
+        execStats = new FindPathAlgorithmExecutionStats("DFS find path");
+    }
+    
     /**
      * Finds a path between start and end vertices using the DFS algorithm.
      * 
@@ -90,6 +139,40 @@ public class DFSFindPath<V> extends GraphAlgorithm<V> {
      * @throws VertexNotInGraphException in case that any of the two vertices doesn't belong to the graph
      */
     public Path findPath(Vertex<V> start, Vertex<V> end) throws VertexNotInGraphException { 
+        return findPathResult(start,end).getPath();
+    }
+    
+    /**
+     * Finds a path between two nodes in a graph using the DFS algorithm.
+     * For each vertex, the corresponding data has to be provided.
+     * 
+     * @param start the corresponding data of the starting vertex
+     * @param end the corresponding data of the destination vertex
+     * 
+     * @return the shortest path from start to end
+     * 
+     * @throws VertexNotInGraphException in case that any of the two vertices doesn't belong to the graph
+     */
+    public Path findPath(V start, V end) throws VertexNotInGraphException { 
+        return findPathResult(start,end).getPath();
+    }
+    
+    /**
+     * Finds a path between start and end vertices using the DFS algorithm.
+     * The result holds the statistics of this query, so the algorithm 
+     * object can be shared between threads.
+     * 
+     * @param start the starting vertex
+     * @param end the destination vertex
+     * 
+     * @return the shortest path from start to end and the query's stats
+     * 
+     * @throws VertexNotInGraphException in case that any of the two vertices doesn't belong to the graph
+     */
+    public FindPathResult<V> findPathResult(Vertex<V> start, Vertex<V> end) throws VertexNotInGraphException { 
+        // A compact graph is searched through the vertex ids
+        if (compactGraph != null)
+            return findPathResult(start.getData(),end.getData());
         // Both vertices have to exist inside the graph
         if (!graph.contains(start))
             throw new VertexNotInGraphException("The starting point vertex (" + start + ") doesn't exist in the graph");
@@ -97,108 +180,240 @@ public class DFSFindPath<V> extends GraphAlgorithm<V> {
             throw new VertexNotInGraphException("The ending point vertex (" + end + ") doesn't exist in the graph");
         
         // Exec stats
-        execStats.reset();
+        FindPathAlgorithmExecutionStats stats = newFindPathStats();
         
-        // We need a stack to store the nodes that wait to be examined
-        Deque<StackItem<Vertex<V>>> stack = new ArrayDeque<>();
-        // We need a map to be able to extract the path after the execution of the algorithm
-        Map<Vertex<V>,StackItem<Vertex<V>>> visited = new HashMap<>();
+        // The workspace of the thread keeps the parent of each visited node
+        // and it pushes the children of each node on top of the stack. 
+        // Without a comparator the nodes are taken in the order they were
+        // added, from the bottom of the stack; with one, from its top
+        @SuppressWarnings("unchecked")
+        Search search = (Search) workspace();
+        search.start();
+        Numbering numbering = search.numbering;
+        search.setTarget(numbering.idOf(end));
+        int bottom = 0;
         
         // Push the starting node in the stack
-        StackItem<Vertex<V>> first = new StackItem<>(start,null);
-        stack.push(first);
-        visited.put(start,first);
+        int first = numbering.idOf(start);
+        search.getItems()[search.top++] = first;
+        search.update(first,0,-1);
         // Exec stats
-        execStats.incNodesVisitedNum();
-        // We will assign the destination stack item to this variable
-        StackItem<Vertex<V>> target = null;
+        stats.incNodesVisitedNum();
+        boolean found = false;
         // While the stack is not empty
-        while (!stack.isEmpty()) { 
+        while (bottom < search.top) { 
+            // Get the stack's next node
+            int current = (collisionComp == null) ? search.getItems()[bottom++] 
+                                                  : search.getItems()[--search.top];
+            // If it is the destination, stop the iteration
+            if (current == search.getTarget()) { 
+                found = true;
+                break;
+            }
+            // Push the children that haven't been visited yet in the stack
+            int from = search.top;
+            search.node = current;
+            numbering.vertexById(current).forEachNeighbor(search);
+            // If no comparator was defined for collision resolution
+            if (collisionComp == null) { 
+                // Exec stats
+                for (int i = from; i < search.top; i++)
+                    stats.incNodesVisitedNum();
+            // If a comparator for collision resolution was defined, sort 
+            // the newly pushed nodes
+            } else if (search.top - from > 1) 
+                sortChildren(search.getItems(),from,search.top,search.order);
+        }
+        
+        // Build the path from start to end
+        Path<Vertex<V>> path = new Path<>();
+        if (found) { 
+            for (int run = search.getTarget(); run != -1; run = search.getParent(run))
+                path.prepend(numbering.vertexById(run));
+        }
+        // Exec stats
+        stats.stopExecution();
+        stats.setSolutionFound(found);
+        stats.setPathLength(path.size());
+        execStats = stats;
+        // Return the path
+        return new FindPathResult<>(path,stats);
+    }
+    
+    /**
+     * Finds a path between two nodes in a graph using the DFS algorithm.
+     * For each vertex, the corresponding data has to be provided.
+     * The result holds the statistics of this query, so the algorithm 
+     * object can be shared between threads.
+     * 
+     * @param start the corresponding data of the starting vertex
+     * @param end the corresponding data of the destination vertex
+     * 
+     * @return the shortest path from start to end and the query's stats
+     * 
+     * @throws VertexNotInGraphException in case that any of the two vertices doesn't belong to the graph
+     */
+    public FindPathResult<V> findPathResult(V start, V end) throws VertexNotInGraphException { 
+        // Find the corresponding vertex ids in the compact graph
+        if (compactGraph != null) { 
+            int startId = compactGraph.idOf(start);
+            if (startId < 0)
+                throw new VertexNotInGraphException("The graph does not contain any vertex with data: " + start);
+            int endId = compactGraph.idOf(end);
+            if (endId < 0)
+                throw new VertexNotInGraphException("The graph does not contain any vertex with data: " + end);
+            return findPathResult(startId,endId);
+        }
+        // Find the corresponding vertices
+        Vertex<V> startVertex = graph.getVertexWithData(start);
+        if (startVertex == null)
+            throw new VertexNotInGraphException("The graph does not contain any vertex with data: " + start);
+        Vertex<V> endVertex = graph.getVertexWithData(end);
+        if (endVertex == null)
+            throw new VertexNotInGraphException("The graph does not contain any vertex with data: " + end);
+        return findPathResult(startVertex,endVertex);
+    }
+    
+    /**
+     * Finds a path between start and end vertices of the compact graph using
+     * the DFS algorithm.
+     * It examines the nodes in exactly the same order as 
+     * {@link #findPath(com.sitienda.graphima.Vertex, com.sitienda.graphima.Vertex)}.
+     * 
+     * @param start the id of the starting vertex
+     * @param end the id of the destination vertex
+     * 
+     * @return the path from start to end and the query's stats
+     */
+    private FindPathResult<V> findPathResult(int start, int end) { 
+        // Exec stats
+        FindPathAlgorithmExecutionStats stats = newFindPathStats();
+        
+        int n = compactGraph.size();
+        // The workspace of the thread keeps the parent of each visited node
+        @SuppressWarnings("unchecked")
+        Search workspace = (Search) workspace();
+        // Each node enters the stack at most once, so a circular array
+        // of size n is enough. With a comparator the nodes are pushed and
+        // popped at the head of the stack, which is then kept at the start
+        // of the array
+        int[] stack = workspace.getItems();
+        int head = 0, count = 0;
+        
+        // Push the starting node in the stack
+        stack[head] = start;
+        count++;
+        workspace.update(start,0,-1);
+        // Exec stats
+        stats.incNodesVisitedNum();
+        boolean found = false;
+        // While the stack is not empty
+        while (count > 0) { 
             // Get the stack's first node
-            StackItem<Vertex<V>> current = stack.pop();
+            int current;
+            if (collisionComp == null) { 
+                current = stack[head];
+                head = (head + 1) % n;
+                count--;
+            } else
+                current = stack[--count];
             // If it is the destination, stop the iteration
-            if (current.node.equals(end)) { 
-                target = current;
+            if (current == end) { 
+                found = true;
                 break;
             }
             // If no comparator was defined for collision resolution
             if (collisionComp == null) { 
-                for (Edge<Vertex<V>> edge : current.node.getEdges()) { 
+                for (int e = compactGraph.edgesStart(current); e < compactGraph.edgesEnd(current); e++) { 
+                    int child = compactGraph.target(e);
                     // If we haven't visited yet the child node
-                    if (visited.get(edge.getVertex()) == null) { 
-                        // Push the node in the stack
-                        StackItem<Vertex<V>> child = new StackItem<>(edge.getVertex(),current.node);
-                        stack.add(child);
+                    if (!workspace.isDiscovered(child)) { 
+                        // Add the node at the end of the stack
+                        stack[(head + count) % n] = child;
+                        count++;
                         // Mark the node as visited
-                        visited.put(edge.getVertex(),child);
+                        workspace.update(child,0,current);
                         // Exec stats
-                        execStats.incNodesVisitedNum();
+                        stats.incNodesVisitedNum();
                     }
                 }
             // If a comparator for collision resolution was defined
             } else { 
-                // Create a temporary list to resolve collisions
-                List<StackItem<Vertex<V>>> children = new LinkedList<>();
-                for (Edge<Vertex<V>> edge : current.node.getEdges()) { 
+                int from = count;
+                for (int e = compactGraph.edgesStart(current); e < compactGraph.edgesEnd(current); e++) { 
+                    int child = compactGraph.target(e);
                     // If we haven't visited yet the child node
-                    if (visited.get(edge.getVertex()) == null) { 
-                        // Add the node in the temporary list
-                        StackItem<Vertex<V>> child = new StackItem<>(edge.getVertex(),current.node);
-                        children.add(child);
+                    if (!workspace.isDiscovered(child)) { 
+                        // Push the node in the stack
+                        stack[count++] = child;
                         // Mark the node as visited
-                        visited.put(edge.getVertex(),child);
+                        workspace.update(child,0,current);
                     }
                 }
-                // Sort the list using the collision resolution comparator
-                children.sort(new Comparator<StackItem<Vertex<V>>>() {
-                    @Override
-                    public int compare(StackItem<Vertex<V>> a, StackItem<Vertex<V>> b) {
-                        return collisionComp.compare(a.node.getData(),b.node.getData());
-                    }
-                });
-                // Push the list items in the stack in a reverse order
-                // (we are pushing the items in a stack)
-                for (ListIterator<StackItem<Vertex<V>>> it = children.listIterator(children.size());
-                     it.hasPrevious();)
-                    stack.push(it.previous());
+                // Sort the newly pushed nodes using the collision resolution comparator
+                if (count - from > 1)
+                    sortChildren(stack,from,count,workspace.order);
             }
         }
         
         // Build the path from start to end
         Path<Vertex<V>> path = new Path<>();
-        StackItem<Vertex<V>> run = target;
-        while (run != null) { 
-            path.prepend(run.node);
-            run = visited.get(run.parent);
+        if (found) { 
+            for (int run = end; run != -1; run = workspace.getParent(run))
+                path.prepend(compactGraph.vertexById(run));
         }
         // Exec stats
-        execStats.stopExecution();
-        ((FindPathAlgorithmExecutionStats) execStats).setSolutionFound(target != null);
-        ((FindPathAlgorithmExecutionStats) execStats).setPathLength(path.size());
+        stats.stopExecution();
+        stats.setSolutionFound(found);
+        stats.setPathLength(path.size());
+        execStats = stats;
         // Return the path
-        return path;
+        return new FindPathResult<>(path,stats);
     }
     
     /**
-     * Finds a path between two nodes in a graph using the DFS algorithm.
-     * For each vertex, the corresponding data has to be provided.
+     * Sorts the children that a node just pushed in the stack, using the
+     * collision resolution comparator, so that the first one is on top.
      * 
-     * @param start the corresponding data of the starting vertex
-     * @param end the corresponding data of the destination vertex
+     * @param stack the stack
+     * @param from the position of the first child
+     * @param to the position after the last child
+     * @param order the order of the collision resolution comparator
+     */
+    private static void sortChildren(int[] stack, int from, int to, IndexedMinHeap.TieBreaker order) { 
+        sortIds(stack,from,to,order);
+        // The stack is popped from its top, so the items go in a reverse order
+        for (int i = from, j = to - 1; i < j; i++, j--) { 
+            int child = stack[i];
+            stack[i] = stack[j];
+            stack[j] = child;
+        }
+    }
+    
+    /**
+     * Creates the order of the node ids of a search, that compares their
+     * vertices with the collision resolution comparator.
      * 
-     * @return the shortest path from start to end
+     * @param ids the ids of the search
      * 
-     * @throws VertexNotInGraphException in case that any of the two vertices doesn't belong to the graph
+     * @return the order
      */
-    public Path findPath(V start, V end) throws VertexNotInGraphException { 
-        // Find the corresponding vertices
-        Vertex<V> startVertex = graph.getVertexWithData(start);
-        if (startVertex == null)
-            throw new VertexNotInGraphException("The graph does not contain any vertex with data: " + start);
-        Vertex<V> endVertex = graph.getVertexWithData(end);
-        if (endVertex == null)
-            throw new VertexNotInGraphException("The graph does not contain any vertex with data: " + end);
-        return findPath(startVertex,endVertex);
+    private IndexedMinHeap.TieBreaker newOrder(final VertexIdMapping<V> ids) { 
+        return new IndexedMinHeap.TieBreaker() { 
+            @Override
+            public int compare(int a, int b) { 
+                return collisionComp.compare(ids.vertexById(a).getData(),ids.vertexById(b).getData());
+            }
+        };
+    }
+    
+    /**
+     * {@inheritDoc}
+     * The workspace holds the state of the searches of the thread.
+     */
+    @Override
+    protected SearchWorkspace newWorkspace() { 
+        return new Search(workspaceCapacity());
     }
     
 }
@@ -0,0 +1,405 @@
+/**
+ * Copyright (C) 2019, by Vasileios Nikakis
+ *
+ * graphima: yet another Java graph-theory library
+ */
+package com.sitienda.graphima.alg;
+
+import com.sitienda.graphima.CompactGraph;
+import com.sitienda.graphima.Vertex;
+import com.sitienda.graphima.WeightedGraph;
+import com.sitienda.graphima.exceptions.VertexNotInGraphException;
+import com.sitienda.graphima.path.ShortestPathTree;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Delta-stepping algorithm.
+ * It discovers the shortest paths in a graph between a source vertex and
+ * all the rest, using many threads.
+ * <p>
+ * The nodes are kept in buckets of width delta, by their tentative
+ * distance. The lowest bucket that isn't empty is processed in phases: all
+ * its nodes relax their light edges (weight &lt;= delta) in parallel, which
+ * may put nodes back into the same bucket, until the bucket stays empty.
+ * The heavy edges of the nodes that were removed from the bucket are then
+ * relaxed once, in parallel. A small delta does less redundant work, while
+ * a large one gives more parallelism; for delta = 1 on integer weights the
+ * algorithm becomes a parallel Dijkstra.
+ * </p>
+ * <p>
+ * The edges are relaxed by {@link java.util.concurrent.ForkJoinPool} tasks
+ * over ranges of the nodes of a phase, on the pool of the algorithm (see
+ * {@link GraphAlgorithm#newPool(int)}). The distance and the parent of each
+ * node are packed in a single long and updated with compare-and-set, so
+ * they always match. The distances are the same as the ones of
+ * {@link DijkstraShortestPath}; when more than one shortest path exists,
+ * the parents of the tree may differ. The edge weights must not be
+ * negative.
+ * </p>
+ * <p>
+ * The algorithm runs on a {@link com.sitienda.graphima.CompactGraph}; a
+ * {@link com.sitienda.graphima.WeightedGraph} is frozen on construction.
+ * </p>
+ *
+ * @param <V> the type of the objects that the graph contains
+ *
+ * @author Vasileios Nikakis
+ */
+public class DeltaSteppingShortestPath<V> extends GraphAlgorithm<V> {
+    
+    /**
+     * Max integer as infinity.
+     */
+    private static final int INF = Integer.MAX_VALUE;
+    /**
+     * The max number of nodes that a task relaxes without splitting.
+     */
+    private static final int SEQUENTIAL_THRESHOLD = 512;
+    
+    /**
+     * The width of each bucket.
+     */
+    private final int delta;
+    /**
+     * The thread pool that relaxes the edges.
+     */
+    private final ForkJoinPool pool;
+    
+    /**
+     * Inner helper class.
+     * It relaxes the light or the heavy edges of a range of nodes and
+     * returns the nodes whose distance was lowered.
+     */
+    private class RelaxTask extends RecursiveTask<IntBuffer> { 
+        
+        private static final long serialVersionUID = 1L;
+        
+        final AtomicLongArray state;
+        final int[] nodes;
+        final int from;
+        final int to;
+        final boolean light;
+        
+        public RelaxTask(AtomicLongArray state, int[] nodes, int from, int to, boolean light) { 
+            this.state = state;
+            this.nodes = nodes;
+            this.from = from;
+            this.to = to;
+            this.light = light;
+        }
+        
+        @Override
+        protected IntBuffer compute() { 
+            if (to - from > SEQUENTIAL_THRESHOLD) { 
+                int middle = (from + to) >>> 1;
+                RelaxTask left = new RelaxTask(state,nodes,from,middle,light);
+                left.fork();
+                IntBuffer improved = new RelaxTask(state,nodes,middle,to,light).compute();
+                improved.addAll(left.join());
+                return improved;
+            }
+            IntBuffer improved = new IntBuffer();
+            for (int i = from; i < to; i++) { 
+                int node = nodes[i];
+                long nodeDist = distanceOf(state.get(node));
+                for (int e = compactGraph.edgesStart(node); e < compactGraph.edgesEnd(node); e++) { 
+                    int weight = compactGraph.weight(e);
+                    if ((weight <= delta) != light)
+                        continue;
+                    long newDist = nodeDist + weight;
+                    if (newDist < INF && relax(state,node,compactGraph.target(e),(int) newDist))
+                        improved.add(compactGraph.target(e));
+                }
+            }
+            return improved;
+        }
+    
+    }
+    
+    /**
+     * Constructor.
+     * The bucket width is derived from the edge weights and all the
+     * available processors are used.
+     * 
+     * @param graph the graph
+     */
+    public DeltaSteppingShortestPath(WeightedGraph<V> graph) { 
+        this(graph.freeze());
+    }
+    
+    /**
+     * Constructor
+     * 
+     * @param graph the graph
+     * @param delta the width of each bucket
+     * @param parallelism the number of threads
+     */
+    public DeltaSteppingShortestPath(WeightedGraph<V> graph, int delta, int parallelism) { 
+        this(graph.freeze(),delta,parallelism);
+    }
+    
+    /**
+     * Constructor
+     * 
+     * @param graph the graph
+     * @param delta the width of each bucket
+     * @param pool the thread pool that relaxes the edges, that the algorithm doesn't shut down
+     */
+    public DeltaSteppingShortestPath(WeightedGraph<V> graph, int delta, ForkJoinPool pool) { 
+        this(graph.freeze(),delta,pool);
+    }
+    
+    /**
+     * Constructor.
+     * The bucket width is derived from the edge weights and all the
+     * available processors are used.
+     * 
+     * @param graph the compact graph
+     */
+    public DeltaSteppingShortestPath(CompactGraph<V> graph) { 
+        this(graph,defaultDelta(graph),Runtime.getRuntime().availableProcessors());
+    }
+    
+    /**
+     * Constructor
+     * 
+     * @param graph the compact graph
+     * @param delta the width of each bucket
+     * @param parallelism the number of threads
+     */
+    public DeltaSteppingShortestPath(CompactGraph<V> graph, int delta, int parallelism) { 
+        this(graph,delta,newPool(parallelism));
+    }
+    
+    /**
+     * Constructor
+     * 
+     * @param graph the compact graph
+     * @param delta the width of each bucket
+     * @param pool the thread pool that relaxes the edges, that the algorithm doesn't shut down
+     */
+    public DeltaSteppingShortestPath(CompactGraph<V> graph, int delta, ForkJoinPool pool) { 
+        super(graph);
+        if (delta < 1)
+            throw new IllegalArgumentException("The bucket width has to be at least 1");
+        if (pool == null)
+            throw new IllegalArgumentException("The thread pool can't be null");
+        this.delta = delta;
+        this.pool = pool;
+        execStats = new AlgorithmExecutionStats("Delta-stepping shortest paths");
+    }
+    
+    /**
+     * The default bucket width: the max edge weight divided by the average
+     * degree, so that a node has about one light edge.
+     * 
+     * @param graph the compact graph
+     * 
+     * @return the bucket width
+     */
+    private static int defaultDelta(CompactGraph<?> graph) { 
+        int maxWeight = 1;
+        for (int e = 0; e < graph.getEdgesSize(); e++)
+            maxWeight = Math.max(maxWeight,graph.weight(e));
+        int degree = (graph.size() > 0) ? graph.getEdgesSize() / graph.size() : 0;
+        return Math.max(1,maxWeight / Math.max(1,degree));
+    }
+    
+    /**
+     * 
+     * @return the width of each bucket
+     */
+    public int getDelta() { 
+        return delta;
+    }
+    
+    /**
+     * 
+     * @return the number of threads
+     */
+    public int getParallelism() { 
+        return pool.getParallelism();
+    }
+    
+    /**
+     * Finds the shortest paths from {@link Vertex} <i>start</i> to every other vertex
+     * in the graph.
+     * 
+     * @param start the start vertex
+     * 
+     * @return the {@link ShortestPathTree} rooted at start
+     * 
+     * @throws VertexNotInGraphException in case a vertex was not found
+     */
+    public ShortestPathTree<V> findShortestPaths(Vertex<V> start) throws VertexNotInGraphException { 
+        return findShortestPaths(start.getData());
+    }
+    
+    /**
+     * Finds the shortest paths from a vertex to every other vertex in the graph.
+     * The data of the the vertex has to be provided.
+     * 
+     * @param start the start vertex
+     * 
+     * @return the {@link ShortestPathTree} rooted at start
+     * 
+     * @throws VertexNotInGraphException in case a vertex was not found
+     */
+    public ShortestPathTree<V> findShortestPaths(V start) throws VertexNotInGraphException { 
+        int source = compactGraph.idOf(start);
+        if (source < 0)
+            throw new VertexNotInGraphException("Vertex (" + start + ") doesn't exist in the graph");
+        
+        // Exec stats
+        AlgorithmExecutionStats stats = newExecStats();
+        
+        int n = compactGraph.size();
+        AtomicLongArray state = new AtomicLongArray(n);
+        for (int i = 0; i < n; i++)
+            state.set(i,pack(INF,-1));
+        search(state,source,stats);
+        
+        int[] distance = new int[n];
+        int[] parent = new int[n];
+        for (int i = 0; i < n; i++) { 
+            long value = state.get(i);
+            distance[i] = distanceOf(value);
+            parent[i] = parentOf(value);
+        }
+        // Exec stats
+        stats.stopExecution();
+        execStats = stats;
+        return new ShortestPathTree<>(compactGraph.vertexById(source),compactGraph,parent,distance);
+    }
+    
+    /**
+     * Processes the buckets in order, until all of them are empty.
+     * 
+     * @param state the distance and the parent of each node
+     * @param source the id of the source vertex
+     * @param stats the execution statistics of the search
+     */
+    private void search(AtomicLongArray state, int source, AlgorithmExecutionStats stats) { 
+        int n = compactGraph.size();
+        TreeMap<Integer,IntBuffer> buckets = new TreeMap<>();
+        // The round that each node joined a frontier and the bucket that it was removed from
+        int[] frontierStamp = new int[n];
+        int[] bucketStamp = new int[n];
+        int round = 0;
+        int phase = 0;
+        
+        state.set(source,pack(0,-1));
+        IntBuffer first = new IntBuffer();
+        first.add(source);
+        buckets.put(0,first);
+        
+        while (!buckets.isEmpty()) { 
+            Map.Entry<Integer,IntBuffer> entry = buckets.pollFirstEntry();
+            int index = entry.getKey();
+            IntBuffer current = entry.getValue();
+            IntBuffer removed = new IntBuffer();
+            phase++;
+            // Relax the light edges until the bucket stays empty
+            while (current != null) { 
+                round++;
+                IntBuffer frontier = new IntBuffer();
+                for (int i = 0; i < current.size; i++) { 
+                    int node = current.items[i];
+                    // Skip the nodes that have moved to a lower bucket and the duplicates
+                    if (distanceOf(state.get(node)) / delta != index || frontierStamp[node] == round)
+                        continue;
+                    frontierStamp[node] = round;
+                    frontier.add(node);
+                    if (bucketStamp[node] != phase) { 
+                        bucketStamp[node] = phase;
+                        removed.add(node);
+                        // Exec stats
+                        stats.incNodesVisitedNum();
+                    }
+                }
+                distribute(buckets,state,pool.invoke(new RelaxTask(state,frontier.items,0,frontier.size,true)));
+                current = buckets.remove(index);
+            }
+            // The heavy edges lead to higher buckets only, so they are relaxed once
+            distribute(buckets,state,pool.invoke(new RelaxTask(state,removed.items,0,removed.size,false)));
+        }
+    }
+    
+    /**
+     * Puts the nodes whose distance was lowered into their buckets.
+     * 
+     * @param buckets the buckets
+     * @param state the distance and the parent of each node
+     * @param improved the nodes whose distance was lowered
+     */
+    private void distribute(TreeMap<Integer,IntBuffer> buckets, AtomicLongArray state, IntBuffer improved) { 
+        for (int i = 0; i < improved.size; i++) { 
+            int node = improved.items[i];
+            int index = distanceOf(state.get(node)) / delta;
+            IntBuffer bucket = buckets.get(index);
+            if (bucket == null) { 
+                bucket = new IntBuffer();
+                buckets.put(index,bucket);
+            }
+            bucket.add(node);
+        }
+    }
+    
+    /**
+     * Lowers the distance of a node, if the new one is less than the
+     * current one.
+     * 
+     * @param state the distance and the parent of each node
+     * @param node the parent node
+     * @param child the node
+     * @param newDist the new distance of the node
+     * 
+     * @return true if the distance was lowered
+     */
+    private static boolean relax(AtomicLongArray state, int node, int child, int newDist) { 
+        while (true) { 
+            long current = state.get(child);
+            if (distanceOf(current) <= newDist)
+                return false;
+            if (state.compareAndSet(child,current,pack(newDist,node)))
+                return true;
+        }
+    }
+    
+    /**
+     * Packs a distance and a parent node in a long.
+     * 
+     * @param distance the distance
+     * @param parent the parent node
+     * 
+     * @return the packed value
+     */
+    private static long pack(int distance, int parent) { 
+        return ((long) distance << 32) | (parent & 0xffffffffL);
+    }
+    
+    /**
+     * 
+     * @param value a packed value
+     * 
+     * @return the distance
+     */
+    private static int distanceOf(long value) { 
+        return (int) (value >>> 32);
+    }
+    
+    /**
+     * 
+     * @param value a packed value
+     * 
+     * @return the parent node
+     */
+    private static int parentOf(long value) { 
+        return (int) value;
+    }
+
+}
@@ -5,27 +5,47 @@
  */
 package com.sitienda.graphima.alg;
 
-import com.sitienda.graphima.Edge;
+import com.sitienda.graphima.CompactGraph;
 import com.sitienda.graphima.Graph;
+import com.sitienda.graphima.NeighborVisitor;
 import com.sitienda.graphima.Vertex;
-import com.sitienda.graphima.WeightedEdge;
+import com.sitienda.graphima.VertexIdMapping;
 import com.sitienda.graphima.exceptions.VertexNotInGraphException;
 import com.sitienda.graphima.path.Path;
-import java.util.Comparator;
+import com.sitienda.graphima.path.ShortestPathTree;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.ConcurrentModificationException;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
-import java.util.PriorityQueue;
+import java.util.Set;
 
 /**
- * Dijkstra algorithm. 
+ * Dijkstra algorithm.
  * It discovers the shortest paths in a graph between a source vertex and
- * all the rest.
+ * all the rest, or between a source vertex and a set of target vertices.
+ * <p>
+ * The open set is an {@link IndexedMinHeap}, so the cost of a vertex is
+ * decreased in place and the algorithm runs in O((V+E) log V) time.
+ * When target vertices are supplied, the search stops as soon as all of them
+ * are settled and only their paths are built; such a search keeps its state
+ * in the {@link SearchWorkspace} of the thread, so it costs only what it
+ * visits. Otherwise the result is a {@link ShortestPathTree}, whose paths are
+ * built on demand.
+ * </p>
+ * <p>
+ * The algorithm can run either on a {@link com.sitienda.graphima.Graph} or on
+ * a {@link com.sitienda.graphima.CompactGraph} snapshot.
+ * </p>
  *
  * @param <V> the type of the objects that the graph contains
- * 
+ *
  * @author Vasileios Nikakis
  */
-public class DijkstraShortestPath<V> extends GraphAlgorithm<V> {
+public class DijkstraShortestPath<V> extends GraphAlgorithm<V> implements ShortestPathAlgorithm<V> {
     
     /**
      * Collision resolution comparator object.
@@ -38,33 +58,258 @@ public class DijkstraShortestPath<V> extends GraphAlgorithm<V> {
     
     /**
      * Inner helper class.
-     * For each node, the parent node is stored.
-     * 
-     * @param <T> each QueueItem encapsulates a Vertex
+     * It holds the state of a search that settles every vertex, for a
+     * {@link ShortestPathTree}: each node has an id and for each id the 
+     * cost and the parent node are stored. The vertex ids of the graph
+     * are used, unless the graph is concurrent; then each node gets an id
+     * when it is discovered and the arrays grow with the ids, as the graph
+     * may grow during the search. On a compact graph the ids of the graph
+     * itself are used.
      */
-    private class QueueItem<T extends Vertex<V>> { 
+    private class SearchState implements VertexIdMapping<V> { 
+        
+        Map<V,Integer> ids;
+        List<Vertex<V>> nodes;
+        int[] cost;
+        int[] parent;
+        boolean[] visited;
+        FindPathAlgorithmExecutionStats stats;
+        
+        public SearchState(int n, FindPathAlgorithmExecutionStats stats) { 
+            if (compactGraph == null && !usesGraphIds()) { 
+                ids = new HashMap<>();
+                nodes = new ArrayList<>();
+            }
+            cost = new int[n];
+            Arrays.fill(cost,INF);
+            parent = new int[n];
+            Arrays.fill(parent,-1);
+            visited = new boolean[n];
+            this.stats = stats;
+        }
+        
+        @Override
+        public int idOf(V vertexData) { 
+            if (compactGraph != null)
+                return compactGraph.idOf(vertexData);
+            if (ids == null)
+                return graph.idOf(vertexData);
+            Integer id = ids.get(vertexData);
+            return (id != null) ? id : -1;
+        }
         
-        T node;
-        T parent;
-        int totalCost;
+        public int idOf(Vertex<V> vertex) { 
+            if (ids == null)
+                return graph.idOf(vertex);
+            Integer id = ids.get(vertex.getData());
+            if (id == null) { 
+                id = nodes.size();
+                ids.put(vertex.getData(),id);
+                nodes.add(vertex);
+                if (id == cost.length) { 
+                    cost = grow(cost,INF);
+                    parent = grow(parent,-1);
+                    visited = grow(visited);
+                }
+            }
+            return id;
+        }
         
-        public QueueItem(T node, T parent, int totalCost) { 
-            this.node = node;
-            this.parent = parent;
-            this.totalCost = totalCost;
+        @Override
+        public Vertex<V> vertexById(int id) { 
+            if (compactGraph != null)
+                return compactGraph.vertexById(id);
+            return (ids == null) ? graph.vertexById(id) : nodes.get(id);
         }
         
     }
     
+    /**
+     * Inner helper class.
+     * It maps the ids of a {@link ShortestPathTree} to the vertices of the
+     * graph, whose ids the search used. The ids are not copied, so they
+     * are valid only as long as the graph doesn't change; after that, 
+     * each lookup throws a {@link ConcurrentModificationException}.
+     */
+    private class GraphIds implements VertexIdMapping<V> { 
+        
+        final long version;
+        
+        public GraphIds(long version) { 
+            this.version = version;
+        }
+        
+        @Override
+        public int idOf(V vertexData) { 
+            checkVersion();
+            return graph.idOf(vertexData);
+        }
+        
+        @Override
+        public Vertex<V> vertexById(int id) { 
+            checkVersion();
+            return graph.vertexById(id);
+        }
+        
+        private void checkVersion() { 
+            // The id of a removed vertex is given to the next vertex that is added
+            if (graph.getVersion() != version)
+                throw new ConcurrentModificationException("The graph changed after the shortest path tree was built");
+        }
+    
+    }
+    
+    /**
+     * Inner helper class.
+     * It relaxes the edges of the node that was just settled, as they are
+     * visited by {@link Vertex#forEachNeighbor(NeighborVisitor)}.
+     */
+    private class Relaxation implements NeighborVisitor<V> { 
+        
+        final SearchState state;
+        final IndexedMinHeap queue;
+        int current;
+        
+        public Relaxation(SearchState state, IndexedMinHeap queue) { 
+            this.state = state;
+            this.queue = queue;
+        }
+        
+        @Override
+        public void visit(Vertex<V> neighbor, int weight) { 
+            // Calculate the new cost
+            int newCost = state.cost[current] + weight;
+            int child = state.idOf(neighbor);
+            // If the node is discovered for the first time, insert it in the open set
+            if (state.cost[child] == INF) { 
+                state.cost[child] = newCost;
+                state.parent[child] = current;
+                queue.insert(child,newCost);
+            // If the node is still in the open set and the new cost is
+            // less than the actual one, we have to update it
+            } else if (!state.visited[child] && newCost < state.cost[child]) { 
+                state.cost[child] = newCost;
+                state.parent[child] = current;
+                queue.decreaseKey(child,newCost);
+            }
+        }
+    
+    }
+    
+    /**
+     * Inner helper class.
+     * It is the search workspace of a thread, for the searches that stop as
+     * soon as their targets are settled. The cost, the parent and the 
+     * settled flag of each node are kept in the workspace, so a search only
+     * touches the nodes it visits. On a compact graph the ids of the graph
+     * itself are used, otherwise the ids of a {@link GraphAlgorithm.Numbering}
+     * that is kept with the workspace. It also relaxes the edges of the node
+     * that was just settled, as they are visited by 
+     * {@link Vertex#forEachNeighbor(NeighborVisitor)}.
+     */
+    private class PathSearch extends SearchWorkspace implements NeighborVisitor<V> { 
+        
+        final Numbering numbering;
+        FindPathAlgorithmExecutionStats stats;
+        int current;
+        
+        public PathSearch(int capacity) { 
+            super(capacity);
+            numbering = (compactGraph == null) ? new Numbering(this) : null;
+            if (collisionComp != null) { 
+                if (numbering != null)
+                    setTieBreaker(newTieBreaker(numbering));
+                else
+                    setTieBreaker(newTieBreaker(compactGraph));
+            }
+        }
+        
+        public void start(FindPathAlgorithmExecutionStats stats) { 
+            if (numbering != null)
+                numbering.reset();
+            this.stats = stats;
+        }
+        
+        public int find(V vertexData) { 
+            if (compactGraph != null)
+                return compactGraph.idOf(vertexData);
+            // The graph's own vertex objects are used, since they hold the edges
+            Vertex<V> vertex = (vertexData != null) ? graph.getVertexWithData(vertexData) : null;
+            return (vertex != null) ? numbering.idOf(vertex) : -1;
+        }
+        
+        public Vertex<V> vertexOf(int id) { 
+            if (compactGraph != null)
+                return compactGraph.vertexById(id);
+            return numbering.vertexById(id);
+        }
+        
+        public void run(int start, Set<Integer> remaining) { 
+            IndexedMinHeap queue = getHeap();
+            // Initialize the open set
+            update(start,0,-1);
+            queue.insert(start,0);
+            // While the open set is not empty
+            while (!queue.isEmpty()) { 
+                // Get the item with the smallest total cost and mark it as visited
+                current = queue.poll();
+                close(current);
+                // Exec stats
+                stats.incNodesVisitedNum();
+                // Stop as soon as the target, or all the targets, are settled
+                if (current == getTarget())
+                    break;
+                if (remaining != null && remaining.remove(current) && remaining.isEmpty())
+                    break;
+                // Iterate over its direct neighbors
+                if (compactGraph != null) { 
+                    for (int e = compactGraph.edgesStart(current); e < compactGraph.edgesEnd(current); e++)
+                        relax(compactGraph.target(e),compactGraph.weight(e));
+                } else
+                    vertexOf(current).forEachNeighbor(this);
+            }
+            // Exec stats
+            stats.stopExecution();
+        }
+        
+        @Override
+        public void visit(Vertex<V> neighbor, int weight) { 
+            relax(numbering.idOf(neighbor),weight);
+        }
+        
+        private void relax(int child, int weight) { 
+            // We need only those that they are still in the open set
+            if (isClosed(child))
+                return;
+            // If the new cost is less than the actual one, we have to update it
+            int newCost = getCost(current) + weight;
+            if (newCost < getCost(child)) { 
+                update(child,newCost,current);
+                getHeap().insertOrDecreaseKey(child,newCost);
+            }
+        }
+        
+        public Path<Vertex<V>> pathTo(int id) { 
+            Path<Vertex<V>> path = new Path<>();
+            // Only the settled nodes have a final path
+            if (isClosed(id)) { 
+                for (int run = id; run != -1; run = getParent(run))
+                    path.prepend(vertexOf(run));
+            }
+            return path;
+        }
+    
+    }
+    
     /**
      * Constructor
      * 
      * @param graph the graph
      */
-    public DijkstraShortestPath(Graph<V> graph) {
+    public DijkstraShortestPath(Graph<V> graph) { 
         super(graph);
         collisionComp = null;
-        execStats = new AlgorithmExecutionStats("Dijkstra shortest path");
+        execStats = new FindPathAlgorithmExecutionStats("Dijkstra shortest path");
     }
     
     /**
@@ -73,132 +318,404 @@ public class DijkstraShortestPath<V> extends GraphAlgorithm<V> {
      * @param graph the graph
      * @param collisionComp the vertex comparator to resolve any collisions
      */
-    public DijkstraShortestPath(Graph<V> graph, NodeComparator<Vertex<V>> collisionComp) {
+    public DijkstraShortestPath(Graph<V> graph, NodeComparator<Vertex<V>> collisionComp) { 
+        super(graph);
+        this.collisionComp = collisionComp;
+        execStats = new FindPathAlgorithmExecutionStats("Dijkstra shortest path");
+    }
+    
+    /**
+     * Constructor
+     * 
+     * @param graph the compact graph
+     */
+    public DijkstraShortestPath(CompactGraph<V> graph) { 
+        super(graph);
+        collisionComp = null;
+        execStats = new FindPathAlgorithmExecutionStats("Dijkstra shortest path");
+    }
+    
+    /**
+     * Constructor
+     * 
+     * @param graph the compact graph
+     * @param collisionComp the vertex comparator to resolve any collisions
+     */
+    public DijkstraShortestPath(CompactGraph<V> graph, NodeComparator<Vertex<V>> collisionComp) { 
         super(graph);
         this.collisionComp = collisionComp;
-        execStats = new AlgorithmExecutionStats("Dijkstra shortest path");
+        execStats = new FindPathAlgorithmExecutionStats("Dijkstra shortest path");
     }
     
     /**
      * Finds the shortest paths from {@link Vertex} <i>start</i> to every other vertex
      * in the graph.
+     * On a graph that isn't concurrent the tree refers to the vertex ids of
+     * the graph, so it can be read only until the graph changes; then its
+     * methods throw a {@link ConcurrentModificationException}. A tree on a
+     * {@link CompactGraph} or on a concurrent graph has its own ids.
      * 
      * @param start the start vertex
      * 
-     * @return a {@link java.util.Map} with the path for each vertex
+     * @return the {@link ShortestPathTree} rooted at start
      * 
-     * @throws VertexNotInGraphException in case a vertex was not found 
+     * @throws VertexNotInGraphException in case a vertex was not found
      */
-    public Map<Vertex<V>,Path> findShortestPaths(Vertex<V> start) throws VertexNotInGraphException { 
-        // The vertex has to exist inside the graph
-        if (!graph.contains(start))
-            throw new VertexNotInGraphException("Vertex (" + start + ") doesn't exist in the graph");
-        
+    public ShortestPathTree<V> findShortestPaths(Vertex<V> start) throws VertexNotInGraphException { 
+        SearchState state = search(start);
+        execStats = state.stats;
+        VertexIdMapping<V> mapping = (compactGraph == null && state.ids == null) ? new GraphIds(graph.getVersion()) : state;
+        // Every node that can be reached has been settled, so the costs are final
+        return new ShortestPathTree<>(mapping.vertexById(state.idOf(start.getData())),
+                                      mapping,state.parent,state.cost);
+    }
+    
+    /**
+     * Finds the shortest paths from a vertex to every other vertex in the graph.
+     * The data of the the vertex has to be provided.
+     * 
+     * @param start the start vertex
+     * 
+     * @return the {@link ShortestPathTree} rooted at start
+     * 
+     * @throws VertexNotInGraphException in case a vertex was not found
+     */
+    public ShortestPathTree<V> findShortestPaths(V start) throws VertexNotInGraphException { 
+        return findShortestPaths(findVertex(start));
+    }
+    
+    /**
+     * Finds the shortest paths from {@link Vertex} <i>start</i> to a set of
+     * target vertices.
+     * The search stops as soon as all the targets are settled.
+     * 
+     * @param start the start vertex
+     * @param targets the target vertices
+     * 
+     * @return a {@link java.util.Map} with the path for each target
+     *         (an empty path if the target can't be reached)
+     * 
+     * @throws VertexNotInGraphException in case a vertex was not found
+     */
+    public Map<Vertex<V>,Path> findShortestPaths(Vertex<V> start, Collection<Vertex<V>> targets) throws VertexNotInGraphException { 
+        @SuppressWarnings("unchecked")
+        PathSearch search = (PathSearch) workspace();
+        search.start(newFindPathStats());
+        int startId = find(search,start.getData());
+        Map<Vertex<V>,Path> paths = new HashMap<>();
+        // Without any targets there is nothing to settle
+        if (targets.isEmpty()) { 
+            search.stats.stopExecution();
+            execStats = search.stats;
+            return paths;
+        }
+        Map<Vertex<V>,Integer> targetIds = new HashMap<>();
+        for (Vertex<V> target : targets)
+            targetIds.put(target,find(search,target.getData()));
+        search.run(startId,new HashSet<>(targetIds.values()));
+        execStats = search.stats;
+        for (Map.Entry<Vertex<V>,Integer> target : targetIds.entrySet())
+            paths.put(target.getKey(),search.pathTo(target.getValue()));
+        return paths;
+    }
+    
+    /**
+     * Finds the shortest paths from a vertex to a set of target vertices.
+     * The data of the the vertices has to be provided.
+     * The search stops as soon as all the targets are settled.
+     * 
+     * @param start the start vertex
+     * @param targets the target vertices
+     * 
+     * @return a {@link java.util.Map} with the path for each target
+     *         (an empty path if the target can't be reached)
+     * 
+     * @throws VertexNotInGraphException in case a vertex was not found
+     */
+    public Map<V,Path> findShortestPaths(V start, Collection<V> targets) throws VertexNotInGraphException { 
+        @SuppressWarnings("unchecked")
+        PathSearch search = (PathSearch) workspace();
+        search.start(newFindPathStats());
+        int startId = find(search,start);
+        Map<V,Path> paths = new HashMap<>();
+        // Without any targets there is nothing to settle
+        if (targets.isEmpty()) { 
+            search.stats.stopExecution();
+            execStats = search.stats;
+            return paths;
+        }
+        Map<V,Integer> targetIds = new HashMap<>();
+        for (V target : targets)
+            targetIds.put(target,find(search,target));
+        search.run(startId,new HashSet<>(targetIds.values()));
+        execStats = search.stats;
+        for (Map.Entry<V,Integer> target : targetIds.entrySet())
+            paths.put(target.getKey(),search.pathTo(target.getValue()));
+        return paths;
+    }
+    
+    /**
+     * Finds the shortest path between start and end vertices.
+     * The search stops as soon as the destination vertex is settled.
+     * 
+     * @param start the starting vertex
+     * @param end the destination vertex
+     * 
+     * @return the shortest path from start to end (an empty path if end can't be reached)
+     * 
+     * @throws VertexNotInGraphException in case that any of the two vertices doesn't belong to the graph
+     */
+    public Path findShortestPath(Vertex<V> start, Vertex<V> end) throws VertexNotInGraphException { 
+        return findShortestPathResult(start,end).getPath();
+    }
+    
+    /**
+     * Finds the shortest path between two nodes in a graph.
+     * For each vertex, the corresponding data has to be provided.
+     * The search stops as soon as the destination vertex is settled.
+     * 
+     * @param start the corresponding data of the starting vertex
+     * @param end the corresponding data of the destination vertex
+     * 
+     * @return the shortest path from start to end (an empty path if end can't be reached)
+     * 
+     * @throws VertexNotInGraphException in case that any of the two vertices doesn't belong to the graph
+     */
+    public Path findShortestPath(V start, V end) throws VertexNotInGraphException { 
+        return findShortestPathResult(start,end).getPath();
+    }
+    
+    /**
+     * Finds the shortest path between start and end vertices.
+     * The search stops as soon as the destination vertex is settled.
+     * The result holds the statistics of this query, so the algorithm 
+     * object can be shared between threads.
+     * 
+     * @param start the starting vertex
+     * @param end the destination vertex
+     * 
+     * @return the shortest path from start to end and the query's stats (an empty path if end can't be reached)
+     * 
+     * @throws VertexNotInGraphException in case that any of the two vertices doesn't belong to the graph
+     */
+    public FindPathResult<V> findShortestPathResult(Vertex<V> start, Vertex<V> end) throws VertexNotInGraphException { 
+        return findShortestPathResult(start.getData(),end.getData());
+    }
+    
+    /**
+     * Finds the shortest path between two nodes in a graph.
+     * For each vertex, the corresponding data has to be provided.
+     * The search stops as soon as the destination vertex is settled.
+     * The result holds the statistics of this query, so the algorithm 
+     * object can be shared between threads.
+     * 
+     * @param start the corresponding data of the starting vertex
+     * @param end the corresponding data of the destination vertex
+     * 
+     * @return the shortest path from start to end and the query's stats (an empty path if end can't be reached)
+     * 
+     * @throws VertexNotInGraphException in case that any of the two vertices doesn't belong to the graph
+     */
+    public FindPathResult<V> findShortestPathResult(V start, V end) throws VertexNotInGraphException { 
+        @SuppressWarnings("unchecked")
+        PathSearch search = (PathSearch) workspace();
+        search.start(newFindPathStats());
+        int startId = find(search,start);
+        int endId = find(search,end);
+        search.setTarget(endId);
+        search.run(startId,null);
+        Path<Vertex<V>> path = search.pathTo(endId);
         // Exec stats
-        execStats.reset();
+        search.stats.setSolutionFound(!path.isEmpty());
+        search.stats.setPathLength(path.size());
+        execStats = search.stats;
+        return new FindPathResult<>(path,search.stats);
+    }
+    
+    /**
+     * Returns the id of the vertex with the specific data in a search.
+     * 
+     * @param search the search
+     * @param vertexData the specific data
+     * 
+     * @return the id of the vertex
+     * 
+     * @throws VertexNotInGraphException if the graph doesn't contain such a vertex
+     */
+    private int find(PathSearch search, V vertexData) throws VertexNotInGraphException { 
+        int id = search.find(vertexData);
+        if (id < 0)
+            throw new VertexNotInGraphException("The graph does not contain any vertex with data: " + vertexData);
+        return id;
+    }
+    
+    /**
+     * Returns the vertex with the specific data.
+     * 
+     * @param vertexData the specific data
+     * 
+     * @return the vertex
+     * 
+     * @throws VertexNotInGraphException if the graph doesn't contain such a vertex
+     */
+    private Vertex<V> findVertex(V vertexData) throws VertexNotInGraphException { 
+        Vertex<V> vertex = null;
+        if (compactGraph != null) { 
+            int id = compactGraph.idOf(vertexData);
+            if (id >= 0)
+                vertex = compactGraph.vertexById(id);
+        } else
+            vertex = graph.getVertexWithData(vertexData);
+        if (vertex == null)
+            throw new VertexNotInGraphException("The graph does not contain any vertex with data: " + vertexData);
+        return vertex;
+    }
+    
+    /**
+     * Executes the Dijkstra algorithm from a start vertex, until every
+     * vertex that can be reached is settled.
+     * 
+     * @param start the start vertex
+     * 
+     * @return the state of the search
+     * 
+     * @throws VertexNotInGraphException in case a vertex was not found
+     */
+    private SearchState search(Vertex<V> start) throws VertexNotInGraphException { 
+        // Exec stats
+        FindPathAlgorithmExecutionStats stats = newFindPathStats();
         
-        // The open set will be a priority queue
-        PriorityQueue<QueueItem<Vertex<V>>> queue = new PriorityQueue<>(new Comparator<QueueItem<Vertex<V>>>() { 
+        SearchState state;
+        if (compactGraph != null) { 
+            // The vertex has to exist inside the graph
+            int startId = compactGraph.idOf(start);
+            if (startId < 0)
+                throw new VertexNotInGraphException("Vertex (" + start + ") doesn't exist in the graph");
+            state = searchCompact(startId,stats);
+        } else { 
+            // The vertex has to exist inside the graph
+            // The graph's own vertex object is used, since it holds the edges
+            Vertex<V> source = graph.getVertexWithData(start.getData());
+            if (source == null)
+                throw new VertexNotInGraphException("Vertex (" + start + ") doesn't exist in the graph");
+            state = searchGraph(source,stats);
+        }
+        
+        // Exec stats
+        stats.stopExecution();
+        return state;
+    }
+    
+    /**
+     * Executes the Dijkstra algorithm on the graph.
+     * 
+     * @param source the graph's start vertex
+     * @param stats the execution statistics of the search
+     * 
+     * @return the state of the search
+     */
+    private SearchState searchGraph(Vertex<V> source, FindPathAlgorithmExecutionStats stats) { 
+        // The search state is kept in arrays that are indexed by the vertex ids
+        SearchState state = new SearchState(searchCapacity(),stats);
+        // The open set will be an indexed priority queue, so that the cost
+        // of a node can be decreased in place
+        IndexedMinHeap queue = new IndexedMinHeap(state.cost.length,(collisionComp == null) ? null :
+                new IndexedMinHeap.TieBreaker() { 
             @Override
-            public int compare(QueueItem<Vertex<V>> a, QueueItem<Vertex<V>> b) {
-                if (a.totalCost != b.totalCost || collisionComp == null)
-                    return (a.totalCost - b.totalCost);
-                else
-                    return collisionComp.compare(a.node,b.node);
+            public int compare(int a, int b) { 
+                return collisionComp.compare(state.vertexById(a),state.vertexById(b));
             }
         });
-        // The closed set will be a map
-        Map<Vertex<V>,QueueItem<Vertex<V>>> visited = new HashMap<>();
+        
+        // The edges are relaxed by the same visitor for the whole search
+        Relaxation relaxation = new Relaxation(state,queue);
         
         // Initialize the open set
-        QueueItem<Vertex<V>> source = new QueueItem<>(start,null,0);
-        queue.add(source);
-        for (Vertex<V> vertex : graph.getVertices()) { 
-            if (!start.equals(vertex)) { 
-                QueueItem<Vertex<V>> vItem = new QueueItem<>(vertex,null,INF);
-                queue.add(vItem);
-            }
+        int start = state.idOf(source);
+        state.cost[start] = 0;
+        queue.insert(start,0);
+        // While the open set is not empty
+        while (!queue.isEmpty()) { 
+            // Get the item with the smallest total cost and mark it as visited
+            int current = queue.poll();
+            state.visited[current] = true;
+            // Exec stats
+            stats.incNodesVisitedNum();
+            // Iterate over its direct neighbors
+            relaxation.current = current;
+            state.vertexById(current).forEachNeighbor(relaxation);
         }
+        return state;
+    }
+    
+    /**
+     * Executes the Dijkstra algorithm on the compact graph.
+     * 
+     * @param start the id of the start vertex
+     * @param stats the execution statistics of the search
+     * 
+     * @return the state of the search
+     */
+    private SearchState searchCompact(int start, FindPathAlgorithmExecutionStats stats) { 
+        SearchState state = new SearchState(compactGraph.size(),stats);
+        // The open set will be an indexed priority queue
+        IndexedMinHeap queue = new IndexedMinHeap(compactGraph.size(),(collisionComp == null) ? null :
+                newTieBreaker(compactGraph));
+        
+        // Initialize the open set
+        queue.insert(start,0);
+        state.cost[start] = 0;
         // While the open set is not empty
         while (!queue.isEmpty()) { 
-            // Get the item with the smallest total cost
-            QueueItem<Vertex<V>> current = queue.peek();
-            // Mark the current item as visited
-            visited.put(current.node,current);
+            // Get the item with the smallest total cost and mark it as visited
+            int current = queue.poll();
+            state.visited[current] = true;
             // Exec stats
-            execStats.incNodesVisitedNum();
+            stats.incNodesVisitedNum();
             // Iterate over its direct neighbors
-            for (Edge<Vertex<V>> edge : current.node.getEdges()) { 
+            for (int e = compactGraph.edgesStart(current); e < compactGraph.edgesEnd(current); e++) { 
+                int child = compactGraph.target(e);
                 // We need only those that they are still in the open set
-                if (visited.get(edge.getVertex()) != null)
+                if (state.visited[child])
                     continue;
-
-                // Calculate the new cost
-                int newCost = current.totalCost + 
-                                ((edge instanceof WeightedEdge) ? 
-                                    ((WeightedEdge) edge).getCost() : 1);
                 // If the new cost is less than the actual one, we have to update it
-                for (QueueItem<Vertex<V>> qItem : queue) { 
-                    if (qItem.node.equals(edge.getVertex())) { 
-                        if (newCost < qItem.totalCost) { 
-                            qItem.parent = current.node;
-                            qItem.totalCost = newCost;
-                        }
-                        break;
-                    }
+                int newCost = state.cost[current] + compactGraph.weight(e);
+                if (newCost < state.cost[child]) { 
+                    state.cost[child] = newCost;
+                    state.parent[child] = current;
+                    queue.insertOrDecreaseKey(child,newCost);
                 }
             }
-            // Remove the current item from the priority queue. This way the
-            // queue will be re-ordered for the next iteration
-            queue.poll();
-        }
-        
-        // Create a map with the shortest paths from start to each node
-        Map<Vertex<V>,Path> paths = new HashMap<>();
-        // For each one of the vertices
-        for (Map.Entry<Vertex<V>,QueueItem<Vertex<V>>> entry : visited.entrySet()) { 
-            // Construct its path from start
-            Vertex<V> vertex = entry.getKey();
-            QueueItem<Vertex<V>> qItem = entry.getValue();
-            Path<Vertex<V>> path = new Path<>();
-            QueueItem<Vertex<V>> run = qItem;
-            while (run != null) { 
-                path.prepend(run.node);
-                run = visited.get(run.parent);
-            }
-            // If the path starts with the start vertex
-            if (path.startsWith(start))
-                // Insert its path in the map
-                paths.put(vertex,path);
-            // Else, insert an empty path
-            else
-                paths.put(vertex,new Path<>());
         }
-        // Exec stats
-        execStats.stopExecution();
-        return paths;
+        return state;
     }
     
     /**
-     * Finds the shortest paths from a vertex to every other vertex in the graph.
-     * The data of the the vertex has to be provided.
-     * 
-     * @param start the start vertex
+     * Creates the tie breaker of an open set, that resolves the collisions
+     * with the collision resolution comparator.
      * 
-     * @return a {@link java.util.Map} with the path for each vertex
+     * @param ids the mapping of the node ids to the vertices
      * 
-     * @throws VertexNotInGraphException in case a vertex was not found 
+     * @return the tie breaker
      */
-    public Map<V,Path> findShortestPaths(V start) throws VertexNotInGraphException { 
-        // Find the corresponding vertices
-        Vertex<V> startVertex = graph.getVertexWithData(start);
-        if (startVertex == null)
-            throw new VertexNotInGraphException("The graph does not contain any vertex with data: " + start);
-        Map<Vertex<V>,Path> vertexPaths = findShortestPaths(startVertex);
-        Map<V,Path> objPaths = new HashMap<>();
-        for (Map.Entry<Vertex<V>,Path> entry : vertexPaths.entrySet())
-            objPaths.put(entry.getKey().getData(),entry.getValue());
-        return objPaths;
+    private IndexedMinHeap.TieBreaker newTieBreaker(final VertexIdMapping<V> ids) { 
+        return new IndexedMinHeap.TieBreaker() { 
+            @Override
+            public int compare(int a, int b) { 
+                return collisionComp.compare(ids.vertexById(a),ids.vertexById(b));
+            }
+        };
     }
     
+    /**
+     * {@inheritDoc}
+     * The workspace holds the state of the searches with targets of the 
+     * thread, whose open set breaks the ties with the collision resolution
+     * comparator.
+     */
+    @Override
+    protected SearchWorkspace newWorkspace() { 
+        return new PathSearch(workspaceCapacity());
+    }
+
 }
@@ -0,0 +1,73 @@
+/**
+ * Copyright (C) 2019, by Vasileios Nikakis
+ *
+ * graphima: yet another Java graph-theory library
+ */
+package com.sitienda.graphima.alg;
+
+import com.sitienda.graphima.Vertex;
+import com.sitienda.graphima.path.Path;
+
+/**
+ * The result of a single path query: the path and the execution
+ * statistics of that query only.
+ *
+ * @param <V> the type of the objects that the graph contains
+ *
+ * @author Vasileios Nikakis
+ */
+public class FindPathResult<V> {
+    
+    /**
+     * The path that was found.
+     */
+    private final Path<Vertex<V>> path;
+    /**
+     * The execution statistics of the query.
+     */
+    private final FindPathAlgorithmExecutionStats execStats;
+    
+    /**
+     * Constructor
+     * 
+     * @param path the path that was found
+     * @param execStats the execution statistics of the query
+     */
+    public FindPathResult(Path<Vertex<V>> path, FindPathAlgorithmExecutionStats execStats) { 
+        this.path = path;
+        this.execStats = execStats;
+    }
+    
+    /**
+     * 
+     * @return the path (an empty path if no path was found)
+     */
+    public Path<Vertex<V>> getPath() { 
+        return path;
+    }
+    
+    /**
+     * 
+     * @return the execution statistics of the query
+     */
+    public FindPathAlgorithmExecutionStats getExecStats() { 
+        return execStats;
+    }
+    
+    /**
+     * 
+     * @return true if a path was found
+     */
+    public boolean wasSolutionFound() { 
+        return execStats.wasSolutionFound();
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() { 
+        return path + "\n" + execStats;
+    }
+
+}
@@ -5,7 +5,16 @@
  */
 package com.sitienda.graphima.alg;
 
+import com.sitienda.graphima.CompactGraph;
 import com.sitienda.graphima.Graph;
+import com.sitienda.graphima.Vertex;
+import com.sitienda.graphima.VertexIdMapping;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * The base class for all graph algorithms.
@@ -20,10 +29,125 @@ public abstract class GraphAlgorithm<V> {
      * The graph.
      */
     protected Graph<V> graph;
+    /**
+     * The compact graph, if the algorithm runs on a compact snapshot.
+     * At most one of graph and compactGraph is not null; both are null for
+     * the algorithms that run on their own preprocessed data.
+     */
+    protected CompactGraph<V> compactGraph;
     /**
      * Algorithm execution statistics.
+     * The queries keep their statistics in their own objects and publish
+     * them here when they finish, so this is the statistics of the last
+     * query that finished.
+     */
+    protected volatile AlgorithmExecutionStats execStats;
+    /**
+     * The search workspace of each thread.
      */
-    protected AlgorithmExecutionStats execStats;
+    private final ThreadLocal<SearchWorkspace> workspaces = new ThreadLocal<SearchWorkspace>() { 
+        @Override
+        protected SearchWorkspace initialValue() { 
+            return newWorkspace();
+        }
+    };
+    
+    /**
+     * Inner helper class.
+     * It numbers the vertices that a search on the graph discovers, so that
+     * the search keeps its state in {@link SearchWorkspace}s. The vertex ids
+     * of the graph are used, unless the graph is concurrent; then each 
+     * vertex gets the next id when it is first seen and the workspaces grow
+     * with the ids, as the graph may grow during the search. A numbering can
+     * be kept with its workspaces and reset for each search.
+     */
+    protected class Numbering implements VertexIdMapping<V> { 
+        
+        private final SearchWorkspace[] workspaces;
+        private final Map<V,Integer> ids;
+        private final List<Vertex<V>> nodes;
+        
+        /**
+         * Constructor
+         * 
+         * @param workspaces the workspaces of the search, that have to hold every id
+         */
+        public Numbering(SearchWorkspace... workspaces) { 
+            this.workspaces = workspaces;
+            if (usesGraphIds()) { 
+                ids = null;
+                nodes = null;
+            } else { 
+                ids = new HashMap<>();
+                nodes = new ArrayList<>();
+            }
+        }
+        
+        /**
+         * Forgets the vertices that the previous search numbered.
+         */
+        public void reset() { 
+            if (ids != null) { 
+                ids.clear();
+                nodes.clear();
+            }
+        }
+        
+        /**
+         * Returns the id of a vertex of the graph, numbering it if it is 
+         * seen for the first time.
+         * 
+         * @param vertex the vertex
+         * 
+         * @return the id
+         */
+        public int idOf(Vertex<V> vertex) { 
+            if (ids == null)
+                return graph.idOf(vertex);
+            Integer id = ids.get(vertex.getData());
+            if (id == null) { 
+                id = nodes.size();
+                ids.put(vertex.getData(),id);
+                nodes.add(vertex);
+                for (SearchWorkspace workspace : workspaces)
+                    workspace.ensureCapacity(id+1);
+            }
+            return id;
+        }
+        
+        /**
+         * Returns the id of a vertex by supplying its data, without numbering
+         * it.
+         * 
+         * @param vertexData the data of the vertex
+         * 
+         * @return the id, or -1 if the vertex has not been numbered
+         */
+        @Override
+        public int idOf(V vertexData) { 
+            if (ids == null)
+                return graph.idOf(vertexData);
+            Integer id = ids.get(vertexData);
+            return (id != null) ? id : -1;
+        }
+        
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Vertex<V> vertexById(int id) { 
+            return (ids == null) ? graph.vertexById(id) : nodes.get(id);
+        }
+    
+    }
+    
+    /**
+     * Constructor for the algorithms that run on their own preprocessed
+     * data instead of a graph.
+     */
+    protected GraphAlgorithm() { 
+        
+    }
     
     /**
      * Constructor
@@ -35,6 +159,18 @@ public abstract class GraphAlgorithm<V> {
     }
     
     /**
+     * Constructor
+     * 
+     * @param compactGraph the compact snapshot of a graph
+     */
+    public GraphAlgorithm(CompactGraph<V> compactGraph) { 
+        this.compactGraph = compactGraph;
+    }
+    
+    /**
+     * Returns the execution statistics of the last query.
+     * When the algorithm object is shared between threads, the statistics
+     * of each query have to be taken from its own result object instead.
      * 
      * @return the algorithm execution statistics.
      */
@@ -42,4 +178,177 @@ public abstract class GraphAlgorithm<V> {
         return execStats;
     }
     
+    /**
+     * Creates the execution statistics of a new path query, with the name
+     * of the algorithm.
+     * 
+     * @return the new execution statistics
+     */
+    protected FindPathAlgorithmExecutionStats newFindPathStats() { 
+        return new FindPathAlgorithmExecutionStats(execStats.getAlgorithmName());
+    }
+    
+    /**
+     * Creates the execution statistics of a new query, with the name of
+     * the algorithm.
+     * 
+     * @return the new execution statistics
+     */
+    protected AlgorithmExecutionStats newExecStats() { 
+        return new AlgorithmExecutionStats(execStats.getAlgorithmName());
+    }
+    
+    /**
+     * Checks if a search can keep its state in arrays that are indexed by
+     * the vertex ids of the graph.
+     * The vertices of a concurrent graph may be added or removed while a
+     * search runs and the id of a removed vertex may be given to another
+     * one, so a search on a concurrent graph numbers the vertices that it
+     * discovers by itself.
+     * 
+     * @return true if the algorithm runs on a graph that is not concurrent
+     */
+    protected boolean usesGraphIds() { 
+        return (graph != null && !graph.isConcurrent());
+    }
+    
+    /**
+     * Returns the number of nodes that the state of a search on the graph
+     * has to hold.
+     * 
+     * @return the bound of the vertex ids if the search uses them, 
+     *         otherwise the number of vertices
+     */
+    protected int searchCapacity() { 
+        return usesGraphIds() ? graph.getIdBound() : graph.size();
+    }
+    
+    /**
+     * Grows an array of the state of a search, when the search discovers
+     * more nodes than it was sized for. The vertices of a concurrent graph
+     * may be added while it is searched.
+     * 
+     * @param array the array
+     * @param fill the value of the new entries
+     * 
+     * @return the new array
+     */
+    protected static int[] grow(int[] array, int fill) { 
+        int length = array.length;
+        int[] grown = Arrays.copyOf(array,Math.max(2*length,16));
+        Arrays.fill(grown,length,grown.length,fill);
+        return grown;
+    }
+    
+    /**
+     * Grows an array of the state of a search, when the search discovers
+     * more nodes than it was sized for.
+     * 
+     * @param array the array
+     * 
+     * @return the new array, with the new entries false
+     */
+    protected static boolean[] grow(boolean[] array) { 
+        return Arrays.copyOf(array,Math.max(2*array.length,16));
+    }
+    
+    /**
+     * Creates the thread pool of a parallel algorithm.
+     * The pool is created once for the algorithm object, unless the caller
+     * supplies its own, so all the queries share its threads. The worker
+     * threads are daemon threads and they exit after the pool has been idle
+     * for a while, so the pool doesn't have to be shut down.
+     * 
+     * @param parallelism the number of threads
+     * 
+     * @return the new thread pool
+     * 
+     * @throws IllegalArgumentException if the number of threads is less than 1
+     */
+    protected static ForkJoinPool newPool(int parallelism) { 
+        if (parallelism < 1)
+            throw new IllegalArgumentException("The number of threads has to be at least 1");
+        return new ForkJoinPool(parallelism);
+    }
+    
+    /**
+     * Sorts a range of node ids in place, keeping the order of the ids that
+     * are equal, so that the children of a node are sorted without boxing
+     * them. The children of a node are few, so a binary insertion sort is
+     * used.
+     * 
+     * @param ids the node ids
+     * @param from the position of the first id
+     * @param to the position after the last id
+     * @param order the order of the ids
+     */
+    protected static void sortIds(int[] ids, int from, int to, IndexedMinHeap.TieBreaker order) { 
+        for (int i = from + 1; i < to; i++) { 
+            int id = ids[i];
+            // The id goes after the equal ones
+            int low = from, high = i;
+            while (low < high) { 
+                int mid = (low + high) >>> 1;
+                if (order.compare(id,ids[mid]) < 0)
+                    high = mid;
+                else
+                    low = mid + 1;
+            }
+            System.arraycopy(ids,low,ids,low+1,i-low);
+            ids[low] = id;
+        }
+    }
+    
+    /**
+     * Returns the number of nodes that a new search workspace has room for.
+     * 
+     * @return the number of vertices of the compact graph, otherwise the
+     *         nodes that a search on the graph has to hold (0 without a graph)
+     */
+    protected int workspaceCapacity() { 
+        if (compactGraph != null)
+            return compactGraph.size();
+        return (graph != null) ? searchCapacity() : 0;
+    }
+    
+    /**
+     * Creates the search workspace of a thread.
+     * The algorithms that keep more state for each thread, such as the 
+     * visitor of the edges, the {@link Numbering} of the graph or the tie
+     * breaker of the open set, return a subclass that holds it, so that it
+     * is created once for each thread.
+     * 
+     * @return the new search workspace, with room for every vertex of the graph
+     */
+    protected SearchWorkspace newWorkspace() { 
+        return new SearchWorkspace(workspaceCapacity());
+    }
+    
+    /**
+     * Returns the search workspace of the current thread, reset for a new
+     * search, so that a search doesn't allocate its state. On a graph the 
+     * workspace first grows with the graph.
+     * 
+     * @return the search workspace
+     */
+    protected SearchWorkspace workspace() { 
+        return resetWorkspace(workspaces.get());
+    }
+    
+    /**
+     * Resets a search workspace of the current thread for a new search.
+     * The algorithms that keep more workspaces for each thread, such as 
+     * the bidirectional searches, reset the others with it.
+     * 
+     * @param workspace the workspace
+     * 
+     * @return the workspace
+     */
+    protected SearchWorkspace resetWorkspace(SearchWorkspace workspace) { 
+        if (graph != null)
+            workspace.ensureCapacity(searchCapacity());
+        workspace.reset();
+        return workspace;
+    }
+    
 }
@@ -0,0 +1,324 @@
+/**
+ * Copyright (C) 2019, by Vasileios Nikakis
+ *
+ * graphima: yet another Java graph-theory library
+ */
+package com.sitienda.graphima.alg;
+
+import java.util.Arrays;
+
+/**
+ * An indexed d-ary min-heap.
+ * <p>
+ * The heap contains int items (e.g. vertex ids) in the range [0, capacity),
+ * each one with an int key. Since the position of each item inside the heap
+ * is tracked, the key of an item can be decreased in O(log n) time, without
+ * having to search for it or to insert it a second time.
+ * </p>
+ * <p>
+ * Items with equal keys are ordered with the help of an optional
+ * {@link TieBreaker}. The capacity grows automatically when an item outside
+ * of the current range is inserted.
+ * </p>
+ *
+ * @author Vasileios Nikakis
+ */
+public class IndexedMinHeap {
+    
+    /**
+     * Resolves the order of two items that have the same key.
+     */
+    public interface TieBreaker { 
+        
+        /**
+         * Compares two heap items.
+         * 
+         * @param a the first item
+         * @param b the second item
+         * 
+         * @return a negative integer, zero, or a positive integer as the first
+         *         item has to be polled before, together with or after the second
+         */
+        public int compare(int a, int b);
+    
+    }
+    
+    /**
+     * The default number of children of each heap node.
+     */
+    public static final int DEFAULT_ARITY = 4;
+    
+    /**
+     * The number of children of each heap node.
+     */
+    private final int arity;
+    /**
+     * Resolves the order of items with equal keys (optional).
+     */
+    private final TieBreaker tieBreaker;
+    /**
+     * The items in heap order.
+     */
+    private int[] heap;
+    /**
+     * The key of each item, indexed by the item.
+     */
+    private int[] keys;
+    /**
+     * The position of each item in the heap, indexed by the item.
+     * It is -1 for the items that are not in the heap.
+     */
+    private int[] positions;
+    /**
+     * The number of items in the heap.
+     */
+    private int size;
+    
+    /**
+     * Constructor
+     * 
+     * @param capacity the initial capacity
+     */
+    public IndexedMinHeap(int capacity) { 
+        this(capacity,DEFAULT_ARITY,null);
+    }
+    
+    /**
+     * Constructor
+     * 
+     * @param capacity the initial capacity
+     * @param tieBreaker resolves the order of items with equal keys (it can be null)
+     */
+    public IndexedMinHeap(int capacity, TieBreaker tieBreaker) { 
+        this(capacity,DEFAULT_ARITY,tieBreaker);
+    }
+    
+    /**
+     * Constructor
+     * 
+     * @param capacity the initial capacity
+     * @param arity the number of children of each heap node (at least 2)
+     * @param tieBreaker resolves the order of items with equal keys (it can be null)
+     */
+    public IndexedMinHeap(int capacity, int arity, TieBreaker tieBreaker) { 
+        if (arity < 2)
+            throw new IllegalArgumentException("The arity of the heap has to be at least 2");
+        this.arity = arity;
+        this.tieBreaker = tieBreaker;
+        capacity = Math.max(capacity,1);
+        heap = new int[capacity];
+        keys = new int[capacity];
+        positions = new int[capacity];
+        Arrays.fill(positions,-1);
+        size = 0;
+    }
+    
+    /**
+     * 
+     * @return the number of items in the heap
+     */
+    public int size() { 
+        return size;
+    }
+    
+    /**
+     * 
+     * @return true if the heap has no items
+     */
+    public boolean isEmpty() { 
+        return (size == 0);
+    }
+    
+    /**
+     * Checks if an item is in the heap.
+     * 
+     * @param item the item
+     * 
+     * @return true or false
+     */
+    public boolean contains(int item) { 
+        return (item >= 0 && item < positions.length && positions[item] >= 0);
+    }
+    
+    /**
+     * Returns the key of an item that is in the heap.
+     * 
+     * @param item the item
+     * 
+     * @return the key of the item
+     */
+    public int getKey(int item) { 
+        return keys[item];
+    }
+    
+    /**
+     * Inserts an item in the heap.
+     * 
+     * @param item the item (it must not be already in the heap)
+     * @param key the key of the item
+     */
+    public void insert(int item, int key) { 
+        if (contains(item))
+            throw new IllegalArgumentException("Item " + item + " is already in the heap");
+        ensureCapacity(item+1);
+        keys[item] = key;
+        heap[size] = item;
+        positions[item] = size;
+        siftUp(size++);
+    }
+    
+    /**
+     * Decreases the key of an item that is in the heap.
+     * 
+     * @param item the item
+     * @param key the new key, that can't be greater than the existing one
+     */
+    public void decreaseKey(int item, int key) { 
+        if (!contains(item))
+            throw new IllegalArgumentException("Item " + item + " is not in the heap");
+        if (key > keys[item])
+            throw new IllegalArgumentException("The new key of item " + item + " is greater than the existing one");
+        keys[item] = key;
+        siftUp(positions[item]);
+    }
+    
+    /**
+     * Inserts an item in the heap or decreases its key, if the item is
+     * already in the heap with a greater key.
+     * 
+     * @param item the item
+     * @param key the key of the item
+     * 
+     * @return true if the heap was changed
+     */
+    public boolean insertOrDecreaseKey(int item, int key) { 
+        if (!contains(item)) { 
+            insert(item,key);
+            return true;
+        }
+        if (key < keys[item]) { 
+            decreaseKey(item,key);
+            return true;
+        }
+        return false;
+    }
+    
+    /**
+     * Returns the item with the minimum key, without removing it.
+     * 
+     * @return the item with the minimum key
+     */
+    public int peek() { 
+        if (size == 0)
+            throw new IllegalStateException("The heap is empty");
+        return heap[0];
+    }
+    
+    /**
+     * Removes and returns the item with the minimum key.
+     * 
+     * @return the item with the minimum key
+     */
+    public int poll() { 
+        if (size == 0)
+            throw new IllegalStateException("The heap is empty");
+        int min = heap[0];
+        positions[min] = -1;
+        if (--size > 0) { 
+            heap[0] = heap[size];
+            positions[heap[0]] = 0;
+            siftDown(0);
+        }
+        return min;
+    }
+    
+    /**
+     * Removes all items from the heap.
+     * It takes time proportional to the number of items in the heap, so
+     * the heap can be reused cheaply.
+     */
+    public void clear() { 
+        for (int i = 0; i < size; i++)
+            positions[heap[i]] = -1;
+        size = 0;
+    }
+    
+    /**
+     * Checks if item a has to be polled before item b.
+     * 
+     * @param a the first item
+     * @param b the second item
+     * 
+     * @return true or false
+     */
+    private boolean less(int a, int b) { 
+        if (keys[a] != keys[b])
+            return (keys[a] < keys[b]);
+        return (tieBreaker != null && tieBreaker.compare(a,b) < 0);
+    }
+    
+    /**
+     * Moves the item at a position up, until its parent is not greater.
+     * 
+     * @param pos the position
+     */
+    private void siftUp(int pos) { 
+        int item = heap[pos];
+        while (pos > 0) { 
+            int parentPos = (pos - 1) / arity;
+            int parent = heap[parentPos];
+            if (!less(item,parent))
+                break;
+            heap[pos] = parent;
+            positions[parent] = pos;
+            pos = parentPos;
+        }
+        heap[pos] = item;
+        positions[item] = pos;
+    }
+    
+    /**
+     * Moves the item at a position down, until none of its children is smaller.
+     * 
+     * @param pos the position
+     */
+    private void siftDown(int pos) { 
+        int item = heap[pos];
+        while (true) { 
+            int firstChild = pos * arity + 1;
+            if (firstChild >= size)
+                break;
+            // Find the smallest child
+            int minPos = firstChild;
+            int lastChild = Math.min(firstChild + arity, size);
+            for (int childPos = firstChild + 1; childPos < lastChild; childPos++) { 
+                if (less(heap[childPos],heap[minPos]))
+                    minPos = childPos;
+            }
+            if (!less(heap[minPos],item))
+                break;
+            heap[pos] = heap[minPos];
+            positions[heap[pos]] = pos;
+            pos = minPos;
+        }
+        heap[pos] = item;
+        positions[item] = pos;
+    }
+    
+    /**
+     * Grows the internal arrays, so that they can hold the items [0, capacity).
+     * 
+     * @param capacity the required capacity
+     */
+    private void ensureCapacity(int capacity) { 
+        if (capacity <= positions.length)
+            return;
+        int newCapacity = Math.max(capacity,positions.length * 2);
+        int oldCapacity = positions.length;
+        heap = Arrays.copyOf(heap,newCapacity);
+        keys = Arrays.copyOf(keys,newCapacity);
+        positions = Arrays.copyOf(positions,newCapacity);
+        Arrays.fill(positions,oldCapacity,newCapacity,-1);
+    }
+
+}
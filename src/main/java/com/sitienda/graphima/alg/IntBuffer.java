@@ -0,0 +1,59 @@
+/**
+ * Copyright (C) 2019, by Vasileios Nikakis
+ *
+ * graphima: yet another Java graph-theory library
+ */
+package com.sitienda.graphima.alg;
+
+import java.util.Arrays;
+
+/**
+ * A growable array of node ids.
+ * The parallel algorithms use it to collect the nodes that each task
+ * discovers, without boxing them.
+ *
+ * @author Vasileios Nikakis
+ */
+class IntBuffer {
+    
+    /**
+     * The items, only the first size of them are valid.
+     */
+    int[] items;
+    /**
+     * The number of items.
+     */
+    int size;
+    
+    /**
+     * Constructor
+     */
+    IntBuffer() { 
+        items = new int[16];
+        size = 0;
+    }
+    
+    /**
+     * Appends an item.
+     * 
+     * @param item the item
+     */
+    void add(int item) { 
+        if (size == items.length)
+            items = Arrays.copyOf(items,size * 2);
+        items[size++] = item;
+    }
+    
+    /**
+     * Appends all the items of another buffer.
+     * 
+     * @param other the other buffer
+     */
+    void addAll(IntBuffer other) { 
+        if (size + other.size > items.length)
+            items = Arrays.copyOf(items,Math.max(size + other.size,size * 2));
+        System.arraycopy(other.items,0,items,size,other.size);
+        size += other.size;
+    }
+
+}
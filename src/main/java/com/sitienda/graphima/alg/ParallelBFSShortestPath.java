@@ -0,0 +1,345 @@
+/**
+ * Copyright (C) 2019, by Vasileios Nikakis
+ *
+ * graphima: yet another Java graph-theory library
+ */
+package com.sitienda.graphima.alg;
+
+import com.sitienda.graphima.CompactGraph;
+import com.sitienda.graphima.Graph;
+import com.sitienda.graphima.Vertex;
+import com.sitienda.graphima.exceptions.VertexNotInGraphException;
+import com.sitienda.graphima.path.ShortestPathTree;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Parallel BFS (Breadth First Search) algorithm.
+ * It discovers the shortest paths, in number of edges, between a source
+ * vertex and all the rest, using many threads.
+ * <p>
+ * The search is level-synchronous: each level of the search is expanded
+ * by {@link java.util.concurrent.ForkJoinPool} tasks, on the pool of the
+ * algorithm (see {@link GraphAlgorithm#newPool(int)}), and the next level
+ * starts when all of them have finished. A level is expanded either
+ * top-down, where the nodes of the frontier claim their unvisited
+ * neighbors with compare-and-set, or bottom-up, where each unvisited node
+ * looks for a parent among its predecessors and stops at the first one
+ * that belongs to the frontier. The search switches to bottom-up when the
+ * edges of the frontier are more than the edges of the unvisited nodes
+ * divided by alpha, and back to top-down when the frontier shrinks below
+ * the number of nodes divided by beta.
+ * </p>
+ * <p>
+ * The result is a {@link ShortestPathTree} whose distances are the levels
+ * of the nodes. The parent of a node is any node of the previous level
+ * that links to it, so it may differ between runs. The algorithm runs on a
+ * {@link com.sitienda.graphima.CompactGraph}; a
+ * {@link com.sitienda.graphima.Graph} is frozen on construction. On
+ * directed graphs the bottom-up steps use the
+ * {@link com.sitienda.graphima.CompactGraph#reverse()} graph.
+ * </p>
+ *
+ * @param <V> the type of the objects that the graph contains
+ *
+ * @author Vasileios Nikakis
+ */
+public class ParallelBFSShortestPath<V> extends GraphAlgorithm<V> {
+    
+    /**
+     * The default factor of the switch to the bottom-up steps.
+     */
+    public static final int DEFAULT_ALPHA = 14;
+    /**
+     * The default factor of the switch back to the top-down steps.
+     */
+    public static final int DEFAULT_BETA = 24;
+    /**
+     * Max integer as infinity.
+     */
+    private static final int INF = Integer.MAX_VALUE;
+    /**
+     * The max number of nodes that a task expands without splitting.
+     */
+    private static final int SEQUENTIAL_THRESHOLD = 1024;
+    
+    /**
+     * The thread pool that expands the levels.
+     */
+    private final ForkJoinPool pool;
+    /**
+     * The factor of the switch to the bottom-up steps.
+     */
+    private final int alpha;
+    /**
+     * The factor of the switch back to the top-down steps.
+     */
+    private final int beta;
+    
+    /**
+     * Inner helper class.
+     * It holds the state of a search. A node is visited as soon as it has
+     * a parent; the source is its own parent until the search ends.
+     */
+    private class SearchState { 
+        
+        final AtomicIntegerArray parent;
+        final int[] level;
+        int depth;
+        
+        public SearchState(int n) { 
+            parent = new AtomicIntegerArray(n);
+            for (int i = 0; i < n; i++)
+                parent.set(i,-1);
+            level = new int[n];
+            Arrays.fill(level,INF);
+            depth = 0;
+        }
+    
+    }
+    
+    /**
+     * Inner helper class.
+     * It expands a range of the frontier top-down and returns the nodes of
+     * the next level that it claimed.
+     */
+    private class TopDownTask extends RecursiveTask<IntBuffer> { 
+        
+        private static final long serialVersionUID = 1L;
+        
+        final SearchState state;
+        final int[] frontier;
+        final int from;
+        final int to;
+        
+        public TopDownTask(SearchState state, int[] frontier, int from, int to) { 
+            this.state = state;
+            this.frontier = frontier;
+            this.from = from;
+            this.to = to;
+        }
+        
+        @Override
+        protected IntBuffer compute() { 
+            if (to - from > SEQUENTIAL_THRESHOLD) { 
+                int middle = (from + to) >>> 1;
+                TopDownTask left = new TopDownTask(state,frontier,from,middle);
+                left.fork();
+                IntBuffer next = new TopDownTask(state,frontier,middle,to).compute();
+                next.addAll(left.join());
+                return next;
+            }
+            IntBuffer next = new IntBuffer();
+            for (int i = from; i < to; i++) { 
+                int node = frontier[i];
+                for (int e = compactGraph.edgesStart(node); e < compactGraph.edgesEnd(node); e++) { 
+                    int child = compactGraph.target(e);
+                    if (state.parent.get(child) == -1 && state.parent.compareAndSet(child,-1,node)) { 
+                        state.level[child] = state.depth + 1;
+                        next.add(child);
+                    }
+                }
+            }
+            return next;
+        }
+    
+    }
+    
+    /**
+     * Inner helper class.
+     * It looks for a parent in the frontier for each unvisited node of a
+     * range of ids and returns the nodes that found one.
+     */
+    private class BottomUpTask extends RecursiveTask<IntBuffer> { 
+        
+        private static final long serialVersionUID = 1L;
+        
+        final SearchState state;
+        final CompactGraph<V> reverse;
+        final int from;
+        final int to;
+        
+        public BottomUpTask(SearchState state, CompactGraph<V> reverse, int from, int to) { 
+            this.state = state;
+            this.reverse = reverse;
+            this.from = from;
+            this.to = to;
+        }
+        
+        @Override
+        protected IntBuffer compute() { 
+            if (to - from > SEQUENTIAL_THRESHOLD) { 
+                int middle = (from + to) >>> 1;
+                BottomUpTask left = new BottomUpTask(state,reverse,from,middle);
+                left.fork();
+                IntBuffer next = new BottomUpTask(state,reverse,middle,to).compute();
+                next.addAll(left.join());
+                return next;
+            }
+            IntBuffer next = new IntBuffer();
+            for (int node = from; node < to; node++) { 
+                if (state.parent.get(node) != -1)
+                    continue;
+                // Each node is checked by a single task, so no compare-and-set is needed
+                for (int e = reverse.edgesStart(node); e < reverse.edgesEnd(node); e++) { 
+                    int predecessor = reverse.target(e);
+                    if (state.level[predecessor] == state.depth) { 
+                        state.parent.set(node,predecessor);
+                        state.level[node] = state.depth + 1;
+                        next.add(node);
+                        break;
+                    }
+                }
+            }
+            return next;
+        }
+    
+    }
+    
+    /**
+     * Constructor.
+     * All the available processors are used.
+     * 
+     * @param graph the graph
+     */
+    public ParallelBFSShortestPath(Graph<V> graph) { 
+        this(graph.freeze());
+    }
+    
+    /**
+     * Constructor.
+     * All the available processors are used.
+     * 
+     * @param graph the compact graph
+     */
+    public ParallelBFSShortestPath(CompactGraph<V> graph) { 
+        this(graph,Runtime.getRuntime().availableProcessors(),DEFAULT_ALPHA,DEFAULT_BETA);
+    }
+    
+    /**
+     * Constructor
+     * 
+     * @param graph the compact graph
+     * @param parallelism the number of threads
+     * @param alpha the factor of the switch to the bottom-up steps
+     * @param beta the factor of the switch back to the top-down steps
+     */
+    public ParallelBFSShortestPath(CompactGraph<V> graph, int parallelism, int alpha, int beta) { 
+        this(graph,newPool(parallelism),alpha,beta);
+    }
+    
+    /**
+     * Constructor
+     * 
+     * @param graph the compact graph
+     * @param pool the thread pool that expands the levels, that the algorithm doesn't shut down
+     * @param alpha the factor of the switch to the bottom-up steps
+     * @param beta the factor of the switch back to the top-down steps
+     */
+    public ParallelBFSShortestPath(CompactGraph<V> graph, ForkJoinPool pool, int alpha, int beta) { 
+        super(graph);
+        if (pool == null)
+            throw new IllegalArgumentException("The thread pool can't be null");
+        if (alpha < 1 || beta < 1)
+            throw new IllegalArgumentException("The switch factors have to be at least 1");
+        this.pool = pool;
+        this.alpha = alpha;
+        this.beta = beta;
+        execStats = new AlgorithmExecutionStats("Parallel BFS shortest paths");
+    }
+    
+    /**
+     * 
+     * @return the number of threads
+     */
+    public int getParallelism() { 
+        return pool.getParallelism();
+    }
+    
+    /**
+     * Finds the shortest paths from {@link Vertex} <i>start</i> to every other vertex
+     * in the graph.
+     * 
+     * @param start the start vertex
+     * 
+     * @return the {@link ShortestPathTree} rooted at start, with the levels as distances
+     * 
+     * @throws VertexNotInGraphException in case a vertex was not found
+     */
+    public ShortestPathTree<V> findShortestPaths(Vertex<V> start) throws VertexNotInGraphException { 
+        return findShortestPaths(start.getData());
+    }
+    
+    /**
+     * Finds the shortest paths from a vertex to every other vertex in the graph.
+     * The data of the the vertex has to be provided.
+     * 
+     * @param start the start vertex
+     * 
+     * @return the {@link ShortestPathTree} rooted at start, with the levels as distances
+     * 
+     * @throws VertexNotInGraphException in case a vertex was not found
+     */
+    public ShortestPathTree<V> findShortestPaths(V start) throws VertexNotInGraphException { 
+        int source = compactGraph.idOf(start);
+        if (source < 0)
+            throw new VertexNotInGraphException("Vertex (" + start + ") doesn't exist in the graph");
+        
+        // Exec stats
+        AlgorithmExecutionStats stats = newExecStats();
+        
+        int n = compactGraph.size();
+        SearchState state = new SearchState(n);
+        search(state,source,stats);
+        
+        int[] parent = new int[n];
+        for (int i = 0; i < n; i++)
+            parent[i] = state.parent.get(i);
+        parent[source] = -1;
+        // Exec stats
+        stats.stopExecution();
+        execStats = stats;
+        return new ShortestPathTree<>(compactGraph.vertexById(source),compactGraph,parent,state.level);
+    }
+    
+    /**
+     * Expands the search level by level, until the frontier is empty.
+     * 
+     * @param state the state of the search
+     * @param source the id of the source vertex
+     * @param stats the execution statistics of the search
+     */
+    private void search(SearchState state, int source, AlgorithmExecutionStats stats) { 
+        int n = compactGraph.size();
+        state.parent.set(source,source);
+        state.level[source] = 0;
+        IntBuffer frontier = new IntBuffer();
+        frontier.add(source);
+        // The edges of the nodes that haven't been visited yet
+        long unexploredEdges = compactGraph.getEdgesSize();
+        boolean bottomUp = false;
+        int visited = 1;
+        
+        while (frontier.size > 0) { 
+            long frontierEdges = 0;
+            for (int i = 0; i < frontier.size; i++)
+                frontierEdges += compactGraph.getNeighborsSize(frontier.items[i]);
+            unexploredEdges -= frontierEdges;
+            // Choose the direction of this level
+            if (!bottomUp && frontierEdges > unexploredEdges / alpha)
+                bottomUp = true;
+            else if (bottomUp && frontier.size < n / beta)
+                bottomUp = false;
+            IntBuffer next = bottomUp ? pool.invoke(new BottomUpTask(state,compactGraph.reverse(),0,n))
+                                      : pool.invoke(new TopDownTask(state,frontier.items,0,frontier.size));
+            visited += next.size;
+            state.depth++;
+            frontier = next;
+        }
+        // Exec stats
+        stats.setNodesVisitedNum(visited);
+    }
+
+}
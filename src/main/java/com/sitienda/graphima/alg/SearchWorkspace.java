@@ -0,0 +1,286 @@
+/**
+ * Copyright (C) 2019, by Vasileios Nikakis
+ *
+ * graphima: yet another Java graph-theory library
+ */
+package com.sitienda.graphima.alg;
+
+import java.util.Arrays;
+
+/**
+ * The reusable state of a search over the ids of a
+ * {@link com.sitienda.graphima.CompactGraph} or of a 
+ * {@link com.sitienda.graphima.Graph}.
+ * <p>
+ * It holds the cost, the estimate and the parent of each node, a closed
+ * flag, a buffer for a queue or a stack, an {@link IndexedMinHeap} and the
+ * target of a point-to-point search. The
+ * arrays are allocated once and each search starts a new generation: a
+ * node belongs to the current search only if it has been discovered in the
+ * current generation, so {@link #reset()} doesn't have to clear them and a
+ * search only touches the nodes it visits.
+ * </p>
+ * <p>
+ * A workspace must not be used by more than one thread at the same time;
+ * the algorithms keep one for each thread.
+ * </p>
+ *
+ * @author Vasileios Nikakis
+ */
+public class SearchWorkspace {
+    
+    /**
+     * The cost of the nodes that haven't been discovered.
+     */
+    public static final int INFINITY = Integer.MAX_VALUE;
+    
+    /**
+     * The generation of the current search.
+     */
+    private int generation;
+    /**
+     * The generation that each node was discovered in.
+     */
+    private int[] discovered;
+    /**
+     * The generation that each node was closed in.
+     */
+    private int[] closed;
+    /**
+     * The cost of each node.
+     */
+    private int[] cost;
+    /**
+     * The estimate of each node (the heuristic value for A*).
+     */
+    private int[] estimate;
+    /**
+     * The parent of each node.
+     */
+    private int[] parent;
+    /**
+     * A buffer for a queue or a stack of nodes.
+     */
+    private int[] items;
+    /**
+     * The open set.
+     */
+    private final IndexedMinHeap heap;
+    /**
+     * The tie breaker of the open set, or null.
+     */
+    private IndexedMinHeap.TieBreaker tieBreaker;
+    /**
+     * The target of the current search, or -1.
+     */
+    private int target;
+    
+    /**
+     * Constructor
+     * 
+     * @param capacity the number of nodes
+     */
+    public SearchWorkspace(int capacity) { 
+        if (capacity < 0)
+            throw new IllegalArgumentException("The capacity can't be negative");
+        generation = 0;
+        target = -1;
+        discovered = new int[capacity];
+        closed = new int[capacity];
+        cost = new int[capacity];
+        estimate = new int[capacity];
+        parent = new int[capacity];
+        items = new int[capacity];
+        heap = new IndexedMinHeap(capacity,new IndexedMinHeap.TieBreaker() { 
+            @Override
+            public int compare(int a, int b) { 
+                return (tieBreaker != null) ? tieBreaker.compare(a,b) : 0;
+            }
+        });
+    }
+    
+    /**
+     * 
+     * @return the number of nodes
+     */
+    public int capacity() { 
+        return cost.length;
+    }
+    
+    /**
+     * Makes room for at least a number of nodes, keeping the state of the
+     * current search. The vertex ids of a graph grow as vertices are added,
+     * and a search on a concurrent graph numbers the nodes as it discovers
+     * them, so the workspace grows with them; it grows by half at least, so
+     * that the arrays are not copied on each new node. The buffer that 
+     * {@link #getItems()} returned before is replaced.
+     * 
+     * @param capacity the number of nodes
+     */
+    public void ensureCapacity(int capacity) { 
+        int length = cost.length;
+        if (capacity <= length)
+            return;
+        int newLength = Math.max(capacity,length + (length >> 1) + 1);
+        // The new nodes have never been discovered or closed
+        discovered = Arrays.copyOf(discovered,newLength);
+        closed = Arrays.copyOf(closed,newLength);
+        cost = Arrays.copyOf(cost,newLength);
+        estimate = Arrays.copyOf(estimate,newLength);
+        parent = Arrays.copyOf(parent,newLength);
+        items = Arrays.copyOf(items,newLength);
+    }
+    
+    /**
+     * Starts a new search.
+     * The nodes of the previous search are forgotten, the open set is
+     * emptied and the target is cleared.
+     */
+    public void reset() { 
+        // Clear the stamps only when the generations run out
+        if (generation == Integer.MAX_VALUE) { 
+            Arrays.fill(discovered,0);
+            Arrays.fill(closed,0);
+            generation = 0;
+        }
+        generation++;
+        heap.clear();
+        target = -1;
+    }
+    
+    /**
+     * Sets the tie breaker of the open set, for the nodes with equal keys.
+     * 
+     * @param tieBreaker the tie breaker, or null
+     */
+    public void setTieBreaker(IndexedMinHeap.TieBreaker tieBreaker) { 
+        this.tieBreaker = tieBreaker;
+    }
+    
+    /**
+     * 
+     * @return the target of the current search, or -1 if it has none
+     */
+    public int getTarget() { 
+        return target;
+    }
+    
+    /**
+     * 
+     * @param target the target of the current search, or -1 for none
+     */
+    public void setTarget(int target) { 
+        this.target = target;
+    }
+    
+    /**
+     * 
+     * @param node the node id
+     * 
+     * @return true if the node has been discovered by the current search
+     */
+    public boolean isDiscovered(int node) { 
+        return (discovered[node] == generation);
+    }
+    
+    /**
+     * Discovers a node or updates its cost and its parent.
+     * 
+     * @param node the node id
+     * @param cost the cost of the node
+     * @param parent the parent of the node (-1 for the root)
+     */
+    public void update(int node, int cost, int parent) { 
+        discovered[node] = generation;
+        this.cost[node] = cost;
+        this.parent[node] = parent;
+    }
+    
+    /**
+     * 
+     * @param node the node id
+     * 
+     * @return the cost of the node, or {@link #INFINITY} if it hasn't been discovered
+     */
+    public int getCost(int node) { 
+        return isDiscovered(node) ? cost[node] : INFINITY;
+    }
+    
+    /**
+     * 
+     * @param node the node id
+     * 
+     * @return the parent of the node, or -1 for the root and the nodes that haven't been discovered
+     */
+    public int getParent(int node) { 
+        return isDiscovered(node) ? parent[node] : -1;
+    }
+    
+    /**
+     * 
+     * @param node the node id
+     * 
+     * @return the estimate of the node
+     */
+    public int getEstimate(int node) { 
+        return estimate[node];
+    }
+    
+    /**
+     * 
+     * @param node the node id
+     * @param estimate the estimate of the node
+     */
+    public void setEstimate(int node, int estimate) { 
+        this.estimate[node] = estimate;
+    }
+    
+    /**
+     * 
+     * @param node the node id
+     * 
+     * @return true if the node has been closed by the current search
+     */
+    public boolean isClosed(int node) { 
+        return (closed[node] == generation);
+    }
+    
+    /**
+     * Closes a node.
+     * 
+     * @param node the node id
+     */
+    public void close(int node) { 
+        closed[node] = generation;
+    }
+    
+    /**
+     * Reopens a closed node.
+     * 
+     * @param node the node id
+     */
+    public void reopen(int node) { 
+        closed[node] = 0;
+    }
+    
+    /**
+     * Returns a buffer with room for every node, for a queue or a stack.
+     * Its contents are not cleared between the searches, but they are kept
+     * when the workspace grows.
+     * 
+     * @return the buffer
+     */
+    public int[] getItems() { 
+        return items;
+    }
+    
+    /**
+     * Returns the open set. It is emptied by {@link #reset()}.
+     * 
+     * @return the open set
+     */
+    public IndexedMinHeap getHeap() { 
+        return heap;
+    }
+
+}
@@ -0,0 +1,34 @@
+/**
+ * Copyright (C) 2019, by Vasileios Nikakis
+ *
+ * graphima: yet another Java graph-theory library
+ */
+package com.sitienda.graphima.alg;
+
+import com.sitienda.graphima.exceptions.VertexNotInGraphException;
+
+/**
+ * An algorithm that finds the shortest path between two vertices.
+ * It allows the point-to-point algorithms to be used interchangeably, for
+ * example behind a {@link ShortestPathCache}.
+ *
+ * @param <V> the type of the objects that the graph contains
+ *
+ * @author Vasileios Nikakis
+ */
+public interface ShortestPathAlgorithm<V> {
+    
+    /**
+     * Finds the shortest path between two nodes in a graph.
+     * For each vertex, the corresponding data has to be provided.
+     * 
+     * @param start the corresponding data of the starting vertex
+     * @param end the corresponding data of the destination vertex
+     * 
+     * @return the shortest path from start to end and the query's stats (an empty path if end can't be reached)
+     * 
+     * @throws VertexNotInGraphException in case that any of the two vertices doesn't belong to the graph
+     */
+    public FindPathResult<V> findShortestPathResult(V start, V end) throws VertexNotInGraphException;
+
+}
@@ -0,0 +1,418 @@
+/**
+ * Copyright (C) 2019, by Vasileios Nikakis
+ *
+ * graphima: yet another Java graph-theory library
+ */
+package com.sitienda.graphima.alg;
+
+import com.sitienda.graphima.Graph;
+import com.sitienda.graphima.GraphListener;
+import com.sitienda.graphima.exceptions.VertexNotInGraphException;
+import com.sitienda.graphima.path.Path;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * A bounded cache of shortest path results for a graph.
+ * <p>
+ * The results are keyed by the class of the algorithm, its heuristic
+ * function or its landmarks (for A*), the source and the target, so the algorithm objects
+ * of the same class share the cached results. When the cache is full, the
+ * least recently used or the least frequently used result is evicted. The
+ * cache listens to its graph and drops all the results as soon as the graph
+ * changes. The results are also stamped with the
+ * {@link com.sitienda.graphima.Graph#getVersion()} of the graph, so a
+ * cached result is never stale and a query that was running while the
+ * graph changed doesn't store its result.
+ * </p>
+ * <p>
+ * The cache can be shared between threads. Each caller gets its own copy
+ * of the path; the stats of a cached result are the ones of the query that
+ * computed it. The graph keeps a reference to the listener of the cache,
+ * so {@link #detach()} has to be called when it is not needed any more.
+ * </p>
+ *
+ * @param <V> the type of the objects that the graph contains
+ *
+ * @author Vasileios Nikakis
+ */
+public class ShortestPathCache<V> {
+    
+    /**
+     * The policy that chooses the result to be evicted when the cache is full.
+     */
+    public enum EvictionPolicy { 
+        /**
+         * Evicts the least recently used result.
+         */
+        LRU,
+        /**
+         * Evicts the least frequently used result; the least recently
+         * added one among those with the same frequency.
+         */
+        LFU
+    }
+    
+    /**
+     * The graph.
+     */
+    private final Graph<V> graph;
+    /**
+     * The max number of results.
+     */
+    private final int capacity;
+    /**
+     * The eviction policy.
+     */
+    private final EvictionPolicy policy;
+    /**
+     * The listener that invalidates the cache when the graph changes.
+     */
+    private final GraphListener<V> listener;
+    /**
+     * The cached results; in access order for LRU.
+     */
+    private final LinkedHashMap<Key,CacheEntry> entries;
+    /**
+     * The keys of the results with each frequency, in insertion order (LFU only).
+     */
+    private final Map<Integer,LinkedHashSet<Key>> frequencies;
+    /**
+     * The lowest frequency of a cached result (LFU only).
+     */
+    private int minFrequency;
+    /**
+     * The version of the graph that the cached results belong to.
+     */
+    private long version;
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long invalidations;
+    
+    /**
+     * Inner helper class.
+     * The key of a result. The heuristic functions are compared by identity.
+     */
+    private static class Key { 
+        
+        final Class<?> algorithm;
+        final Object heuristic;
+        final Object start;
+        final Object end;
+        
+        public Key(Class<?> algorithm, Object heuristic, Object start, Object end) { 
+            this.algorithm = algorithm;
+            this.heuristic = heuristic;
+            this.start = start;
+            this.end = end;
+        }
+        
+        @Override
+        public int hashCode() { 
+            int hash = 7;
+            hash = 31 * hash + algorithm.hashCode();
+            hash = 31 * hash + System.identityHashCode(heuristic);
+            hash = 31 * hash + start.hashCode();
+            hash = 31 * hash + end.hashCode();
+            return hash;
+        }
+        
+        @Override
+        public boolean equals(Object obj) { 
+            if (this == obj)
+                return true;
+            if (!(obj instanceof Key))
+                return false;
+            Key other = (Key) obj;
+            return algorithm == other.algorithm && heuristic == other.heuristic &&
+                   Objects.equals(start,other.start) && Objects.equals(end,other.end);
+        }
+    
+    }
+    
+    /**
+     * Inner helper class.
+     * A cached result and the number of times that it was requested.
+     */
+    private class CacheEntry { 
+        
+        final FindPathResult<V> result;
+        int frequency;
+        
+        public CacheEntry(FindPathResult<V> result) { 
+            this.result = result;
+            frequency = 1;
+        }
+    
+    }
+    
+    /**
+     * Constructor.
+     * The least recently used results are evicted.
+     * 
+     * @param graph the graph
+     * @param capacity the max number of results
+     */
+    public ShortestPathCache(Graph<V> graph, int capacity) { 
+        this(graph,capacity,EvictionPolicy.LRU);
+    }
+    
+    /**
+     * Constructor
+     * 
+     * @param graph the graph
+     * @param capacity the max number of results
+     * @param policy the eviction policy
+     */
+    public ShortestPathCache(Graph<V> graph, int capacity, EvictionPolicy policy) { 
+        if (capacity < 1)
+            throw new IllegalArgumentException("The capacity of the cache has to be at least 1");
+        this.graph = graph;
+        this.capacity = capacity;
+        this.policy = policy;
+        entries = new LinkedHashMap<>(16,0.75f,policy == EvictionPolicy.LRU);
+        frequencies = new HashMap<>();
+        minFrequency = 0;
+        version = graph.getVersion();
+        listener = new GraphListener<V>() { 
+            @Override
+            public void graphChanged(Graph<V> graph) { 
+                invalidate();
+            }
+        };
+        graph.addGraphListener(listener);
+    }
+    
+    /**
+     * 
+     * @return the graph
+     */
+    public Graph<V> getGraph() { 
+        return graph;
+    }
+    
+    /**
+     * 
+     * @return the max number of results
+     */
+    public int getCapacity() { 
+        return capacity;
+    }
+    
+    /**
+     * 
+     * @return the eviction policy
+     */
+    public EvictionPolicy getEvictionPolicy() { 
+        return policy;
+    }
+    
+    /**
+     * Finds the shortest path between two nodes, using a cached result if
+     * there is one.
+     * For each vertex, the corresponding data has to be provided.
+     * 
+     * @param algorithm the algorithm, that has to run on the graph of the cache
+     * @param start the corresponding data of the starting vertex
+     * @param end the corresponding data of the destination vertex
+     * 
+     * @return the shortest path from start to end and the stats of the query that computed it
+     * 
+     * @throws VertexNotInGraphException in case that any of the two vertices doesn't belong to the graph
+     */
+    public FindPathResult<V> findShortestPath(ShortestPathAlgorithm<V> algorithm, V start, V end) throws VertexNotInGraphException { 
+        if (!(algorithm instanceof GraphAlgorithm) || ((GraphAlgorithm<?>) algorithm).graph != graph)
+            throw new IllegalArgumentException("The algorithm has to run on the graph of the cache");
+        Object heuristic = null;
+        // The ALT algorithms of the same landmarks share their results
+        if (algorithm instanceof AStarShortestPath) { 
+            AStarShortestPath<V> astar = (AStarShortestPath<V>) algorithm;
+            heuristic = (astar.landmarks != null) ? astar.landmarks : astar.heuristicFunc;
+        }
+        Key key = new Key(algorithm.getClass(),heuristic,start,end);
+        
+        long queryVersion;
+        synchronized (this) { 
+            // The results of an older version of the graph are never returned
+            queryVersion = graph.getVersion();
+            if (version != queryVersion)
+                drop(queryVersion);
+            CacheEntry entry = lookup(key);
+            if (entry != null) { 
+                hits++;
+                return copyOf(entry.result);
+            }
+            misses++;
+        }
+        // The search runs outside the lock
+        FindPathResult<V> result = algorithm.findShortestPathResult(start,end);
+        synchronized (this) { 
+            // The result is dropped if the graph changed in the meantime
+            if (graph.getVersion() == queryVersion && version == queryVersion && !entries.containsKey(key))
+                store(key,copyOf(result));
+        }
+        return result;
+    }
+    
+    /**
+     * Drops all the cached results.
+     * It is called automatically when the graph changes.
+     */
+    public synchronized void invalidate() { 
+        drop(graph.getVersion());
+    }
+    
+    /**
+     * Stops listening to the graph and drops all the cached results.
+     */
+    public void detach() { 
+        graph.removeGraphListener(listener);
+        invalidate();
+    }
+    
+    /**
+     * 
+     * @return the number of cached results
+     */
+    public synchronized int size() { 
+        return entries.size();
+    }
+    
+    /**
+     * 
+     * @return the number of queries that were answered from the cache
+     */
+    public synchronized long getHits() { 
+        return hits;
+    }
+    
+    /**
+     * 
+     * @return the number of queries that weren't found in the cache
+     */
+    public synchronized long getMisses() { 
+        return misses;
+    }
+    
+    /**
+     * 
+     * @return the hits divided by all the queries (0 if there were no queries)
+     */
+    public synchronized double getHitRatio() { 
+        return (hits + misses > 0) ? (double) hits / (hits + misses) : 0;
+    }
+    
+    /**
+     * 
+     * @return the number of results that were evicted because the cache was full
+     */
+    public synchronized long getEvictions() { 
+        return evictions;
+    }
+    
+    /**
+     * 
+     * @return the number of times that the cache was invalidated
+     */
+    public synchronized long getInvalidations() { 
+        return invalidations;
+    }
+    
+    /**
+     * Drops all the cached results.
+     * 
+     * @param version the version of the graph that the next results belong to
+     */
+    private void drop(long version) { 
+        this.version = version;
+        invalidations++;
+        entries.clear();
+        frequencies.clear();
+        minFrequency = 0;
+    }
+    
+    /**
+     * Returns the cached result of a key and records the access.
+     * 
+     * @param key the key
+     * 
+     * @return the cached result or null
+     */
+    private CacheEntry lookup(Key key) { 
+        // In access order, get() moves the entry to the end
+        CacheEntry entry = entries.get(key);
+        if (entry != null && policy == EvictionPolicy.LFU) { 
+            LinkedHashSet<Key> keys = frequencies.get(entry.frequency);
+            keys.remove(key);
+            if (keys.isEmpty()) { 
+                frequencies.remove(entry.frequency);
+                if (minFrequency == entry.frequency)
+                    minFrequency++;
+            }
+            entry.frequency++;
+            keysWithFrequency(entry.frequency).add(key);
+        }
+        return entry;
+    }
+    
+    /**
+     * Stores a result, evicting another one if the cache is full.
+     * 
+     * @param key the key
+     * @param result the result
+     */
+    private void store(Key key, FindPathResult<V> result) { 
+        if (entries.size() >= capacity) { 
+            Key evicted;
+            if (policy == EvictionPolicy.LRU)
+                evicted = entries.keySet().iterator().next();
+            else { 
+                Iterator<Key> it = frequencies.get(minFrequency).iterator();
+                evicted = it.next();
+                it.remove();
+                if (!it.hasNext())
+                    frequencies.remove(minFrequency);
+            }
+            entries.remove(evicted);
+            evictions++;
+        }
+        entries.put(key,new CacheEntry(result));
+        if (policy == EvictionPolicy.LFU) { 
+            keysWithFrequency(1).add(key);
+            minFrequency = 1;
+        }
+    }
+    
+    /**
+     * Returns the keys of the results with a specific frequency.
+     * 
+     * @param frequency the frequency
+     * 
+     * @return the keys, in insertion order
+     */
+    private LinkedHashSet<Key> keysWithFrequency(int frequency) { 
+        LinkedHashSet<Key> keys = frequencies.get(frequency);
+        if (keys == null) { 
+            keys = new LinkedHashSet<>();
+            frequencies.put(frequency,keys);
+        }
+        return keys;
+    }
+    
+    /**
+     * Copies a result, so that the path of the cache is not shared.
+     * 
+     * @param result the result
+     * 
+     * @return the copy
+     */
+    private FindPathResult<V> copyOf(FindPathResult<V> result) { 
+        return new FindPathResult<>(new Path<>(result.getPath().getPath()),result.getExecStats());
+    }
+
+}
@@ -5,6 +5,7 @@
  */
 package com.sitienda.graphima.alg;
 
+import com.sitienda.graphima.CompactGraph;
 import com.sitienda.graphima.Graph;
 import com.sitienda.graphima.Vertex;
 import com.sitienda.graphima.alg.heuristics.ZeroHeuristicFunction;
@@ -43,4 +44,27 @@ public class UCSShortestPath<V> extends AStarShortestPath<V> {
         execStats.setAlgorithmName("UCS shortest path");
     }
     
+    /**
+     * Constructor
+     * 
+     * @param graph the compact graph
+     */
+    public UCSShortestPath(CompactGraph<V> graph) {
+        super(graph);
+        heuristicFunc = new ZeroHeuristicFunction<>();
+        execStats = new FindPathAlgorithmExecutionStats("UCS shortest path");
+    }
+    
+    /**
+     * Constructor
+     * 
+     * @param graph the compact graph
+     * @param collisionComp the vertex comparator to resolve any collisions
+     */
+    public UCSShortestPath(CompactGraph<V> graph, NodeComparator<Vertex<V>> collisionComp) {
+        super(graph,collisionComp);
+        heuristicFunc = new ZeroHeuristicFunction<>();
+        execStats.setAlgorithmName("UCS shortest path");
+    }
+    
 }
@@ -0,0 +1,446 @@
+/**
+ * Copyright (C) 2019, by Vasileios Nikakis
+ *
+ * graphima: yet another Java graph-theory library
+ */
+package com.sitienda.graphima.alg.ch;
+
+import com.sitienda.graphima.CompactGraph;
+import com.sitienda.graphima.WeightedGraph;
+import com.sitienda.graphima.alg.IndexedMinHeap;
+import java.io.Serializable;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A contraction hierarchy of a weighted graph.
+ * <p>
+ * The vertices are contracted one by one, in order of importance. When a
+ * vertex v is contracted, a shortcut edge u -&gt; w is added for each pair
+ * of neighbors u -&gt; v -&gt; w, unless a witness path from u to w that
+ * avoids v and is not longer exists. Each vertex gets a rank equal to its
+ * contraction order and the hierarchy keeps only the edges that lead to
+ * vertices of a higher rank: the upward edges of each vertex and the
+ * upward edges that end at each vertex. A shortest path query is then a
+ * bidirectional Dijkstra search that only moves upwards, see
+ * {@link ContractionHierarchyShortestPath}.
+ * </p>
+ * <p>
+ * Each shortcut stores the contracted vertex it passes through, so that the
+ * original path can be unpacked. The hierarchy is serializable, so it can be
+ * built once and loaded at startup; the vertex data objects have to be
+ * serializable for that. It doesn't follow any later changes of the source
+ * graph. The edge weights must not be negative.
+ * </p>
+ *
+ * @param <V> the type of the objects that the graph contains
+ *
+ * @author Vasileios Nikakis
+ */
+public class ContractionHierarchy<V> implements Serializable {
+    
+    private static final long serialVersionUID = 1L;
+    
+    /**
+     * The max number of nodes that a witness search settles. A search that
+     * reaches the limit adds the shortcut, which is always safe.
+     */
+    public static final int DEFAULT_WITNESS_SETTLE_LIMIT = 500;
+    
+    /**
+     * The label of the graph.
+     */
+    final String name;
+    /**
+     * The data of each vertex, indexed by the vertex id.
+     */
+    final Object[] data;
+    /**
+     * Index from the contained data objects to the vertex ids.
+     */
+    final HashMap<V,Integer> ids;
+    /**
+     * The contraction order of each vertex.
+     */
+    final int[] rank;
+    /**
+     * The upward outgoing edges of each vertex in CSR form: the edges of
+     * vertex u are the positions [upOffsets[u], upOffsets[u+1]).
+     */
+    final int[] upOffsets;
+    final int[] upTargets;
+    final int[] upWeights;
+    /**
+     * The contracted vertex that each edge passes through (-1 for the
+     * original edges).
+     */
+    final int[] upMiddles;
+    /**
+     * The upward incoming edges of each vertex in CSR form: each edge
+     * u &lt;- s comes from a vertex s of a higher rank.
+     */
+    final int[] downOffsets;
+    final int[] downSources;
+    final int[] downWeights;
+    final int[] downMiddles;
+    
+    /**
+     * Constructor
+     * 
+     * @param name the graph's name
+     * @param data the data of each vertex
+     * @param ids the index from the data objects to the vertex ids
+     * @param rank the contraction order of each vertex
+     * @param up the upward outgoing edges
+     * @param down the upward incoming edges
+     */
+    private ContractionHierarchy(String name, Object[] data, HashMap<V,Integer> ids, int[] rank,
+                                 int[][] up, int[][] down) { 
+        this.name = name;
+        this.data = data;
+        this.ids = ids;
+        this.rank = rank;
+        upOffsets = up[0];
+        upTargets = up[1];
+        upWeights = up[2];
+        upMiddles = up[3];
+        downOffsets = down[0];
+        downSources = down[1];
+        downWeights = down[2];
+        downMiddles = down[3];
+    }
+    
+    /**
+     * Builds the contraction hierarchy of a weighted graph.
+     * 
+     * @param <V> the type of the objects that the graph contains
+     * @param graph the graph
+     * 
+     * @return the contraction hierarchy
+     */
+    public static <V> ContractionHierarchy<V> build(WeightedGraph<V> graph) { 
+        return build(graph.freeze(),DEFAULT_WITNESS_SETTLE_LIMIT);
+    }
+    
+    /**
+     * Builds the contraction hierarchy of a compact graph.
+     * 
+     * @param <V> the type of the objects that the graph contains
+     * @param graph the compact graph
+     * 
+     * @return the contraction hierarchy
+     */
+    public static <V> ContractionHierarchy<V> build(CompactGraph<V> graph) { 
+        return build(graph,DEFAULT_WITNESS_SETTLE_LIMIT);
+    }
+    
+    /**
+     * Builds the contraction hierarchy of a compact graph.
+     * 
+     * @param <V> the type of the objects that the graph contains
+     * @param graph the compact graph
+     * @param witnessSettleLimit the max number of nodes that a witness search settles
+     * 
+     * @return the contraction hierarchy
+     */
+    public static <V> ContractionHierarchy<V> build(CompactGraph<V> graph, int witnessSettleLimit) { 
+        int n = graph.size();
+        Object[] data = new Object[n];
+        HashMap<V,Integer> ids = new HashMap<>(n * 4 / 3 + 1);
+        for (int id = 0; id < n; id++) { 
+            data[id] = graph.getData(id);
+            ids.put(graph.getData(id),id);
+        }
+        Contractor contractor = new Contractor(graph,witnessSettleLimit);
+        contractor.contractAll();
+        return new ContractionHierarchy<>(graph.getName(),data,ids,contractor.rank,
+                                          contractor.toCSR(contractor.upEdges),
+                                          contractor.toCSR(contractor.downEdges));
+    }
+    
+    /**
+     * 
+     * @return the graph's name
+     */
+    public String getName() { 
+        return name;
+    }
+    
+    /**
+     * 
+     * @return the number of vertices
+     */
+    public int size() { 
+        return data.length;
+    }
+    
+    /**
+     * 
+     * @return the number of edges of the hierarchy, shortcuts included
+     */
+    public int getEdgesSize() { 
+        return upTargets.length + downSources.length;
+    }
+    
+    /**
+     * Returns the id of the vertex with the specific data.
+     * 
+     * @param vertexData the specific data
+     * 
+     * @return the vertex id or -1 if there is no such vertex
+     */
+    public int idOf(V vertexData) { 
+        Integer id = ids.get(vertexData);
+        return (id != null) ? id : -1;
+    }
+    
+    /**
+     * Returns the data of a vertex.
+     * 
+     * @param id the vertex id
+     * 
+     * @return the contained data object
+     */
+    @SuppressWarnings("unchecked")
+    public V getData(int id) { 
+        // Only the data objects of the graph are stored
+        return (V) data[id];
+    }
+    
+    /**
+     * Returns the contraction order of a vertex.
+     * 
+     * @param id the vertex id
+     * 
+     * @return the rank of the vertex
+     */
+    public int getRank(int id) { 
+        return rank[id];
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() { 
+        return "ContractionHierarchy " + name + " (" + size() + " vertices, " + getEdgesSize() + " edges)";
+    }
+    
+    /**
+     * Inner helper class.
+     * It contracts the vertices of a graph and collects the upward edges.
+     */
+    private static class Contractor { 
+        
+        /**
+         * The outgoing and incoming edges of each vertex that hasn't been
+         * contracted yet. Each edge is mapped to {weight, middle}.
+         */
+        final Map<Integer,int[]>[] out;
+        final Map<Integer,int[]>[] in;
+        /**
+         * The edges that become part of the hierarchy, when each vertex is
+         * contracted: {vertex, other vertex, weight, middle}.
+         */
+        final Map<Integer,int[]>[] upEdges;
+        final Map<Integer,int[]>[] downEdges;
+        final int[] rank;
+        final boolean[] contracted;
+        final int[] contractedNeighbors;
+        final int witnessSettleLimit;
+        // Witness search state, reset through a generation stamp
+        final int[] dist;
+        final int[] stamp;
+        final IndexedMinHeap queue;
+        int generation;
+        
+        /**
+         * Creates an array of edge maps, indexed by the vertex id.
+         * 
+         * @param n the number of vertices
+         * 
+         * @return the array, without any maps in it
+         */
+        @SuppressWarnings("unchecked")
+        static Map<Integer,int[]>[] newEdgeMaps(int n) { 
+            return new Map[n];
+        }
+        
+        Contractor(CompactGraph<?> graph, int witnessSettleLimit) { 
+            int n = graph.size();
+            out = newEdgeMaps(n);
+            in = newEdgeMaps(n);
+            upEdges = newEdgeMaps(n);
+            downEdges = newEdgeMaps(n);
+            for (int u = 0; u < n; u++) { 
+                out[u] = new HashMap<>();
+                in[u] = new HashMap<>();
+            }
+            for (int u = 0; u < n; u++) { 
+                for (int e = graph.edgesStart(u); e < graph.edgesEnd(u); e++) { 
+                    int v = graph.target(e);
+                    if (u != v)
+                        addEdge(u,v,graph.weight(e),-1);
+                }
+            }
+            rank = new int[n];
+            contracted = new boolean[n];
+            contractedNeighbors = new int[n];
+            this.witnessSettleLimit = witnessSettleLimit;
+            dist = new int[n];
+            stamp = new int[n];
+            queue = new IndexedMinHeap(n);
+            generation = 0;
+        }
+        
+        /**
+         * Adds an edge, or lowers the weight of an existing one.
+         */
+        void addEdge(int u, int v, int weight, int middle) { 
+            int[] edge = out[u].get(v);
+            if (edge != null && edge[0] <= weight)
+                return;
+            int[] newEdge = new int[] { weight, middle };
+            out[u].put(v,newEdge);
+            in[v].put(u,newEdge);
+        }
+        
+        /**
+         * Contracts all the vertices, in order of their priority.
+         * The priorities are updated lazily: the vertex with the lowest
+         * priority is contracted only if its priority is still the lowest
+         * after it is recalculated.
+         */
+        void contractAll() { 
+            int n = rank.length;
+            IndexedMinHeap order = new IndexedMinHeap(n);
+            for (int v = 0; v < n; v++)
+                order.insert(v,priority(v));
+            int nextRank = 0;
+            while (!order.isEmpty()) { 
+                int v = order.poll();
+                int newPriority = priority(v);
+                if (!order.isEmpty() && newPriority > order.getKey(order.peek())) { 
+                    order.insert(v,newPriority);
+                    continue;
+                }
+                contract(v,false);
+                rank[v] = nextRank++;
+            }
+        }
+        
+        /**
+         * The priority of a vertex: the edge difference of its contraction
+         * plus the number of its neighbors that have been contracted, so that
+         * the contracted vertices are spread evenly.
+         */
+        int priority(int v) { 
+            int shortcuts = contract(v,true);
+            return shortcuts - out[v].size() - in[v].size() + contractedNeighbors[v];
+        }
+        
+        /**
+         * Contracts a vertex, or only counts the shortcuts it needs.
+         * 
+         * @return the number of shortcuts
+         */
+        int contract(int v, boolean simulate) { 
+            int shortcuts = 0;
+            int maxOut = 0;
+            for (int[] edge : out[v].values())
+                maxOut = Math.max(maxOut,edge[0]);
+            for (Map.Entry<Integer,int[]> inEdge : in[v].entrySet()) { 
+                int u = inEdge.getKey();
+                int inWeight = inEdge.getValue()[0];
+                witnessSearch(u,v,inWeight + maxOut);
+                for (Map.Entry<Integer,int[]> outEdge : out[v].entrySet()) { 
+                    int w = outEdge.getKey();
+                    if (w == u)
+                        continue;
+                    int shortcutWeight = inWeight + outEdge.getValue()[0];
+                    // A witness path exists, no shortcut is needed
+                    if (stamp[w] == generation && dist[w] <= shortcutWeight)
+                        continue;
+                    shortcuts++;
+                    if (!simulate)
+                        addEdge(u,w,shortcutWeight,v);
+                }
+            }
+            if (simulate)
+                return shortcuts;
+            // The remaining edges of the vertex lead to vertices of a higher rank
+            contracted[v] = true;
+            upEdges[v] = out[v];
+            downEdges[v] = in[v];
+            for (Integer w : out[v].keySet()) { 
+                in[w].remove(v);
+                contractedNeighbors[w]++;
+            }
+            for (Integer u : in[v].keySet()) { 
+                out[u].remove(v);
+                contractedNeighbors[u]++;
+            }
+            return shortcuts;
+        }
+        
+        /**
+         * Runs a Dijkstra search from a vertex that avoids the vertex being
+         * contracted, up to a max distance and a max number of settled nodes.
+         * The distances are valid for the nodes stamped with the current
+         * generation.
+         */
+        void witnessSearch(int source, int avoid, int maxDist) { 
+            generation++;
+            queue.clear();
+            dist[source] = 0;
+            stamp[source] = generation;
+            queue.insert(source,0);
+            int settled = 0;
+            while (!queue.isEmpty() && settled < witnessSettleLimit) { 
+                int current = queue.poll();
+                settled++;
+                if (dist[current] > maxDist)
+                    break;
+                for (Map.Entry<Integer,int[]> edge : out[current].entrySet()) { 
+                    int child = edge.getKey();
+                    if (child == avoid)
+                        continue;
+                    int newDist = dist[current] + edge.getValue()[0];
+                    if (stamp[child] != generation || newDist < dist[child]) { 
+                        dist[child] = newDist;
+                        stamp[child] = generation;
+                        queue.insertOrDecreaseKey(child,newDist);
+                    }
+                }
+            }
+        }
+        
+        /**
+         * Lays out the collected edges in CSR form.
+         * 
+         * @return {offsets, other vertices, weights, middles}
+         */
+        int[][] toCSR(Map<Integer,int[]>[] edges) { 
+            int n = edges.length;
+            int[] offsets = new int[n+1];
+            for (int u = 0; u < n; u++)
+                offsets[u+1] = offsets[u] + edges[u].size();
+            int m = offsets[n];
+            int[] others = new int[m];
+            int[] weights = new int[m];
+            int[] middles = new int[m];
+            for (int u = 0; u < n; u++) { 
+                int e = offsets[u];
+                for (Map.Entry<Integer,int[]> edge : edges[u].entrySet()) { 
+                    others[e] = edge.getKey();
+                    weights[e] = edge.getValue()[0];
+                    middles[e] = edge.getValue()[1];
+                    e++;
+                }
+            }
+            return new int[][] { offsets, others, weights, middles };
+        }
+    
+    }
+
+}
@@ -0,0 +1,370 @@
+/**
+ * Copyright (C) 2019, by Vasileios Nikakis
+ *
+ * graphima: yet another Java graph-theory library
+ */
+package com.sitienda.graphima.alg.ch;
+
+import com.sitienda.graphima.Vertex;
+import com.sitienda.graphima.alg.FindPathAlgorithmExecutionStats;
+import com.sitienda.graphima.alg.FindPathResult;
+import com.sitienda.graphima.alg.GraphAlgorithm;
+import com.sitienda.graphima.alg.IndexedMinHeap;
+import com.sitienda.graphima.alg.ShortestPathAlgorithm;
+import com.sitienda.graphima.exceptions.VertexNotInGraphException;
+import com.sitienda.graphima.path.Path;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Shortest path queries on a {@link ContractionHierarchy}.
+ * <p>
+ * A forward search from the start vertex and a backward search from the
+ * destination vertex run on the upward edges of the hierarchy only. The
+ * shortest path goes up from the start vertex to its highest ranked vertex
+ * and then down to the destination, so the two searches meet there. Each
+ * search stops as soon as its smallest key is not less than the cost of the
+ * best path found. The shortcuts of the path are unpacked at the end.
+ * </p>
+ * <p>
+ * The search state is kept in arrays that are allocated once for each
+ * thread and reset through a generation stamp, so each query only touches
+ * the nodes it visits and an object can be shared between threads.
+ * </p>
+ *
+ * @param <V> the type of the objects that the graph contains
+ *
+ * @author Vasileios Nikakis
+ */
+public class ContractionHierarchyShortestPath<V> extends GraphAlgorithm<V> implements ShortestPathAlgorithm<V> {
+    
+    /**
+     * Max integer as infinity.
+     */
+    public static final int INF = Integer.MAX_VALUE;
+    
+    /**
+     * The contraction hierarchy.
+     */
+    private final ContractionHierarchy<V> ch;
+    /**
+     * The reusable state of the queries of each thread.
+     */
+    private final ThreadLocal<QueryState> states;
+    
+    /**
+     * Inner helper class.
+     * The state of the two searches of a query, reset through a generation
+     * stamp.
+     */
+    private class QueryState { 
+        
+        final int[] forwardDist;
+        final int[] forwardPrev;
+        final int[] forwardParent;
+        final int[] forwardStamp;
+        final IndexedMinHeap forwardQueue;
+        final int[] backwardDist;
+        final int[] backwardPrev;
+        final int[] backwardParent;
+        final int[] backwardStamp;
+        final IndexedMinHeap backwardQueue;
+        // The generation of the current query
+        int generation;
+        // The node where the two searches of the last query met (-1 if none)
+        int meetingNode;
+        
+        public QueryState(int n) { 
+            forwardDist = new int[n];
+            forwardPrev = new int[n];
+            forwardParent = new int[n];
+            forwardStamp = new int[n];
+            forwardQueue = new IndexedMinHeap(n);
+            backwardDist = new int[n];
+            backwardPrev = new int[n];
+            backwardParent = new int[n];
+            backwardStamp = new int[n];
+            backwardQueue = new IndexedMinHeap(n);
+            generation = 0;
+            meetingNode = -1;
+        }
+    
+    }
+    
+    /**
+     * Constructor
+     * 
+     * @param ch the contraction hierarchy
+     */
+    public ContractionHierarchyShortestPath(ContractionHierarchy<V> ch) { 
+        this.ch = ch;
+        states = new ThreadLocal<QueryState>() { 
+            @Override
+            protected QueryState initialValue() { 
+                return new QueryState(ch.size());
+            }
+        };
+        execStats = new FindPathAlgorithmExecutionStats("Contraction hierarchy shortest path");
+    }
+    
+    /**
+     * Finds the shortest path between start and end vertices.
+     * 
+     * @param start the starting vertex
+     * @param end the destination vertex
+     * 
+     * @return the shortest path from start to end (an empty path if end can't be reached)
+     * 
+     * @throws VertexNotInGraphException in case that any of the two vertices doesn't belong to the graph
+     */
+    public Path findShortestPath(Vertex<V> start, Vertex<V> end) throws VertexNotInGraphException { 
+        return findShortestPathResult(start.getData(),end.getData()).getPath();
+    }
+    
+    /**
+     * Finds the shortest path between two nodes in a graph.
+     * For each vertex, the corresponding data has to be provided.
+     * 
+     * @param start the corresponding data of the starting vertex
+     * @param end the corresponding data of the destination vertex
+     * 
+     * @return the shortest path from start to end (an empty path if end can't be reached)
+     * 
+     * @throws VertexNotInGraphException in case that any of the two vertices doesn't belong to the graph
+     */
+    public Path findShortestPath(V start, V end) throws VertexNotInGraphException { 
+        return findShortestPathResult(start,end).getPath();
+    }
+    
+    /**
+     * Finds the shortest path between two nodes in a graph.
+     * For each vertex, the corresponding data has to be provided.
+     * The result holds the statistics of this query, so the algorithm
+     * object can be shared between threads.
+     * 
+     * @param start the corresponding data of the starting vertex
+     * @param end the corresponding data of the destination vertex
+     * 
+     * @return the shortest path from start to end and the query's stats
+     * 
+     * @throws VertexNotInGraphException in case that any of the two vertices doesn't belong to the graph
+     */
+    public FindPathResult<V> findShortestPathResult(V start, V end) throws VertexNotInGraphException { 
+        // Exec stats
+        FindPathAlgorithmExecutionStats stats = newFindPathStats();
+        
+        int startId = findId(start);
+        int endId = findId(end);
+        QueryState state = states.get();
+        search(state,startId,endId,stats);
+        Path<Vertex<V>> path = new Path<>();
+        if (state.meetingNode >= 0) { 
+            path.add(new Vertex<>(ch.getData(startId)));
+            unpackForward(state,state.meetingNode,path);
+            unpackBackward(state,state.meetingNode,path);
+        }
+        
+        // Exec stats
+        stats.stopExecution();
+        stats.setSolutionFound(!path.isEmpty());
+        stats.setPathLength(path.size());
+        execStats = stats;
+        return new FindPathResult<>(path,stats);
+    }
+    
+    /**
+     * Finds the distance between two nodes in a graph, without building
+     * the path.
+     * 
+     * @param start the corresponding data of the starting vertex
+     * @param end the corresponding data of the destination vertex
+     * 
+     * @return the distance or {@link #INF} if end can't be reached
+     * 
+     * @throws VertexNotInGraphException in case that any of the two vertices doesn't belong to the graph
+     */
+    public int findDistance(V start, V end) throws VertexNotInGraphException { 
+        // Exec stats
+        FindPathAlgorithmExecutionStats stats = newFindPathStats();
+        int distance = search(states.get(),findId(start),findId(end),stats);
+        // Exec stats
+        stats.stopExecution();
+        stats.setSolutionFound(distance != INF);
+        execStats = stats;
+        return distance;
+    }
+    
+    /**
+     * Returns the id of the vertex with the specific data.
+     * 
+     * @param vertexData the specific data
+     * 
+     * @return the vertex id
+     * 
+     * @throws VertexNotInGraphException if there is no such vertex
+     */
+    private int findId(V vertexData) throws VertexNotInGraphException { 
+        int id = ch.idOf(vertexData);
+        if (id < 0)
+            throw new VertexNotInGraphException("The graph does not contain any vertex with data: " + vertexData);
+        return id;
+    }
+    
+    /**
+     * Runs the two upward searches.
+     * 
+     * @param state the state of the query
+     * @param start the id of the starting vertex
+     * @param end the id of the destination vertex
+     * @param stats the execution statistics of the query
+     * 
+     * @return the distance between the two vertices
+     */
+    private int search(QueryState state, int start, int end, FindPathAlgorithmExecutionStats stats) { 
+        state.generation++;
+        state.forwardQueue.clear();
+        state.backwardQueue.clear();
+        visit(state,true,start,0,-1,-1);
+        visit(state,false,end,0,-1,-1);
+        int best = INF;
+        state.meetingNode = -1;
+        
+        while (true) { 
+            int forwardKey = state.forwardQueue.isEmpty() ? INF : state.forwardQueue.getKey(state.forwardQueue.peek());
+            int backwardKey = state.backwardQueue.isEmpty() ? INF : state.backwardQueue.getKey(state.backwardQueue.peek());
+            // A search stops when it can't lead to a better path
+            if (forwardKey >= best)
+                forwardKey = INF;
+            if (backwardKey >= best)
+                backwardKey = INF;
+            if (forwardKey == INF && backwardKey == INF)
+                break;
+            boolean forward = (forwardKey <= backwardKey);
+            int node = forward ? state.forwardQueue.poll() : state.backwardQueue.poll();
+            // Exec stats
+            stats.incNodesVisitedNum();
+            // Check if the two searches meet at this node
+            if (state.forwardStamp[node] == state.generation && state.backwardStamp[node] == state.generation &&
+                (long) state.forwardDist[node] + state.backwardDist[node] < best) { 
+                best = state.forwardDist[node] + state.backwardDist[node];
+                state.meetingNode = node;
+            }
+            // Relax the upward edges
+            if (forward) { 
+                for (int e = ch.upOffsets[node]; e < ch.upOffsets[node+1]; e++)
+                    visit(state,true,ch.upTargets[e],state.forwardDist[node] + ch.upWeights[e],node,e);
+            } else { 
+                for (int e = ch.downOffsets[node]; e < ch.downOffsets[node+1]; e++)
+                    visit(state,false,ch.downSources[e],state.backwardDist[node] + ch.downWeights[e],node,e);
+            }
+        }
+        return best;
+    }
+    
+    /**
+     * Reaches a node with a specific distance, if it is lower than the one
+     * it already has.
+     * 
+     * @param state the state of the query
+     * @param forward true for the forward search
+     * @param node the node
+     * @param newDist the new distance of the node
+     * @param prevNode the node that the node is reached from (-1 for the root)
+     * @param edge the edge that the node was reached through (-1 for the root)
+     */
+    private void visit(QueryState state, boolean forward, int node, int newDist, int prevNode, int edge) { 
+        int[] dist = forward ? state.forwardDist : state.backwardDist;
+        int[] prev = forward ? state.forwardPrev : state.backwardPrev;
+        int[] parent = forward ? state.forwardParent : state.backwardParent;
+        int[] stamp = forward ? state.forwardStamp : state.backwardStamp;
+        IndexedMinHeap queue = forward ? state.forwardQueue : state.backwardQueue;
+        if (stamp[node] == state.generation && newDist >= dist[node])
+            return;
+        dist[node] = newDist;
+        prev[node] = prevNode;
+        parent[node] = edge;
+        if (stamp[node] == state.generation)
+            queue.insertOrDecreaseKey(node,newDist);
+        else { 
+            stamp[node] = state.generation;
+            queue.insert(node,newDist);
+        }
+    }
+    
+    /**
+     * Appends the unpacked path from the start vertex to a node of the
+     * forward search, the start vertex excluded.
+     * 
+     * @param state the state of the query
+     * @param node the node
+     * @param path the path
+     */
+    private void unpackForward(QueryState state, int node, Path<Vertex<V>> path) { 
+        // Collect the edges from the node back to the root
+        Deque<Integer> nodes = new ArrayDeque<>();
+        for (int run = node; state.forwardPrev[run] != -1; run = state.forwardPrev[run])
+            nodes.push(run);
+        for (int run : nodes)
+            unpack(state.forwardPrev[run],run,ch.upMiddles[state.forwardParent[run]],path);
+    }
+    
+    /**
+     * Appends the unpacked path from a node of the backward search to the
+     * destination vertex, the node excluded.
+     * 
+     * @param state the state of the query
+     * @param node the node
+     * @param path the path
+     */
+    private void unpackBackward(QueryState state, int node, Path<Vertex<V>> path) { 
+        for (int run = node; state.backwardPrev[run] != -1; run = state.backwardPrev[run])
+            unpack(run,state.backwardPrev[run],ch.downMiddles[state.backwardParent[run]],path);
+    }
+    
+    /**
+     * Appends the original vertices of an edge of the hierarchy to a path,
+     * the source vertex excluded.
+     * 
+     * @param from the source vertex of the edge
+     * @param to the target vertex of the edge
+     * @param middle the contracted vertex that the edge passes through (-1 for an original edge)
+     * @param path the path
+     */
+    private void unpack(int from, int to, int middle, Path<Vertex<V>> path) { 
+        // An explicit stack, since the shortcuts can be nested deeply
+        Deque<int[]> stack = new ArrayDeque<>();
+        stack.push(new int[] { from, to, middle });
+        while (!stack.isEmpty()) { 
+            int[] edge = stack.pop();
+            if (edge[2] == -1) { 
+                path.add(new Vertex<>(ch.getData(edge[1])));
+                continue;
+            }
+            int m = edge[2];
+            // The middle vertex has a lower rank than both ends, so the
+            // edge from -> m is an incoming edge of m and m -> to an outgoing one
+            stack.push(new int[] { m, edge[1], middleOf(ch.upOffsets,ch.upTargets,ch.upMiddles,m,edge[1]) });
+            stack.push(new int[] { edge[0], m, middleOf(ch.downOffsets,ch.downSources,ch.downMiddles,m,edge[0]) });
+        }
+    }
+    
+    /**
+     * Finds the middle vertex of an edge of a vertex.
+     * 
+     * @param offsets the offsets of the CSR edges
+     * @param others the other end of each edge
+     * @param middles the middle vertex of each edge
+     * @param vertex the vertex that the edge is stored at
+     * @param other the other end of the edge
+     * 
+     * @return the middle vertex (-1 for an original edge)
+     */
+    private int middleOf(int[] offsets, int[] others, int[] middles, int vertex, int other) { 
+        for (int e = offsets[vertex]; e < offsets[vertex+1]; e++) { 
+            if (others[e] == other)
+                return middles[e];
+        }
+        throw new IllegalStateException("The hierarchy has no edge between " + vertex + " and " + other);
+    }
+
+}
@@ -0,0 +1,5 @@
+/**
+ * Provides the contraction hierarchies preprocessing and the shortest path
+ * queries on them.
+ */
+package com.sitienda.graphima.alg.ch;
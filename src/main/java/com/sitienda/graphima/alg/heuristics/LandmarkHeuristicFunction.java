@@ -0,0 +1,104 @@
+/**
+ * Copyright (C) 2019, by Vasileios Nikakis
+ *
+ * graphima: yet another Java graph-theory library
+ */
+package com.sitienda.graphima.alg.heuristics;
+
+import com.sitienda.graphima.CompactGraph;
+
+/**
+ * Landmark heuristic function - the ALT lower bound of the distance to a
+ * specific destination.
+ * <p>
+ * The value never overestimates the real distance, so the A* algorithm
+ * always returns the shortest path. The function is bound to one destination,
+ * so a new one has to be created for each destination, with
+ * {@link Landmarks#heuristicTo(java.lang.Object)}; the A* algorithm rejects
+ * a query to any other destination. An 
+ * {@link com.sitienda.graphima.alg.AStarShortestPath} that is given the
+ * {@link Landmarks} themselves takes the destination of each query instead.
+ * </p>
+ * <p>
+ * When the A* algorithm runs on the compact graph of the landmarks, it
+ * takes the values by the vertex ids with {@link #hById(int)}, so the 
+ * vertices are not looked up by their data.
+ * </p>
+ *
+ * @param <V> the type of the object where the heuristic function will be applied on
+ *
+ * @author Vasileios Nikakis
+ */
+public class LandmarkHeuristicFunction<V> implements HeuristicFunction<V> {
+    
+    /**
+     * The landmark distance tables.
+     */
+    private final Landmarks<V> landmarks;
+    /**
+     * The data of the destination vertex.
+     */
+    private final V targetData;
+    /**
+     * The id of the destination vertex (-1 if it is not in the graph).
+     */
+    private final int target;
+    
+    /**
+     * Constructor
+     * 
+     * @param landmarks the landmark distance tables
+     * @param target the data of the destination vertex
+     */
+    public LandmarkHeuristicFunction(Landmarks<V> landmarks, V target) { 
+        this.landmarks = landmarks;
+        this.targetData = target;
+        this.target = landmarks.getGraph().idOf(target);
+    }
+    
+    /**
+     * 
+     * @return the data of the destination vertex
+     */
+    public V getTarget() { 
+        return targetData;
+    }
+    
+    /**
+     * 
+     * @return the compact graph of the landmark distance tables, whose ids
+     *         {@link #hById(int)} takes
+     */
+    public CompactGraph<V> getGraph() { 
+        return landmarks.getGraph();
+    }
+    
+    /**
+     * The heuristic function - a lower bound of the distance from an object
+     * to the destination.
+     * 
+     * @param obj the object where the heuristic function be applied on
+     * 
+     * @return the heuristic value.
+     */
+    @Override
+    public int h(V obj) { 
+        if (target < 0)
+            return 0;
+        int id = landmarks.getGraph().idOf(obj);
+        return (id >= 0) ? landmarks.lowerBoundById(id,target) : 0;
+    }
+    
+    /**
+     * The heuristic function - a lower bound of the distance from a vertex
+     * of the compact graph of the landmarks to the destination.
+     * 
+     * @param id the id of the vertex in {@link #getGraph()}
+     * 
+     * @return the heuristic value.
+     */
+    public int hById(int id) { 
+        return (target < 0) ? 0 : landmarks.lowerBoundById(id,target);
+    }
+    
+}
@@ -0,0 +1,421 @@
+/**
+ * Copyright (C) 2019, by Vasileios Nikakis
+ *
+ * graphima: yet another Java graph-theory library
+ */
+package com.sitienda.graphima.alg.heuristics;
+
+import com.sitienda.graphima.CompactGraph;
+import com.sitienda.graphima.Graph;
+import com.sitienda.graphima.alg.IndexedMinHeap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Landmark distance tables for the ALT (A*, Landmarks, Triangle inequality)
+ * heuristic.
+ * <p>
+ * A small number of vertices are selected as landmarks and the distances
+ * from each landmark to every vertex and from every vertex to each landmark
+ * are precomputed. By the triangle inequality, for any vertices v, t and
+ * landmark L:
+ * </p>
+ * <pre>
+ *     d(v,t) &gt;= d(L,t) - d(L,v)
+ *     d(v,t) &gt;= d(v,L) - d(t,L)
+ * </pre>
+ * <p>
+ * so the largest of these differences is a lower bound of the distance
+ * between v and t, that can be used as an admissible heuristic on graphs
+ * without any coordinates.
+ * </p>
+ * <p>
+ * The distances are kept in two int arrays of size K*V, where the K distances
+ * of each vertex lie next to each other. The tables are computed on a
+ * {@link com.sitienda.graphima.CompactGraph} snapshot and they don't follow
+ * any later changes of the source graph. The edge weights must not be negative.
+ * </p>
+ *
+ * @param <V> the type of the objects that the graph contains
+ *
+ * @author Vasileios Nikakis
+ */
+public class Landmarks<V> {
+    
+    /**
+     * The landmark selection strategies.
+     */
+    public enum Selection { 
+        /**
+         * Each landmark is the vertex farthest away from the landmarks that
+         * have already been selected.
+         */
+        FARTHEST,
+        /**
+         * Each landmark is placed at a leaf of the shortest path tree of a
+         * random vertex, in the region that the selected landmarks cover
+         * worst.
+         */
+        AVOID
+    }
+    
+    /**
+     * The default landmark selection strategy.
+     */
+    public static final Selection DEFAULT_SELECTION = Selection.AVOID;
+    /**
+     * Max integer as infinity.
+     */
+    private static final int INF = Integer.MAX_VALUE;
+    
+    /**
+     * The compact graph.
+     */
+    private final CompactGraph<V> graph;
+    /**
+     * The vertex ids of the landmarks.
+     */
+    private final int[] landmarks;
+    /**
+     * The distance from each landmark to each vertex: the distance from the
+     * i-th landmark to vertex v is stored at v*K+i.
+     */
+    private final int[] fromLandmark;
+    /**
+     * The distance from each vertex to each landmark: the distance from
+     * vertex v to the i-th landmark is stored at v*K+i.
+     */
+    private final int[] toLandmark;
+    
+    /**
+     * Constructor
+     * 
+     * @param graph the compact graph
+     * @param landmarks the vertex ids of the landmarks
+     * @param fromLandmark the distances from the landmarks
+     * @param toLandmark the distances to the landmarks
+     */
+    private Landmarks(CompactGraph<V> graph, int[] landmarks, int[] fromLandmark, int[] toLandmark) { 
+        this.graph = graph;
+        this.landmarks = landmarks;
+        this.fromLandmark = fromLandmark;
+        this.toLandmark = toLandmark;
+    }
+    
+    /**
+     * Selects the landmarks of a graph with the default strategy.
+     * 
+     * @param <V> the type of the objects that the graph contains
+     * @param graph the graph
+     * @param landmarkNum the number of landmarks
+     * 
+     * @return the landmark distance tables
+     */
+    public static <V> Landmarks<V> select(Graph<V> graph, int landmarkNum) { 
+        return select(graph.freeze(),landmarkNum,DEFAULT_SELECTION,new Random(0));
+    }
+    
+    /**
+     * Selects the landmarks of a graph.
+     * 
+     * @param <V> the type of the objects that the graph contains
+     * @param graph the graph
+     * @param landmarkNum the number of landmarks
+     * @param selection the landmark selection strategy
+     * 
+     * @return the landmark distance tables
+     */
+    public static <V> Landmarks<V> select(Graph<V> graph, int landmarkNum, Selection selection) { 
+        return select(graph.freeze(),landmarkNum,selection,new Random(0));
+    }
+    
+    /**
+     * Selects the landmarks of a compact graph with the default strategy.
+     * 
+     * @param <V> the type of the objects that the graph contains
+     * @param graph the compact graph
+     * @param landmarkNum the number of landmarks
+     * 
+     * @return the landmark distance tables
+     */
+    public static <V> Landmarks<V> select(CompactGraph<V> graph, int landmarkNum) { 
+        return select(graph,landmarkNum,DEFAULT_SELECTION,new Random(0));
+    }
+    
+    /**
+     * Selects the landmarks of a compact graph.
+     * 
+     * @param <V> the type of the objects that the graph contains
+     * @param graph the compact graph
+     * @param landmarkNum the number of landmarks
+     * @param selection the landmark selection strategy
+     * @param random the source of the random start vertices
+     * 
+     * @return the landmark distance tables
+     * 
+     * @throws IllegalArgumentException if the tables don't fit in int arrays
+     */
+    public static <V> Landmarks<V> select(CompactGraph<V> graph, int landmarkNum, Selection selection, Random random) { 
+        int n = graph.size();
+        int k = Math.max(0,Math.min(landmarkNum,n));
+        // The tables are indexed by int
+        if ((long) n * k > Integer.MAX_VALUE)
+            throw new IllegalArgumentException("The tables of " + k + " landmarks for " + n + " vertices are too large");
+        int[] landmarks = new int[k];
+        int[] fromLandmark = new int[n * k];
+        int[] toLandmark = new int[n * k];
+        CompactGraph<V> reverse = graph.reverse();
+        
+        int[] dist = new int[n];
+        int[] parent = new int[n];
+        int[] order = new int[n];
+        boolean[] isLandmark = new boolean[n];
+        // The distance of each vertex from its closest landmark (FARTHEST)
+        int[] minDist = new int[n];
+        Arrays.fill(minDist,INF);
+        for (int i = 0; i < k; i++) { 
+            int landmark = -1;
+            if (i == 0) { 
+                // The first landmark is the vertex farthest away from a random one
+                shortestPaths(graph,random.nextInt(n),dist,parent,order);
+                landmark = farthest(dist,isLandmark);
+            } else if (selection == Selection.AVOID)
+                landmark = avoid(graph,i,landmarks,fromLandmark,toLandmark,random,dist,parent,order,isLandmark);
+            if (landmark < 0)
+                landmark = farthest(minDist,isLandmark);
+            landmarks[i] = landmark;
+            isLandmark[landmark] = true;
+            // Compute the distance tables of the new landmark
+            shortestPaths(graph,landmark,dist,parent,order);
+            for (int v = 0; v < n; v++) { 
+                fromLandmark[v*k+i] = dist[v];
+                minDist[v] = Math.min(minDist[v],dist[v]);
+            }
+            if (reverse != graph)
+                shortestPaths(reverse,landmark,dist,parent,order);
+            for (int v = 0; v < n; v++)
+                toLandmark[v*k+i] = dist[v];
+        }
+        return new Landmarks<>(graph,landmarks,fromLandmark,toLandmark);
+    }
+    
+    /**
+     * 
+     * @return the compact graph that the tables were computed on
+     */
+    public CompactGraph<V> getGraph() { 
+        return graph;
+    }
+    
+    /**
+     * 
+     * @return the number of landmarks
+     */
+    public int size() { 
+        return landmarks.length;
+    }
+    
+    /**
+     * 
+     * @return the data of the landmark vertices
+     */
+    public List<V> getLandmarks() { 
+        List<V> list = new ArrayList<>(landmarks.length);
+        for (int landmark : landmarks)
+            list.add(graph.getData(landmark));
+        return Collections.unmodifiableList(list);
+    }
+    
+    /**
+     * Returns a lower bound of the distance between two vertices.
+     * 
+     * @param from the data of the first vertex
+     * @param to the data of the second vertex
+     * 
+     * @return the lower bound (0 if any of the vertices is not in the graph)
+     */
+    public int lowerBound(V from, V to) { 
+        int fromId = graph.idOf(from);
+        int toId = graph.idOf(to);
+        if (fromId < 0 || toId < 0)
+            return 0;
+        return lowerBoundById(fromId,toId);
+    }
+    
+    /**
+     * Returns a lower bound of the distance between two vertices, by their
+     * ids in {@link #getGraph()}.
+     * 
+     * @param from the id of the first vertex
+     * @param to the id of the second vertex
+     * 
+     * @return the lower bound
+     */
+    public int lowerBoundById(int from, int to) { 
+        int k = landmarks.length;
+        int bound = 0;
+        for (int i = 0, f = from*k, t = to*k; i < k; i++, f++, t++) { 
+            // d(v,t) >= d(L,t) - d(L,v)
+            if (fromLandmark[t] != INF && fromLandmark[f] != INF)
+                bound = Math.max(bound,fromLandmark[t] - fromLandmark[f]);
+            // d(v,t) >= d(v,L) - d(t,L)
+            if (toLandmark[f] != INF && toLandmark[t] != INF)
+                bound = Math.max(bound,toLandmark[f] - toLandmark[t]);
+        }
+        return bound;
+    }
+    
+    /**
+     * Creates a heuristic function that estimates the distance of each
+     * vertex to a specific destination. An
+     * {@link com.sitienda.graphima.alg.AStarShortestPath} that is given the
+     * landmarks themselves answers the queries to any destination instead.
+     * 
+     * @param target the data of the destination vertex
+     * 
+     * @return the heuristic function
+     */
+    public LandmarkHeuristicFunction<V> heuristicTo(V target) { 
+        return new LandmarkHeuristicFunction<>(this,target);
+    }
+    
+    /**
+     * Returns the unselected vertex with the largest distance.
+     * The vertices that can't be reached come first, so that each connected
+     * component gets a landmark.
+     * 
+     * @param dist the distance of each vertex
+     * @param isLandmark the vertices that have already been selected
+     * 
+     * @return the vertex id
+     */
+    private static int farthest(int[] dist, boolean[] isLandmark) { 
+        int best = -1;
+        for (int v = 0; v < dist.length; v++) { 
+            if (!isLandmark[v] && (best < 0 || dist[v] > dist[best]))
+                best = v;
+        }
+        return best;
+    }
+    
+    /**
+     * Selects the next landmark with the AVOID strategy.
+     * <p>
+     * The shortest path tree of a random vertex r is built. Each vertex v
+     * gets a weight d(r,v) - lb(r,v), which shows how badly the existing
+     * landmarks bound its distance, and a size, which is the sum of the
+     * weights of its subtree or 0 if the subtree contains a landmark.
+     * Starting at the vertex with the largest size, the walk follows the
+     * child with the largest size, down to a leaf that becomes the landmark.
+     * </p>
+     * 
+     * @param <V> the type of the objects that the graph contains
+     * @param graph the compact graph
+     * @param selected the number of landmarks that have already been selected
+     * @param landmarks the vertex ids of the landmarks
+     * @param fromLandmark the distances from the landmarks
+     * @param toLandmark the distances to the landmarks
+     * @param random the source of the random root vertex
+     * @param dist a work array for the distances
+     * @param parent a work array for the parents
+     * @param order a work array for the settle order
+     * @param isLandmark the vertices that have already been selected
+     * 
+     * @return the vertex id or -1 if the existing landmarks already give
+     *         exact bounds in the tree
+     */
+    private static <V> int avoid(CompactGraph<V> graph, int selected, int[] landmarks,
+                                 int[] fromLandmark, int[] toLandmark, Random random,
+                                 int[] dist, int[] parent, int[] order, boolean[] isLandmark) { 
+        int n = graph.size();
+        int k = landmarks.length;
+        int root = random.nextInt(n);
+        int settled = shortestPaths(graph,root,dist,parent,order);
+        long[] size = new long[n];
+        int[] bestChild = new int[n];
+        Arrays.fill(bestChild,-1);
+        boolean[] covered = new boolean[n];
+        // Visit the vertices from the leaves towards the root
+        for (int j = settled-1; j >= 0; j--) { 
+            int v = order[j];
+            if (isLandmark[v])
+                covered[v] = true;
+            if (covered[v])
+                size[v] = 0;
+            else { 
+                int bound = 0;
+                for (int i = 0; i < selected; i++) { 
+                    int fr = fromLandmark[root*k+i], fv = fromLandmark[v*k+i];
+                    if (fr != INF && fv != INF)
+                        bound = Math.max(bound,fv - fr);
+                    int tr = toLandmark[root*k+i], tv = toLandmark[v*k+i];
+                    if (tr != INF && tv != INF)
+                        bound = Math.max(bound,tr - tv);
+                }
+                size[v] += dist[v] - bound;
+            }
+            int p = parent[v];
+            if (p >= 0) { 
+                if (covered[v])
+                    covered[p] = true;
+                size[p] += size[v];
+                if (bestChild[p] < 0 || size[v] > size[bestChild[p]])
+                    bestChild[p] = v;
+            }
+        }
+        // Start from the vertex with the largest size
+        int start = -1;
+        for (int j = 0; j < settled; j++) { 
+            int v = order[j];
+            if (size[v] > 0 && (start < 0 || size[v] > size[start]))
+                start = v;
+        }
+        if (start < 0)
+            return -1;
+        // Walk down to a leaf
+        int leaf = start;
+        while (bestChild[leaf] >= 0 && size[bestChild[leaf]] > 0)
+            leaf = bestChild[leaf];
+        return isLandmark[leaf] ? -1 : leaf;
+    }
+    
+    /**
+     * Computes the distances from a source vertex to every vertex of a
+     * compact graph with the Dijkstra algorithm.
+     * 
+     * @param <V> the type of the objects that the graph contains
+     * @param graph the compact graph
+     * @param source the id of the source vertex
+     * @param dist the distance of each vertex (output)
+     * @param parent the parent of each vertex in the shortest path tree (output)
+     * @param order the vertices in the order they were settled (output)
+     * 
+     * @return the number of settled vertices
+     */
+    private static <V> int shortestPaths(CompactGraph<V> graph, int source, int[] dist, int[] parent, int[] order) { 
+        Arrays.fill(dist,INF);
+        Arrays.fill(parent,-1);
+        IndexedMinHeap queue = new IndexedMinHeap(graph.size());
+        int settled = 0;
+        dist[source] = 0;
+        queue.insert(source,0);
+        while (!queue.isEmpty()) { 
+            int current = queue.poll();
+            order[settled++] = current;
+            for (int e = graph.edgesStart(current); e < graph.edgesEnd(current); e++) { 
+                int child = graph.target(e);
+                int newDist = dist[current] + graph.weight(e);
+                if (newDist < dist[child]) { 
+                    dist[child] = newDist;
+                    parent[child] = current;
+                    queue.insertOrDecreaseKey(child,newDist);
+                }
+            }
+        }
+        return settled;
+    }
+
+}
@@ -8,7 +8,6 @@ package com.sitienda.graphima.io;
 import com.sitienda.graphima.Edge;
 import com.sitienda.graphima.Graph;
 import com.sitienda.graphima.Vertex;
-import com.sitienda.graphima.WeightedEdge;
 import com.sitienda.graphima.exceptions.GraphIOException;
 import static com.sitienda.graphima.io.GraphSQLManager.TBL_EDGE;
 import static com.sitienda.graphima.io.GraphSQLManager.TBL_GRAPH;
@@ -269,8 +268,7 @@ public class GraphMySQLWriter<V> extends GraphMySQLManager implements GraphSQLWr
                     // Get the destination edge's id
                     int vertexToId = vertexIdx.get(edge.getVertex());
                     // Get the weight of this particular edge
-                    int weight = (edge instanceof WeightedEdge) ? 
-                                    ((WeightedEdge) edge).getWeight() : 1;
+                    int weight = edge.getWeight();
                     // Set the parameter values and execute the statement
                     stmt.setInt(1,vertexFromId);
                     stmt.setInt(2,vertexToId);
@@ -8,7 +8,6 @@ package com.sitienda.graphima.io;
 import com.sitienda.graphima.Edge;
 import com.sitienda.graphima.Graph;
 import com.sitienda.graphima.Vertex;
-import com.sitienda.graphima.WeightedEdge;
 import com.sitienda.graphima.exceptions.GraphIOException;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
@@ -255,8 +254,7 @@ public class GraphSQLiteWriter<V> extends GraphSQLiteManager implements GraphSQL
                     // Get the destination edge's id
                     int vertexToId = vertexIdx.get(edge.getVertex());
                     // Get the weight of this particular edge
-                    int weight = (edge instanceof WeightedEdge) ? 
-                                    ((WeightedEdge) edge).getWeight() : 1;
+                    int weight = edge.getWeight();
                     // Set the parameter values and execute the statement
                     stmt.setInt(1,vertexFromId);
                     stmt.setInt(2,vertexToId);
@@ -0,0 +1,215 @@
+/**
+ * Copyright (C) 2019, by Vasileios Nikakis
+ *
+ * graphima: yet another Java graph-theory library
+ */
+package com.sitienda.graphima.path;
+
+import com.sitienda.graphima.Vertex;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The shortest path distances from a list of source vertices to a list of
+ * target vertices.
+ * <p>
+ * The distances are stored in a single array, one row per source and one
+ * column per target. The paths are kept only if they were requested; they
+ * are stored in the same order.
+ * </p>
+ *
+ * @param <V> the type of the objects that are encapsulated in each vertex
+ *
+ * @author Vasileios Nikakis
+ */
+public class DistanceMatrix<V> {
+    
+    /**
+     * The distance of the targets that can't be reached from a source.
+     */
+    public static final int INFINITY = Integer.MAX_VALUE;
+    
+    /**
+     * The data of the source vertices, one for each row.
+     */
+    private final List<V> sources;
+    /**
+     * The data of the target vertices, one for each column.
+     */
+    private final List<V> targets;
+    /**
+     * Index from the data of the sources to the rows.
+     */
+    private final Map<V,Integer> rows;
+    /**
+     * Index from the data of the targets to the columns.
+     */
+    private final Map<V,Integer> columns;
+    /**
+     * The distances in row-major order.
+     */
+    private final int[] distances;
+    /**
+     * The paths in row-major order, or null if they weren't requested.
+     */
+    private final Path<Vertex<V>>[] paths;
+    
+    /**
+     * Constructor
+     * 
+     * @param sources the data of the source vertices, without duplicates
+     * @param targets the data of the target vertices, without duplicates
+     * @param distances the distances in row-major order
+     * @param paths the paths in row-major order (null if they weren't requested)
+     */
+    public DistanceMatrix(List<V> sources, List<V> targets, int[] distances, Path<Vertex<V>>[] paths) { 
+        this.sources = Collections.unmodifiableList(sources);
+        this.targets = Collections.unmodifiableList(targets);
+        rows = indexOf(sources);
+        columns = indexOf(targets);
+        this.distances = distances;
+        this.paths = paths;
+    }
+    
+    /**
+     * Maps each item of a list to its position.
+     * 
+     * @param items the items
+     * 
+     * @return the position of each item
+     */
+    private static <V> Map<V,Integer> indexOf(List<V> items) { 
+        Map<V,Integer> index = new HashMap<>();
+        for (int i = 0; i < items.size(); i++)
+            index.put(items.get(i),i);
+        return index;
+    }
+    
+    /**
+     * 
+     * @return the data of the source vertices, one for each row
+     */
+    public List<V> getSources() { 
+        return sources;
+    }
+    
+    /**
+     * 
+     * @return the data of the target vertices, one for each column
+     */
+    public List<V> getTargets() { 
+        return targets;
+    }
+    
+    /**
+     * 
+     * @return true if the paths were kept
+     */
+    public boolean hasPaths() { 
+        return paths != null;
+    }
+    
+    /**
+     * Returns the distance between the source of a row and the target of a column.
+     * 
+     * @param row the row
+     * @param column the column
+     * 
+     * @return the distance or {@link #INFINITY} if the target can't be reached
+     */
+    public int getDistance(int row, int column) { 
+        return distances[position(row,column)];
+    }
+    
+    /**
+     * Returns the distance between a source and a target vertex.
+     * The data of the vertices has to be provided.
+     * 
+     * @param source the data of the source vertex
+     * @param target the data of the target vertex
+     * 
+     * @return the distance or {@link #INFINITY} if the target can't be reached
+     * 
+     * @throws IllegalArgumentException if the vertices aren't a source and a target of the matrix
+     */
+    public int getDistance(V source, V target) { 
+        return distances[position(source,target)];
+    }
+    
+    /**
+     * Returns the shortest path between the source of a row and the target of a column.
+     * 
+     * @param row the row
+     * @param column the column
+     * 
+     * @return the path or an empty path if the target can't be reached
+     * 
+     * @throws IllegalStateException if the paths weren't kept
+     */
+    public Path<Vertex<V>> getPath(int row, int column) { 
+        if (paths == null)
+            throw new IllegalStateException("The paths weren't requested");
+        return paths[position(row,column)];
+    }
+    
+    /**
+     * Returns the shortest path between a source and a target vertex.
+     * The data of the vertices has to be provided.
+     * 
+     * @param source the data of the source vertex
+     * @param target the data of the target vertex
+     * 
+     * @return the path or an empty path if the target can't be reached
+     * 
+     * @throws IllegalArgumentException if the vertices aren't a source and a target of the matrix
+     * @throws IllegalStateException if the paths weren't kept
+     */
+    public Path<Vertex<V>> getPath(V source, V target) { 
+        if (paths == null)
+            throw new IllegalStateException("The paths weren't requested");
+        return paths[position(source,target)];
+    }
+    
+    /**
+     * Returns the position of a cell in the arrays.
+     * 
+     * @param row the row
+     * @param column the column
+     * 
+     * @return the position
+     */
+    private int position(int row, int column) { 
+        if (row < 0 || row >= sources.size() || column < 0 || column >= targets.size())
+            throw new IndexOutOfBoundsException("There is no cell (" + row + "," + column + ")");
+        return row * targets.size() + column;
+    }
+    
+    /**
+     * Returns the position of a cell in the arrays.
+     * 
+     * @param source the data of the source vertex
+     * @param target the data of the target vertex
+     * 
+     * @return the position
+     */
+    private int position(V source, V target) { 
+        Integer row = rows.get(source);
+        if (row == null)
+            throw new IllegalArgumentException(source + " is not a source of the matrix");
+        Integer column = columns.get(target);
+        if (column == null)
+            throw new IllegalArgumentException(target + " is not a target of the matrix");
+        return row * targets.size() + column;
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() { 
+        return "Distance matrix " + sources.size() + " x " + targets.size();
+    }
+
+}
@@ -0,0 +1,168 @@
+/**
+ * Copyright (C) 2019, by Vasileios Nikakis
+ *
+ * graphima: yet another Java graph-theory library
+ */
+package com.sitienda.graphima.path;
+
+import com.sitienda.graphima.Vertex;
+import com.sitienda.graphima.VertexIdMapping;
+
+/**
+ * The shortest paths from a source vertex to every other vertex of a graph.
+ * <p>
+ * The tree is stored as two arrays indexed by the vertex id: the parent of
+ * each vertex in its shortest path and its distance from the source. A
+ * {@link Path} is built only when it is requested, so a single-source search
+ * costs O(V) memory instead of one path object per vertex.
+ * </p>
+ *
+ * @param <V> the type of the objects that are encapsulated in each vertex
+ *
+ * @author Vasileios Nikakis
+ */
+public class ShortestPathTree<V> {
+    
+    /**
+     * The distance of the vertices that can't be reached from the source.
+     */
+    public static final int INFINITY = Integer.MAX_VALUE;
+    
+    /**
+     * The source vertex.
+     */
+    private final Vertex<V> source;
+    /**
+     * The mapping between the vertices and their ids.
+     */
+    private final VertexIdMapping<V> mapping;
+    /**
+     * The parent of each vertex in its shortest path, indexed by the vertex id.
+     * It is -1 for the source and for the vertices that can't be reached.
+     */
+    private final int[] parent;
+    /**
+     * The distance of each vertex from the source, indexed by the vertex id.
+     * It is {@link #INFINITY} for the vertices that can't be reached.
+     */
+    private final int[] distance;
+    
+    /**
+     * Constructor
+     * 
+     * @param source the source vertex
+     * @param mapping the mapping between the vertices and their ids
+     * @param parent the parent of each vertex
+     * @param distance the distance of each vertex from the source
+     */
+    public ShortestPathTree(Vertex<V> source, VertexIdMapping<V> mapping, int[] parent, int[] distance) { 
+        this.source = source;
+        this.mapping = mapping;
+        this.parent = parent;
+        this.distance = distance;
+    }
+    
+    /**
+     * 
+     * @return the source vertex
+     */
+    public Vertex<V> getSource() { 
+        return source;
+    }
+    
+    /**
+     * Checks if a vertex can be reached from the source.
+     * 
+     * @param vertex the vertex
+     * 
+     * @return true or false
+     */
+    public boolean hasPathTo(Vertex<V> vertex) { 
+        return hasPathTo(vertex.getData());
+    }
+    
+    /**
+     * Checks if the vertex with specific data can be reached from the source.
+     * 
+     * @param vertexData the data of the vertex
+     * 
+     * @return true or false
+     */
+    public boolean hasPathTo(V vertexData) { 
+        int id = idOf(vertexData);
+        return (id >= 0 && distance[id] != INFINITY);
+    }
+    
+    /**
+     * Returns the distance of a vertex from the source.
+     * 
+     * @param vertex the vertex
+     * 
+     * @return the distance or {@link #INFINITY} if the vertex can't be reached
+     */
+    public int distanceTo(Vertex<V> vertex) { 
+        return distanceTo(vertex.getData());
+    }
+    
+    /**
+     * Returns the distance of the vertex with specific data from the source.
+     * 
+     * @param vertexData the data of the vertex
+     * 
+     * @return the distance or {@link #INFINITY} if the vertex can't be reached
+     */
+    public int distanceTo(V vertexData) { 
+        int id = idOf(vertexData);
+        return (id >= 0) ? distance[id] : INFINITY;
+    }
+    
+    /**
+     * Builds the shortest path from the source to a vertex.
+     * 
+     * @param vertex the vertex
+     * 
+     * @return the path or an empty path if the vertex can't be reached
+     */
+    public Path<Vertex<V>> pathTo(Vertex<V> vertex) { 
+        return pathTo(vertex.getData());
+    }
+    
+    /**
+     * Builds the shortest path from the source to the vertex with specific data.
+     * 
+     * @param vertexData the data of the vertex
+     * 
+     * @return the path or an empty path if the vertex can't be reached
+     */
+    public Path<Vertex<V>> pathTo(V vertexData) { 
+        Path<Vertex<V>> path = new Path<>();
+        int id = idOf(vertexData);
+        if (id >= 0 && distance[id] != INFINITY) { 
+            for (int run = id; run != -1; run = parent[run])
+                path.prepend(mapping.vertexById(run));
+        }
+        return path;
+    }
+    
+    /**
+     * Returns the id of a vertex, taking care of the vertices that are
+     * outside of the range of the tree.
+     * 
+     * @param vertexData the data of the vertex
+     * 
+     * @return the vertex id or -1
+     */
+    private int idOf(V vertexData) { 
+        int id = mapping.idOf(vertexData);
+        return (id < distance.length) ? id : -1;
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() { 
+        return "Shortest path tree from " + source;
+    }
+
+}
@@ -0,0 +1,119 @@
+/**
+ * Copyright (C) 2019, by Vasileios Nikakis
+ *
+ * graphima: yet another Java graph-theory library
+ */
+package com.sitienda.graphima;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ *
+ * @author Vasileios Nikakis
+ */
+public class CompactGraphTest {
+    
+    /**
+     * Test of of method, of class CompactGraph.
+     */
+    @Test
+    public void testOf() { 
+        DirectedWeightedGraph<String> g = new DirectedWeightedGraph<>("G");
+        g.addVertex("A")
+         .addVertex("B")
+         .addVertex("C");
+        g.addEdge("A","B",10)
+         .addEdge("A","C",3)
+         .addEdge("C","B",4);
+        CompactGraph<String> cg = g.freeze();
+        assertEquals(cg.getName(),"G");
+        assertEquals(cg.isWeighted(),true);
+        assertEquals(cg.size(),3);
+        assertEquals(cg.getEdgesSize(),3);
+        assertEquals(cg.idOf("D"),-1);
+        int a = cg.idOf("A");
+        assertEquals(cg.getData(a),"A");
+        assertEquals(cg.vertexById(a),g.getVertexWithData("A"));
+        assertSame(cg.vertexById(a),cg.vertexById(a));
+        assertEquals(cg.getNeighborsSize(a),2);
+        int weightSum = 0;
+        for (int e = cg.edgesStart(a); e < cg.edgesEnd(a); e++) { 
+            if (cg.target(e) == cg.idOf("B"))
+                assertEquals(cg.weight(e),10);
+            weightSum += cg.weight(e);
+        }
+        assertEquals(weightSum,13);
+        assertEquals(cg.getNeighborsSize(cg.idOf("B")),0);
+    }
+    
+    /**
+     * Test of of method, of class CompactGraph, for an unweighted graph.
+     */
+    @Test
+    public void testOfUnweighted() { 
+        UndirectedGraph<String> g = new UndirectedGraph<>();
+        g.addVertex("A")
+         .addVertex("B")
+         .addVertex("C");
+        g.addEdge("A","B")
+         .addEdge("B","C");
+        CompactGraph<String> cg = CompactGraph.of(g);
+        assertEquals(cg.isWeighted(),false);
+        assertEquals(cg.getEdgesSize(),g.getEdgesSize());
+        int b = cg.idOf("B");
+        assertEquals(cg.getNeighborsSize(b),2);
+        assertEquals(cg.weight(cg.edgesStart(b)),1);
+        assertEquals(cg.isDirected(),false);
+        assertSame(cg.reverse(),cg);
+    }
+    
+    /**
+     * Test of reverse method, of class CompactGraph.
+     */
+    @Test
+    public void testReverse() { 
+        DirectedWeightedGraph<String> g = new DirectedWeightedGraph<>();
+        g.addVertex("A")
+         .addVertex("B")
+         .addVertex("C");
+        g.addEdge("A","B",10)
+         .addEdge("A","C",3)
+         .addEdge("C","B",4);
+        CompactGraph<String> cg = g.freeze();
+        CompactGraph<String> rev = cg.reverse();
+        assertEquals(cg.isDirected(),true);
+        assertSame(cg.reverse(),rev);
+        assertSame(rev.reverse(),cg);
+        assertSame(rev.vertexById(cg.idOf("C")),cg.vertexById(cg.idOf("C")));
+        assertEquals(rev.getEdgesSize(),3);
+        assertEquals(rev.getNeighborsSize(cg.idOf("A")),0);
+        int b = cg.idOf("B");
+        assertEquals(rev.getNeighborsSize(b),2);
+        int weightSum = 0;
+        for (int e = rev.edgesStart(b); e < rev.edgesEnd(b); e++) { 
+            if (rev.target(e) == cg.idOf("C"))
+                assertEquals(rev.weight(e),4);
+            weightSum += rev.weight(e);
+        }
+        assertEquals(weightSum,14);
+    }
+    
+    /**
+     * Test of isUpToDate method, of class CompactGraph.
+     */
+    @Test
+    public void testIsUpToDate() { 
+        DirectedGraph<String> g = new DirectedGraph<>();
+        g.addVertex("A")
+         .addVertex("B");
+        CompactGraph<String> cg = g.freeze();
+        assertEquals(cg.getVersion(),g.getVersion());
+        assertEquals(cg.isUpToDate(g),true);
+        assertEquals(cg.reverse().getVersion(),cg.getVersion());
+        g.addEdge("A","B");
+        assertEquals(cg.isUpToDate(g),false);
+        assertEquals(g.freeze().isUpToDate(g),true);
+    }
+    
+}
@@ -0,0 +1,113 @@
+/**
+ * Copyright (C) 2019, by Vasileios Nikakis
+ *
+ * graphima: yet another Java graph-theory library
+ */
+package com.sitienda.graphima;
+
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ *
+ * @author Vasileios Nikakis
+ */
+public class ConcurrentDirectedGraphTest {
+    
+    /**
+     * Test of addVertex, addEdge and removeVertex methods, of class
+     * ConcurrentDirectedGraph, called by many threads.
+     */
+    @Test
+    public void testConcurrentChanges() { 
+        final ConcurrentDirectedGraph<Integer> g = new ConcurrentDirectedGraph<>();
+        final int vertexNum = 100;
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) { 
+            final Random random = new Random(t);
+            threads[t] = new Thread(new Runnable() { 
+                @Override
+                public void run() { 
+                    for (int i = 0; i < 5000; i++) { 
+                        int u = random.nextInt(vertexNum);
+                        int v = random.nextInt(vertexNum);
+                        if (random.nextInt(50) == 0)
+                            g.removeVertex(u);
+                        else { 
+                            g.addVertex(u)
+                             .addVertex(v)
+                             .addEdge(u,v);
+                        }
+                    }
+                }
+            });
+            threads[t].start();
+        }
+        try { 
+            for (Thread thread : threads)
+                thread.join();
+        }
+        catch (InterruptedException e) { 
+            fail(e.getMessage());
+        }
+        // No edge leads to a removed vertex and the indexes agree
+        int edgeCount = 0;
+        assertEquals(g.getIdBound() <= vertexNum,true);
+        for (Vertex<Integer> vertex : g.getVertices()) { 
+            assertEquals(g.getVertexWithData(vertex.getData()),vertex);
+            assertEquals(g.vertexById(g.idOf(vertex)) == vertex,true);
+            for (Edge<Vertex<Integer>> edge : vertex.getEdges()) { 
+                assertEquals(g.getVertexWithData(edge.getVertex().getData()) == edge.getVertex(),true);
+                assertEquals(edge.getVertex().hasEdgeFrom(vertex),true);
+            }
+            for (Vertex<Integer> predecessor : vertex.getPredecessors())
+                assertEquals(predecessor.hasEdgeWith(vertex),true);
+            edgeCount += vertex.getNeighborsSize();
+        }
+        assertEquals(g.getEdgesSize(),edgeCount);
+        assertEquals(g.freeze().getEdgesSize(),edgeCount);
+    }
+    
+    /**
+     * Test of snapshot method, of class ConcurrentDirectedGraph, called
+     * while other threads add edges.
+     */
+    @Test
+    public void testSnapshot() { 
+        final ConcurrentDirectedGraph<Integer> g = new ConcurrentDirectedGraph<>();
+        final int vertexNum = 100;
+        for (int i = 0; i < vertexNum; i++)
+            g.addVertex(i);
+        Thread[] threads = new Thread[2];
+        for (int t = 0; t < threads.length; t++) {
+            final Random random = new Random(t);
+            threads[t] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    for (int i = 0; i < 5000; i++)
+                        g.addEdge(random.nextInt(vertexNum),random.nextInt(vertexNum));
+                }
+            });
+            threads[t].start();
+        }
+        // The edges are only added, so each snapshot has at least the edges of the previous one
+        CompactGraph<Integer> previous = g.snapshot();
+        for (int i = 0; i < 200; i++) {
+            CompactGraph<Integer> current = g.snapshot();
+            assertEquals(current.getVersion() >= previous.getVersion(),true);
+            assertEquals(current.getEdgesSize() >= previous.getEdgesSize(),true);
+            previous = current;
+        }
+        try {
+            for (Thread thread : threads)
+                thread.join();
+        }
+        catch (InterruptedException e) {
+            fail(e.getMessage());
+        }
+        assertEquals(g.snapshot().getEdgesSize(),g.getEdgesSize());
+        assertEquals(g.snapshot().isUpToDate(g),true);
+    }
+    
+}
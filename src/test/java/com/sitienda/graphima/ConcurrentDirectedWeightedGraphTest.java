@@ -0,0 +1,130 @@
+/**
+ * Copyright (C) 2019, by Vasileios Nikakis
+ *
+ * graphima: yet another Java graph-theory library
+ */
+package com.sitienda.graphima;
+
+import com.sitienda.graphima.alg.AStarShortestPath;
+import com.sitienda.graphima.alg.BFSShortestPath;
+import com.sitienda.graphima.alg.BidirectionalBFSShortestPath;
+import com.sitienda.graphima.alg.BidirectionalDijkstraShortestPath;
+import com.sitienda.graphima.alg.DijkstraShortestPath;
+import com.sitienda.graphima.alg.FindPathResult;
+import com.sitienda.graphima.alg.ShortestPathAlgorithm;
+import com.sitienda.graphima.exceptions.VertexNotInGraphException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ *
+ * @author Vasileios Nikakis
+ */
+public class ConcurrentDirectedWeightedGraphTest {
+    
+    /**
+     * Test of removeVertex method, of class ConcurrentDirectedWeightedGraph.
+     */
+    @Test
+    public void testRemoveVertex() { 
+        ConcurrentDirectedWeightedGraph<String> g = new ConcurrentDirectedWeightedGraph<>("concurrent");
+        g.addVertex("A")
+         .addVertex("B")
+         .addVertex("C");
+        g.addEdge("A","B",2)
+         .addEdge("B","C",3)
+         .addEdge("C","A",4);
+        Vertex<String> b = g.getVertexWithData("B");
+        g.removeVertex("B");
+        assertEquals(g.size(),2);
+        assertEquals(g.getEdgesSize(),1);
+        // The removed vertex can't be linked any more
+        g.addEdge(g.getVertexWithData("A"),b,1);
+        assertEquals(g.getEdgesSize(),1);
+        assertEquals(g.getVertexWithData("A").getNeighborsSize(),0);
+        g.setWeight("C","A",5);
+        assertEquals(((WeightedEdge) g.getVertexWithData("C").getEdgeWith(g.getVertexWithData("A"))).getWeight(),5);
+    }
+    
+    /**
+     * Test of the shortest path searches on a ConcurrentDirectedWeightedGraph,
+     * while other threads add and remove vertices: the searches discover 
+     * more vertices than the graph had when they started.
+     */
+    @Test
+    public void testSearchesWhileVerticesChange() { 
+        final ConcurrentDirectedWeightedGraph<Integer> g = new ConcurrentDirectedWeightedGraph<>();
+        // The target can't be reached, so each search visits every vertex it can
+        g.addVertex(0)
+         .addVertex(-1);
+        final List<ShortestPathAlgorithm<Integer>> algorithms = new ArrayList<>();
+        algorithms.add(new AStarShortestPath<>(g));
+        algorithms.add(new BFSShortestPath<>(g));
+        algorithms.add(new DijkstraShortestPath<>(g));
+        algorithms.add(new BidirectionalBFSShortestPath<>(g));
+        algorithms.add(new BidirectionalDijkstraShortestPath<>(g));
+        final AtomicBoolean running = new AtomicBoolean(true);
+        final AtomicInteger errors = new AtomicInteger(0);
+        final AtomicInteger searches = new AtomicInteger(0);
+        Thread[] readers = new Thread[2];
+        for (int t = 0; t < readers.length; t++) { 
+            readers[t] = new Thread(new Runnable() { 
+                @Override
+                public void run() { 
+                    try { 
+                        // Each reader searches at least once, even if the writers are done
+                        do { 
+                            for (ShortestPathAlgorithm<Integer> algorithm : algorithms) { 
+                                FindPathResult<Integer> result = algorithm.findShortestPathResult(0,-1);
+                                if (result.wasSolutionFound())
+                                    errors.incrementAndGet();
+                                searches.incrementAndGet();
+                            }
+                        } while (running.get());
+                    }
+                    catch (VertexNotInGraphException | RuntimeException e) { 
+                        errors.incrementAndGet();
+                    }
+                }
+            });
+            readers[t].start();
+        }
+        Thread[] writers = new Thread[2];
+        for (int t = 0; t < writers.length; t++) { 
+            final Random random = new Random(t);
+            final int first = 1 + t * 100000;
+            writers[t] = new Thread(new Runnable() { 
+                @Override
+                public void run() { 
+                    for (int i = first; i < first + 3000; i++) { 
+                        g.addVertex(i);
+                        // Hang the new vertex under the root or under a vertex of this writer
+                        int parent = (i == first || random.nextInt(4) == 0) ? 0 : first + random.nextInt(i - first);
+                        g.addEdge(parent,i,1 + random.nextInt(5));
+                        if (random.nextInt(5) == 0)
+                            g.removeVertex(first + random.nextInt(i - first + 1));
+                    }
+                }
+            });
+            writers[t].start();
+        }
+        try { 
+            for (Thread writer : writers)
+                writer.join();
+            running.set(false);
+            for (Thread reader : readers)
+                reader.join();
+        }
+        catch (InterruptedException e) { 
+            fail(e.getMessage());
+        }
+        assertEquals(errors.get(),0);
+        assertEquals(searches.get() > 0,true);
+    }
+
+}
@@ -0,0 +1,63 @@
+/**
+ * Copyright (C) 2019, by Vasileios Nikakis
+ *
+ * graphima: yet another Java graph-theory library
+ */
+package com.sitienda.graphima;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ *
+ * @author Vasileios Nikakis
+ */
+public class ConcurrentUndirectedGraphTest {
+    
+    /**
+     * Test of addEdge and removeEdge methods, of class ConcurrentUndirectedGraph,
+     * called for the same connections by many threads.
+     */
+    @Test
+    public void testAddRemoveEdge() { 
+        final ConcurrentUndirectedGraph<String> g = new ConcurrentUndirectedGraph<>();
+        g.addVertex("A")
+         .addVertex("B")
+         .addVertex("C");
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) { 
+            final boolean reversed = (t % 2 == 1);
+            threads[t] = new Thread(new Runnable() { 
+                @Override
+                public void run() { 
+                    for (int i = 0; i < 5000; i++) { 
+                        if (reversed) { 
+                            g.addEdge("B","A");
+                            g.removeEdge("C","B");
+                        }
+                        else { 
+                            g.removeEdge("A","B");
+                            g.addEdge("B","C");
+                        }
+                    }
+                }
+            });
+            threads[t].start();
+        }
+        try { 
+            for (Thread thread : threads)
+                thread.join();
+        }
+        catch (InterruptedException e) { 
+            fail(e.getMessage());
+        }
+        // Both edges of each connection exist, or none of them
+        Vertex<String> a = g.getVertexWithData("A");
+        Vertex<String> b = g.getVertexWithData("B");
+        Vertex<String> c = g.getVertexWithData("C");
+        assertEquals(a.hasEdgeWith(b),b.hasEdgeWith(a));
+        assertEquals(b.hasEdgeWith(c),c.hasEdgeWith(b));
+        assertEquals(g.getEdgesSize(),2 * g.getLogicalEdgesSize());
+    }
+
+}
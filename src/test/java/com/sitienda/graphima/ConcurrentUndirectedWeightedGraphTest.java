@@ -0,0 +1,364 @@
+/**
+ * Copyright (C) 2019, by Vasileios Nikakis
+ *
+ * graphima: yet another Java graph-theory library
+ */
+package com.sitienda.graphima;
+
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ *
+ * @author Vasileios Nikakis
+ */
+public class ConcurrentUndirectedWeightedGraphTest {
+    
+    /**
+     * Checks that each edge of a snapshot has a reverse edge with the same weight.
+     * 
+     * @param cg the snapshot
+     * 
+     * @return true or false
+     */
+    private boolean isSymmetric(CompactGraph<Integer> cg) { 
+        for (int u = 0; u < cg.size(); u++) { 
+            for (int e = cg.edgesStart(u); e < cg.edgesEnd(u); e++) { 
+                int v = cg.target(e);
+                boolean found = false;
+                for (int r = cg.edgesStart(v); r < cg.edgesEnd(v); r++) { 
+                    if (cg.target(r) == u && cg.weight(r) == cg.weight(e))
+                        found = true;
+                }
+                if (!found)
+                    return false;
+            }
+        }
+        return true;
+    }
+    
+    /**
+     * Test of addEdge, removeEdge and setWeight methods, of class
+     * ConcurrentUndirectedWeightedGraph, called by many threads while other
+     * threads read the graph.
+     */
+    @Test
+    public void testConcurrentChanges() { 
+        final ConcurrentUndirectedWeightedGraph<Integer> g = new ConcurrentUndirectedWeightedGraph<>();
+        final int vertexNum = 50;
+        for (int i = 0; i < vertexNum; i++)
+            g.addVertex(i);
+        final AtomicBoolean running = new AtomicBoolean(true);
+        final AtomicInteger errors = new AtomicInteger(0);
+        Thread[] writers = new Thread[4];
+        for (int t = 0; t < writers.length; t++) { 
+            final Random random = new Random(t);
+            writers[t] = new Thread(new Runnable() { 
+                @Override
+                public void run() { 
+                    for (int i = 0; i < 5000; i++) { 
+                        int u = random.nextInt(vertexNum);
+                        int v = random.nextInt(vertexNum);
+                        switch (random.nextInt(3)) { 
+                            case 0:
+                                g.addEdge(u,v,1 + random.nextInt(10));
+                                break;
+                            case 1:
+                                g.removeEdge(u,v);
+                                break;
+                            default:
+                                g.setWeight(u,v,1 + random.nextInt(10));
+                        }
+                    }
+                }
+            });
+        }
+        Thread[] readers = new Thread[2];
+        for (int t = 0; t < readers.length; t++) { 
+            readers[t] = new Thread(new Runnable() { 
+                @Override
+                public void run() { 
+                    try { 
+                        while (running.get()) { 
+                            // The traversals never fail
+                            for (Vertex<Integer> vertex : g.getVertices()) { 
+                                for (Edge<Vertex<Integer>> edge : vertex.getEdges()) { 
+                                    if (((WeightedEdge) edge).getWeight() < 1)
+                                        errors.incrementAndGet();
+                                }
+                            }
+                            // The snapshots never contain half of a connection
+                            if (!isSymmetric(g.freeze()))
+                                errors.incrementAndGet();
+                        }
+                    }
+                    catch (RuntimeException e) { 
+                        errors.incrementAndGet();
+                    }
+                }
+            });
+            readers[t].start();
+        }
+        for (Thread writer : writers)
+            writer.start();
+        try { 
+            for (Thread writer : writers)
+                writer.join();
+            running.set(false);
+            for (Thread reader : readers)
+                reader.join();
+        }
+        catch (InterruptedException e) { 
+            fail(e.getMessage());
+        }
+        assertEquals(errors.get(),0);
+        assertEquals(isSymmetric(g.freeze()),true);
+        int edgeCount = 0;
+        int predecessorCount = 0;
+        for (Vertex<Integer> vertex : g.getVertices()) { 
+            edgeCount += vertex.getNeighborsSize();
+            predecessorCount += vertex.getPredecessorsSize();
+        }
+        assertEquals(g.getEdgesSize(),edgeCount);
+        assertEquals(predecessorCount,edgeCount);
+    }
+    
+    /**
+     * Test of setWeight method, of class ConcurrentUndirectedWeightedGraph.
+     */
+    @Test
+    public void testSetWeight() { 
+        ConcurrentUndirectedWeightedGraph<String> g = new ConcurrentUndirectedWeightedGraph<>();
+        g.addVertex("A")
+         .addVertex("B");
+        g.addEdge("A","B",3);
+        long version = g.getVersion();
+        g.setWeight("B","A",7);
+        Vertex<String> a = g.getVertexWithData("A");
+        Vertex<String> b = g.getVertexWithData("B");
+        assertEquals(((WeightedEdge) a.getEdgeWith(b)).getWeight(),7);
+        assertEquals(((WeightedEdge) b.getEdgeWith(a)).getWeight(),7);
+        assertEquals(g.getVersion() > version,true);
+        assertEquals(g.isConcurrent(),true);
+    }
+    
+    /**
+     * Test of setWeight method, of class WeightedEdge, on an edge of a
+     * ConcurrentUndirectedWeightedGraph: both edges of the connection get
+     * the new weight and the listeners are notified once.
+     */
+    @Test
+    public void testSetEdgeWeight() { 
+        ConcurrentUndirectedWeightedGraph<Integer> g = new ConcurrentUndirectedWeightedGraph<>();
+        g.addVertex(1)
+         .addVertex(2);
+        g.addEdge(1,2,5);
+        final AtomicInteger changes = new AtomicInteger(0);
+        g.addGraphListener(new GraphListener<Integer>() { 
+            @Override
+            public void graphChanged(Graph<Integer> graph) { 
+                changes.incrementAndGet();
+            }
+        });
+        Vertex<Integer> v1 = g.getVertexWithData(1);
+        Vertex<Integer> v2 = g.getVertexWithData(2);
+        ((WeightedEdge) v1.getEdgeWith(v2)).setWeight(9);
+        assertEquals(((WeightedEdge) v1.getEdgeWith(v2)).getWeight(),9);
+        assertEquals(((WeightedEdge) v2.getEdgeWith(v1)).getWeight(),9);
+        assertEquals(changes.get(),1);
+        assertEquals(isSymmetric(g.snapshot()),true);
+        ((WeightedEdge) v2.getEdgeWith(v1)).setCost(9);
+        assertEquals(changes.get(),1);
+    }
+    
+    /**
+     * Test of startEdgeRead and validateEdgeRead methods, of class Graph:
+     * the validated reads of a connection see both of its edges with the
+     * same weight, or none of them, while other threads toggle it.
+     */
+    @Test
+    public void testValidatedEdgeReads() { 
+        final ConcurrentUndirectedWeightedGraph<Integer> g = new ConcurrentUndirectedWeightedGraph<>();
+        final int vertexNum = 8;
+        for (int i = 0; i < vertexNum; i++)
+            g.addVertex(i);
+        final AtomicBoolean running = new AtomicBoolean(true);
+        final AtomicInteger errors = new AtomicInteger(0);
+        final AtomicInteger reads = new AtomicInteger(0);
+        Thread[] readers = new Thread[2];
+        for (int t = 0; t < readers.length; t++) { 
+            final Random random = new Random(100 + t);
+            readers[t] = new Thread(new Runnable() { 
+                @Override
+                public void run() { 
+                    // Each reader reads at least once, even if the writers are done
+                    do { 
+                        Vertex<Integer> u = g.getVertexWithData(random.nextInt(vertexNum));
+                        Vertex<Integer> v = g.getVertexWithData(random.nextInt(vertexNum));
+                        Edge<Vertex<Integer>> edge1;
+                        Edge<Vertex<Integer>> edge2;
+                        int weight1;
+                        int weight2;
+                        long stamp;
+                        do { 
+                            stamp = g.startEdgeRead(u,v);
+                            edge1 = u.getEdgeWith(v);
+                            edge2 = v.getEdgeWith(u);
+                            weight1 = (edge1 != null) ? edge1.getWeight() : 0;
+                            weight2 = (edge2 != null) ? edge2.getWeight() : 0;
+                        } while (!g.validateEdgeRead(u,v,stamp));
+                        if ((edge1 == null) != (edge2 == null) || weight1 != weight2)
+                            errors.incrementAndGet();
+                        reads.incrementAndGet();
+                    } while (running.get());
+                }
+            });
+            readers[t].start();
+        }
+        Thread[] writers = new Thread[4];
+        for (int t = 0; t < writers.length; t++) { 
+            final Random random = new Random(t);
+            writers[t] = new Thread(new Runnable() { 
+                @Override
+                public void run() { 
+                    for (int i = 0; i < 20000; i++) { 
+                        int u = random.nextInt(vertexNum);
+                        int v = random.nextInt(vertexNum);
+                        switch (random.nextInt(3)) { 
+                            case 0:
+                                g.addEdge(u,v,1 + random.nextInt(10));
+                                break;
+                            case 1:
+                                g.removeEdge(u,v);
+                                break;
+                            default:
+                                g.setWeight(u,v,1 + random.nextInt(10));
+                        }
+                    }
+                }
+            });
+            writers[t].start();
+        }
+        try { 
+            for (Thread writer : writers)
+                writer.join();
+            running.set(false);
+            for (Thread reader : readers)
+                reader.join();
+        }
+        catch (InterruptedException e) { 
+            fail(e.getMessage());
+        }
+        assertEquals(errors.get(),0);
+        assertEquals(reads.get() > 0,true);
+    }
+    
+    /**
+     * Test of freeze method, of class ConcurrentUndirectedWeightedGraph:
+     * the snapshots that are taken without locks while other threads change
+     * the graph never see a connection half-done, and a listener can take
+     * one while its thread changes the graph.
+     */
+    @Test
+    public void testFreezeWhileChanging() { 
+        final ConcurrentUndirectedWeightedGraph<Integer> g = new ConcurrentUndirectedWeightedGraph<>();
+        final int vertexNum = 16;
+        for (int i = 0; i < vertexNum; i++)
+            g.addVertex(i);
+        final AtomicBoolean running = new AtomicBoolean(true);
+        final AtomicInteger errors = new AtomicInteger(0);
+        Thread reader = new Thread(new Runnable() { 
+            @Override
+            public void run() { 
+                do { 
+                    if (!isSymmetric(g.freeze()))
+                        errors.incrementAndGet();
+                } while (running.get());
+            }
+        });
+        reader.start();
+        Thread[] writers = new Thread[4];
+        for (int t = 0; t < writers.length; t++) { 
+            final Random random = new Random(t);
+            writers[t] = new Thread(new Runnable() { 
+                @Override
+                public void run() { 
+                    for (int i = 0; i < 20000; i++) { 
+                        int u = random.nextInt(vertexNum);
+                        int v = random.nextInt(vertexNum);
+                        switch (random.nextInt(3)) { 
+                            case 0:
+                                g.addEdge(u,v,1 + random.nextInt(10));
+                                break;
+                            case 1:
+                                g.removeEdge(u,v);
+                                break;
+                            default:
+                                g.setWeight(u,v,1 + random.nextInt(10));
+                        }
+                    }
+                }
+            });
+            writers[t].start();
+        }
+        try { 
+            for (Thread writer : writers)
+                writer.join();
+            running.set(false);
+            reader.join();
+        }
+        catch (InterruptedException e) { 
+            fail(e.getMessage());
+        }
+        assertEquals(errors.get(),0);
+        // The listener runs while its thread holds the lock of the connection
+        final AtomicInteger edges = new AtomicInteger(-1);
+        g.addGraphListener(new GraphListener<Integer>() { 
+            @Override
+            public void graphChanged(Graph<Integer> graph) { 
+                edges.set(graph.freeze().getEdgesSize());
+            }
+        });
+        g.removeEdge(0,1);
+        g.addEdge(0,1,1);
+        assertEquals(edges.get(),g.getEdgesSize());
+    }
+    
+    /**
+     * Test of addEdge, removeEdge and setWeight methods, of class
+     * ConcurrentUndirectedWeightedGraph: each change of a connection
+     * notifies the listeners once.
+     */
+    @Test
+    public void testOneChangePerConnection() { 
+        ConcurrentUndirectedWeightedGraph<String> g = new ConcurrentUndirectedWeightedGraph<>();
+        g.addVertex("A")
+         .addVertex("B");
+        final AtomicInteger changes = new AtomicInteger(0);
+        g.addGraphListener(new GraphListener<String>() { 
+            @Override
+            public void graphChanged(Graph<String> graph) { 
+                changes.incrementAndGet();
+            }
+        });
+        g.addEdge("A","B",3);
+        assertEquals(changes.get(),1);
+        assertEquals(g.getEdgesSize(),2);
+        g.setWeight("A","B",5);
+        assertEquals(changes.get(),2);
+        g.setWeight("B","A",5);
+        assertEquals(changes.get(),2);
+        g.addEdge("A","A",1);
+        assertEquals(changes.get(),3);
+        assertEquals(g.getEdgesSize(),3);
+        g.removeEdge("B","A");
+        assertEquals(changes.get(),4);
+        assertEquals(g.getEdgesSize(),1);
+        g.removeEdge("B","A");
+        assertEquals(changes.get(),4);
+    }
+
+}
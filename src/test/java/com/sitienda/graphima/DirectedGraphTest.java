@@ -5,6 +5,8 @@
  */
 package com.sitienda.graphima;
 
+import java.util.Arrays;
+import java.util.HashSet;
 import org.junit.jupiter.api.Test;
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -46,4 +48,157 @@ public class DirectedGraphTest {
         assertEquals(g.getEdgesSize(),1);
     }
     
+    /**
+     * Test of getVertexWithData method, of class DirectedGraph.
+     */
+    @Test
+    public void testGetVertexWithData() {
+        DirectedGraph<String> g = new DirectedGraph<>();
+        g.addVertex("A")
+         .addVertex("B")
+         .addVertex("A");
+        Vertex<String> vertex = g.getVertexWithData("A");
+        assertEquals(vertex.getData(),"A");
+        assertEquals(g.size(),2);
+        // Adding the same data again must not replace the existing vertex
+        g.addVertex("A");
+        assertEquals(g.getVertexWithData("A") == vertex,true);
+        assertEquals(g.contains("C"),false);
+        g.clear();
+        assertEquals(g.contains("A"),false);
+        assertEquals(g.getVertexWithData("A"),null);
+    }
+    
+    /**
+     * Test of getEdgesSize method, of class DirectedGraph.
+     */
+    @Test
+    public void testGetEdgesSize() {
+        DirectedGraph<String> g = new DirectedGraph<>();
+        g.addVertex("A")
+         .addVertex("B");
+        g.addEdge("A","B")
+         .addEdge("B","A")
+         .addEdge("A","A")
+         .addEdge("A","B");
+        assertEquals(g.getEdgesSize(),3);
+        assertEquals(g.getLogicalEdgesSize(),3);
+        g.removeEdge("A","B")
+         .removeEdge("A","B");
+        assertEquals(g.getEdgesSize(),2);
+        g.getVertexWithData("B").removeEdgeWith(g.getVertexWithData("A"));
+        assertEquals(g.getEdgesSize(),1);
+    }
+    
+    /**
+     * Test of removeVertex method, of class DirectedGraph.
+     */
+    @Test
+    public void testRemoveVertex() {
+        DirectedGraph<String> g = new DirectedGraph<>();
+        g.addVertex("A")
+         .addVertex("B")
+         .addVertex("C");
+        g.addEdge("A","B")
+         .addEdge("C","B")
+         .addEdge("B","C")
+         .addEdge("B","B")
+         .addEdge("A","C");
+        Vertex<String> a = g.getVertexWithData("A");
+        Vertex<String> c = g.getVertexWithData("C");
+        assertEquals(c.getPredecessorsSize(),2);
+        long version = g.getVersion();
+        g.removeVertex("B")
+         .removeVertex("D");
+        assertEquals(g.size(),2);
+        assertEquals(g.contains("B"),false);
+        assertEquals(g.getEdgesSize(),1);
+        assertEquals(a.getNeighbors(),new HashSet<>(Arrays.asList(c)));
+        assertEquals(c.getNeighborsSize(),0);
+        assertEquals(c.getPredecessors(),new HashSet<>(Arrays.asList(a)));
+        assertEquals(c.hasEdgeFrom(a),true);
+        assertEquals(g.getVersion() > version,true);
+    }
+    
+    /**
+     * Test of snapshot method, of class DirectedGraph.
+     */
+    @Test
+    public void testSnapshot() {
+        DirectedGraph<String> g = new DirectedGraph<>();
+        g.addVertex("A")
+         .addVertex("B");
+        CompactGraph<String> first = g.snapshot();
+        // The same version shares the same snapshot
+        assertEquals(g.snapshot() == first,true);
+        g.addEdge("A","B");
+        CompactGraph<String> second = g.snapshot();
+        assertEquals(second == first,false);
+        assertEquals(second.isUpToDate(g),true);
+        assertEquals(second.getEdgesSize(),1);
+        // The pinned snapshot doesn't change
+        assertEquals(first.getEdgesSize(),0);
+        assertEquals(first.isUpToDate(g),false);
+    }
+    
+    /**
+     * Test of forEachNeighbor method, of class Vertex.
+     */
+    @Test
+    public void testForEachNeighbor() {
+        DirectedGraph<String> g = new DirectedGraph<>();
+        g.addVertex("A")
+         .addVertex("B");
+        g.addEdge("A","B");
+        final int[] total = new int[1];
+        g.getVertexWithData("A").forEachNeighbor(new NeighborVisitor<String>() { 
+            @Override
+            public void visit(Vertex<String> neighbor, int weight) { 
+                total[0] += weight;
+            }
+        });
+        // The unweighted edges have the default weight
+        assertEquals(total[0],WeightedGraph.DEFAULT_WEIGHT);
+    }
+    
+    /**
+     * Test of idOf, vertexById and getIdBound methods, of class DirectedGraph.
+     */
+    @Test
+    public void testIdOf() {
+        DirectedGraph<String> g = new DirectedGraph<>();
+        g.addVertex("A")
+         .addVertex("B")
+         .addVertex("C");
+        assertEquals(g.getIdBound(),3);
+        for (Vertex<String> vertex : g.getVertices()) { 
+            int id = g.idOf(vertex);
+            assertEquals(id >= 0 && id < 3,true);
+            assertEquals(g.idOf(vertex.getData()),id);
+            assertEquals(g.vertexById(id) == vertex,true);
+        }
+        // An equal vertex that doesn't belong to the graph has the same id
+        assertEquals(g.idOf(new Vertex<>("B")),g.idOf("B"));
+        assertEquals(g.idOf("D"),-1);
+        assertEquals(g.vertexById(3),null);
+        // The id of a removed vertex is given to the next new vertex
+        int id = g.idOf("B");
+        g.removeVertex("B");
+        assertEquals(g.idOf("B"),-1);
+        assertEquals(g.vertexById(id),null);
+        g.addVertex("D");
+        assertEquals(g.idOf("D"),id);
+        assertEquals(g.getIdBound(),3);
+        g.addVertex("E");
+        assertEquals(g.idOf("E"),3);
+        assertEquals(g.getIdBound(),4);
+        // Clearing the graph starts the ids again
+        Vertex<String> vertex = g.getVertexWithData("A");
+        g.clear();
+        assertEquals(g.getIdBound(),0);
+        assertEquals(g.idOf(vertex),-1);
+        g.addVertex("F");
+        assertEquals(g.idOf("F"),0);
+    }
+    
 }
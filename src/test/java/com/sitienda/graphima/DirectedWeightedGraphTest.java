@@ -62,4 +62,127 @@ public class DirectedWeightedGraphTest {
         assertEquals(g.getEdgesSize(),1);
     }
     
+    /**
+     * Test of equals method, of class DirectedWeightedGraph.
+     */
+    @Test
+    public void testEquals() {
+        DirectedWeightedGraph<String> g1 = new DirectedWeightedGraph<>();
+        g1.addVertex("A")
+          .addVertex("B")
+          .addVertex("C");
+        g1.addEdge("A","B",10)
+          .addEdge("B","C",5);
+        DirectedWeightedGraph<String> g2 = new DirectedWeightedGraph<>(g1);
+        assertEquals(g1,g2);
+        assertEquals(g2.getVertexWithData("A").hasEdgeWith(g2.getVertexWithData("B")),true);
+        // Same number of edges, but with a different vertex
+        g2.removeEdge("B","C");
+        g2.addEdge("B","A",5);
+        assertEquals(g1.equals(g2),false);
+    }
+    
+    /**
+     * Test of addGraphListener method, of class DirectedWeightedGraph.
+     */
+    @Test
+    public void testAddGraphListener() {
+        DirectedWeightedGraph<String> g = new DirectedWeightedGraph<>();
+        final int[] changes = { 0 };
+        GraphListener<String> listener = new GraphListener<String>() { 
+            @Override
+            public void graphChanged(Graph<String> graph) { 
+                changes[0]++;
+            }
+        };
+        g.addGraphListener(listener);
+        g.addVertex("A")
+         .addVertex("B")
+         .addVertex("A");
+        assertEquals(changes[0],2);
+        g.addEdge("A","B",10)
+         .addEdge("A","B",10);
+        assertEquals(changes[0],3);
+        // Only a new weight is a change
+        WeightedEdge<Vertex<String>> edge = (WeightedEdge<Vertex<String>>) 
+                g.getVertexWithData("A").getEdgeWith(g.getVertexWithData("B"));
+        edge.setWeight(10);
+        assertEquals(changes[0],3);
+        edge.setWeight(4);
+        assertEquals(changes[0],4);
+        g.removeEdge("A","B")
+         .removeEdge("A","B");
+        assertEquals(changes[0],5);
+        // A removed edge doesn't belong to the graph any more
+        edge.setWeight(7);
+        assertEquals(changes[0],5);
+        g.clear();
+        assertEquals(changes[0],6);
+        g.removeGraphListener(listener);
+        g.addVertex("C");
+        assertEquals(changes[0],6);
+    }
+    
+    /**
+     * Test of getVersion method, of class DirectedWeightedGraph.
+     */
+    @Test
+    public void testGetVersion() {
+        DirectedWeightedGraph<String> g = new DirectedWeightedGraph<>();
+        assertEquals(g.getVersion(),0);
+        g.addVertex("A")
+         .addVertex("B");
+        long version = g.getVersion();
+        assertEquals(version > 0,true);
+        // Nothing changes, so the version stays the same
+        g.addVertex("A")
+         .removeEdge("A","B");
+        assertEquals(g.getVersion(),version);
+        g.addEdge("A","B",3);
+        assertEquals(g.getVersion() > version,true);
+        version = g.getVersion();
+        ((WeightedEdge) g.getVertexWithData("A").getEdgeWith(g.getVertexWithData("B"))).setWeight(5);
+        assertEquals(g.getVersion() > version,true);
+        version = g.getVersion();
+        g.removeEdge("A","B");
+        assertEquals(g.getVersion() > version,true);
+        version = g.getVersion();
+        g.clear();
+        assertEquals(g.getVersion() > version,true);
+    }
+    
+    /**
+     * Test of forEachNeighbor and forEachPredecessor methods, of class Vertex.
+     */
+    @Test
+    public void testForEachNeighbor() {
+        DirectedWeightedGraph<String> g = new DirectedWeightedGraph<>();
+        g.addVertex("A")
+         .addVertex("B")
+         .addVertex("C");
+        g.addEdge("A","B",3)
+         .addEdge("A","C",4)
+         .addEdge("C","B",5);
+        final StringBuilder visited = new StringBuilder();
+        final int[] total = new int[1];
+        NeighborVisitor<String> visitor = new NeighborVisitor<String>() { 
+            @Override
+            public void visit(Vertex<String> neighbor, int weight) { 
+                visited.append(neighbor.getData());
+                total[0] += weight;
+            }
+        };
+        g.getVertexWithData("A").forEachNeighbor(visitor);
+        assertEquals(visited.length(),2);
+        assertEquals(total[0],7);
+        visited.setLength(0);
+        total[0] = 0;
+        g.getVertexWithData("B").forEachPredecessor(visitor);
+        assertEquals(visited.length(),2);
+        assertEquals(total[0],8);
+        visited.setLength(0);
+        g.getVertexWithData("B").forEachNeighbor(visitor);
+        assertEquals(visited.length(),0);
+    }
+    
 }
@@ -0,0 +1,158 @@
+/**
+ * Copyright (C) 2019, by Vasileios Nikakis
+ *
+ * graphima: yet another Java graph-theory library
+ */
+package com.sitienda.graphima;
+
+import com.sitienda.graphima.exceptions.VertexNotInGraphException;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ *
+ * @author Vasileios Nikakis
+ */
+public class GraphBuilderTest {
+    
+    /**
+     * Creates a builder with a small graph.
+     * 
+     * @return the builder
+     */
+    private GraphBuilder<String> newBuilder() { 
+        GraphBuilder<String> builder = new GraphBuilder<>(4,6);
+        // The edges may come before the vertices
+        builder.addEdge("A","B",4)
+               .addEdge("A","C",2)
+               .addEdge("C","B",1);
+        builder.addVertex("A");
+        builder.addVertex("B");
+        builder.addVertex("C");
+        int d = builder.addVertex("D");
+        builder.addEdge(builder.idOf("B"),d,5)
+               .addEdge(d,d,3)
+               .addEdge("A","B",7);
+        return builder;
+    }
+    
+    /**
+     * Test of build method, of class GraphBuilder, with a directed weighted graph.
+     */
+    @Test
+    public void testBuildDirectedWeighted() { 
+        GraphBuilder<String> builder = newBuilder();
+        assertEquals(builder.size(),4);
+        assertEquals(builder.getEdgesSize(),6);
+        try { 
+            DirectedWeightedGraph<String> expected = new DirectedWeightedGraph<>();
+            expected.addVertex("A")
+                    .addVertex("B")
+                    .addVertex("C")
+                    .addVertex("D");
+            expected.addEdge("A","B",4)
+                    .addEdge("A","C",2)
+                    .addEdge("C","B",1)
+                    .addEdge("B","D",5)
+                    .addEdge("D","D",3);
+            final AtomicInteger changes = new AtomicInteger(0);
+            DirectedWeightedGraph<String> g = new DirectedWeightedGraph<>();
+            g.addGraphListener(new GraphListener<String>() { 
+                @Override
+                public void graphChanged(Graph<String> graph) { 
+                    changes.incrementAndGet();
+                }
+            });
+            assertEquals(builder.build(g) == g,true);
+            assertEquals(g,expected);
+            assertEquals(g.getEdgesSize(),5);
+            // The first weight is kept
+            assertEquals(g.totalWeight(g.getPath(Arrays.asList("A","B"))),4);
+            assertEquals(g.getVertexWithData("B").getPredecessorsSize(),2);
+            assertEquals(changes.get(),1);
+            // The graph can be changed as usual
+            g.removeVertex("B");
+            assertEquals(g.getEdgesSize(),2);
+        }
+        catch (Exception e) { 
+            fail(e.getMessage());
+        }
+    }
+    
+    /**
+     * Test of build method, of class GraphBuilder, with undirected graphs.
+     */
+    @Test
+    public void testBuildUndirected() { 
+        GraphBuilder<String> builder = newBuilder();
+        try { 
+            UndirectedGraph<String> g = builder.build(new UndirectedGraph<String>());
+            assertEquals(g.getEdgesSize(),9);
+            assertEquals(g.getLogicalEdgesSize(),5);
+            assertEquals(g.hasEdge("B","A"),true);
+            assertEquals(g.hasEdge("D","B"),true);
+            UndirectedWeightedGraph<String> wg = builder.build(new ConcurrentUndirectedWeightedGraph<String>());
+            assertEquals(wg.getLogicalEdgesSize(),5);
+            Vertex<String> b = wg.getVertexWithData("B");
+            Vertex<String> d = wg.getVertexWithData("D");
+            assertEquals(((WeightedEdge) d.getEdgeWith(b)).getWeight(),5);
+            assertEquals(wg.isConcurrent(),true);
+        }
+        catch (VertexNotInGraphException e) { 
+            fail(e.getMessage());
+        }
+    }
+    
+    /**
+     * Test of buildCompact method, of class GraphBuilder.
+     */
+    @Test
+    public void testBuildCompact() { 
+        GraphBuilder<String> builder = newBuilder();
+        try { 
+            CompactGraph<String> cg = builder.buildCompact(true,true);
+            CompactGraph<String> expected = builder.build(new DirectedWeightedGraph<String>()).freeze();
+            assertEquals(cg.size(),expected.size());
+            assertEquals(cg.getEdgesSize(),expected.getEdgesSize());
+            assertEquals(cg.getVersion(),-1);
+            int a = cg.idOf("A");
+            assertEquals(cg.getNeighborsSize(a),2);
+            assertEquals(cg.getData(cg.target(cg.edgesStart(a))),"B");
+            assertEquals(cg.weight(cg.edgesStart(a)),4);
+            CompactGraph<String> ucg = builder.buildCompact(false,false);
+            assertEquals(ucg.getEdgesSize(),9);
+            assertEquals(ucg.isWeighted(),false);
+            assertEquals(ucg.getNeighborsSize(ucg.idOf("B")),3);
+        }
+        catch (VertexNotInGraphException e) { 
+            fail(e.getMessage());
+        }
+    }
+    
+    /**
+     * Test of build method, of class GraphBuilder, with edges to missing vertices.
+     */
+    @Test
+    public void testBuildMissingVertex() { 
+        GraphBuilder<String> builder = new GraphBuilder<>();
+        builder.addVertex("A");
+        builder.addEdge("A","B");
+        try { 
+            builder.build(new DirectedGraph<String>());
+            fail("The vertex B wasn't added");
+        }
+        catch (VertexNotInGraphException e) { 
+        }
+        builder.addVertex("B");
+        builder.addEdge(0,2);
+        try { 
+            builder.buildCompact(true,false);
+            fail("There is no vertex with id 2");
+        }
+        catch (VertexNotInGraphException e) { 
+        }
+    }
+
+}
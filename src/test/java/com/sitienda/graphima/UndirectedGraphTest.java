@@ -46,4 +46,51 @@ public class UndirectedGraphTest {
         assertEquals(g.getEdgesSize(),2);
     }
     
+    /**
+     * Test of getLogicalEdgesSize method, of class UndirectedGraph.
+     */
+    @Test
+    public void testGetLogicalEdgesSize() {
+        UndirectedGraph<String> g = new UndirectedGraph<>();
+        g.addVertex("A")
+         .addVertex("B")
+         .addVertex("C");
+        g.addEdge("A","B")
+         .addEdge("B","C")
+         .addEdge("C","C");
+        assertEquals(g.getEdgesSize(),5);
+        assertEquals(g.getLogicalEdgesSize(),3);
+        g.removeEdge("C","C")
+         .removeEdge("B","A");
+        assertEquals(g.getEdgesSize(),2);
+        assertEquals(g.getLogicalEdgesSize(),1);
+        g.clear();
+        assertEquals(g.getEdgesSize(),0);
+        assertEquals(g.getLogicalEdgesSize(),0);
+    }
+    
+    /**
+     * Test of removeVertex method, of class UndirectedGraph.
+     */
+    @Test
+    public void testRemoveVertex() {
+        UndirectedGraph<String> g = new UndirectedGraph<>();
+        g.addVertex("A")
+         .addVertex("B")
+         .addVertex("C");
+        g.addEdge("A","B")
+         .addEdge("B","C")
+         .addEdge("B","B")
+         .addEdge("A","C");
+        g.removeVertex("B");
+        assertEquals(g.size(),2);
+        assertEquals(g.getEdgesSize(),2);
+        assertEquals(g.getLogicalEdgesSize(),1);
+        assertEquals(g.getVertexWithData("A").getPredecessorsSize(),1);
+        assertEquals(g.getVertexWithData("C").getNeighborsSize(),1);
+        // The predecessors of a vertex are its neighbors
+        assertEquals(g.getVertexWithData("A").hasEdgeFrom(g.getVertexWithData("C")),true);
+        assertEquals(g.getVertexWithData("A").getPredecessors(),g.getVertexWithData("A").getNeighbors());
+    }
+    
 }
@@ -5,12 +5,20 @@
  */
 package com.sitienda.graphima.alg;
 
+import com.sitienda.graphima.DirectedWeightedGraph;
+import com.sitienda.graphima.Edge;
 import com.sitienda.graphima.Graph;
 import com.sitienda.graphima.Maze;
 import com.sitienda.graphima.MazeCell;
+import com.sitienda.graphima.Vertex;
+import com.sitienda.graphima.WeightedEdge;
 import com.sitienda.graphima.alg.heuristics.HeuristicFunction;
+import com.sitienda.graphima.exceptions.PathNotValidException;
 import com.sitienda.graphima.exceptions.VertexNotInGraphException;
 import com.sitienda.graphima.path.Path;
+import com.sitienda.graphima.path.ShortestPathTree;
+import java.util.Arrays;
+import java.util.Random;
 import org.junit.jupiter.api.*;
 import org.junit.jupiter.api.Test;
 import static org.junit.jupiter.api.Assertions.*;
@@ -78,7 +86,7 @@ public class AStarShortestPathTest {
             });
             Path path = astar.findShortestPath(start,end);
             AlgorithmExecutionStats stats = astar.getExecStats();
-            assertEquals(stats.getNodesVisitedNum(),69);
+            assertEquals(stats.getNodesVisitedNum(),56);
             assertEquals(((FindPathAlgorithmExecutionStats) stats).getPathLength(),19);
         }
         catch (VertexNotInGraphException e) { 
@@ -113,4 +121,143 @@ public class AStarShortestPathTest {
         }
     }
     
+    /**
+     * Test of findShortestPath method, of class AStarShortestPath, on a compact graph.
+     */
+    @Test
+    public void testFindShortestPathCompact() {
+        // Test data
+        MazeCell start = maze.getCell(0,0);
+        MazeCell end = maze.getCell(9,9);
+        
+        // Execute test
+        try { 
+            AStarShortestPath<MazeCell> astar = new AStarShortestPath<>(graph.freeze(), new HeuristicFunction<MazeCell>() { 
+                @Override
+                public int h(MazeCell obj) {
+                    return Math.abs(obj.getX() - end.getX()) + Math.abs(obj.getY() - end.getY());
+                }
+            });
+            Path path = astar.findShortestPath(start,end);
+            AlgorithmExecutionStats stats = astar.getExecStats();
+            assertEquals(((FindPathAlgorithmExecutionStats) stats).wasSolutionFound(),true);
+            assertEquals(((FindPathAlgorithmExecutionStats) stats).getPathLength(),19);
+            assertEquals(graph.pathExists(path),true);
+        }
+        catch (VertexNotInGraphException e) { 
+            fail(e.getMessage());
+        }
+    }
+    
+    /**
+     * Test of findShortestPath method, of class AStarShortestPath, 
+     * on random graphs against the Dijkstra distances.
+     * A consistent and an admissible but inconsistent heuristic are tested.
+     */
+    @Test
+    public void testFindShortestPathRandom() {
+        Random random = new Random(11);
+        for (int test = 0; test < 20; test++) { 
+            // Create a random graph on a grid, where each edge costs at
+            // least the manhattan distance between its two vertices
+            int n = 50;
+            int[][] coords = new int[n][];
+            DirectedWeightedGraph<Integer> g = new DirectedWeightedGraph<>();
+            for (int i = 0; i < n; i++) { 
+                coords[i] = new int[] { random.nextInt(20), random.nextInt(20) };
+                g.addVertex(i);
+            }
+            for (int i = 0; i < n*3; i++) { 
+                int from = random.nextInt(n);
+                int to = random.nextInt(n);
+                if (from != to && !g.hasEdge(from,to))
+                    g.addEdge(from,to,Math.abs(coords[from][0] - coords[to][0]) + 
+                                      Math.abs(coords[from][1] - coords[to][1]) + random.nextInt(5));
+            }
+            // Execute test
+            try { 
+                int end = random.nextInt(n);
+                ShortestPathTree<Integer> toEnd = new DijkstraShortestPath<>(reverse(g)).findShortestPaths(end);
+                ShortestPathTree<Integer> tree = new DijkstraShortestPath<>(g).findShortestPaths(0);
+                HeuristicFunction<Integer> consistent = new HeuristicFunction<Integer>() { 
+                    @Override
+                    public int h(Integer obj) {
+                        return Math.abs(coords[obj][0] - coords[end][0]) + Math.abs(coords[obj][1] - coords[end][1]);
+                    }
+                };
+                HeuristicFunction<Integer> inconsistent = new HeuristicFunction<Integer>() { 
+                    @Override
+                    public int h(Integer obj) {
+                        return (obj % 2 == 0 && toEnd.hasPathTo(obj)) ? toEnd.distanceTo(obj) : 0;
+                    }
+                };
+                for (HeuristicFunction<Integer> heuristic : Arrays.asList(consistent,inconsistent)) { 
+                    Path path = new AStarShortestPath<>(g,heuristic).findShortestPath(0,end);
+                    Path compactPath = new AStarShortestPath<>(g.freeze(),heuristic).findShortestPath(0,end);
+                    if (!tree.hasPathTo(end)) { 
+                        assertEquals(path.isEmpty(),true);
+                        assertEquals(compactPath.isEmpty(),true);
+                    } else { 
+                        assertEquals(g.totalWeight(path),tree.distanceTo(end));
+                        assertEquals(g.totalWeight(compactPath),tree.distanceTo(end));
+                    }
+                }
+            }
+            catch (VertexNotInGraphException | PathNotValidException e) { 
+                fail(e.getMessage());
+            }
+        }
+    }
+    
+    /**
+     * Creates a graph with the edges of another graph reversed.
+     * 
+     * @param g the graph
+     * 
+     * @return the reverse graph
+     */
+    private DirectedWeightedGraph<Integer> reverse(DirectedWeightedGraph<Integer> g) { 
+        DirectedWeightedGraph<Integer> rev = new DirectedWeightedGraph<>();
+        for (Vertex<Integer> vertex : g.getVertices())
+            rev.addVertex(vertex.getData());
+        for (Vertex<Integer> vertex : g.getVertices()) { 
+            for (Edge<Vertex<Integer>> edge : vertex.getEdges())
+                rev.addEdge(edge.getVertex().getData(),vertex.getData(),((WeightedEdge) edge).getWeight());
+        }
+        return rev;
+    }
+    
+    /**
+     * Test of findShortestPath method, of class AStarShortestPath, when the
+     * graph grows between the queries of a thread.
+     */
+    @Test
+    public void testFindShortestPathGrowingGraph() {
+        DirectedWeightedGraph<String> g = new DirectedWeightedGraph<>();
+        g.addVertices(Arrays.asList("A","B"));
+        g.addEdge("A","B",1);
+        AStarShortestPath<String> astar = new AStarShortestPath<>(g);
+        try { 
+            assertEquals(astar.findShortestPath("A","B"),g.getPath(Arrays.asList("A","B")));
+            // The workspace of the thread grows with the graph
+            g.addVertices(Arrays.asList("C","D"));
+            g.addEdge("B","C",1)
+             .addEdge("C","D",1)
+             .addEdge("A","D",5);
+            assertEquals(astar.findShortestPath("A","D"),g.getPath(Arrays.asList("A","B","C","D")));
+            // Nothing is left from the previous searches
+            assertEquals(astar.findShortestPath("B","A").isEmpty(),true);
+        }
+        catch (VertexNotInGraphException e) { 
+            fail(e.getMessage());
+        }
+        // A null vertex doesn't exist in the graph
+        try { 
+            astar.findShortestPath("A",null);
+            fail("A null vertex doesn't exist in the graph");
+        }
+        catch (VertexNotInGraphException e) { 
+        }
+    }
+    
 }
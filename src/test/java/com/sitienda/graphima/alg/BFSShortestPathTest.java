@@ -5,9 +5,11 @@
  */
 package com.sitienda.graphima.alg;
 
+import com.sitienda.graphima.ConcurrentUndirectedGraph;
 import com.sitienda.graphima.Graph;
 import com.sitienda.graphima.Maze;
 import com.sitienda.graphima.MazeCell;
+import com.sitienda.graphima.Vertex;
 import com.sitienda.graphima.exceptions.VertexNotInGraphException;
 import com.sitienda.graphima.path.Path;
 import org.junit.jupiter.api.Test;
@@ -102,4 +104,72 @@ public class BFSShortestPathTest {
         }
     }
     
+    /**
+     * Test of findShortestPath method, of class BFSShortestPath, on a compact graph.
+     */
+    @Test
+    public void testFindShortestPathCompact() {
+        // Test data
+        MazeCell start = maze.getCell(0,0);
+        MazeCell end = maze.getCell(9,9);
+        
+        // Execute test
+        try { 
+            BFSShortestPath<MazeCell> bfs = new BFSShortestPath<>(graph.freeze());
+            Path path = bfs.findShortestPath(start,end);
+            AlgorithmExecutionStats stats = bfs.getExecStats();
+            assertEquals(stats.getNodesVisitedNum(),78);
+            assertEquals(((FindPathAlgorithmExecutionStats) stats).getPathLength(),19);
+            assertEquals(graph.pathExists(path),true);
+        }
+        catch (VertexNotInGraphException e) { 
+            fail(e.getMessage());
+        }
+    }
+    
+    /**
+     * Test of findShortestPath method, of class BFSShortestPath, with a collision resolution
+     * comparator: the graph, a concurrent copy of it and a compact graph
+     * give the same path.
+     */
+    @Test
+    public void testFindShortestPathWithComparator() {
+        // Test data
+        MazeCell start = maze.getCell(0,0);
+        MazeCell end = maze.getCell(9,9);
+        NodeComparator<MazeCell> comp = new NodeComparator<MazeCell>() { 
+            @Override
+            public int compare(MazeCell a, MazeCell b) { 
+                if (a.getX() != b.getX())
+                    return Integer.compare(a.getX(),b.getX());
+                return Integer.compare(a.getY(),b.getY());
+            }
+        };
+        ConcurrentUndirectedGraph<MazeCell> concurrent = new ConcurrentUndirectedGraph<>();
+        for (Vertex<MazeCell> vertex : graph.getVertices())
+            concurrent.addVertex(vertex.getData());
+        for (Vertex<MazeCell> vertex : graph.getVertices()) { 
+            for (Vertex<MazeCell> neighbor : vertex.getNeighbors())
+                concurrent.addEdge(vertex.getData(),neighbor.getData());
+        }
+        
+        // Execute test
+        try { 
+            BFSShortestPath<MazeCell> bfs = new BFSShortestPath<>(graph,comp);
+            Path path = bfs.findShortestPath(start,end);
+            assertEquals(graph.pathExists(path),true);
+            assertEquals(path.size() > 0,true);
+            BFSShortestPath<MazeCell> concurrentBfs = new BFSShortestPath<>(concurrent,comp);
+            assertEquals(concurrentBfs.findShortestPath(start,end),path);
+            BFSShortestPath<MazeCell> compactBfs = new BFSShortestPath<>(graph.freeze(),comp);
+            assertEquals(compactBfs.findShortestPath(start,end),path);
+            // The state that the thread keeps with its workspace is reset for each query
+            assertEquals(concurrentBfs.findShortestPath(start,end),path);
+            assertEquals(compactBfs.findShortestPath(start,end),path);
+        }
+        catch (VertexNotInGraphException e) { 
+            fail(e.getMessage());
+        }
+    }
+    
 }
@@ -0,0 +1,180 @@
+/**
+ * Copyright (C) 2019, by Vasileios Nikakis
+ *
+ * graphima: yet another Java graph-theory library
+ */
+package com.sitienda.graphima.alg;
+
+import com.sitienda.graphima.DirectedWeightedGraph;
+import com.sitienda.graphima.WeightedGraph;
+import com.sitienda.graphima.exceptions.VertexNotInGraphException;
+import com.sitienda.graphima.path.DistanceMatrix;
+import com.sitienda.graphima.path.ShortestPathTree;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.TestInstance;
+
+/**
+ * Batch shortest paths executor tests.
+ * 
+ * @author Vasileios Nikakis
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class BatchShortestPathExecutorTest {
+    
+    /**
+     * The graph
+     */
+    private DirectedWeightedGraph<String> graph;
+    
+    public BatchShortestPathExecutorTest() {
+        
+    }
+    
+    /**
+     * Init test data.
+     */
+    @BeforeAll
+    public void init() {
+        graph = new DirectedWeightedGraph<>();
+        graph.addVertices(Arrays.asList("A","B","C","D","E","F"));
+        graph.addEdge("A","B",4)
+             .addEdge("A","C",2)
+             .addEdge("B","C",3)
+             .addEdge("B","D",2)
+             .addEdge("B","E",3)
+             .addEdge("C","B",1)
+             .addEdge("C","D",4)
+             .addEdge("C","E",5)
+             .addEdge("E","D",1);
+    }
+    
+    /**
+     * Test of computeDistances and computePaths methods, of class BatchShortestPathExecutor.
+     */
+    @Test
+    public void testCompute() {
+        // Execute test
+        try { 
+            BatchShortestPathExecutor<String> batch = new BatchShortestPathExecutor<>(graph);
+            // The duplicate source is dropped
+            DistanceMatrix<String> matrix = batch.computeDistances(Arrays.asList("A","B","A"),Arrays.asList("D","E","F","A"));
+            assertEquals(matrix.getSources(),Arrays.asList("A","B"));
+            assertEquals(matrix.getTargets(),Arrays.asList("D","E","F","A"));
+            assertEquals(matrix.hasPaths(),false);
+            assertEquals(matrix.getDistance("A","D"),5);
+            assertEquals(matrix.getDistance("A","E"),6);
+            assertEquals(matrix.getDistance("A","F"),DistanceMatrix.INFINITY);
+            assertEquals(matrix.getDistance("A","A"),0);
+            assertEquals(matrix.getDistance(1,0),2);
+            assertEquals(matrix.getDistance(1,3),DistanceMatrix.INFINITY);
+            try { 
+                matrix.getPath("A","D");
+                fail("The paths weren't requested");
+            }
+            catch (IllegalStateException e) { 
+            }
+            try { 
+                matrix.getDistance("D","A");
+                fail("D is not a source");
+            }
+            catch (IllegalArgumentException e) { 
+            }
+            
+            matrix = batch.computePaths(Arrays.asList("A","C"),Arrays.asList("D","F"));
+            assertEquals(matrix.hasPaths(),true);
+            assertEquals(matrix.getPath("A","D"),graph.getPath(Arrays.asList("A","C","B","D")));
+            assertEquals(matrix.getPath(1,0),graph.getPath(Arrays.asList("C","B","D")));
+            assertEquals(matrix.getPath("C","F").isEmpty(),true);
+        }
+        catch (VertexNotInGraphException e) { 
+            fail(e.getMessage());
+        }
+        // All the vertices have to exist in the graph
+        try { 
+            new BatchShortestPathExecutor<>(graph).computeDistances(Arrays.asList("A"),Arrays.asList("G"));
+            fail("Vertex G doesn't exist in the graph");
+        }
+        catch (VertexNotInGraphException e) { 
+        }
+    }
+    
+    /**
+     * Test of computePaths method, of class BatchShortestPathExecutor, 
+     * on random directed and undirected graphs against the Dijkstra distances.
+     */
+    @Test
+    public void testComputeRandom() {
+        Random random = new Random(9);
+        for (int test = 0; test < 6; test++) { 
+            // Create a random graph
+            int n = 300;
+            WeightedGraph<Integer> g = RandomGraphs.weightedGraph(random,test % 2 == 0,n,n*3,0,49);
+            List<Integer> sources = new ArrayList<>();
+            List<Integer> targets = new ArrayList<>();
+            for (int i = 0; i < 40; i++) { 
+                sources.add(random.nextInt(n));
+                targets.add(random.nextInt(n));
+            }
+            // Execute test
+            try { 
+                DistanceMatrix<Integer> matrix = new BatchShortestPathExecutor<>(g.freeze(),4).computePaths(sources,targets);
+                DijkstraShortestPath<Integer> dij = new DijkstraShortestPath<>(g);
+                for (int row = 0; row < matrix.getSources().size(); row++) { 
+                    ShortestPathTree<Integer> tree = dij.findShortestPaths(matrix.getSources().get(row));
+                    for (int column = 0; column < matrix.getTargets().size(); column++) { 
+                        Integer target = matrix.getTargets().get(column);
+                        if (!tree.hasPathTo(target))
+                            assertEquals(matrix.getDistance(row,column),DistanceMatrix.INFINITY);
+                        else
+                            assertEquals(matrix.getDistance(row,column),tree.distanceTo(target));
+                        RandomGraphs.assertShortestPath(g,tree,target,matrix.getPath(row,column));
+                    }
+                }
+            }
+            catch (VertexNotInGraphException e) { 
+                fail(e.getMessage());
+            }
+        }
+    }
+    
+    /**
+     * Test of computeDistances method, of class BatchShortestPathExecutor,
+     * with a thread pool of the caller, that the batches share.
+     */
+    @Test
+    public void testComputeWithPool() {
+        ForkJoinPool pool = new ForkJoinPool(2);
+        try { 
+            BatchShortestPathExecutor<String> batch = new BatchShortestPathExecutor<>(graph.freeze(),pool);
+            assertEquals(batch.getParallelism(),2);
+            DistanceMatrix<String> matrix = batch.computeDistances(Arrays.asList("A","B","C"),Arrays.asList("D","E"));
+            int nodesVisited = batch.getExecStats().getNodesVisitedNum();
+            // The search state of the threads is reused by the next batches
+            for (int i = 0; i < 3; i++) { 
+                DistanceMatrix<String> next = batch.computeDistances(Arrays.asList("A","B","C"),Arrays.asList("D","E"));
+                for (String source : Arrays.asList("A","B","C")) { 
+                    for (String target : Arrays.asList("D","E"))
+                        assertEquals(next.getDistance(source,target),matrix.getDistance(source,target));
+                }
+                // The stats describe each batch alone
+                assertEquals(batch.getExecStats().getNodesVisitedNum(),nodesVisited);
+            }
+            // The pool of the caller is not shut down
+            assertEquals(pool.isShutdown(),false);
+        }
+        catch (VertexNotInGraphException e) { 
+            fail(e.getMessage());
+        }
+        finally { 
+            pool.shutdown();
+        }
+    }
+    
+}
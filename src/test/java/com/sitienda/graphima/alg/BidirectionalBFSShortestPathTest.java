@@ -0,0 +1,189 @@
+/**
+ * Copyright (C) 2019, by Vasileios Nikakis
+ *
+ * graphima: yet another Java graph-theory library
+ */
+package com.sitienda.graphima.alg;
+
+import com.sitienda.graphima.DirectedGraph;
+import com.sitienda.graphima.Graph;
+import com.sitienda.graphima.Maze;
+import com.sitienda.graphima.MazeCell;
+import com.sitienda.graphima.exceptions.VertexNotInGraphException;
+import com.sitienda.graphima.path.Path;
+import com.sitienda.graphima.path.ShortestPathTree;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.TestInstance;
+
+/**
+ * Bidirectional BFS shortest path algorithm tests.
+ * 
+ * @author Vasileios Nikakis
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class BidirectionalBFSShortestPathTest {
+    
+    /**
+     * The maze
+     */
+    private Maze maze;
+    /**
+     * The graph
+     */
+    private Graph<MazeCell> graph;
+    
+    public BidirectionalBFSShortestPathTest() {
+        
+    }
+
+    /**
+     * Init test data.
+     */
+    @BeforeAll
+    public void init() { 
+        // Test Data
+        int[][] mazeData = {
+            {0,0,0,0,0,0,0,0,0,1},
+            {0,1,1,0,0,0,0,0,1,0},
+            {0,1,0,0,0,0,0,0,0,0},
+            {0,0,0,1,0,0,1,0,0,0},
+            {0,0,1,0,0,0,0,0,0,1},
+            {0,0,1,0,0,1,0,0,0,0},
+            {0,0,0,0,1,0,0,0,1,1},
+            {1,1,0,0,1,0,1,1,0,0},
+            {0,0,0,0,0,1,0,0,0,0},
+            {0,0,0,1,0,0,0,0,0,0}
+        };
+        maze = new Maze(mazeData);
+        graph = maze.generateGraph("Maze");
+    }
+    
+    /**
+     * Test of findShortestPath method, of class BidirectionalBFSShortestPath.
+     */
+    @Test
+    public void testFindShortestPath1() {
+        // Test data
+        MazeCell start = maze.getCell(0,0);
+        MazeCell end = maze.getCell(9,9);
+        
+        // Execute test
+        try { 
+            BidirectionalBFSShortestPath<MazeCell> bfs = new BidirectionalBFSShortestPath<>(graph);
+            Path path = bfs.findShortestPath(start,end);
+            AlgorithmExecutionStats stats = bfs.getExecStats();
+            assertEquals(((FindPathAlgorithmExecutionStats) stats).getPathLength(),19);
+            assertEquals(graph.pathExists(path),true);
+            assertEquals(path.startsWith(graph.getVertexWithData(start)),true);
+            assertEquals(path.endsWith(graph.getVertexWithData(end)),true);
+            // The plain BFS visits 78 nodes
+            assertTrue(stats.getNodesVisitedNum() < 78);
+        }
+        catch (VertexNotInGraphException e) { 
+            fail(e.getMessage());
+        }
+    }
+    
+    /**
+     * Test of findShortestPath method, of class BidirectionalBFSShortestPath.
+     */
+    @Test
+    public void testFindShortestPath2() {
+        // Test data
+        MazeCell start = maze.getCell(0,0);
+        MazeCell end = maze.getCell(0,9);
+        
+        // Execute test
+        try { 
+            BidirectionalBFSShortestPath<MazeCell> bfs = new BidirectionalBFSShortestPath<>(graph);
+            Path path = bfs.findShortestPath(start,end);
+            AlgorithmExecutionStats stats = bfs.getExecStats();
+            assertEquals(((FindPathAlgorithmExecutionStats) stats).wasSolutionFound(),false);
+            assertEquals(path.isEmpty(),true);
+            // The search from the walled-in cell runs out of nodes at once
+            // The plain BFS visits 79 nodes
+            assertTrue(stats.getNodesVisitedNum() < 10);
+            path = bfs.findShortestPath(start,start);
+            assertEquals(path.size(),1);
+        }
+        catch (VertexNotInGraphException e) { 
+            fail(e.getMessage());
+        }
+    }
+    
+    /**
+     * Test of findShortestPath method, of class BidirectionalBFSShortestPath, 
+     * on random directed and undirected graphs against the Dijkstra distances.
+     */
+    @Test
+    public void testFindShortestPathRandom() {
+        Random random = new Random(3);
+        for (int test = 0; test < 20; test++) { 
+            // Create a random graph
+            int n = 60;
+            Graph<Integer> g = RandomGraphs.graph(random,test % 2 == 0,n,n*2);
+            // Execute test
+            try { 
+                ShortestPathTree<Integer> expected = new DijkstraShortestPath<>(g).findShortestPaths(0);
+                BidirectionalBFSShortestPath<Integer> biBfs = new BidirectionalBFSShortestPath<>(g);
+                BidirectionalBFSShortestPath<Integer> compactBiBfs = new BidirectionalBFSShortestPath<>(g.freeze());
+                for (int i = 0; i < n; i++) { 
+                    RandomGraphs.assertShortestPath(g,expected,i,biBfs.findShortestPath(0,i));
+                    RandomGraphs.assertShortestPath(g,expected,i,compactBiBfs.findShortestPath(0,i));
+                }
+            }
+            catch (VertexNotInGraphException e) { 
+                fail(e.getMessage());
+            }
+        }
+    }
+    
+    /**
+     * Test of findShortestPath method, of class BidirectionalBFSShortestPath, 
+     * with vertices that don't exist in the graph and with a graph that
+     * grows between the queries.
+     */
+    @Test
+    public void testFindShortestPathNotInGraph() {
+        Graph<Integer> g = new DirectedGraph<>();
+        g.addVertex(0);
+        g.addVertex(1);
+        g.addEdge(0,1);
+        BidirectionalBFSShortestPath<Integer> biBfs = new BidirectionalBFSShortestPath<>(g);
+        BidirectionalBFSShortestPath<Integer> compactBiBfs = new BidirectionalBFSShortestPath<>(g.freeze());
+        try { 
+            biBfs.findShortestPath(null,1);
+            fail("A null vertex doesn't exist in the graph");
+        }
+        catch (VertexNotInGraphException e) { 
+        }
+        try { 
+            compactBiBfs.findShortestPath(0,null);
+            fail("A null vertex doesn't exist in the graph");
+        }
+        catch (VertexNotInGraphException e) { 
+        }
+        try { 
+            biBfs.findShortestPath(0,2);
+            fail("Vertex 2 doesn't exist in the graph");
+        }
+        catch (VertexNotInGraphException e) { 
+        }
+        // The workspaces of the thread grow with the graph
+        try { 
+            assertEquals(biBfs.findShortestPath(0,1).size(),2);
+            for (int i = 2; i < 100; i++) { 
+                g.addVertex(i);
+                g.addEdge(i-1,i);
+            }
+            assertEquals(biBfs.findShortestPath(0,99).size(),100);
+        }
+        catch (VertexNotInGraphException e) { 
+            fail(e.getMessage());
+        }
+    }
+    
+}
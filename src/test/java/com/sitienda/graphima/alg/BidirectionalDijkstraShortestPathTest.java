@@ -0,0 +1,183 @@
+/**
+ * Copyright (C) 2019, by Vasileios Nikakis
+ *
+ * graphima: yet another Java graph-theory library
+ */
+package com.sitienda.graphima.alg;
+
+import com.sitienda.graphima.DirectedWeightedGraph;
+import com.sitienda.graphima.WeightedGraph;
+import com.sitienda.graphima.exceptions.PathNotValidException;
+import com.sitienda.graphima.exceptions.VertexNotInGraphException;
+import com.sitienda.graphima.path.Path;
+import com.sitienda.graphima.path.ShortestPathTree;
+import java.util.Arrays;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.TestInstance;
+
+/**
+ * Bidirectional Dijkstra shortest path algorithm tests.
+ * 
+ * @author Vasileios Nikakis
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class BidirectionalDijkstraShortestPathTest {
+    
+    /**
+     * The graph
+     */
+    private DirectedWeightedGraph<String> graph;
+    
+    public BidirectionalDijkstraShortestPathTest() {
+        
+    }
+    
+    /**
+     * Init test data.
+     */
+    @BeforeAll
+    public void init() { 
+        graph = new DirectedWeightedGraph<>();
+        graph.addVertices(Arrays.asList("A","B","C","D","E","F"));
+        graph.addEdge("A","B",4)
+             .addEdge("A","C",2)
+             .addEdge("B","C",3)
+             .addEdge("B","D",2)
+             .addEdge("B","E",3)
+             .addEdge("C","B",1)
+             .addEdge("C","D",4)
+             .addEdge("C","E",5)
+             .addEdge("E","D",1);
+    }
+    
+    /**
+     * Test of findShortestPath method, of class BidirectionalDijkstraShortestPath.
+     */
+    @Test
+    public void testFindShortestPath() {
+        // Execute test
+        try { 
+            BidirectionalDijkstraShortestPath<String> dij = new BidirectionalDijkstraShortestPath<>(graph);
+            Path path = dij.findShortestPath("A","D");
+            assertEquals(path,graph.getPath(Arrays.asList("A","C","B","D")));
+            assertEquals(((FindPathAlgorithmExecutionStats) dij.getExecStats()).getPathLength(),4);
+            assertEquals(((FindPathAlgorithmExecutionStats) dij.getExecStats()).wasSolutionFound(),true);
+            path = dij.findShortestPath("A","E");
+            assertEquals(path,graph.getPath(Arrays.asList("A","C","B","E")));
+            path = dij.findShortestPath("B","B");
+            assertEquals(path,graph.getPath(Arrays.asList("B")));
+            // F can't be reached
+            path = dij.findShortestPath("A","F");
+            assertEquals(path.isEmpty(),true);
+            assertEquals(((FindPathAlgorithmExecutionStats) dij.getExecStats()).wasSolutionFound(),false);
+            // D has no outgoing edges
+            path = dij.findShortestPath("D","A");
+            assertEquals(path.isEmpty(),true);
+        }
+        catch (VertexNotInGraphException e) { 
+            fail(e.getMessage());
+        }
+        // Both vertices have to exist in the graph
+        try { 
+            BidirectionalDijkstraShortestPath<String> dij = new BidirectionalDijkstraShortestPath<>(graph);
+            dij.findShortestPath("A","G");
+            fail("Vertex G doesn't exist in the graph");
+        }
+        catch (VertexNotInGraphException e) { 
+        }
+        // Nor does a null vertex, in the graph or in a compact graph
+        try { 
+            new BidirectionalDijkstraShortestPath<>(graph).findShortestPathResult(null,"A");
+            fail("A null vertex doesn't exist in the graph");
+        }
+        catch (VertexNotInGraphException e) { 
+        }
+        try { 
+            new BidirectionalDijkstraShortestPath<>(graph.freeze()).findShortestPathResult("A",null);
+            fail("A null vertex doesn't exist in the graph");
+        }
+        catch (VertexNotInGraphException e) { 
+        }
+    }
+    
+    /**
+     * Test of findShortestPath method, of class BidirectionalDijkstraShortestPath, on a compact graph.
+     */
+    @Test
+    public void testFindShortestPathCompact() {
+        // Execute test
+        try { 
+            BidirectionalDijkstraShortestPath<String> dij = new BidirectionalDijkstraShortestPath<>(graph.freeze());
+            Path path = dij.findShortestPath("A","D");
+            assertEquals(path,graph.getPath(Arrays.asList("A","C","B","D")));
+            assertEquals(graph.totalWeight(path),5);
+            path = dij.findShortestPath("A","F");
+            assertEquals(path.isEmpty(),true);
+        }
+        catch (VertexNotInGraphException | PathNotValidException e) { 
+            fail(e.getMessage());
+        }
+    }
+    
+    /**
+     * Test of findShortestPath method, of class BidirectionalDijkstraShortestPath, 
+     * on random directed and undirected graphs against the Dijkstra distances.
+     */
+    @Test
+    public void testFindShortestPathRandom() {
+        Random random = new Random(7);
+        for (int test = 0; test < 20; test++) { 
+            // Create a random graph
+            int n = 50;
+            WeightedGraph<Integer> g = RandomGraphs.weightedGraph(random,test % 2 == 0,n,n*2,0,19);
+            // Execute test
+            try { 
+                ShortestPathTree<Integer> tree = new DijkstraShortestPath<>(g).findShortestPaths(0);
+                BidirectionalDijkstraShortestPath<Integer> dij = new BidirectionalDijkstraShortestPath<>(g);
+                BidirectionalDijkstraShortestPath<Integer> compactDij = new BidirectionalDijkstraShortestPath<>(g.freeze());
+                for (int i = 0; i < n; i++) { 
+                    RandomGraphs.assertShortestPath(g,tree,i,dij.findShortestPath(0,i));
+                    RandomGraphs.assertShortestPath(g,tree,i,compactDij.findShortestPath(0,i));
+                }
+            }
+            catch (VertexNotInGraphException e) { 
+                fail(e.getMessage());
+            }
+        }
+    }
+    
+    /**
+     * Test of findShortestPath method, of class BidirectionalDijkstraShortestPath,
+     * after a change of the graph.
+     */
+    @Test
+    public void testFindShortestPathModified() {
+        DirectedWeightedGraph<String> g = new DirectedWeightedGraph<>();
+        g.addVertices(Arrays.asList("A","B","C"));
+        g.addEdge("A","B",1)
+         .addEdge("B","C",1);
+        // Execute test
+        try { 
+            BidirectionalDijkstraShortestPath<String> bidij = new BidirectionalDijkstraShortestPath<>(g);
+            assertEquals(bidij.findShortestPath("A","C"),g.getPath(Arrays.asList("A","B","C")));
+            // The incoming edges have to be collected again
+            g.addEdge("A","C",1);
+            assertEquals(bidij.findShortestPath("A","C"),g.getPath(Arrays.asList("A","C")));
+            // The workspaces of the thread grow with the graph
+            g.addVertices(Arrays.asList("D","E"));
+            g.addEdge("C","D",1)
+             .addEdge("D","E",1);
+            assertEquals(bidij.findShortestPath("A","E"),g.getPath(Arrays.asList("A","C","D","E")));
+            g.removeEdge("A","C");
+            g.removeEdge("A","B");
+            assertEquals(bidij.findShortestPath("A","C").isEmpty(),true);
+        }
+        catch (VertexNotInGraphException e) { 
+            fail(e.getMessage());
+        }
+    }
+    
+}
@@ -5,9 +5,11 @@
  */
 package com.sitienda.graphima.alg;
 
+import com.sitienda.graphima.ConcurrentUndirectedGraph;
 import com.sitienda.graphima.Graph;
 import com.sitienda.graphima.Maze;
 import com.sitienda.graphima.MazeCell;
+import com.sitienda.graphima.Vertex;
 import com.sitienda.graphima.exceptions.VertexNotInGraphException;
 import com.sitienda.graphima.path.Path;
 import org.junit.jupiter.api.Test;
@@ -102,4 +104,72 @@ public class DFSFindPathTest {
         }
     }
     
+    /**
+     * Test of findPath method, of class DFSFindPath, on a compact graph.
+     */
+    @Test
+    public void testFindPathCompact() {
+        // Test data
+        MazeCell start = maze.getCell(0,0);
+        MazeCell end = maze.getCell(9,9);
+        
+        // Execute test
+        try { 
+            DFSFindPath<MazeCell> dfs = new DFSFindPath<>(graph.freeze());
+            Path path = dfs.findPath(start,end);
+            AlgorithmExecutionStats stats = dfs.getExecStats();
+            assertEquals(stats.getNodesVisitedNum(),78);
+            assertEquals(((FindPathAlgorithmExecutionStats) stats).getPathLength(),19);
+            assertEquals(graph.pathExists(path),true);
+        }
+        catch (VertexNotInGraphException e) { 
+            fail(e.getMessage());
+        }
+    }
+    
+    /**
+     * Test of findPath method, of class DFSFindPath, with a collision resolution
+     * comparator: the graph, a concurrent copy of it and a compact graph
+     * give the same path.
+     */
+    @Test
+    public void testFindPathWithComparator() {
+        // Test data
+        MazeCell start = maze.getCell(0,0);
+        MazeCell end = maze.getCell(9,9);
+        NodeComparator<MazeCell> comp = new NodeComparator<MazeCell>() { 
+            @Override
+            public int compare(MazeCell a, MazeCell b) { 
+                if (a.getX() != b.getX())
+                    return Integer.compare(a.getX(),b.getX());
+                return Integer.compare(a.getY(),b.getY());
+            }
+        };
+        ConcurrentUndirectedGraph<MazeCell> concurrent = new ConcurrentUndirectedGraph<>();
+        for (Vertex<MazeCell> vertex : graph.getVertices())
+            concurrent.addVertex(vertex.getData());
+        for (Vertex<MazeCell> vertex : graph.getVertices()) { 
+            for (Vertex<MazeCell> neighbor : vertex.getNeighbors())
+                concurrent.addEdge(vertex.getData(),neighbor.getData());
+        }
+        
+        // Execute test
+        try { 
+            DFSFindPath<MazeCell> dfs = new DFSFindPath<>(graph,comp);
+            Path path = dfs.findPath(start,end);
+            assertEquals(graph.pathExists(path),true);
+            assertEquals(path.size() > 0,true);
+            DFSFindPath<MazeCell> concurrentDfs = new DFSFindPath<>(concurrent,comp);
+            assertEquals(concurrentDfs.findPath(start,end),path);
+            DFSFindPath<MazeCell> compactDfs = new DFSFindPath<>(graph.freeze(),comp);
+            assertEquals(compactDfs.findPath(start,end),path);
+            // The state that the thread keeps with its workspace is reset for each query
+            assertEquals(concurrentDfs.findPath(start,end),path);
+            assertEquals(compactDfs.findPath(start,end),path);
+        }
+        catch (VertexNotInGraphException e) { 
+            fail(e.getMessage());
+        }
+    }
+    
 }
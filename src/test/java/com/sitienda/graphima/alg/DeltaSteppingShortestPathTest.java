@@ -0,0 +1,147 @@
+/**
+ * Copyright (C) 2019, by Vasileios Nikakis
+ *
+ * graphima: yet another Java graph-theory library
+ */
+package com.sitienda.graphima.alg;
+
+import com.sitienda.graphima.DirectedWeightedGraph;
+import com.sitienda.graphima.WeightedGraph;
+import com.sitienda.graphima.exceptions.VertexNotInGraphException;
+import com.sitienda.graphima.path.ShortestPathTree;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.TestInstance;
+
+/**
+ * Delta-stepping shortest paths algorithm tests.
+ *
+ * @author Vasileios Nikakis
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class DeltaSteppingShortestPathTest {
+    
+    /**
+     * The graph
+     */
+    private DirectedWeightedGraph<String> graph;
+    
+    public DeltaSteppingShortestPathTest() { 
+    
+    }
+    
+    /**
+     * Init test data.
+     */
+    @BeforeAll
+    public void init() { 
+        graph = new DirectedWeightedGraph<>();
+        graph.addVertices(Arrays.asList("A","B","C","D","E","F"));
+        graph.addEdge("A","B",4)
+             .addEdge("A","C",2)
+             .addEdge("B","C",3)
+             .addEdge("B","D",2)
+             .addEdge("B","E",3)
+             .addEdge("C","B",1)
+             .addEdge("C","D",4)
+             .addEdge("C","E",5)
+             .addEdge("E","D",1);
+    }
+    
+    /**
+     * Test of findShortestPaths method, of class DeltaSteppingShortestPath.
+     */
+    @Test
+    public void testFindShortestPaths() { 
+        // Execute test
+        try { 
+            for (int delta = 1; delta <= 6; delta++) { 
+                DeltaSteppingShortestPath<String> ds = new DeltaSteppingShortestPath<>(graph,delta,2);
+                ShortestPathTree<String> tree = ds.findShortestPaths("A");
+                assertEquals(tree.distanceTo("A"),0);
+                assertEquals(tree.distanceTo("B"),3);
+                assertEquals(tree.distanceTo("C"),2);
+                assertEquals(tree.distanceTo("D"),5);
+                assertEquals(tree.distanceTo("E"),6);
+                assertEquals(tree.hasPathTo("F"),false);
+                assertEquals(tree.pathTo("D"),graph.getPath(Arrays.asList("A","C","B","D")));
+                assertEquals(ds.getExecStats().getNodesVisitedNum(),5);
+            }
+        }
+        catch (VertexNotInGraphException e) { 
+            fail(e.getMessage());
+        }
+        // The vertex has to exist in the graph
+        try { 
+            new DeltaSteppingShortestPath<>(graph).findShortestPaths("G");
+            fail("Vertex G doesn't exist in the graph");
+        }
+        catch (VertexNotInGraphException e) { 
+        }
+        // The bucket width and the number of threads have to be positive
+        try { 
+            new DeltaSteppingShortestPath<>(graph,0,1);
+            fail("The bucket width can't be 0");
+        }
+        catch (IllegalArgumentException e) { 
+        }
+        try { 
+            new DeltaSteppingShortestPath<>(graph,1,0);
+            fail("The number of threads can't be 0");
+        }
+        catch (IllegalArgumentException e) { 
+        }
+    }
+    
+    /**
+     * Test of findShortestPaths method, of class DeltaSteppingShortestPath,
+     * on random directed and undirected graphs against the Dijkstra distances.
+     */
+    @Test
+    public void testFindShortestPathsRandom() { 
+        Random random = new Random(3);
+        for (int test = 0; test < 8; test++) { 
+            // Create a random graph, large enough for the tasks to be split
+            int n = 3000;
+            WeightedGraph<Integer> g = RandomGraphs.weightedGraph(random,test % 2 == 0,n,n*4,0,99);
+            // Execute test
+            try { 
+                ShortestPathTree<Integer> expected = new DijkstraShortestPath<>(g).findShortestPaths(0);
+                DeltaSteppingShortestPath<Integer> ds = (test < 4) ? new DeltaSteppingShortestPath<>(g)
+                                                                   : new DeltaSteppingShortestPath<>(g,1 + test * 10,4);
+                RandomGraphs.assertShortestPaths(g,expected,ds.findShortestPaths(0));
+            }
+            catch (VertexNotInGraphException e) { 
+                fail(e.getMessage());
+            }
+        }
+    }
+    
+    /**
+     * Test of findShortestPaths method, of class DeltaSteppingShortestPath,
+     * with a thread pool of the caller, that the queries share.
+     */
+    @Test
+    public void testFindShortestPathsWithPool() { 
+        ForkJoinPool pool = new ForkJoinPool(2);
+        try { 
+            DeltaSteppingShortestPath<String> ds = new DeltaSteppingShortestPath<>(graph,2,pool);
+            assertEquals(ds.getParallelism(),2);
+            for (int i = 0; i < 3; i++)
+                assertEquals(ds.findShortestPaths("A").distanceTo("E"),6);
+            // The pool of the caller is not shut down
+            assertEquals(pool.isShutdown(),false);
+        }
+        catch (VertexNotInGraphException e) { 
+            fail(e.getMessage());
+        }
+        finally { 
+            pool.shutdown();
+        }
+    }
+
+}
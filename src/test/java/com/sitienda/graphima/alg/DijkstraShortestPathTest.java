@@ -6,11 +6,18 @@
 package com.sitienda.graphima.alg;
 
 import com.sitienda.graphima.DirectedWeightedGraph;
+import com.sitienda.graphima.Vertex;
+import com.sitienda.graphima.exceptions.PathNotValidException;
 import com.sitienda.graphima.exceptions.VertexNotInGraphException;
 import com.sitienda.graphima.path.Path;
+import com.sitienda.graphima.path.ShortestPathTree;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.ConcurrentModificationException;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.junit.jupiter.api.Test;
 import static org.junit.jupiter.api.Assertions.*;
 import org.junit.jupiter.api.BeforeAll;
@@ -59,7 +66,7 @@ public class DijkstraShortestPathTest {
         // Execute test
         try { 
             DijkstraShortestPath<String> dij = new DijkstraShortestPath(graph);
-            Map<String,Path> paths = dij.findShortestPaths("A");
+            ShortestPathTree<String> tree = dij.findShortestPaths("A");
             
             Map<String,Path> correctPaths = new HashMap<>();
             correctPaths.put("A", graph.getPath(Arrays.asList("A")));
@@ -69,10 +76,11 @@ public class DijkstraShortestPathTest {
             correctPaths.put("E", graph.getPath(Arrays.asList("A","C","B","E")));
             correctPaths.put("F", graph.getPath(Arrays.asList()));
             
-            for (Map.Entry<String,Path> entry : paths.entrySet()) { 
-                if (!entry.getValue().equals(correctPaths.get(entry.getKey())))
+            for (Map.Entry<String,Path> entry : correctPaths.entrySet()) { 
+                Path path = tree.pathTo(entry.getKey());
+                if (!path.equals(entry.getValue()))
                     fail("Path for destination node " + entry.getKey() + " is not correct " + 
-                         (correctPaths.get(entry.getKey())) + " insteaf of " + entry.getValue());
+                         entry.getValue() + " insteaf of " + path);
             }
         }
         catch (VertexNotInGraphException e) { 
@@ -80,4 +88,296 @@ public class DijkstraShortestPathTest {
         }
     }
     
+    /**
+     * Test of findShortestPaths method, of class DijkstraShortestPath, on a compact graph.
+     */
+    @Test
+    public void testFindShortestPathsCompact() {
+        // Execute test
+        try { 
+            DijkstraShortestPath<String> dij = new DijkstraShortestPath<>(graph.freeze());
+            ShortestPathTree<String> tree = dij.findShortestPaths("A");
+            
+            assertEquals(tree.getSource().getData(),"A");
+            assertEquals(tree.pathTo("D"),graph.getPath(Arrays.asList("A","C","B","D")));
+            assertEquals(tree.pathTo("E"),graph.getPath(Arrays.asList("A","C","B","E")));
+            assertEquals(tree.pathTo("F").isEmpty(),true);
+            assertEquals(tree.hasPathTo("F"),false);
+            assertEquals(tree.distanceTo("F"),ShortestPathTree.INFINITY);
+            assertEquals(tree.distanceTo("D"),5);
+            assertEquals(graph.totalWeight(tree.pathTo("D")),5);
+        }
+        catch (VertexNotInGraphException | PathNotValidException e) { 
+            fail(e.getMessage());
+        }
+    }
+    
+    /**
+     * Test of findShortestPaths method, of class DijkstraShortestPath, 
+     * on random graphs against the Bellman-Ford distances.
+     */
+    @Test
+    public void testFindShortestPathsRandom() {
+        Random random = new Random(42);
+        for (int test = 0; test < 20; test++) { 
+            // Create a random graph
+            int n = 40;
+            DirectedWeightedGraph<Integer> g = new DirectedWeightedGraph<>();
+            for (int i = 0; i < n; i++)
+                g.addVertex(i);
+            int[][] edges = new int[n*4][];
+            for (int i = 0; i < edges.length; i++) { 
+                edges[i] = new int[] { random.nextInt(n), random.nextInt(n), random.nextInt(20) };
+                if (!g.hasEdge(edges[i][0],edges[i][1]))
+                    g.addEdge(edges[i][0],edges[i][1],edges[i][2]);
+                else
+                    edges[i] = null;
+            }
+            // Bellman-Ford distances from vertex 0
+            int[] dist = new int[n];
+            Arrays.fill(dist,Integer.MAX_VALUE);
+            dist[0] = 0;
+            for (int round = 0; round < n; round++) { 
+                for (int[] edge : edges) { 
+                    if (edge != null && dist[edge[0]] != Integer.MAX_VALUE && dist[edge[0]] + edge[2] < dist[edge[1]])
+                        dist[edge[1]] = dist[edge[0]] + edge[2];
+                }
+            }
+            // Execute test
+            try { 
+                DijkstraShortestPath<Integer> dij = new DijkstraShortestPath<>(g);
+                ShortestPathTree<Integer> tree = dij.findShortestPaths(0);
+                for (int i = 0; i < n; i++) { 
+                    assertEquals(tree.distanceTo(i),dist[i]);
+                    if (dist[i] == Integer.MAX_VALUE)
+                        assertEquals(tree.pathTo(i).isEmpty(),true);
+                    else
+                        assertEquals(g.totalWeight(tree.pathTo(i)),dist[i]);
+                }
+            }
+            catch (VertexNotInGraphException | PathNotValidException e) { 
+                fail(e.getMessage());
+            }
+        }
+    }
+    
+    /**
+     * Test of findShortestPath method, of class DijkstraShortestPath.
+     */
+    @Test
+    public void testFindShortestPath() {
+        // Execute test
+        try { 
+            DijkstraShortestPath<String> dij = new DijkstraShortestPath<>(graph);
+            Path path = dij.findShortestPath("A","B");
+            assertEquals(path,graph.getPath(Arrays.asList("A","C","B")));
+            // The search has to stop before settling D and E
+            assertEquals(dij.getExecStats().getNodesVisitedNum(),3);
+            assertEquals(((FindPathAlgorithmExecutionStats) dij.getExecStats()).getPathLength(),3);
+            // F can't be reached
+            path = dij.findShortestPath("A","F");
+            assertEquals(path.isEmpty(),true);
+            assertEquals(((FindPathAlgorithmExecutionStats) dij.getExecStats()).wasSolutionFound(),false);
+        }
+        catch (VertexNotInGraphException e) { 
+            fail(e.getMessage());
+        }
+    }
+    
+    /**
+     * Test of findShortestPathResult method, of class DijkstraShortestPath.
+     */
+    @Test
+    public void testFindShortestPathResult() {
+        // Execute test
+        try { 
+            DijkstraShortestPath<String> dij = new DijkstraShortestPath<>(graph);
+            FindPathResult<String> result = dij.findShortestPathResult("A","B");
+            assertEquals(result.getPath(),graph.getPath(Arrays.asList("A","C","B")));
+            assertEquals(result.wasSolutionFound(),true);
+            assertEquals(result.getExecStats().getNodesVisitedNum(),3);
+            assertEquals(result.getExecStats().getPathLength(),3);
+            // The stats of a query are kept after the next one
+            FindPathResult<String> other = dij.findShortestPathResult("A","F");
+            assertEquals(other.wasSolutionFound(),false);
+            assertEquals(result.wasSolutionFound(),true);
+            assertEquals(dij.getExecStats(),other.getExecStats());
+        }
+        catch (VertexNotInGraphException e) { 
+            fail(e.getMessage());
+        }
+    }
+    
+    /**
+     * Test of findShortestPathResult method, of class DijkstraShortestPath,
+     * with an instance that is shared between threads.
+     */
+    @Test
+    public void testFindShortestPathResultShared() {
+        final DijkstraShortestPath<String> dij = new DijkstraShortestPath<>(graph.freeze());
+        final String[] targets = { "B", "C", "D", "E", "F" };
+        final int[] distances = { 3, 2, 5, 6, 0 };
+        final AtomicInteger errors = new AtomicInteger(0);
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) { 
+            final int offset = t;
+            threads[t] = new Thread(new Runnable() { 
+                @Override
+                public void run() { 
+                    try { 
+                        for (int i = 0; i < 500; i++) { 
+                            int target = (i + offset) % targets.length;
+                            FindPathResult<String> result = dij.findShortestPathResult("A",targets[target]);
+                            int distance = result.wasSolutionFound() ? graph.totalWeight(result.getPath()) : 0;
+                            if (distance != distances[target] ||
+                                result.getExecStats().getPathLength() != result.getPath().size())
+                                errors.incrementAndGet();
+                        }
+                    }
+                    catch (VertexNotInGraphException | PathNotValidException e) { 
+                        errors.incrementAndGet();
+                    }
+                }
+            });
+            threads[t].start();
+        }
+        try { 
+            for (Thread thread : threads)
+                thread.join();
+        }
+        catch (InterruptedException e) { 
+            fail(e.getMessage());
+        }
+        assertEquals(errors.get(),0);
+    }
+    
+    /**
+     * Test of findShortestPaths method with multiple targets, of class DijkstraShortestPath.
+     */
+    @Test
+    public void testFindShortestPathsTargets() {
+        // Execute test
+        try { 
+            DijkstraShortestPath<String> dij = new DijkstraShortestPath<>(graph);
+            Map<String,Path> paths = dij.findShortestPaths("A",Arrays.asList("B","D"));
+            assertEquals(paths.size(),2);
+            assertEquals(paths.get("B"),graph.getPath(Arrays.asList("A","C","B")));
+            assertEquals(paths.get("D"),graph.getPath(Arrays.asList("A","C","B","D")));
+        }
+        catch (VertexNotInGraphException e) { 
+            fail(e.getMessage());
+        }
+        // Every target has to exist in the graph
+        try { 
+            DijkstraShortestPath<String> dij = new DijkstraShortestPath<>(graph);
+            dij.findShortestPaths("A",Arrays.asList("B","G"));
+            fail("Vertex G doesn't exist in the graph");
+        }
+        catch (VertexNotInGraphException e) { 
+        }
+    }
+    
+    /**
+     * Test of findShortestPaths method with an empty collection of targets,
+     * of class DijkstraShortestPath: nothing is searched.
+     */
+    @Test
+    public void testFindShortestPathsNoTargets() {
+        try { 
+            DijkstraShortestPath<String> dij = new DijkstraShortestPath<>(graph);
+            assertEquals(dij.findShortestPaths("A",new ArrayList<String>()).isEmpty(),true);
+            assertEquals(dij.getExecStats().getNodesVisitedNum(),0);
+            Vertex<String> a = graph.getVertexWithData("A");
+            assertEquals(dij.findShortestPaths(a,new ArrayList<Vertex<String>>()).isEmpty(),true);
+            assertEquals(dij.getExecStats().getNodesVisitedNum(),0);
+            DijkstraShortestPath<String> compactDij = new DijkstraShortestPath<>(graph.freeze());
+            assertEquals(compactDij.findShortestPaths("A",new ArrayList<String>()).isEmpty(),true);
+            assertEquals(compactDij.getExecStats().getNodesVisitedNum(),0);
+        }
+        catch (VertexNotInGraphException e) { 
+            fail(e.getMessage());
+        }
+        // The start vertex still has to exist in the graph
+        try { 
+            DijkstraShortestPath<String> dij = new DijkstraShortestPath<>(graph);
+            dij.findShortestPaths("G",new ArrayList<String>());
+            fail("Vertex G doesn't exist in the graph");
+        }
+        catch (VertexNotInGraphException e) { 
+        }
+    }
+    
+    /**
+     * Test of findShortestPaths method, of class DijkstraShortestPath, when
+     * the vertex ids of the graph change after the search: the tree of the
+     * graph can't be read any more, the tree of its snapshot can.
+     */
+    @Test
+    public void testFindShortestPathsChangedGraph() {
+        DirectedWeightedGraph<String> g = new DirectedWeightedGraph<>();
+        g.addVertices(Arrays.asList("A","B","C","D"));
+        g.addEdge("A","B",1)
+         .addEdge("B","C",1);
+        try { 
+            ShortestPathTree<String> tree = new DijkstraShortestPath<>(g).findShortestPaths("A");
+            ShortestPathTree<String> compactTree = new DijkstraShortestPath<>(g.snapshot()).findShortestPaths("A");
+            Path path = g.getPath(Arrays.asList("A","B","C"));
+            assertEquals(tree.pathTo("C"),path);
+            assertEquals(tree.distanceTo("C"),2);
+            assertEquals(tree.hasPathTo("D"),false);
+            // The removed vertex's id is given to a new vertex
+            g.removeVertex("B");
+            g.addVertex("E");
+            try { 
+                tree.pathTo("C");
+                fail("The graph changed after the tree was built");
+            }
+            catch (ConcurrentModificationException e) { 
+            }
+            assertEquals(compactTree.pathTo("C"),path);
+            assertEquals(compactTree.distanceTo("C"),2);
+            assertEquals(compactTree.hasPathTo("E"),false);
+            assertEquals(compactTree.hasPathTo("D"),false);
+        }
+        catch (VertexNotInGraphException e) { 
+            fail(e.getMessage());
+        }
+    }
+    
+    /**
+     * Test of findShortestPathResult and findShortestPaths methods with 
+     * targets, of class DijkstraShortestPath, when the graph grows between
+     * the queries of a thread.
+     */
+    @Test
+    public void testFindShortestPathGrowingGraph() {
+        DirectedWeightedGraph<String> g = new DirectedWeightedGraph<>();
+        g.addVertices(Arrays.asList("A","B"));
+        g.addEdge("A","B",1);
+        DijkstraShortestPath<String> dij = new DijkstraShortestPath<>(g);
+        try { 
+            assertEquals(dij.findShortestPath("A","B"),g.getPath(Arrays.asList("A","B")));
+            // The workspace of the thread grows with the graph
+            g.addVertices(Arrays.asList("C","D","E"));
+            g.addEdge("B","C",1)
+             .addEdge("C","D",1);
+            assertEquals(dij.findShortestPath("A","D"),g.getPath(Arrays.asList("A","B","C","D")));
+            Map<String,Path> paths = dij.findShortestPaths("A",Arrays.asList("C","E"));
+            assertEquals(paths.get("C"),g.getPath(Arrays.asList("A","B","C")));
+            assertEquals(paths.get("E").isEmpty(),true);
+            // Nothing is left from the previous searches
+            assertEquals(dij.findShortestPath("B","A").isEmpty(),true);
+        }
+        catch (VertexNotInGraphException e) { 
+            fail(e.getMessage());
+        }
+        // A null vertex doesn't exist in the graph
+        try { 
+            dij.findShortestPath(null,"A");
+            fail("A null vertex doesn't exist in the graph");
+        }
+        catch (VertexNotInGraphException e) { 
+        }
+    }
+    
 }
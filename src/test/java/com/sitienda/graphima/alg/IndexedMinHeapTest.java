@@ -0,0 +1,78 @@
+/**
+ * Copyright (C) 2019, by Vasileios Nikakis
+ *
+ * graphima: yet another Java graph-theory library
+ */
+package com.sitienda.graphima.alg;
+
+import java.util.Arrays;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Indexed min-heap tests.
+ *
+ * @author Vasileios Nikakis
+ */
+public class IndexedMinHeapTest {
+    
+    public IndexedMinHeapTest() { 
+    
+    }
+    
+    /**
+     * Test of poll method, of class IndexedMinHeap.
+     */
+    @Test
+    public void testPoll() { 
+        Random random = new Random(7);
+        int n = 500;
+        int[] keys = new int[n];
+        IndexedMinHeap heap = new IndexedMinHeap(10);
+        for (int i = 0; i < n; i++) { 
+            keys[i] = random.nextInt(1000);
+            heap.insert(i,keys[i]);
+        }
+        // Decrease the keys of some items
+        for (int i = 0; i < n; i += 3) { 
+            keys[i] -= random.nextInt(100);
+            heap.decreaseKey(i,keys[i]);
+        }
+        assertEquals(heap.insertOrDecreaseKey(1,keys[1]+1),false);
+        assertEquals(heap.size(),n);
+        int[] sorted = Arrays.copyOf(keys,n);
+        Arrays.sort(sorted);
+        for (int i = 0; i < n; i++) { 
+            int item = heap.poll();
+            assertEquals(keys[item],sorted[i]);
+            assertEquals(heap.contains(item),false);
+        }
+        assertEquals(heap.isEmpty(),true);
+    }
+    
+    /**
+     * Test of the tie breaker, of class IndexedMinHeap.
+     */
+    @Test
+    public void testTieBreaker() { 
+        IndexedMinHeap heap = new IndexedMinHeap(4,2,new IndexedMinHeap.TieBreaker() { 
+            @Override
+            public int compare(int a, int b) { 
+                return b - a;
+            }
+        });
+        heap.insert(1,5);
+        heap.insert(2,5);
+        heap.insert(3,7);
+        heap.insert(9,3);
+        heap.decreaseKey(3,5);
+        assertEquals(heap.poll(),9);
+        assertEquals(heap.poll(),3);
+        assertEquals(heap.poll(),2);
+        heap.clear();
+        assertEquals(heap.isEmpty(),true);
+        assertEquals(heap.contains(1),false);
+    }
+
+}
@@ -0,0 +1,153 @@
+/**
+ * Copyright (C) 2019, by Vasileios Nikakis
+ *
+ * graphima: yet another Java graph-theory library
+ */
+package com.sitienda.graphima.alg;
+
+import com.sitienda.graphima.Graph;
+import com.sitienda.graphima.Maze;
+import com.sitienda.graphima.MazeCell;
+import com.sitienda.graphima.exceptions.VertexNotInGraphException;
+import com.sitienda.graphima.path.Path;
+import com.sitienda.graphima.path.ShortestPathTree;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.TestInstance;
+
+/**
+ * Parallel BFS shortest paths algorithm tests.
+ * 
+ * @author Vasileios Nikakis
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class ParallelBFSShortestPathTest {
+    
+    /**
+     * The maze
+     */
+    private Maze maze;
+    /**
+     * The graph
+     */
+    private Graph<MazeCell> graph;
+    
+    public ParallelBFSShortestPathTest() {
+        
+    }
+
+    /**
+     * Init test data.
+     */
+    @BeforeAll
+    public void init() { 
+        // Test Data
+        int[][] mazeData = {
+            {0,0,0,0,0,0,0,0,0,1},
+            {0,1,1,0,0,0,0,0,1,0},
+            {0,1,0,0,0,0,0,0,0,0},
+            {0,0,0,1,0,0,1,0,0,0},
+            {0,0,1,0,0,0,0,0,0,1},
+            {0,0,1,0,0,1,0,0,0,0},
+            {0,0,0,0,1,0,0,0,1,1},
+            {1,1,0,0,1,0,1,1,0,0},
+            {0,0,0,0,0,1,0,0,0,0},
+            {0,0,0,1,0,0,0,0,0,0}
+        };
+        maze = new Maze(mazeData);
+        graph = maze.generateGraph("Maze");
+    }
+    
+    /**
+     * Test of findShortestPaths method, of class ParallelBFSShortestPath.
+     */
+    @Test
+    public void testFindShortestPaths() {
+        // Test data
+        MazeCell start = maze.getCell(0,0);
+        
+        // Execute test
+        try { 
+            ParallelBFSShortestPath<MazeCell> bfs = new ParallelBFSShortestPath<>(graph);
+            ShortestPathTree<MazeCell> tree = bfs.findShortestPaths(start);
+            assertEquals(tree.distanceTo(start),0);
+            assertEquals(tree.distanceTo(maze.getCell(9,9)),18);
+            Path path = tree.pathTo(maze.getCell(9,9));
+            assertEquals(path.size(),19);
+            assertEquals(graph.pathExists(path),true);
+            // The walled-in cell can't be reached
+            assertEquals(tree.hasPathTo(maze.getCell(0,9)),false);
+            assertEquals(bfs.getExecStats().getNodesVisitedNum(),79);
+        }
+        catch (VertexNotInGraphException e) { 
+            fail(e.getMessage());
+        }
+        // The vertex has to exist in the graph
+        try { 
+            new ParallelBFSShortestPath<>(graph).findShortestPaths(new MazeCell(20,20));
+            fail("The cell doesn't exist in the graph");
+        }
+        catch (VertexNotInGraphException e) { 
+        }
+    }
+    
+    /**
+     * Test of findShortestPaths method, of class ParallelBFSShortestPath, 
+     * on random directed and undirected graphs against the BFS results,
+     * with a switch of direction at every level, bottom-up steps from the
+     * first large frontier on and the default switch.
+     */
+    @Test
+    public void testFindShortestPathsRandom() {
+        Random random = new Random(5);
+        for (int test = 0; test < 6; test++) { 
+            // Create a random graph, large enough for the tasks to be split
+            int n = 4000;
+            Graph<Integer> g = RandomGraphs.graph(random,test % 2 == 0,n,n*3);
+            // Execute test
+            try { 
+                ShortestPathTree<Integer> expected = new DijkstraShortestPath<>(g).findShortestPaths(0);
+                ParallelBFSShortestPath<Integer> bfs;
+                if (test < 2)
+                    bfs = new ParallelBFSShortestPath<>(g.freeze(),4,Integer.MAX_VALUE,1);
+                else if (test < 4)
+                    bfs = new ParallelBFSShortestPath<>(g.freeze(),4,1,Integer.MAX_VALUE);
+                else
+                    bfs = new ParallelBFSShortestPath<>(g);
+                RandomGraphs.assertShortestPaths(g,expected,bfs.findShortestPaths(0));
+            }
+            catch (VertexNotInGraphException e) { 
+                fail(e.getMessage());
+            }
+        }
+    }
+    
+    /**
+     * Test of findShortestPaths method, of class ParallelBFSShortestPath,
+     * with a thread pool of the caller, that the queries share.
+     */
+    @Test
+    public void testFindShortestPathsWithPool() {
+        ForkJoinPool pool = new ForkJoinPool(2);
+        try { 
+            ParallelBFSShortestPath<MazeCell> bfs = new ParallelBFSShortestPath<>(graph.freeze(),pool,
+                                                                                  ParallelBFSShortestPath.DEFAULT_ALPHA,
+                                                                                  ParallelBFSShortestPath.DEFAULT_BETA);
+            assertEquals(bfs.getParallelism(),2);
+            for (int i = 0; i < 3; i++)
+                assertEquals(bfs.findShortestPaths(maze.getCell(0,0)).distanceTo(maze.getCell(9,9)),18);
+            // The pool of the caller is not shut down
+            assertEquals(pool.isShutdown(),false);
+        }
+        catch (VertexNotInGraphException e) { 
+            fail(e.getMessage());
+        }
+        finally { 
+            pool.shutdown();
+        }
+    }
+    
+}
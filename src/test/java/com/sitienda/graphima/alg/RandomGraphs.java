@@ -0,0 +1,123 @@
+/**
+ * Copyright (C) 2019, by Vasileios Nikakis
+ *
+ * graphima: yet another Java graph-theory library
+ */
+package com.sitienda.graphima.alg;
+
+import com.sitienda.graphima.DirectedGraph;
+import com.sitienda.graphima.DirectedWeightedGraph;
+import com.sitienda.graphima.Graph;
+import com.sitienda.graphima.UndirectedGraph;
+import com.sitienda.graphima.UndirectedWeightedGraph;
+import com.sitienda.graphima.WeightedGraph;
+import com.sitienda.graphima.exceptions.PathNotValidException;
+import com.sitienda.graphima.path.Path;
+import com.sitienda.graphima.path.ShortestPathTree;
+import java.util.Random;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Random graphs for the shortest path algorithm tests, whose results are
+ * checked against the {@link DijkstraShortestPath} ones.
+ * 
+ * @author Vasileios Nikakis
+ */
+public class RandomGraphs {
+    
+    private RandomGraphs() { 
+        
+    }
+    
+    /**
+     * Creates a random graph with vertices 0 to n-1. The edges may be loops
+     * or repeat.
+     * 
+     * @param random the random numbers generator
+     * @param directed true for a directed graph
+     * @param n the number of vertices
+     * @param edges the number of edges to add
+     * 
+     * @return the graph
+     */
+    public static Graph<Integer> graph(Random random, boolean directed, int n, int edges) { 
+        Graph<Integer> g = directed ? new DirectedGraph<>() : new UndirectedGraph<>();
+        for (int i = 0; i < n; i++)
+            g.addVertex(i);
+        for (int i = 0; i < edges; i++)
+            g.addEdge(random.nextInt(n),random.nextInt(n));
+        return g;
+    }
+    
+    /**
+     * Creates a random weighted graph with vertices 0 to n-1, without any
+     * loops or parallel edges.
+     * 
+     * @param random the random numbers generator
+     * @param directed true for a directed graph
+     * @param n the number of vertices
+     * @param edges the number of edges to try to add
+     * @param minWeight the min weight of an edge
+     * @param maxWeight the max weight of an edge
+     * 
+     * @return the graph
+     */
+    public static WeightedGraph<Integer> weightedGraph(Random random, boolean directed, int n, int edges,
+                                                       int minWeight, int maxWeight) { 
+        WeightedGraph<Integer> g = directed ? new DirectedWeightedGraph<>() : new UndirectedWeightedGraph<>();
+        for (int i = 0; i < n; i++)
+            g.addVertex(i);
+        for (int i = 0; i < edges; i++) { 
+            int from = random.nextInt(n);
+            int to = random.nextInt(n);
+            if (from != to && !g.hasEdge(from,to))
+                g.addEdge(from,to,minWeight + random.nextInt(maxWeight - minWeight + 1));
+        }
+        return g;
+    }
+    
+    /**
+     * Checks a path against the shortest path tree of its source: it has
+     * to be empty if the target can't be reached, otherwise a path of the
+     * graph to the target with the distance of the tree.
+     * 
+     * @param g the graph
+     * @param expected the shortest path tree of the source
+     * @param target the target
+     * @param path the path
+     */
+    public static void assertShortestPath(Graph<Integer> g, ShortestPathTree<Integer> expected, int target, Path path) { 
+        if (!expected.hasPathTo(target)) { 
+            assertEquals(path.isEmpty(),true);
+            return;
+        }
+        assertEquals(path.endsWith(g.getVertexWithData(target)),true);
+        assertEquals(g.pathExists(path),true);
+        if (g instanceof WeightedGraph) { 
+            try { 
+                assertEquals(((WeightedGraph<Integer>) g).totalWeight(path),expected.distanceTo(target));
+            }
+            catch (PathNotValidException e) { 
+                fail(e.getMessage());
+            }
+        } else
+            assertEquals(path.size(),expected.distanceTo(target) + 1);
+    }
+    
+    /**
+     * Checks a shortest path tree against the one of the same source.
+     * 
+     * @param g the graph
+     * @param expected the expected shortest path tree
+     * @param tree the shortest path tree
+     */
+    public static void assertShortestPaths(Graph<Integer> g, ShortestPathTree<Integer> expected, ShortestPathTree<Integer> tree) { 
+        for (int i = 0; i < g.size(); i++) { 
+            assertEquals(tree.hasPathTo(i),expected.hasPathTo(i));
+            if (expected.hasPathTo(i))
+                assertEquals(tree.distanceTo(i),expected.distanceTo(i));
+            assertShortestPath(g,expected,i,tree.pathTo(i));
+        }
+    }
+    
+}
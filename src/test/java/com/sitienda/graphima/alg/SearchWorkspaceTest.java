@@ -0,0 +1,102 @@
+/**
+ * Copyright (C) 2019, by Vasileios Nikakis
+ *
+ * graphima: yet another Java graph-theory library
+ */
+package com.sitienda.graphima.alg;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Search workspace tests.
+ *
+ * @author Vasileios Nikakis
+ */
+public class SearchWorkspaceTest {
+    
+    public SearchWorkspaceTest() { 
+    
+    }
+    
+    /**
+     * Test of reset method, of class SearchWorkspace.
+     */
+    @Test
+    public void testReset() { 
+        SearchWorkspace workspace = new SearchWorkspace(5);
+        assertEquals(workspace.capacity(),5);
+        workspace.reset();
+        workspace.update(0,0,-1);
+        workspace.update(3,7,0);
+        workspace.close(0);
+        workspace.getHeap().insert(3,7);
+        assertEquals(workspace.isDiscovered(3),true);
+        assertEquals(workspace.getCost(3),7);
+        assertEquals(workspace.getParent(3),0);
+        assertEquals(workspace.isClosed(0),true);
+        assertEquals(workspace.isClosed(3),false);
+        // The next search starts from scratch
+        workspace.reset();
+        assertEquals(workspace.isDiscovered(0),false);
+        assertEquals(workspace.isDiscovered(3),false);
+        assertEquals(workspace.getCost(3),SearchWorkspace.INFINITY);
+        assertEquals(workspace.getParent(3),-1);
+        assertEquals(workspace.isClosed(0),false);
+        assertEquals(workspace.getHeap().isEmpty(),true);
+        // A reopened node is not closed any more
+        workspace.close(2);
+        workspace.reopen(2);
+        assertEquals(workspace.isClosed(2),false);
+    }
+    
+    /**
+     * Test of setTieBreaker method, of class SearchWorkspace.
+     */
+    @Test
+    public void testSetTieBreaker() { 
+        final SearchWorkspace workspace = new SearchWorkspace(3);
+        workspace.reset();
+        workspace.setEstimate(0,5);
+        workspace.setEstimate(1,1);
+        workspace.setEstimate(2,3);
+        workspace.setTieBreaker(new IndexedMinHeap.TieBreaker() { 
+            @Override
+            public int compare(int a, int b) { 
+                return Integer.compare(workspace.getEstimate(a),workspace.getEstimate(b));
+            }
+        });
+        IndexedMinHeap heap = workspace.getHeap();
+        heap.insert(0,4);
+        heap.insert(1,4);
+        heap.insert(2,4);
+        assertEquals(heap.poll(),1);
+        assertEquals(heap.poll(),2);
+        assertEquals(heap.poll(),0);
+    }
+    
+    /**
+     * Test of ensureCapacity method, of class SearchWorkspace.
+     */
+    @Test
+    public void testEnsureCapacity() { 
+        SearchWorkspace workspace = new SearchWorkspace(2);
+        workspace.reset();
+        workspace.update(1,4,-1);
+        workspace.close(1);
+        workspace.getItems()[0] = 1;
+        workspace.ensureCapacity(2);
+        assertEquals(workspace.capacity(),2);
+        // The state of the current search is kept
+        workspace.ensureCapacity(3);
+        assertEquals(workspace.capacity() >= 3,true);
+        assertEquals(workspace.getCost(1),4);
+        assertEquals(workspace.isClosed(1),true);
+        assertEquals(workspace.getItems()[0],1);
+        assertEquals(workspace.isDiscovered(2),false);
+        assertEquals(workspace.getCost(2),SearchWorkspace.INFINITY);
+        workspace.update(2,5,1);
+        assertEquals(workspace.getParent(2),1);
+    }
+
+}
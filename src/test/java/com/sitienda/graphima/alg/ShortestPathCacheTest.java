@@ -0,0 +1,190 @@
+/**
+ * Copyright (C) 2019, by Vasileios Nikakis
+ *
+ * graphima: yet another Java graph-theory library
+ */
+package com.sitienda.graphima.alg;
+
+import com.sitienda.graphima.DirectedWeightedGraph;
+import com.sitienda.graphima.Vertex;
+import com.sitienda.graphima.WeightedEdge;
+import com.sitienda.graphima.alg.heuristics.ZeroHeuristicFunction;
+import com.sitienda.graphima.exceptions.VertexNotInGraphException;
+import java.util.Arrays;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Shortest path cache tests.
+ *
+ * @author Vasileios Nikakis
+ */
+public class ShortestPathCacheTest {
+    
+    public ShortestPathCacheTest() { 
+    
+    }
+    
+    /**
+     * Creates the test graph.
+     * 
+     * @return the graph
+     */
+    private DirectedWeightedGraph<String> createGraph() { 
+        DirectedWeightedGraph<String> graph = new DirectedWeightedGraph<>();
+        graph.addVertices(Arrays.asList("A","B","C","D","E"));
+        graph.addEdge("A","B",4)
+             .addEdge("A","C",2)
+             .addEdge("C","B",1)
+             .addEdge("B","D",2)
+             .addEdge("C","D",6)
+             .addEdge("D","E",1);
+        return graph;
+    }
+    
+    /**
+     * Test of findShortestPath method, of class ShortestPathCache.
+     */
+    @Test
+    public void testFindShortestPath() { 
+        DirectedWeightedGraph<String> graph = createGraph();
+        ShortestPathCache<String> cache = new ShortestPathCache<>(graph,10);
+        // Execute test
+        try { 
+            FindPathResult<String> first = cache.findShortestPath(new DijkstraShortestPath<>(graph),"A","D");
+            assertEquals(first.getPath(),graph.getPath(Arrays.asList("A","C","B","D")));
+            assertEquals(cache.getMisses(),1);
+            // Another instance of the same algorithm shares the result
+            FindPathResult<String> second = cache.findShortestPath(new DijkstraShortestPath<>(graph),"A","D");
+            assertEquals(second.getPath(),first.getPath());
+            assertEquals(second.getExecStats(),first.getExecStats());
+            assertEquals(cache.getHits(),1);
+            // Each caller gets its own path
+            second.getPath().add(new Vertex<>("E"));
+            assertEquals(cache.findShortestPath(new DijkstraShortestPath<>(graph),"A","D").getPath(),first.getPath());
+            assertEquals(cache.getHits(),2);
+            // Another algorithm or heuristic function is another key
+            cache.findShortestPath(new BFSShortestPath<>(graph),"A","D");
+            cache.findShortestPath(new AStarShortestPath<>(graph,new ZeroHeuristicFunction<>()),"A","D");
+            cache.findShortestPath(new AStarShortestPath<>(graph,new ZeroHeuristicFunction<>()),"A","D");
+            assertEquals(cache.getMisses(),4);
+            assertEquals(cache.size(),4);
+            assertEquals(cache.getHitRatio(),2.0 / 6);
+        }
+        catch (VertexNotInGraphException e) { 
+            fail(e.getMessage());
+        }
+        // The algorithm has to run on the graph of the cache
+        try { 
+            cache.findShortestPath(new DijkstraShortestPath<>(createGraph()),"A","D");
+            fail("An algorithm on another graph was accepted");
+        }
+        catch (IllegalArgumentException | VertexNotInGraphException e) { 
+            assertEquals(e instanceof IllegalArgumentException,true);
+        }
+    }
+    
+    /**
+     * Test of the invalidation of the cache when the graph changes.
+     */
+    @Test
+    public void testInvalidate() { 
+        DirectedWeightedGraph<String> graph = createGraph();
+        ShortestPathCache<String> cache = new ShortestPathCache<>(graph,10);
+        DijkstraShortestPath<String> dijkstra = new DijkstraShortestPath<>(graph);
+        // Execute test
+        try { 
+            cache.findShortestPath(dijkstra,"A","D");
+            // A new weight makes the cached path stale
+            WeightedEdge<Vertex<String>> edge = (WeightedEdge<Vertex<String>>)
+                    graph.getVertexWithData("C").getEdgeWith(graph.getVertexWithData("B"));
+            edge.setWeight(5);
+            assertEquals(cache.size(),0);
+            assertEquals(cache.findShortestPath(dijkstra,"A","D").getPath(),
+                         graph.getPath(Arrays.asList("A","B","D")));
+            // So do the new and the removed edges
+            graph.addEdge("A","D",1);
+            assertEquals(cache.size(),0);
+            assertEquals(cache.findShortestPath(dijkstra,"A","D").getPath(),
+                         graph.getPath(Arrays.asList("A","D")));
+            graph.removeEdge("A","D");
+            assertEquals(cache.size(),0);
+            cache.findShortestPath(dijkstra,"A","D");
+            graph.addVertex("F");
+            assertEquals(cache.size(),0);
+            assertEquals(cache.getHits(),0);
+            // A detached cache is not notified any more, but it checks the version of the graph
+            cache.findShortestPath(dijkstra,"A","D");
+            cache.detach();
+            cache.findShortestPath(dijkstra,"A","D");
+            graph.addEdge("A","D",1);
+            assertEquals(cache.size(),1);
+            assertEquals(cache.findShortestPath(dijkstra,"A","D").getPath(),
+                         graph.getPath(Arrays.asList("A","D")));
+            assertEquals(cache.getHits(),0);
+        }
+        catch (VertexNotInGraphException e) { 
+            fail(e.getMessage());
+        }
+    }
+    
+    /**
+     * Test of the LRU eviction policy, of class ShortestPathCache.
+     */
+    @Test
+    public void testEvictionLRU() { 
+        DirectedWeightedGraph<String> graph = createGraph();
+        ShortestPathCache<String> cache = new ShortestPathCache<>(graph,2,ShortestPathCache.EvictionPolicy.LRU);
+        DijkstraShortestPath<String> dijkstra = new DijkstraShortestPath<>(graph);
+        // Execute test
+        try { 
+            cache.findShortestPath(dijkstra,"A","B");
+            cache.findShortestPath(dijkstra,"A","C");
+            cache.findShortestPath(dijkstra,"A","B");
+            // A-C is the least recently used
+            cache.findShortestPath(dijkstra,"A","D");
+            assertEquals(cache.getEvictions(),1);
+            cache.findShortestPath(dijkstra,"A","B");
+            assertEquals(cache.getHits(),2);
+            cache.findShortestPath(dijkstra,"A","C");
+            assertEquals(cache.getHits(),2);
+            assertEquals(cache.size(),2);
+        }
+        catch (VertexNotInGraphException e) { 
+            fail(e.getMessage());
+        }
+    }
+    
+    /**
+     * Test of the LFU eviction policy, of class ShortestPathCache.
+     */
+    @Test
+    public void testEvictionLFU() { 
+        DirectedWeightedGraph<String> graph = createGraph();
+        ShortestPathCache<String> cache = new ShortestPathCache<>(graph,2,ShortestPathCache.EvictionPolicy.LFU);
+        DijkstraShortestPath<String> dijkstra = new DijkstraShortestPath<>(graph);
+        // Execute test
+        try { 
+            cache.findShortestPath(dijkstra,"A","B");
+            cache.findShortestPath(dijkstra,"A","B");
+            cache.findShortestPath(dijkstra,"A","B");
+            cache.findShortestPath(dijkstra,"A","C");
+            // A-C is the least frequently used, although A-B is older
+            cache.findShortestPath(dijkstra,"A","D");
+            assertEquals(cache.getEvictions(),1);
+            cache.findShortestPath(dijkstra,"A","B");
+            assertEquals(cache.getHits(),3);
+            // A-D is used once, as A-C that was added after it
+            cache.findShortestPath(dijkstra,"A","C");
+            assertEquals(cache.getHits(),3);
+            cache.findShortestPath(dijkstra,"A","B");
+            assertEquals(cache.getHits(),4);
+            cache.findShortestPath(dijkstra,"A","D");
+            assertEquals(cache.getHits(),4);
+        }
+        catch (VertexNotInGraphException e) { 
+            fail(e.getMessage());
+        }
+    }
+
+}
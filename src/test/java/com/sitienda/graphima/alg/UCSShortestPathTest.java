@@ -72,7 +72,7 @@ public class UCSShortestPathTest {
             UCSShortestPath<MazeCell> ucs = new UCSShortestPath<>(graph);
             Path path = ucs.findShortestPath(start,end);
             AlgorithmExecutionStats stats = ucs.getExecStats();
-            assertEquals(stats.getNodesVisitedNum(),78);
+            assertEquals(stats.getNodesVisitedNum(),76);
             assertEquals(((FindPathAlgorithmExecutionStats) stats).getPathLength(),19);
         }
         catch (VertexNotInGraphException e) { 
@@ -102,4 +102,26 @@ public class UCSShortestPathTest {
         }
     }
     
+    /**
+     * Test of findShortestPath method, of class UCSShortestPath, on a compact graph.
+     */
+    @Test
+    public void testFindShortestPathCompact() {
+        // Test data
+        MazeCell start = maze.getCell(0,0);
+        MazeCell end = maze.getCell(0,9);
+        
+        // Execute test
+        try { 
+            UCSShortestPath<MazeCell> ucs = new UCSShortestPath<>(graph.freeze());
+            Path path = ucs.findShortestPath(start,end);
+            AlgorithmExecutionStats stats = ucs.getExecStats();
+            assertEquals(((FindPathAlgorithmExecutionStats) stats).wasSolutionFound(),false);
+            assertEquals(stats.getNodesVisitedNum(),79);
+        }
+        catch (VertexNotInGraphException e) { 
+            fail(e.getMessage());
+        }
+    }
+    
 }
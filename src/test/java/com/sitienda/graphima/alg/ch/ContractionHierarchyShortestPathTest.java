@@ -0,0 +1,128 @@
+/**
+ * Copyright (C) 2019, by Vasileios Nikakis
+ *
+ * graphima: yet another Java graph-theory library
+ */
+package com.sitienda.graphima.alg.ch;
+
+import com.sitienda.graphima.DirectedWeightedGraph;
+import com.sitienda.graphima.WeightedGraph;
+import com.sitienda.graphima.alg.DijkstraShortestPath;
+import com.sitienda.graphima.alg.FindPathAlgorithmExecutionStats;
+import com.sitienda.graphima.alg.RandomGraphs;
+import com.sitienda.graphima.exceptions.PathNotValidException;
+import com.sitienda.graphima.exceptions.VertexNotInGraphException;
+import com.sitienda.graphima.path.Path;
+import com.sitienda.graphima.path.ShortestPathTree;
+import java.util.Arrays;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.TestInstance;
+
+/**
+ * Contraction hierarchy shortest path algorithm tests.
+ *
+ * @author Vasileios Nikakis
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class ContractionHierarchyShortestPathTest {
+    
+    /**
+     * The graph
+     */
+    private DirectedWeightedGraph<String> graph;
+    
+    public ContractionHierarchyShortestPathTest() { 
+    
+    }
+    
+    /**
+     * Init test data.
+     */
+    @BeforeAll
+    public void init() { 
+        graph = new DirectedWeightedGraph<>();
+        graph.addVertices(Arrays.asList("A","B","C","D","E","F"));
+        graph.addEdge("A","B",4)
+             .addEdge("A","C",2)
+             .addEdge("B","C",3)
+             .addEdge("B","D",2)
+             .addEdge("B","E",3)
+             .addEdge("C","B",1)
+             .addEdge("C","D",4)
+             .addEdge("C","E",5)
+             .addEdge("E","D",1);
+    }
+    
+    /**
+     * Test of findShortestPath method, of class ContractionHierarchyShortestPath.
+     */
+    @Test
+    public void testFindShortestPath() { 
+        // Execute test
+        try { 
+            ContractionHierarchyShortestPath<String> chsp = new ContractionHierarchyShortestPath<>(ContractionHierarchy.build(graph));
+            Path path = chsp.findShortestPath("A","D");
+            assertEquals(path,graph.getPath(Arrays.asList("A","C","B","D")));
+            assertEquals(graph.totalWeight(path),5);
+            assertEquals(((FindPathAlgorithmExecutionStats) chsp.getExecStats()).getPathLength(),4);
+            assertEquals(((FindPathAlgorithmExecutionStats) chsp.getExecStats()).wasSolutionFound(),true);
+            assertEquals(chsp.findDistance("A","E"),6);
+            path = chsp.findShortestPath("B","B");
+            assertEquals(path,graph.getPath(Arrays.asList("B")));
+            // F can't be reached
+            path = chsp.findShortestPath("A","F");
+            assertEquals(path.isEmpty(),true);
+            assertEquals(((FindPathAlgorithmExecutionStats) chsp.getExecStats()).wasSolutionFound(),false);
+            assertEquals(chsp.findDistance("D","A"),ContractionHierarchyShortestPath.INF);
+        }
+        catch (VertexNotInGraphException | PathNotValidException e) { 
+            fail(e.getMessage());
+        }
+        // Both vertices have to exist in the graph
+        try { 
+            ContractionHierarchyShortestPath<String> chsp = new ContractionHierarchyShortestPath<>(ContractionHierarchy.build(graph));
+            chsp.findShortestPath("A","G");
+            fail("Vertex G doesn't exist in the graph");
+        }
+        catch (VertexNotInGraphException e) { 
+        }
+    }
+    
+    /**
+     * Test of findShortestPath method, of class ContractionHierarchyShortestPath,
+     * on random directed and undirected graphs against the Dijkstra distances.
+     */
+    @Test
+    public void testFindShortestPathRandom() { 
+        Random random = new Random(11);
+        for (int test = 0; test < 10; test++) { 
+            // Create a random graph
+            int n = 60;
+            WeightedGraph<Integer> g = RandomGraphs.weightedGraph(random,test % 2 == 0,n,n*3,0,19);
+            // Execute test
+            try { 
+                // A small settle limit forces some unnecessary shortcuts
+                ContractionHierarchyShortestPath<Integer> chsp =
+                        new ContractionHierarchyShortestPath<>(ContractionHierarchy.build(g.freeze(),(test < 5) ? 3 : 500));
+                DijkstraShortestPath<Integer> dij = new DijkstraShortestPath<>(g);
+                for (int source = 0; source < n; source += 7) { 
+                    ShortestPathTree<Integer> tree = dij.findShortestPaths(source);
+                    for (int i = 0; i < n; i++) { 
+                        RandomGraphs.assertShortestPath(g,tree,i,chsp.findShortestPath(source,i));
+                        if (!tree.hasPathTo(i))
+                            assertEquals(chsp.findDistance(source,i),ContractionHierarchyShortestPath.INF);
+                        else
+                            assertEquals(chsp.findDistance(source,i),tree.distanceTo(i));
+                    }
+                }
+            }
+            catch (VertexNotInGraphException e) { 
+                fail(e.getMessage());
+            }
+        }
+    }
+
+}
@@ -0,0 +1,109 @@
+/**
+ * Copyright (C) 2019, by Vasileios Nikakis
+ *
+ * graphima: yet another Java graph-theory library
+ */
+package com.sitienda.graphima.alg.ch;
+
+import com.sitienda.graphima.DirectedWeightedGraph;
+import com.sitienda.graphima.exceptions.PathNotValidException;
+import com.sitienda.graphima.exceptions.VertexNotInGraphException;
+import com.sitienda.graphima.path.Path;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.TestInstance;
+
+/**
+ * Contraction hierarchy tests.
+ *
+ * @author Vasileios Nikakis
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class ContractionHierarchyTest {
+    
+    /**
+     * The graph
+     */
+    private DirectedWeightedGraph<String> graph;
+    
+    public ContractionHierarchyTest() { 
+    
+    }
+    
+    /**
+     * Init test data.
+     */
+    @BeforeAll
+    public void init() { 
+        graph = new DirectedWeightedGraph<>("test");
+        graph.addVertices(Arrays.asList("A","B","C","D","E","F"));
+        graph.addEdge("A","B",4)
+             .addEdge("A","C",2)
+             .addEdge("B","C",3)
+             .addEdge("B","D",2)
+             .addEdge("B","E",3)
+             .addEdge("C","B",1)
+             .addEdge("C","D",4)
+             .addEdge("C","E",5)
+             .addEdge("E","D",1);
+    }
+    
+    /**
+     * Test of build method, of class ContractionHierarchy.
+     */
+    @Test
+    public void testBuild() { 
+        ContractionHierarchy<String> ch = ContractionHierarchy.build(graph);
+        assertEquals(ch.getName(),"test");
+        assertEquals(ch.size(),6);
+        // Each original edge is kept, either as an upward outgoing or as an upward incoming edge
+        assertEquals(ch.getEdgesSize() >= 9,true);
+        assertEquals(ch.idOf("G"),-1);
+        // The ranks are a permutation of the vertex ids
+        Set<Integer> ranks = new HashSet<>();
+        for (String data : Arrays.asList("A","B","C","D","E","F")) { 
+            int id = ch.idOf(data);
+            assertEquals(ch.getData(id),data);
+            ranks.add(ch.getRank(id));
+        }
+        assertEquals(ranks.size(),6);
+        assertEquals(ranks.contains(0),true);
+        assertEquals(ranks.contains(5),true);
+    }
+    
+    /**
+     * Test of the serialization of class ContractionHierarchy.
+     */
+    @Test
+    public void testSerialization() { 
+        ContractionHierarchy<String> ch = ContractionHierarchy.build(graph);
+        try { 
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            ObjectOutputStream out = new ObjectOutputStream(bytes);
+            out.writeObject(ch);
+            out.close();
+            ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+            ContractionHierarchy<String> loaded = (ContractionHierarchy<String>) in.readObject();
+            in.close();
+            assertEquals(loaded.size(),ch.size());
+            assertEquals(loaded.getEdgesSize(),ch.getEdgesSize());
+            assertEquals(loaded.getRank(loaded.idOf("B")),ch.getRank(ch.idOf("B")));
+            Path path = new ContractionHierarchyShortestPath<>(loaded).findShortestPath("A","D");
+            assertEquals(path,graph.getPath(Arrays.asList("A","C","B","D")));
+            assertEquals(graph.totalWeight(path),5);
+        }
+        catch (IOException | ClassNotFoundException | VertexNotInGraphException | PathNotValidException e) { 
+            fail(e.getMessage());
+        }
+    }
+
+}
@@ -0,0 +1,178 @@
+/**
+ * Copyright (C) 2019, by Vasileios Nikakis
+ *
+ * graphima: yet another Java graph-theory library
+ */
+package com.sitienda.graphima.alg.heuristics;
+
+import com.sitienda.graphima.DirectedWeightedGraph;
+import com.sitienda.graphima.UndirectedWeightedGraph;
+import com.sitienda.graphima.WeightedGraph;
+import com.sitienda.graphima.alg.AStarShortestPath;
+import com.sitienda.graphima.alg.DijkstraShortestPath;
+import com.sitienda.graphima.alg.RandomGraphs;
+import com.sitienda.graphima.alg.UCSShortestPath;
+import com.sitienda.graphima.exceptions.PathNotValidException;
+import com.sitienda.graphima.exceptions.VertexNotInGraphException;
+import com.sitienda.graphima.path.Path;
+import com.sitienda.graphima.path.ShortestPathTree;
+import java.util.HashSet;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Landmark distance tables tests.
+ * 
+ * @author Vasileios Nikakis
+ */
+public class LandmarksTest {
+    
+    /**
+     * Test of select method, of class Landmarks.
+     */
+    @Test
+    public void testSelect() { 
+        Random random = new Random(5);
+        for (Landmarks.Selection selection : Landmarks.Selection.values()) { 
+            WeightedGraph<Integer> g = RandomGraphs.weightedGraph(random,true,40,40*3,1,20);
+            Landmarks<Integer> landmarks = Landmarks.select(g,6,selection);
+            assertEquals(landmarks.size(),6);
+            assertEquals(new HashSet<>(landmarks.getLandmarks()).size(),6);
+            // There can't be more landmarks than vertices
+            assertEquals(Landmarks.select(g,100,selection).size(),40);
+        }
+        // The tables have to fit in int arrays
+        DirectedWeightedGraph<Integer> g = new DirectedWeightedGraph<>();
+        for (int i = 0; i < 46341; i++)
+            g.addVertex(i);
+        try { 
+            Landmarks.select(g,46341);
+            fail("The tables are too large");
+        }
+        catch (IllegalArgumentException e) { 
+        }
+    }
+    
+    /**
+     * Test of lowerBound method, of class Landmarks.
+     */
+    @Test
+    public void testLowerBound() { 
+        Random random = new Random(9);
+        for (int test = 0; test < 10; test++) { 
+            int n = 40;
+            WeightedGraph<Integer> g = RandomGraphs.weightedGraph(random,test % 2 == 0,n,n*3,1,20);
+            Landmarks.Selection selection = (test % 4 < 2) ? Landmarks.Selection.FARTHEST : Landmarks.Selection.AVOID;
+            Landmarks<Integer> landmarks = Landmarks.select(g,4,selection);
+            try { 
+                for (int source = 0; source < n; source += 7) { 
+                    ShortestPathTree<Integer> tree = new DijkstraShortestPath<>(g).findShortestPaths(source);
+                    for (int i = 0; i < n; i++) { 
+                        if (tree.hasPathTo(i))
+                            assertTrue(landmarks.lowerBound(source,i) <= tree.distanceTo(i));
+                    }
+                    assertEquals(landmarks.lowerBound(source,source),0);
+                }
+            }
+            catch (VertexNotInGraphException e) { 
+                fail(e.getMessage());
+            }
+        }
+    }
+    
+    /**
+     * Test of heuristicTo method, of class Landmarks, with the A* algorithm.
+     */
+    @Test
+    public void testHeuristicTo() { 
+        int size = 20;
+        UndirectedWeightedGraph<Integer> g = grid(size,new Random(1));
+        Landmarks<Integer> landmarks = Landmarks.select(g,8);
+        try { 
+            int start = 0;
+            int end = size*size - 1;
+            AStarShortestPath<Integer> alt = new AStarShortestPath<>(g,landmarks.heuristicTo(end));
+            Path path = alt.findShortestPath(start,end);
+            UCSShortestPath<Integer> ucs = new UCSShortestPath<>(g);
+            Path ucsPath = ucs.findShortestPath(start,end);
+            assertEquals(g.totalWeight(path),g.totalWeight(ucsPath));
+            assertTrue(alt.getExecStats().getNodesVisitedNum() < ucs.getExecStats().getNodesVisitedNum());
+            // On the compact graph of the landmarks the values are taken by the ids
+            AStarShortestPath<Integer> compactAlt = new AStarShortestPath<>(landmarks.getGraph(),landmarks.heuristicTo(end));
+            Path compactPath = compactAlt.findShortestPath(start,end);
+            assertEquals(g.totalWeight(compactPath),g.totalWeight(ucsPath));
+            assertEquals(compactAlt.getExecStats().getNodesVisitedNum(),alt.getExecStats().getNodesVisitedNum());
+        }
+        catch (VertexNotInGraphException | PathNotValidException e) { 
+            fail(e.getMessage());
+        }
+        // The heuristic function is bound to its destination
+        try { 
+            new AStarShortestPath<>(g,landmarks.heuristicTo(1)).findShortestPath(0,2);
+            fail("The heuristic function is bound to another destination");
+        }
+        catch (IllegalArgumentException e) { 
+        }
+        catch (VertexNotInGraphException e) { 
+            fail(e.getMessage());
+        }
+    }
+    
+    /**
+     * Test of the A* algorithm with the landmarks, that takes the destination
+     * of each query.
+     */
+    @Test
+    public void testAStarWithLandmarks() { 
+        int size = 20;
+        UndirectedWeightedGraph<Integer> g = grid(size,new Random(1));
+        Landmarks<Integer> landmarks = Landmarks.select(g,8);
+        AStarShortestPath<Integer> alt = new AStarShortestPath<>(g,landmarks);
+        AStarShortestPath<Integer> compactAlt = new AStarShortestPath<>(landmarks.getGraph(),landmarks);
+        Random random = new Random(2);
+        try { 
+            ShortestPathTree<Integer> tree = new DijkstraShortestPath<>(g).findShortestPaths(0);
+            // One object answers the queries to every destination
+            for (int i = 0; i < 20; i++) { 
+                int end = random.nextInt(size*size);
+                Path path = alt.findShortestPath(0,end);
+                assertEquals(g.totalWeight(path),tree.distanceTo(end));
+                AStarShortestPath<Integer> bound = new AStarShortestPath<>(g,landmarks.heuristicTo(end));
+                bound.findShortestPath(0,end);
+                assertEquals(alt.getExecStats().getNodesVisitedNum(),bound.getExecStats().getNodesVisitedNum());
+                Path compactPath = compactAlt.findShortestPath(0,end);
+                assertEquals(g.totalWeight(compactPath),tree.distanceTo(end));
+                assertEquals(compactAlt.getExecStats().getNodesVisitedNum(),alt.getExecStats().getNodesVisitedNum());
+            }
+        }
+        catch (VertexNotInGraphException | PathNotValidException e) { 
+            fail(e.getMessage());
+        }
+        try { 
+            new AStarShortestPath<>(g,(Landmarks<Integer>) null);
+            fail("The landmarks can't be null");
+        }
+        catch (IllegalArgumentException e) { 
+        }
+    }
+    
+    /**
+     * Creates a grid graph without any coordinates available to the algorithms.
+     */
+    private static UndirectedWeightedGraph<Integer> grid(int size, Random random) { 
+        UndirectedWeightedGraph<Integer> g = new UndirectedWeightedGraph<>();
+        for (int i = 0; i < size*size; i++)
+            g.addVertex(i);
+        for (int x = 0; x < size; x++) { 
+            for (int y = 0; y < size; y++) { 
+                if (x+1 < size)
+                    g.addEdge(x*size+y,(x+1)*size+y,1 + random.nextInt(5));
+                if (y+1 < size)
+                    g.addEdge(x*size+y,x*size+y+1,1 + random.nextInt(5));
+            }
+        }
+        return g;
+    }
+    
+}